@@ -1,14 +1,22 @@
 package com.school.models;
 
+import java.util.function.Consumer;
+
 /**
  * Base Student class.
  * stores marks array parallel to subjects array in ResultProcessor (P7).
+ *
+ * Once attached to a SubjectSchema, the marks array is laid out for that
+ * version; when the subject list has changed since, the marks are migrated
+ * (by subject ID) on the next read of marks or grade. Detached students
+ * (no schema) are plain positional arrays.
  */
 public class Student {
     private int id;                   // encapsulated (P4)
     private String name;
     private int age;
     private double[] marks;           // marks per subject; -1 means "not entered"
+    private volatile SubjectSchema schema; // layout of marks; written after marks when migrating
     private String grade = "N/A";
     private boolean passed = false;
 
@@ -50,27 +58,76 @@ public class Student {
     }
 
     public double[] getMarks() {
+        ensureCurrent();
         return marks;
     }
 
-    // set whole marks array (used when subjects change)
+    // set whole marks array, laid out for the current subject list
     public void setMarksArray(double[] marks) {
         if (marks == null) return;
         this.marks = marks;
+        SubjectSchema s = schema;
+        if (s != null) schema = s.latest();
     }
 
     public void setMarkAt(int index, double value) {
+        ensureCurrent();
         if (marks == null) return;
         if (index >= 0 && index < marks.length) marks[index] = value;
     }
 
     public double getMarkAt(int index) {
+        ensureCurrent();
         if (marks == null) return -1;
         if (index >= 0 && index < marks.length) return marks[index];
         return -1;
     }
 
+    // ------------------ SUBJECT SCHEMA ------------------
+
+    /** marks are (now) laid out for schema; null detaches */
+    public void attachSchema(SubjectSchema schema) {
+        this.schema = schema;
+    }
+
+    /** version the stored marks are laid out for, without migrating (null = detached) */
+    public SubjectSchema getSchema() {
+        return schema;
+    }
+
+    /**
+     * getStoredMarks - the marks array as laid out for getSchema(), without
+     * migrating. Read both inside synchronized (student) for a consistent pair.
+     */
+    public double[] getStoredMarks() {
+        return marks;
+    }
+
+    private void ensureCurrent() {
+        SubjectSchema s = schema;
+        if (s != null && !s.isCurrent()) migrate();
+    }
+
+    // move marks to the newest schema by subject ID, then regrade
+    private void migrate() {
+        synchronized (this) {
+            SubjectSchema from = schema;
+            if (from.isCurrent()) return;
+            SubjectSchema to = from.latest();
+            int[] map = from.mappingTo(to);
+            double[] m = new double[to.size()];
+            for (int j = 0; j < m.length; j++) {
+                m[j] = (map[j] >= 0 && marks != null && map[j] < marks.length) ? marks[map[j]] : -1;
+            }
+            marks = m;
+            schema = to;
+            Consumer<Student> regrader = to.getRegrader();
+            if (regrader != null) regrader.accept(this);
+        }
+    }
+
     public String getGrade() {
+        ensureCurrent();
         return grade;
     }
 
@@ -79,6 +136,7 @@ public class Student {
     }
 
     public boolean isPassed() {
+        ensureCurrent();
         return passed;
     }
 
@@ -103,6 +161,7 @@ public class Student {
      * toFileString - format for saving to file: id|name|age|m1,m2,m3...
      */
     public String toFileString() {
+        ensureCurrent();
         StringBuilder sb = new StringBuilder();
         sb.append(id).append("|").append(name).append("|").append(age).append("|");
         if (marks != null && marks.length > 0) {
@@ -3,8 +3,10 @@ package com.school.models;
 /**
  * Subject model.
  * Enforces encapsulation for maxMarks (private).
+ * id is the stable subject ID (see SubjectSchema); 0 until the subject is added.
  */
 public class Subject {
+    private int id;
     private String name;
     private int maxMarks; // encapsulated (P4)
 
@@ -15,6 +17,19 @@ public class Subject {
         this.maxMarks = maxMarks;
     }
 
+    public Subject(int id, String name, int maxMarks) {
+        this(name, maxMarks);
+        this.id = id;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        if (id > 0) this.id = id;
+    }
+
     public String getName() {
         return name;
     }
@@ -0,0 +1,151 @@
+package com.school.models;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * SubjectSchema - one version of the subject list: which subject (by stable
+ * ID) sits at each marks position.
+ *
+ * Subject IDs are never reused (nextId only grows), so a mark keyed by
+ * subject ID can never end up under another subject. Adding or removing a
+ * subject makes a new version and links the old one to it; nothing else is
+ * touched. A Student whose marks are laid out for an older version migrates
+ * them the next time its marks or grade are read (see Student), mapping by
+ * subject ID, and is then regraded through the regrader if one is set.
+ *
+ * Versions are immutable apart from that link.
+ */
+public final class SubjectSchema {
+
+    private final int version;
+    private final int nextId;
+    private final Subject[] subjects;
+    private final int[] positionById;          // subject ID -> position, -1 if not in this version
+    private final Consumer<Student> regrader;  // run after a student migrates to this version; may be null
+    private volatile SubjectSchema next;       // newer version, null while this one is current
+
+    // cached position map to the newest version a student migrated to
+    private SubjectSchema mappedTo;
+    private int[] mapping;
+
+    public SubjectSchema(int version, int nextId, Subject[] subjects, int count, Consumer<Student> regrader) {
+        this.version = version;
+        this.subjects = Arrays.copyOf(subjects, count);
+        int maxId = 0;
+        for (Subject s : this.subjects) {
+            if (s.getId() <= 0) throw new IllegalArgumentException("Subject without an ID: " + s.getName());
+            maxId = Math.max(maxId, s.getId());
+        }
+        this.nextId = Math.max(nextId, maxId + 1);
+        this.positionById = new int[maxId + 1];
+        Arrays.fill(positionById, -1);
+        for (int j = 0; j < count; j++) {
+            if (positionById[this.subjects[j].getId()] != -1) {
+                throw new IllegalArgumentException("Subject ID " + this.subjects[j].getId() + " used twice");
+            }
+            positionById[this.subjects[j].getId()] = j;
+        }
+        this.regrader = regrader;
+    }
+
+    /** version 0, no subjects */
+    public static SubjectSchema empty() {
+        return new SubjectSchema(0, 1, new Subject[0], 0, null);
+    }
+
+    /**
+     * legacy - schema for a subject list saved before subjects had IDs:
+     * IDs 1..n in list order, version 1.
+     */
+    public static SubjectSchema legacy(Subject[] subjects, int count) {
+        for (int j = 0; j < count; j++) subjects[j].setId(j + 1);
+        return new SubjectSchema(1, count + 1, subjects, count, null);
+    }
+
+    public int getVersion() { return version; }
+    public int getNextId() { return nextId; }
+    public int size() { return subjects.length; }
+    public Subject subjectAt(int position) { return subjects[position]; }
+    public int idAt(int position) { return subjects[position].getId(); }
+
+    /** the subjects in position order (a copy) */
+    public Subject[] getSubjects() { return subjects.clone(); }
+
+    /** position of a subject ID in this version, -1 if it is not part of it */
+    public int positionOf(int subjectId) {
+        return (subjectId > 0 && subjectId < positionById.length) ? positionById[subjectId] : -1;
+    }
+
+    public boolean isCurrent() { return next == null; }
+
+    public Consumer<Student> getRegrader() { return regrader; }
+
+    /** the newest version reachable from this one */
+    public SubjectSchema latest() {
+        SubjectSchema s = this;
+        while (s.next != null) s = s.next;
+        return s;
+    }
+
+    // ------------------ NEW VERSIONS ------------------
+
+    /** same version and subjects, with a regrader for students migrating to it */
+    public SubjectSchema withRegrader(Consumer<Student> r) {
+        return new SubjectSchema(version, nextId, subjects, subjects.length, r);
+    }
+
+    /** next version with subj appended; subj gets the next unused ID */
+    public SubjectSchema withAdded(Subject subj) {
+        subj.setId(nextId);
+        Subject[] list = Arrays.copyOf(subjects, subjects.length + 1);
+        list[subjects.length] = subj;
+        return supersede(new SubjectSchema(version + 1, nextId + 1, list, list.length, regrader));
+    }
+
+    /** next version without the subject at position */
+    public SubjectSchema withRemoved(int position) {
+        Subject[] list = new Subject[subjects.length - 1];
+        for (int j = 0, k = 0; j < subjects.length; j++) {
+            if (j != position) list[k++] = subjects[j];
+        }
+        return supersede(new SubjectSchema(version + 1, nextId, list, list.length, regrader));
+    }
+
+    /** next version holding a whole new subject list, every subject with a fresh ID */
+    public SubjectSchema withReplaced(Subject[] list, int count) {
+        int id = nextId;
+        for (int j = 0; j < count; j++) list[j].setId(id++);
+        return supersede(new SubjectSchema(version + 1, id, list, count, regrader));
+    }
+
+    /**
+     * supersede - make newer the successor of this version, so students still on
+     * this one migrate to it. Returns newer.
+     */
+    public SubjectSchema supersede(SubjectSchema newer) {
+        if (newer != this) next = newer;
+        return newer;
+    }
+
+    // ------------------ MIGRATION ------------------
+
+    /**
+     * mappingTo - for each position of target, the position of the same subject
+     * in this version (-1 = no mark yet). Built once per target.
+     */
+    synchronized int[] mappingTo(SubjectSchema target) {
+        if (mappedTo != target) {
+            int[] map = new int[target.size()];
+            for (int j = 0; j < map.length; j++) map[j] = positionOf(target.idAt(j));
+            mapping = map;
+            mappedTo = target;
+        }
+        return mapping;
+    }
+
+    @Override
+    public String toString() {
+        return "v" + version + " " + Arrays.toString(subjects);
+    }
+}
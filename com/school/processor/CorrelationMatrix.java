@@ -0,0 +1,138 @@
+package com.school.processor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * CorrelationMatrix - how subjects move together: Pearson correlation and
+ * covariance of every pair of subjects, each over the students who have a
+ * mark in both (see CovarianceSums).
+ *
+ * compute() splits the students into one chunk per CPU, sums each chunk on
+ * its own thread and merges the partials. Cells are NaN where a pair has
+ * fewer than two students in common or one subject has no spread.
+ */
+public class CorrelationMatrix {
+
+    // below this many students the thread hand-off costs more than it saves
+    static final int PARALLEL_THRESHOLD = 50_000;
+
+    private final String[] names;
+    private final double[][] correlation;
+    private final double[][] covariance;
+    private final long[][] counts;
+    private final double[] means;
+
+    public CorrelationMatrix(String[] names, CovarianceSums sums) {
+        int s = names.length;
+        this.names = names.clone();
+        correlation = new double[s][s];
+        covariance = new double[s][s];
+        counts = new long[s][s];
+        means = new double[s];
+        for (int j = 0; j < s; j++) {
+            means[j] = sums.getMean(j);
+            for (int k = 0; k < s; k++) {
+                correlation[j][k] = sums.getCorrelation(j, k);
+                covariance[j][k] = sums.getCovariance(j, k);
+                counts[j][k] = sums.getCount(j, k);
+            }
+        }
+    }
+
+    /** compute - correlation of all subjects of the snapshot (names in subject order) */
+    public static CorrelationMatrix compute(MarksMatrix m, String[] names) {
+        return new CorrelationMatrix(names, sums(m, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /** partial sums over all students, in up to threads chunks */
+    public static CovarianceSums sums(MarksMatrix m, int threads) {
+        int count = m.getStudentCount();
+        int chunks = Math.min(Math.max(1, threads), Math.max(1, count / (PARALLEL_THRESHOLD / 2)));
+        if (count < PARALLEL_THRESHOLD || chunks < 2) {
+            CovarianceSums all = new CovarianceSums(m.getSubjectCount());
+            all.add(m, 0, count);
+            return all;
+        }
+        // chunk bounds on block boundaries, so every chunk sums whole blocks
+        List<CompletableFuture<CovarianceSums>> futures = new ArrayList<>(chunks);
+        int per = ((count / chunks) + CovarianceSums.BLOCK - 1) / CovarianceSums.BLOCK * CovarianceSums.BLOCK;
+        for (int from = 0; from < count; from += per) {
+            final int lo = from;
+            final int hi = Math.min(count, from + per);
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                CovarianceSums part = new CovarianceSums(m.getSubjectCount());
+                part.add(m, lo, hi);
+                return part;
+            }));
+        }
+        CovarianceSums all = new CovarianceSums(m.getSubjectCount());
+        for (CompletableFuture<CovarianceSums> f : futures) all.merge(f.join());
+        return all;
+    }
+
+    public int getSubjectCount() { return names.length; }
+    public String getSubjectName(int j) { return names[j]; }
+    public double getCorrelation(int j, int k) { return correlation[j][k]; }
+    public double getCovariance(int j, int k) { return covariance[j][k]; }
+    public long getCount(int j, int k) { return counts[j][k]; }
+    public double getMean(int j) { return means[j]; }
+
+    /** copy of the correlation matrix, [subject][subject] */
+    public double[][] getCorrelationMatrix() {
+        double[][] c = new double[correlation.length][];
+        for (int j = 0; j < c.length; j++) c[j] = correlation[j].clone();
+        return c;
+    }
+
+    /** copy of the covariance matrix, [subject][subject] */
+    public double[][] getCovarianceMatrix() {
+        double[][] c = new double[covariance.length][];
+        for (int j = 0; j < c.length; j++) c[j] = covariance[j].clone();
+        return c;
+    }
+
+    /** up to limit subject pairs (j < k) with the largest |correlation|, strongest first */
+    public int[][] strongestPairs(int limit) {
+        List<int[]> pairs = new ArrayList<>();
+        for (int j = 0; j < names.length; j++) {
+            for (int k = j + 1; k < names.length; k++) {
+                if (!Double.isNaN(correlation[j][k])) pairs.add(new int[] {j, k});
+            }
+        }
+        pairs.sort((a, b) -> Double.compare(Math.abs(correlation[b[0]][b[1]]), Math.abs(correlation[a[0]][a[1]])));
+        return pairs.subList(0, Math.min(limit, pairs.size())).toArray(new int[0][]);
+    }
+
+    public String format() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Correlation (students with both marks):\n");
+        appendTable(sb, correlation, "%8.3f");
+        sb.append("\nCovariance:\n");
+        appendTable(sb, covariance, "%8.1f");
+
+        int[][] top = strongestPairs(5);
+        if (top.length > 0) {
+            sb.append("\nStrongest pairs:\n");
+            for (int[] p : top) {
+                sb.append(String.format("  %-12s ~ %-12s r = %+.3f  (%d students)%n", names[p[0]], names[p[1]],
+                        correlation[p[0]][p[1]], counts[p[0]][p[1]]));
+            }
+        }
+        return sb.toString();
+    }
+
+    private void appendTable(StringBuilder sb, double[][] cells, String fmt) {
+        sb.append(String.format("%-12s", ""));
+        for (String name : names) sb.append(String.format(" %8.8s", name));
+        sb.append('\n');
+        for (int j = 0; j < names.length; j++) {
+            sb.append(String.format("%-12s", names[j]));
+            for (int k = 0; k < names.length; k++) {
+                sb.append(Double.isNaN(cells[j][k]) ? String.format(" %8s", "N/A") : String.format(" " + fmt, cells[j][k]));
+            }
+            sb.append('\n');
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.school.processor;
+
+/**
+ * CovarianceSums - partial aggregates for the covariance of every pair of
+ * subjects, over the students who have a mark in both (pairwise-complete,
+ * so a missing -1 only drops that student from the pairs it belongs to).
+ *
+ * Per pair (j, k), j <= k: n, the two means, the two sums of squared
+ * deviations and the co-moment. The diagonal (j, j) is subject j on its own.
+ *
+ * add() takes a range of students in cache-sized blocks: a block of every
+ * subject's column is copied into small buffers (mark minus half the subject
+ * max, and a 0/1 "entered" weight) and all pairs are summed from there while
+ * it is hot, so each mark is read from the snapshot once. Each block is
+ * turned into central moments and folded in with Chan's parallel formula,
+ * the same as SubjectStats.merge, which is also how merge() combines the
+ * partials of different threads (or anything else that split the students).
+ */
+public class CovarianceSums {
+
+    // students per block: BLOCK x subjects x 2 buffers of doubles stay in L1/L2
+    static final int BLOCK = 512;
+
+    private final int subjects;
+    private final long[] n;
+    private final double[] meanX;
+    private final double[] meanY;
+    private final double[] m2X;
+    private final double[] m2Y;
+    private final double[] comoment;
+
+    public CovarianceSums(int subjects) {
+        this.subjects = subjects;
+        int pairs = subjects * (subjects + 1) / 2;
+        n = new long[pairs];
+        meanX = new double[pairs];
+        meanY = new double[pairs];
+        m2X = new double[pairs];
+        m2Y = new double[pairs];
+        comoment = new double[pairs];
+    }
+
+    public int getSubjectCount() { return subjects; }
+
+    // index of pair (j, k), j <= k, in the upper triangle
+    int pair(int j, int k) {
+        return j * subjects - j * (j - 1) / 2 + (k - j);
+    }
+
+    /** add students from..to-1 of the snapshot */
+    public void add(MarksMatrix m, int from, int to) {
+        double[][] x = new double[subjects][BLOCK];
+        double[][] w = new double[subjects][BLOCK];
+        double[] shift = new double[subjects];
+        for (int j = 0; j < subjects; j++) shift[j] = m.getMaxMarks(j) / 2.0;
+
+        for (int start = from; start < to; start += BLOCK) {
+            int len = Math.min(BLOCK, to - start);
+            for (int j = 0; j < subjects; j++) {
+                double[] col = m.column(j);
+                double[] xj = x[j];
+                double[] wj = w[j];
+                double s = shift[j];
+                for (int i = 0; i < len; i++) {
+                    double v = col[start + i];
+                    boolean entered = v >= 0;
+                    xj[i] = entered ? v - s : 0;
+                    wj[i] = entered ? 1 : 0;
+                }
+            }
+            for (int j = 0; j < subjects; j++) {
+                for (int k = j; k < subjects; k++) {
+                    addBlockPair(pair(j, k), x[j], w[j], x[k], w[k], len, shift[j], shift[k]);
+                }
+            }
+        }
+    }
+
+    // one block of one pair: raw sums of the shifted marks, then merged as central moments
+    private void addBlockPair(int p, double[] xj, double[] wj, double[] xk, double[] wk, int len,
+                              double shiftJ, double shiftK) {
+        double cnt = 0, sx = 0, sy = 0, sxx = 0, syy = 0, sxy = 0;
+        for (int i = 0; i < len; i++) {
+            double a = xj[i];
+            double b = xk[i];
+            double both = wj[i] * wk[i];
+            cnt += both;
+            sx += a * wk[i];
+            sy += b * wj[i];
+            sxx += a * a * wk[i];
+            syy += b * b * wj[i];
+            sxy += a * b;
+        }
+        if (cnt == 0) return;
+        double mx = sx / cnt;
+        double my = sy / cnt;
+        combine(p, (long) cnt, mx + shiftJ, my + shiftK, sxx - sx * mx, syy - sy * my, sxy - sx * my);
+    }
+
+    /** merge - fold another partial (same subjects) into this one */
+    public void merge(CovarianceSums o) {
+        if (o.subjects != subjects) throw new IllegalArgumentException("Different subject counts");
+        for (int p = 0; p < n.length; p++) {
+            if (o.n[p] > 0) combine(p, o.n[p], o.meanX[p], o.meanY[p], o.m2X[p], o.m2Y[p], o.comoment[p]);
+        }
+    }
+
+    // Chan et al.: combine (n, means, m2s, co-moment) of two disjoint sets of students
+    private void combine(int p, long nb, double mxb, double myb, double m2xb, double m2yb, double cb) {
+        long na = n[p];
+        long total = na + nb;
+        double dx = mxb - meanX[p];
+        double dy = myb - meanY[p];
+        double f = (double) na * nb / total;
+        m2X[p] += m2xb + dx * dx * f;
+        m2Y[p] += m2yb + dy * dy * f;
+        comoment[p] += cb + dx * dy * f;
+        meanX[p] += dx * nb / total;
+        meanY[p] += dy * nb / total;
+        n[p] = total;
+    }
+
+    /** students with a mark in both subjects */
+    public long getCount(int j, int k) {
+        return n[pair(Math.min(j, k), Math.max(j, k))];
+    }
+
+    /** sample covariance over those students, NaN if fewer than 2 */
+    public double getCovariance(int j, int k) {
+        int p = pair(Math.min(j, k), Math.max(j, k));
+        return n[p] < 2 ? Double.NaN : comoment[p] / (n[p] - 1);
+    }
+
+    /** Pearson correlation over those students, NaN if undefined (fewer than 2, or no spread) */
+    public double getCorrelation(int j, int k) {
+        int p = pair(Math.min(j, k), Math.max(j, k));
+        if (n[p] < 2 || m2X[p] <= 0 || m2Y[p] <= 0) return Double.NaN;
+        double r = comoment[p] / Math.sqrt(m2X[p] * m2Y[p]);
+        return Math.max(-1.0, Math.min(1.0, r));
+    }
+
+    /** mean mark of subject j (over students with a mark in j) */
+    public double getMean(int j) {
+        return meanX[pair(j, j)];
+    }
+}
@@ -0,0 +1,67 @@
+package com.school.processor;
+
+import java.util.Arrays;
+
+/**
+ * GradingConfig - pass threshold and grade cut-offs.
+ *
+ * cutoffs are descending minimum averages for labels[0..n-1];
+ * the last label (labels[n]) is given when the average is below every cut-off.
+ * DEFAULT is the policy used by ResultProcessor.calculateGrade / checkPass.
+ */
+public class GradingConfig {
+
+    public static final GradingConfig DEFAULT = new GradingConfig("current", 40,
+            new double[] {90, 80, 70, 60, 50}, new String[] {"A+", "A", "B", "C", "D", "F"});
+
+    private final String name;
+    private final int passPercent;
+    private final double[] cutoffs;
+    private final String[] labels;
+
+    public GradingConfig(String name, int passPercent, double[] cutoffs, String[] labels) {
+        if (labels.length != cutoffs.length + 1) {
+            throw new IllegalArgumentException("Need exactly one more label than cut-offs");
+        }
+        for (int i = 1; i < cutoffs.length; i++) {
+            if (cutoffs[i] > cutoffs[i - 1]) throw new IllegalArgumentException("Cut-offs must be descending");
+        }
+        this.name = name;
+        this.passPercent = passPercent;
+        this.cutoffs = cutoffs.clone();
+        this.labels = labels.clone();
+    }
+
+    /** same labels as DEFAULT, different pass threshold and/or cut-offs */
+    public static GradingConfig withDefaults(String name, int passPercent, double[] cutoffs) {
+        return new GradingConfig(name, passPercent, cutoffs, DEFAULT.labels);
+    }
+
+    public String getName() { return name; }
+    public int getPassPercent() { return passPercent; }
+    public int getGradeCount() { return labels.length; }
+    public String getLabel(int gradeIndex) { return labels[gradeIndex]; }
+    public double[] getCutoffs() { return cutoffs.clone(); }
+
+    /** index into labels for an average */
+    public int gradeIndex(double avg) {
+        for (int i = 0; i < cutoffs.length; i++) {
+            if (avg >= cutoffs[i]) return i;
+        }
+        return cutoffs.length;
+    }
+
+    public String gradeFor(double avg) {
+        return labels[gradeIndex(avg)];
+    }
+
+    /** per-subject pass mark, same arithmetic as checkPass */
+    public double passThreshold(int subjectMax) {
+        return subjectMax * passPercent / 100.0;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (pass " + passPercent + "%, cut-offs " + Arrays.toString(cutoffs) + ")";
+    }
+}
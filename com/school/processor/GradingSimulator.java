@@ -0,0 +1,118 @@
+package com.school.processor;
+
+import java.util.stream.IntStream;
+
+/**
+ * GradingSimulator - evaluates candidate grading configurations against a
+ * MarksMatrix snapshot without touching any Student.
+ *
+ * One pass over the marks handles the baseline and every candidate together:
+ * students are processed in blocks; for each block the subject columns are
+ * scanned once, accumulating the mark total (for the average used by
+ * calculateGrade) and a per-student bitmask of "fails under config c" (the
+ * checkPass rule). Blocks run in parallel and their partial counts are summed.
+ */
+public final class GradingSimulator {
+
+    private static final int BLOCK = 4096;
+    private static final int MAX_CONFIGS = 31; // baseline + candidates fit in one int bitmask
+
+    private GradingSimulator() {}
+
+    public static SimulationResult[] simulate(MarksMatrix m, GradingConfig baseline, GradingConfig... candidates) {
+        if (candidates.length + 1 > MAX_CONFIGS) {
+            throw new IllegalArgumentException("At most " + (MAX_CONFIGS - 1) + " candidates per run");
+        }
+        GradingConfig[] configs = new GradingConfig[candidates.length + 1];
+        configs[0] = baseline;
+        System.arraycopy(candidates, 0, configs, 1, candidates.length);
+
+        int n = m.getStudentCount();
+        int blocks = (n + BLOCK - 1) / BLOCK;
+        Partial total = IntStream.range(0, blocks).parallel()
+                .mapToObj(b -> block(m, configs, b * BLOCK, Math.min(n, (b + 1) * BLOCK)))
+                .reduce(Partial::add)
+                .orElseGet(() -> new Partial(configs));
+
+        SimulationResult[] results = new SimulationResult[candidates.length];
+        for (int c = 1; c < configs.length; c++) {
+            results[c - 1] = new SimulationResult(baseline, configs[c], total.transitions[c], n,
+                    total.passed[0], total.passed[c], total.passToFail[c], total.failToPass[c]);
+        }
+        return results;
+    }
+
+    private static Partial block(MarksMatrix m, GradingConfig[] configs, int from, int to) {
+        int len = to - from;
+        int k = m.getSubjectCount();
+        double[] sums = new double[len];
+        int[] failMask = new int[len];
+        double[] thr = new double[configs.length];
+
+        for (int j = 0; j < k; j++) {
+            double[] col = m.column(j);
+            for (int c = 0; c < configs.length; c++) thr[c] = configs[c].passThreshold(m.getMaxMarks(j));
+
+            for (int i = 0; i < len; i++) {
+                double v = col[from + i];
+                sums[i] += (v >= 0) ? v : 0;
+            }
+            for (int c = 0; c < configs.length; c++) {
+                double t = thr[c];
+                int bit = 1 << c;
+                for (int i = 0; i < len; i++) {
+                    double v = col[from + i];
+                    if (v == -1 || v < t) failMask[i] |= bit;
+                }
+            }
+        }
+
+        Partial p = new Partial(configs);
+        GradingConfig base = configs[0];
+        for (int i = 0; i < len; i++) {
+            double avg = (k == 0) ? 0.0 : sums[i] / k;
+            int bg = base.gradeIndex(avg);
+            boolean bp = (failMask[i] & 1) == 0;
+            if (bp) p.passed[0]++;
+            for (int c = 1; c < configs.length; c++) {
+                int cg = configs[c].gradeIndex(avg);
+                boolean cp = (failMask[i] & (1 << c)) == 0;
+                p.transitions[c][bg][cg]++;
+                if (cp) p.passed[c]++;
+                if (bp && !cp) p.passToFail[c]++;
+                if (!bp && cp) p.failToPass[c]++;
+            }
+        }
+        return p;
+    }
+
+    // per-block counts; transitions[c][baselineGrade][candidateGrade]
+    private static final class Partial {
+        final long[][][] transitions;
+        final long[] passed;
+        final long[] passToFail;
+        final long[] failToPass;
+
+        Partial(GradingConfig[] configs) {
+            transitions = new long[configs.length][][];
+            for (int c = 0; c < configs.length; c++) {
+                transitions[c] = new long[configs[0].getGradeCount()][configs[c].getGradeCount()];
+            }
+            passed = new long[configs.length];
+            passToFail = new long[configs.length];
+            failToPass = new long[configs.length];
+        }
+
+        Partial add(Partial o) {
+            for (int c = 0; c < transitions.length; c++) {
+                for (int b = 0; b < transitions[c].length; b++) {
+                    for (int g = 0; g < transitions[c][b].length; g++) transitions[c][b][g] += o.transitions[c][b][g];
+                }
+                passed[c] += o.passed[c];
+                passToFail[c] += o.passToFail[c];
+                failToPass[c] += o.failToPass[c];
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.school.processor;
+
+/**
+ * LineEscaper - escaping for tab-separated, line-oriented text formats
+ * (shard protocol, replication deltas). After escaping, a field never
+ * contains a raw tab or line break:
+ *   "\\" -> "\\\\", tab -> "\\t", LF -> "\\n", CR -> "\\r"
+ */
+public final class LineEscaper {
+
+    private LineEscaper() {}
+
+    public static String escape(String s) {
+        if (s == null) return "";
+        StringBuilder sb = null;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            String rep = switch (c) {
+                case '\\' -> "\\\\";
+                case '\t' -> "\\t";
+                case '\n' -> "\\n";
+                case '\r' -> "\\r";
+                default -> null;
+            };
+            if (rep == null) {
+                if (sb != null) sb.append(c);
+            } else {
+                if (sb == null) sb = new StringBuilder(s.length() + 8).append(s, 0, i);
+                sb.append(rep);
+            }
+        }
+        return (sb == null) ? s : sb.toString();
+    }
+
+    public static String unescape(String s) {
+        if (s.indexOf('\\') < 0) return s;
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\\' && i + 1 < s.length()) {
+                char n = s.charAt(++i);
+                switch (n) {
+                    case 't' -> sb.append('\t');
+                    case 'n' -> sb.append('\n');
+                    case 'r' -> sb.append('\r');
+                    default -> sb.append(n);
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /** escape and join fields with tabs */
+    public static String join(String... fields) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) sb.append('\t');
+            sb.append(escape(fields[i]));
+        }
+        return sb.toString();
+    }
+
+    /** split on tabs and unescape each field */
+    public static String[] split(String line) {
+        String[] parts = line.split("\t", -1);
+        for (int i = 0; i < parts.length; i++) parts[i] = unescape(parts[i]);
+        return parts;
+    }
+}
@@ -0,0 +1,329 @@
+package com.school.processor;
+
+import com.school.models.Student;
+import com.school.models.Subject;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * MarkEntrySession - many examiners entering marks at the same time.
+ *
+ * Marks live in one AtomicIntegerArray per subject (column-major like
+ * MarksMatrix), so every (student, subject) cell is written atomically and
+ * examiners on different subjects never touch the same array. Each subject
+ * also has its own dirty bitmap (one bit per student). A background worker
+ * wakes every coalesceMillis, takes the dirty bits and recomputes grade and
+ * PASS/FAIL once per changed student, however many marks arrived for it.
+ *
+ * Nothing reaches the Student objects until commit(), which runs on the
+ * thread that owns the ResultProcessor and applies only the cells that
+ * changed during the session, with one save.
+ *
+ * The roster and subject list are fixed when the session opens; students
+ * added later cannot be marked in it.
+ */
+public class MarkEntrySession implements AutoCloseable {
+
+    private final ResultProcessor owner;
+    private final int[] ids;            // sorted
+    private final int[] rows;           // rows[k] = roster row of ids[k]
+    private final int minId;
+    private final int[] rowById;        // rowById[id - minId] = row + 1 (0 = absent); null if IDs are sparse
+    private final String[] subjectNames;
+    private final int[] maxMarks;
+    private final double[] passThreshold;
+    private final int rowCount;
+
+    private final AtomicIntegerArray[] marks;   // marks[j].get(row), -1 = not entered
+    private final AtomicLongArray[] dirty;      // dirty[j] bit row = changed since last regrade
+    private final int[] initial;                // row * subjects + j, marks when the session opened
+
+    // written only by regrade passes: grade index, +PASSED when passed
+    private final AtomicIntegerArray results;
+    private static final int PASSED = 1 << 8;
+
+    private final long coalesceNanos;
+    private final Object regradeLock = new Object();
+    private final Thread worker;
+    private volatile boolean open = true;
+    private boolean committed;
+    private volatile long regraded;
+    private volatile long regradePasses;
+
+    MarkEntrySession(ResultProcessor owner, Student[] students, int studentCount,
+                     Subject[] subjects, int subjectCount, long coalesceMillis) {
+        this.owner = owner;
+        this.rowCount = studentCount;
+        this.subjectNames = new String[subjectCount];
+        this.maxMarks = new int[subjectCount];
+        this.passThreshold = new double[subjectCount];
+        for (int j = 0; j < subjectCount; j++) {
+            subjectNames[j] = subjects[j].getName();
+            maxMarks[j] = subjects[j].getMaxMarks();
+            passThreshold[j] = GradingConfig.DEFAULT.passThreshold(maxMarks[j]);
+        }
+
+        long[] keyed = new long[studentCount]; // id << 32 | row, sorted by id
+        for (int i = 0; i < studentCount; i++) keyed[i] = ((long) students[i].getId() << 32) | i;
+        Arrays.sort(keyed);
+        this.ids = new int[studentCount];
+        this.rows = new int[studentCount];
+        for (int k = 0; k < studentCount; k++) {
+            ids[k] = (int) (keyed[k] >> 32);
+            rows[k] = (int) keyed[k];
+        }
+        // dense IDs (the usual case) get a direct lookup table instead of a binary search per mark
+        this.minId = (studentCount == 0) ? 0 : ids[0];
+        long span = (studentCount == 0) ? 0 : (long) ids[studentCount - 1] - minId + 1;
+        if (studentCount > 0 && span <= 4L * studentCount) {
+            this.rowById = new int[(int) span];
+            for (int k = 0; k < studentCount; k++) rowById[ids[k] - minId] = rows[k] + 1;
+        } else {
+            this.rowById = null;
+        }
+
+        this.marks = new AtomicIntegerArray[subjectCount];
+        this.dirty = new AtomicLongArray[subjectCount];
+        this.initial = new int[studentCount * subjectCount];
+        for (int j = 0; j < subjectCount; j++) {
+            int[] column = new int[studentCount];
+            for (int i = 0; i < studentCount; i++) {
+                column[i] = (int) students[i].getMarkAt(j); // stored as ints, like students.txt
+                initial[i * subjectCount + j] = column[i];
+            }
+            marks[j] = new AtomicIntegerArray(column);
+            dirty[j] = new AtomicLongArray((studentCount + 63) >>> 6);
+        }
+        int[] res = new int[studentCount];
+        for (int i = 0; i < studentCount; i++) res[i] = grade(i);
+        this.results = new AtomicIntegerArray(res);
+
+        this.coalesceNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, coalesceMillis));
+        this.worker = new Thread(this::regradeLoop, "mark-regrade");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    // ------------------ ENTRY (any thread) ------------------
+
+    /** index of a subject in this session, or -1 */
+    public int subjectIndex(String name) {
+        for (int j = 0; j < subjectNames.length; j++) {
+            if (subjectNames[j].equalsIgnoreCase(name)) return j;
+        }
+        return -1;
+    }
+
+    public int getSubjectCount() { return subjectNames.length; }
+    public int getStudentCount() { return rowCount; }
+    public String getSubjectName(int j) { return subjectNames[j]; }
+    public int getMaxMarks(int j) { return maxMarks[j]; }
+
+    /** ID of the k-th student in ID order (for examiners walking the roster) */
+    public int getStudentId(int k) { return ids[k]; }
+
+    /**
+     * enter - sets a mark. Returns false if the session is closed, the student
+     * is not on the roster, or the mark is outside 0..max for the subject.
+     */
+    public boolean enter(int studentId, int subject, int mark) {
+        int row = rowOf(studentId, subject, mark);
+        if (row < 0) return false;
+        if (marks[subject].getAndSet(row, mark) != mark) markDirty(subject, row);
+        return true;
+    }
+
+    /**
+     * enterIfUnchanged - sets a mark only if the cell still holds expected
+     * (-1 = only if not entered yet). Lets a second examiner correct a mark
+     * without overwriting a concurrent correction. Returns false if the cell
+     * held something else, or for the same reasons as enter.
+     */
+    public boolean enterIfUnchanged(int studentId, int subject, int expected, int mark) {
+        int row = rowOf(studentId, subject, mark);
+        if (row < 0 || !marks[subject].compareAndSet(row, expected, mark)) return false;
+        if (expected != mark) markDirty(subject, row);
+        return true;
+    }
+
+    /** current mark in the session (-1 = not entered), or -1 for unknown students */
+    public int getMark(int studentId, int subject) {
+        int row = findRow(studentId);
+        return (row < 0) ? -1 : marks[subject].get(row);
+    }
+
+    /**
+     * getGrade - grade from the latest regrade pass; null for unknown students.
+     * Call flush() first for an answer that includes every mark entered so far.
+     */
+    public String getGrade(int studentId) {
+        int r = resultOf(studentId);
+        return (r < 0) ? null : GradingConfig.DEFAULT.getLabel(r & (PASSED - 1));
+    }
+
+    /** PASS/FAIL from the latest regrade pass */
+    public boolean isPassed(int studentId) {
+        int r = resultOf(studentId);
+        return r >= 0 && (r & PASSED) != 0;
+    }
+
+    private int rowOf(int studentId, int subject, int mark) {
+        if (!open || subject < 0 || subject >= subjectNames.length) return -1;
+        if (mark < 0 || mark > maxMarks[subject]) return -1;
+        return findRow(studentId);
+    }
+
+    private int resultOf(int studentId) {
+        int row = findRow(studentId);
+        return (row < 0) ? -1 : results.get(row);
+    }
+
+    private int findRow(int studentId) {
+        if (rowById != null) {
+            long d = (long) studentId - minId;
+            return (d < 0 || d >= rowById.length) ? -1 : rowById[(int) d] - 1;
+        }
+        int k = Arrays.binarySearch(ids, studentId);
+        return (k < 0) ? -1 : rows[k];
+    }
+
+    // bit is set after the cell is written, so the regrade pass that clears it sees the new mark
+    private void markDirty(int subject, int row) {
+        AtomicLongArray bits = dirty[subject];
+        int word = row >>> 6;
+        long bit = 1L << row;
+        if ((bits.get(word) & bit) == 0) bits.getAndAccumulate(word, bit, (a, b) -> a | b);
+    }
+
+    // ------------------ REGRADE WORKER ------------------
+
+    private void regradeLoop() {
+        while (open) {
+            LockSupport.parkNanos(coalesceNanos);
+            regradeDirty();
+        }
+    }
+
+    /**
+     * flush - waits until every mark entered before this call has been
+     * regraded (runs a regrade pass on the calling thread).
+     */
+    public void flush() {
+        regradeDirty();
+    }
+
+    // one pass: take every subject's dirty bits, then regrade each changed student once
+    private void regradeDirty() {
+        synchronized (regradeLock) {
+            long[] changed = null;
+            for (AtomicLongArray bits : dirty) {
+                for (int w = 0; w < bits.length(); w++) {
+                    if (bits.get(w) == 0) continue;
+                    if (changed == null) changed = new long[bits.length()];
+                    changed[w] |= bits.getAndSet(w, 0);
+                }
+            }
+            if (changed == null) return;
+            long n = 0;
+            for (int w = 0; w < changed.length; w++) {
+                long word = changed[w];
+                while (word != 0) {
+                    int row = (w << 6) + Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                    results.set(row, grade(row));
+                    n++;
+                }
+            }
+            regraded += n;
+            regradePasses++;
+        }
+    }
+
+    // same rules as calculateGrade / checkPass
+    private int grade(int row) {
+        double total = 0;
+        boolean passed = true;
+        for (int j = 0; j < marks.length; j++) {
+            int m = marks[j].get(row);
+            if (m >= 0) total += m;
+            if (m == -1 || m < passThreshold[j]) passed = false;
+        }
+        double avg = (marks.length == 0) ? 0.0 : total / marks.length;
+        return GradingConfig.DEFAULT.gradeIndex(avg) | (passed ? PASSED : 0);
+    }
+
+    /** students regraded so far (a student changed twice between passes counts once) */
+    public long getRegradedCount() { return regraded; }
+
+    /** regrade passes that found work */
+    public long getRegradePasses() { return regradePasses; }
+
+    public boolean isOpen() { return open; }
+
+    // ------------------ COMMIT (owner thread) ------------------
+
+    /**
+     * commit - closes the session and writes the changed marks, grades and
+     * results into the ResultProcessor (feed events, replication, audit, one save).
+     * Call it after the examiners have finished; entries racing with commit may be lost.
+     * Returns the number of marks applied (0 if already committed).
+     */
+    public int commit() {
+        stop();
+        if (committed) return 0;
+        committed = true;
+        regradeDirty();
+        return owner.commitMarkEntry(this);
+    }
+
+    /** discard the session without applying anything */
+    @Override
+    public void close() {
+        stop();
+    }
+
+    private void stop() {
+        open = false;
+        LockSupport.unpark(worker);
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ------------------ COMMIT HELPERS (package) ------------------
+
+    /** row of the k-th student in ID order */
+    int rowAt(int k) { return rows[k]; }
+
+    boolean isChanged(int row, int subject) {
+        return marks[subject].get(row) != initial[row * subjectNames.length + subject];
+    }
+
+    int markAt(int row, int subject) { return marks[subject].get(row); }
+
+    /**
+     * true if s still holds, in every subject not changed in the session, the
+     * mark it had when the session opened (only then does the session's grade
+     * for the row apply to s); s must have the session's subject list
+     */
+    boolean unchangedCellsMatch(int row, Student s) {
+        int n = subjectNames.length;
+        for (int j = 0; j < n; j++) {
+            if (!isChanged(row, j) && (int) s.getMarkAt(j) != initial[row * n + j]) return false;
+        }
+        return true;
+    }
+
+    /** packed grade index | PASSED */
+    int resultAt(int row) { return results.get(row); }
+
+    static String gradeLabel(int result) { return GradingConfig.DEFAULT.getLabel(result & (PASSED - 1)); }
+
+    static boolean passedFlag(int result) { return (result & PASSED) != 0; }
+}
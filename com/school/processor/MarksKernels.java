@@ -0,0 +1,44 @@
+package com.school.processor;
+
+/**
+ * MarksKernels - cohort-wide versions of the per-student arithmetic in
+ * renderStudentDetails (percentage), calculateGrade (average and band) and
+ * checkPass (per-subject threshold), working over a MarksMatrix.
+ *
+ * Results are identical to the per-student methods: -1 marks count as 0 in
+ * totals and averages and fail the pass check.
+ *
+ * best() returns the scalar loops. The jdk.incubator.vector implementation
+ * gives the same results; it is used only with -Dschool.vector=true and the
+ * module present (run with --add-modules jdk.incubator.vector).
+ * KernelBenchmark compares both with the per-student methods.
+ */
+public interface MarksKernels {
+
+    String name();
+
+    /** out[i] = calculateGrade's average for student i (sum of entered marks / subject count) */
+    void averages(MarksMatrix m, double[] out);
+
+    /** out[i] = percentage shown on the result sheet (entered marks * 100 / sum of subject max) */
+    void percentages(MarksMatrix m, double[] out);
+
+    /** out[i] = checkPass for student i at the given pass percent */
+    void passFlags(MarksMatrix m, int passPercent, boolean[] out);
+
+    /** out[i] = cfg.gradeIndex(values[i]) for the first n values */
+    void gradeIndexes(double[] values, int n, GradingConfig cfg, int[] out);
+
+    static MarksKernels scalar() {
+        return ScalarMarksKernels.INSTANCE;
+    }
+
+    static MarksKernels best() {
+        return MarksKernelsLoader.BEST;
+    }
+
+    /** the jdk.incubator.vector implementation, null when the module is not available */
+    static MarksKernels vector() {
+        return MarksKernelsLoader.VECTOR;
+    }
+}
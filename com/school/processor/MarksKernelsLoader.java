@@ -0,0 +1,24 @@
+package com.school.processor;
+
+/**
+ * MarksKernelsLoader - loads the MarksKernels implementations once, on first
+ * use (lazy holder for MarksKernels.best() / vector()).
+ */
+final class MarksKernelsLoader {
+
+    private static final String VECTOR_IMPL = "com.school.processor.simd.VectorMarksKernels";
+
+    static final MarksKernels VECTOR = load();
+    static final MarksKernels BEST = (Boolean.getBoolean("school.vector") && VECTOR != null) ? VECTOR : MarksKernels.scalar();
+
+    private MarksKernelsLoader() {}
+
+    private static MarksKernels load() {
+        try {
+            return (MarksKernels) Class.forName(VECTOR_IMPL).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // module not added (or class not built)
+            return null;
+        }
+    }
+}
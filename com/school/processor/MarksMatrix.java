@@ -0,0 +1,54 @@
+package com.school.processor;
+
+import com.school.models.Student;
+import com.school.models.Subject;
+
+/**
+ * MarksMatrix - column-major copy of the cohort's marks for bulk computations.
+ *
+ * column(j)[i] is student i's mark in subject j (-1 = not entered).
+ * One subject's marks are contiguous, so a pass over a column streams through
+ * memory and is easy for the JIT to unroll/vectorize. Taking the snapshot never
+ * changes any Student.
+ */
+public class MarksMatrix {
+
+    private final int studentCount;
+    private final int subjectCount;
+    private final double[][] columns;
+    private final int[] maxMarks;
+    private final int[] ids;
+
+    public MarksMatrix(double[][] columns, int[] maxMarks, int[] ids) {
+        this.subjectCount = columns.length;
+        this.studentCount = ids.length;
+        this.columns = columns;
+        this.maxMarks = maxMarks;
+        this.ids = ids;
+    }
+
+    /** snapshot of the first count students over the first subjectCount subjects */
+    public static MarksMatrix of(Student[] students, int count, Subject[] subjects, int subjectCount) {
+        double[][] cols = new double[subjectCount][count];
+        int[] max = new int[subjectCount];
+        int[] ids = new int[count];
+        for (int j = 0; j < subjectCount; j++) {
+            max[j] = (subjects[j] != null) ? subjects[j].getMaxMarks() : 100;
+        }
+        for (int i = 0; i < count; i++) {
+            Student s = students[i];
+            ids[i] = s.getId();
+            double[] marks = s.getMarks();
+            for (int j = 0; j < subjectCount; j++) {
+                cols[j][i] = (marks != null && j < marks.length) ? marks[j] : -1;
+            }
+        }
+        return new MarksMatrix(cols, max, ids);
+    }
+
+    public int getStudentCount() { return studentCount; }
+    public int getSubjectCount() { return subjectCount; }
+    public double[] column(int j) { return columns[j]; }
+    public int getMaxMarks(int j) { return maxMarks[j]; }
+    public int getId(int i) { return ids[i]; }
+}
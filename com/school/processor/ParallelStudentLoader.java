@@ -0,0 +1,93 @@
+package com.school.processor;
+
+import com.school.models.Student;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * ParallelStudentLoader - parses the raw bytes of students.txt.
+ *
+ * Small files are parsed on the calling thread. Larger files are split into
+ * line-aligned chunks (cut points moved forward to the next '\n') and each chunk
+ * is parsed on a worker thread. Chunk results are concatenated in file order,
+ * so the outcome is identical to a sequential read:
+ *  - malformed lines are skipped (parser returns null)
+ *  - if an ID appears more than once, the first occurrence wins
+ *  - at most maxStudents records are kept
+ */
+public final class ParallelStudentLoader {
+
+    // below this many bytes the thread hand-off costs more than it saves
+    static final int PARALLEL_THRESHOLD = 256 * 1024;
+    private static final int MIN_CHUNK = 64 * 1024;
+
+    private ParallelStudentLoader() {}
+
+    public static List<Student> parse(byte[] data, Charset cs, Function<String, Student> parser, int maxStudents) {
+        if (data == null || data.length == 0) return new ArrayList<>();
+
+        int workers = Runtime.getRuntime().availableProcessors();
+        int chunks = Math.min(workers, data.length / MIN_CHUNK);
+        if (data.length < PARALLEL_THRESHOLD || chunks < 2) {
+            return firstIdWins(List.of(parseRange(data, 0, data.length, cs, parser)), maxStudents);
+        }
+
+        // line-aligned cut points
+        int[] bounds = new int[chunks + 1];
+        bounds[0] = 0;
+        bounds[chunks] = data.length;
+        for (int c = 1; c < chunks; c++) {
+            int p = Math.max((int) ((long) data.length * c / chunks), bounds[c - 1]);
+            while (p < data.length && data[p - 1] != '\n') p++;
+            bounds[c] = p;
+        }
+
+        List<CompletableFuture<List<Student>>> futures = new ArrayList<>(chunks);
+        for (int c = 0; c < chunks; c++) {
+            final int from = bounds[c];
+            final int to = bounds[c + 1];
+            futures.add(CompletableFuture.supplyAsync(() -> parseRange(data, from, to, cs, parser)));
+        }
+        List<List<Student>> parts = new ArrayList<>(chunks);
+        for (CompletableFuture<List<Student>> f : futures) parts.add(f.join());
+        return firstIdWins(parts, maxStudents);
+    }
+
+    private static List<Student> parseRange(byte[] data, int from, int to, Charset cs,
+                                            Function<String, Student> parser) {
+        List<Student> out = new ArrayList<>();
+        int lineStart = from;
+        for (int i = from; i <= to; i++) {
+            if (i == to || data[i] == '\n') {
+                int end = i;
+                if (end > lineStart && data[end - 1] == '\r') end--;
+                if (end > lineStart || i < to) {
+                    Student s = parser.apply(new String(data, lineStart, end - lineStart, cs));
+                    if (s != null) out.add(s);
+                }
+                lineStart = i + 1;
+            }
+        }
+        return out;
+    }
+
+    private static List<Student> firstIdWins(List<List<Student>> parts, int maxStudents) {
+        int total = 0;
+        for (List<Student> p : parts) total += p.size();
+        List<Student> result = new ArrayList<>(Math.min(total, maxStudents));
+        Set<Integer> seen = new HashSet<>(Math.min(total, maxStudents) * 2);
+        for (List<Student> p : parts) {
+            for (Student s : p) {
+                if (result.size() >= maxStudents) return result;
+                if (seen.add(s.getId())) result.add(s);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,71 @@
+package com.school.processor;
+
+import com.school.models.Subject;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * ReplicaApplier - reads a ReplicationLog delta stream and applies it
+ * to a replica ResultProcessor, in LSN order.
+ */
+class ReplicaApplier {
+
+    private final ResultProcessor replica;
+
+    ReplicaApplier(ResultProcessor replica) {
+        this.replica = replica;
+    }
+
+    int apply(BufferedReader in) throws IOException {
+        String line = in.readLine();
+        if (line == null) return 0;
+        String[] head = LineEscaper.split(line);
+        if (head.length < 5 || !head[0].equals("DELTAS")) throw new IOException("Not a delta stream: " + line);
+        long epoch = Long.parseLong(head[1]);
+        long toLsn = Long.parseLong(head[3]);
+        boolean full = Boolean.parseBoolean(head[4]);
+
+        // incremental stream from a different primary run cannot be applied safely
+        if (!full && epoch != replica.getReplicaEpoch()) {
+            throw new IOException("Delta stream is from another primary epoch; request a full snapshot");
+        }
+        long applied = full ? -1 : replica.getReplicaLsn();
+        int count = 0;
+
+        while ((line = in.readLine()) != null) {
+            String[] f = LineEscaper.split(line);
+            if (f[0].equals("END")) {
+                replica.setReplicaPosition(epoch, Math.max(applied, toLsn));
+                return count;
+            }
+            if (f[0].equals("RESET")) {
+                Subject[] subjects = new Subject[(f.length - 1) / 2];
+                for (int j = 0; j < subjects.length; j++) {
+                    subjects[j] = new Subject(f[1 + j * 2], Integer.parseInt(f[2 + j * 2]));
+                }
+                replica.replicaReset(subjects);
+                count++;
+                continue;
+            }
+
+            long lsn = Long.parseLong(f[0]);
+            if (!full && lsn <= applied) continue; // already have it
+            switch (f[1]) {
+                case ReplicationLog.UPSERT -> replica.replicaUpsert(f[4], Long.parseLong(f[3]));
+                case ReplicationLog.DELETE -> {
+                    int id = Integer.parseInt(f[2]);
+                    replica.deleteStudent(id);
+                    replica.getReplicationLog().setVersion(id, Long.parseLong(f[3]));
+                }
+                case ReplicationLog.SUBJECT_ADD -> replica.addSubject(new Subject(f[2], Integer.parseInt(f[3])));
+                case ReplicationLog.SUBJECT_REMOVE -> replica.removeSubject(f[2]);
+                default -> throw new IOException("Unknown delta op: " + f[1]);
+            }
+            if (!full) applied = lsn;
+            count++;
+        }
+        if (!full) replica.setReplicaPosition(epoch, applied); // keep what did arrive
+        throw new IOException("Delta stream ended without END marker");
+    }
+}
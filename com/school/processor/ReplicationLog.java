@@ -0,0 +1,160 @@
+package com.school.processor;
+
+import com.school.models.Student;
+import com.school.models.Subject;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * ReplicationLog - change tracking for primary/replica sync.
+ *
+ *  - every mutation gets the next log sequence number (LSN)
+ *  - every student record has a version, bumped on each change to it
+ *  - the log is key-compacted: a newer change to a student replaces the older
+ *    entry, so its size follows the number of changed records, not the number
+ *    of changes. Subject schema changes are kept in order.
+ *
+ * Delta stream format (tab-separated, fields escaped with LineEscaper):
+ *   DELTAS  epoch  fromLsn  toLsn  full
+ *   RESET   subject  max  subject  max ...      (full snapshots only)
+ *   lsn  U  id  version  studentLine            (add or update)
+ *   lsn  D  id  version                         (delete)
+ *   lsn  A  subject  max                        (subject added)
+ *   lsn  R  subject                             (subject removed)
+ *   END  toLsn
+ *
+ * The epoch identifies this log instance (it restarts with the process).
+ * A replica that asks with another epoch, or with LSN -1, gets a full snapshot.
+ */
+public class ReplicationLog {
+
+    static final String UPSERT = "U";
+    static final String DELETE = "D";
+    static final String SUBJECT_ADD = "A";
+    static final String SUBJECT_REMOVE = "R";
+
+    private static final class Delta {
+        final long lsn;
+        final String op;
+        final int id;
+        final long version;
+        final String a;
+        final String b;
+
+        Delta(long lsn, String op, int id, long version, String a, String b) {
+            this.lsn = lsn;
+            this.op = op;
+            this.id = id;
+            this.version = version;
+            this.a = a;
+            this.b = b;
+        }
+    }
+
+    private final long epoch = System.currentTimeMillis();
+    private long lsn;
+    private final Map<Integer, Long> versions = new HashMap<>();
+    private final Map<Integer, Long> latestLsnById = new HashMap<>();
+    private final TreeMap<Long, Delta> log = new TreeMap<>();
+
+    public synchronized long getEpoch() { return epoch; }
+    public synchronized long getCurrentLsn() { return lsn; }
+
+    /** version of a student record (0 = unchanged since load) */
+    public synchronized long getVersion(int studentId) {
+        Long v = versions.get(studentId);
+        return (v == null) ? 0 : v;
+    }
+
+    /** number of entries kept after compaction */
+    public synchronized int size() { return log.size(); }
+
+    // ------------------ RECORDING ------------------
+
+    synchronized void recordUpsert(Student s) {
+        long v = versions.merge(s.getId(), 1L, Long::sum);
+        putStudentDelta(new Delta(++lsn, UPSERT, s.getId(), v, StudentFileFormat.format(s), null));
+    }
+
+    synchronized void recordDelete(int id) {
+        long v = versions.merge(id, 1L, Long::sum);
+        putStudentDelta(new Delta(++lsn, DELETE, id, v, null, null));
+    }
+
+    synchronized void recordSubjectAdded(Subject subj) {
+        long n = ++lsn;
+        log.put(n, new Delta(n, SUBJECT_ADD, 0, 0, subj.getName(), String.valueOf(subj.getMaxMarks())));
+    }
+
+    synchronized void recordSubjectRemoved(String name) {
+        long n = ++lsn;
+        log.put(n, new Delta(n, SUBJECT_REMOVE, 0, 0, name, null));
+    }
+
+    /** replica side: adopt the primary's version so later comparisons line up */
+    synchronized void setVersion(int id, long version) {
+        versions.put(id, version);
+    }
+
+    private void putStudentDelta(Delta d) {
+        Long previous = latestLsnById.put(d.id, d.lsn);
+        if (previous != null) log.remove(previous); // key compaction
+        log.put(d.lsn, d);
+    }
+
+    // ------------------ EXPORT ------------------
+
+    /**
+     * export - writes the deltas a replica at (replicaEpoch, sinceLsn) is missing.
+     * Falls back to a full snapshot of the given processor when the replica is
+     * from another epoch or has nothing yet (sinceLsn < 0).
+     * Returns the number of data lines written.
+     */
+    synchronized int export(Writer out, long replicaEpoch, long sinceLsn, Subject[] subjects, int subjectCount,
+                            Student[] students, int studentCount) throws IOException {
+        boolean full = replicaEpoch != epoch || sinceLsn < 0 || sinceLsn > lsn;
+        int lines = 0;
+        out.write(LineEscaper.join("DELTAS", String.valueOf(epoch), String.valueOf(full ? -1 : sinceLsn),
+                String.valueOf(lsn), String.valueOf(full)));
+        out.write('\n');
+
+        if (full) {
+            String[] reset = new String[1 + subjectCount * 2];
+            reset[0] = "RESET";
+            for (int j = 0; j < subjectCount; j++) {
+                reset[1 + j * 2] = subjects[j].getName();
+                reset[2 + j * 2] = String.valueOf(subjects[j].getMaxMarks());
+            }
+            out.write(LineEscaper.join(reset));
+            out.write('\n');
+            String at = String.valueOf(lsn);
+            for (int i = 0; i < studentCount; i++) {
+                Student s = students[i];
+                out.write(LineEscaper.join(at, UPSERT, String.valueOf(s.getId()),
+                        String.valueOf(getVersion(s.getId())), StudentFileFormat.format(s)));
+                out.write('\n');
+                lines++;
+            }
+        } else {
+            for (Delta d : log.tailMap(sinceLsn, false).values()) {
+                String l = String.valueOf(d.lsn);
+                switch (d.op) {
+                    case UPSERT -> out.write(LineEscaper.join(l, d.op, String.valueOf(d.id), String.valueOf(d.version), d.a));
+                    case DELETE -> out.write(LineEscaper.join(l, d.op, String.valueOf(d.id), String.valueOf(d.version)));
+                    case SUBJECT_ADD -> out.write(LineEscaper.join(l, d.op, d.a, d.b));
+                    default -> out.write(LineEscaper.join(l, d.op, d.a));
+                }
+                out.write('\n');
+                lines++;
+            }
+        }
+        out.write(LineEscaper.join("END", String.valueOf(lsn)));
+        out.write('\n');
+        out.flush();
+        return lines;
+    }
+}
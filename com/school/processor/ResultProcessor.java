@@ -3,15 +3,24 @@ package com.school.processor;
 import com.school.models.Student;
 import com.school.models.Subject;
 import com.school.models.GraduatingStudent;
+import com.school.models.SubjectSchema;
+import com.school.processor.archive.ArchiveStore;
+import com.school.processor.audit.AuditEntry;
+import com.school.processor.audit.AuditLog;
+import com.school.processor.feed.ChangeEvent;
+import com.school.processor.feed.ChangeFeed;
+import com.school.processor.storage.StorageEngine;
+import com.school.processor.validate.ValidationReport;
 
 import java.io.*;
+import java.nio.file.Paths;
 import java.util.*;
 
 /**
  * ResultProcessor handles:
  *  - arrays of Students and Subjects (P7)
  *  - CRUD operations on students and subjects
- *  - file I/O persistence (subjects.txt, students.txt) (P2)
+ *  - persistence through a StorageEngine (text files by default) (P2)
  *  - grading logic using objects as arguments (P8)
  *  - exception handling (P3)
  *
@@ -27,25 +36,89 @@ public class ResultProcessor {
 
     private Subject[] subjects;
     private Student[] students;
+    private SubjectStats[] stats;     // running per-subject aggregates, parallel to subjects
     private int subjectCount;
     private int studentCount;
 
     private final int MAX_SUBJECTS;
     private final int MAX_STUDENTS;
-    private final int PASS_PERCENT = 40; // percent of subject max to consider pass
+    private final int PASS_PERCENT = GradingConfig.DEFAULT.getPassPercent(); // percent of subject max to consider pass (40)
 
-    private final String SUBJECTS_FILE = "subjects.txt";
-    private final String STUDENTS_FILE = "students.txt";
+    // where subjects and students are kept (see StorageEngine; -Dschool.storage=text|jdbc)
+    private final StorageEngine storage;
+
+    // current version of the subject list (stable subject IDs, parallel to subjects);
+    // students still on an older version migrate their marks and regrade when next read
+    private SubjectSchema schema;
+    // true while regradeAll runs: students it migrates are graded by it, not by the regrader
+    private boolean cohortRegrade = false;
+
+    // rendered result sheets; size with -Dschool.sheetCacheSize=N (0 disables)
+    private final ResultSheetCache sheetCache = new ResultSheetCache(Integer.getInteger("school.sheetCacheSize", 256));
+
+    private static final String ANALYSIS_HEADER = String.format("%-12s | %-9s | %-7s | %-6s | %-4s | %-4s | %-15s",
+            "Subject", "Avg Marks", "Highest", "Lowest", "Pass", "Fail", "Topper");
+
+    // reused for the student list so its buffer is allocated once
+    private final TableRenderer briefTable =
+            new TableRenderer(" ", new int[] {6, 20, 6}, new boolean[] {true, true, true});
+
+    // change tracking for read replicas (LSN + per-record versions)
+    private final ReplicationLog replicationLog = new ReplicationLog();
+    // replica side: position in the primary's log this instance has applied up to
+    private long replicaEpoch = 0;
+    private long replicaLsn = -1;
+
+    // batch mode: while > 0, saves are deferred and only the dirty flags are set
+    private int batchDepth = 0;
+    private boolean studentsDirty = false;
+    private boolean subjectsDirty = false;
+
+    // typed mutation events for downstream systems (no cost while nobody subscribes)
+    private final ChangeFeed changeFeed = new ChangeFeed();
+
+    // append-only history of student changes (audit.log next to the data files);
+    // null when disabled with -Dschool.audit=false or when the file cannot be opened
+    private final AuditLog audit;
+
+    // graduated students, moved out of the arrays above into compressed segments (archive/)
+    private final ArchiveStore archive;
 
     public ResultProcessor(int maxStudents, int maxSubjects) {
+        this(maxStudents, maxSubjects, null);
+    }
+
+    /**
+     * dataDir - directory holding subjects.txt / students.txt (null = working directory).
+     * Used when several processors run side by side, e.g. one per shard.
+     */
+    public ResultProcessor(int maxStudents, int maxSubjects, String dataDir) {
+        this(maxStudents, maxSubjects, dataDir, StorageEngine.open(dataDir));
+    }
+
+    /**
+     * storage - engine holding subjects and students; dataDir still holds the
+     * audit log and the graduate archive.
+     */
+    public ResultProcessor(int maxStudents, int maxSubjects, String dataDir, StorageEngine storage) {
+        this.storage = storage;
         this.MAX_STUDENTS = maxStudents;
         this.MAX_SUBJECTS = maxSubjects;
         students = new Student[MAX_STUDENTS];
         subjects = new Subject[MAX_SUBJECTS];
+        stats = new SubjectStats[MAX_SUBJECTS];
         studentCount = 0;
         subjectCount = 0;
-
-        // Auto-load existing data
+        // a lazy migration may run on any reader thread, so it publishes no feed events
+        // (subject changes regrade eagerly, with events, while the feed has subscribers)
+        schema = SubjectSchema.empty().withRegrader(s -> {
+            if (cohortRegrade) return;
+            s.setGrade(calculateGrade(s, subjects));
+            s.setPassed(checkPass(s));
+            sheetCache.invalidate(s.getId());
+        });
+
+        // Auto-load existing data.
         try {
             loadSubjectsFromFile();
         } catch (IOException e) {
@@ -57,6 +130,23 @@ public class ResultProcessor {
         } catch (IOException e) {
             System.out.println("Note: students file not loaded: " + e.getMessage());
         }
+
+        AuditLog log = null;
+        if (Boolean.parseBoolean(System.getProperty("school.audit", "true"))) {
+            try {
+                log = new AuditLog(Paths.get(dataDir == null ? "." : dataDir, "audit.log"));
+            } catch (IOException e) {
+                System.out.println("Note: audit log not opened, changes will not be audited: " + e.getMessage());
+            }
+        }
+        this.audit = log;
+
+        this.archive = new ArchiveStore(new File(dataDir == null ? "." : dataDir, "archive"));
+        // opt-in, since it rewrites the students file: read-only tools must not change the data
+        if (Boolean.getBoolean("school.archive")) {
+            int moved = archiveGraduated();
+            if (moved > 0) System.out.println("Note: moved " + moved + " graduated students to the archive.");
+        }
     }
 
     // ------------------ SUBJECT MANAGEMENT ------------------
@@ -72,23 +162,19 @@ public class ResultProcessor {
             System.out.println("Subject already exists: " + subj.getName());
             return false;
         }
+        stats[subjectCount] = new SubjectStats(subj.getMaxMarks()); // no marks entered yet
         subjects[subjectCount++] = subj;
-
-        // Expand each student's marks array to accommodate new subject
-        for (int i = 0; i < studentCount; i++) {
-            Student s = students[i];
-            double[] old = s.getMarks();
-            double[] newer = new double[subjectCount];
-            for (int j = 0; j < newer.length; j++) {
-                if (old != null && j < old.length) newer[j] = old[j];
-                else newer[j] = -1;
-            }
-            s.setMarksArray(newer);
-        }
-
-        // Save subjects immediately to persist change
+        // gives subj the next subject ID; each student gets the new column (and a new
+        // grade, since averages now cover another set of subjects) when next read
+        schema = schema.withAdded(subj);
+        sheetCache.clear(); // every sheet lists all subjects
+        changeFeed.publish(ChangeEvent.subjectChanged(subj.getName(), "absent", String.valueOf(subj.getMaxMarks())));
+        regradeForSubscribers();
+        replicationLog.recordSubjectAdded(subj);
+
+        // Save subjects immediately to persist change (stored marks are keyed by subject ID)
         try {
-            saveSubjectsToFile();
+            persistSubjects();
         } catch (IOException e) {
             System.out.println("Warning: could not save subjects to file: " + e.getMessage());
         }
@@ -98,35 +184,42 @@ public class ResultProcessor {
     public boolean removeSubject(String name) {
         int idx = findSubjectIndexByName(name);
         if (idx == -1) return false;
+        Subject removed = subjects[idx];
 
         // shift subjects left
-        for (int i = idx; i < subjectCount - 1; i++) subjects[i] = subjects[i+1];
-        subjects[--subjectCount] = null;
-
-        // shrink students' marks arrays (drop the column)
-        for (int i = 0; i < studentCount; i++) {
-            Student s = students[i];
-            double[] old = s.getMarks();
-            double[] newer = new double[subjectCount];
-            for (int j = 0; j < newer.length; j++) {
-                newer[j] = (old != null && j < old.length ? old[j] : -1);
-            }
-            s.setMarksArray(newer);
+        for (int i = idx; i < subjectCount - 1; i++) {
+            subjects[i] = subjects[i+1];
+            stats[i] = stats[i+1];
         }
-
+        stats[subjectCount - 1] = null;
+        subjects[--subjectCount] = null;
+        // students drop the column (and are regraded) when next read
+        schema = schema.withRemoved(idx);
+        sheetCache.clear();
+        changeFeed.publish(ChangeEvent.subjectChanged(removed.getName(), String.valueOf(removed.getMaxMarks()), "absent"));
+        regradeForSubscribers();
+        replicationLog.recordSubjectRemoved(removed.getName());
+
+        // stored marks of the removed subject ID are ignored from now on, so only the list is saved
         try {
-            saveSubjectsToFile();
+            persistSubjects();
         } catch (IOException e) {
             System.out.println("Warning: could not save subjects to file: " + e.getMessage());
         }
-        try {
-            saveStudentsToFile();
-        } catch (IOException e) {
-            System.out.println("Warning: could not save students after subject removal.");
-        }
         return true;
     }
 
+    /** true if addSubject would accept a subject of this name (room left, name not taken) */
+    public boolean canAddSubject(String name) {
+        return name != null && subjectCount < MAX_SUBJECTS && findSubjectIndexByName(name) == -1;
+    }
+
+    /** max marks of the named subject, -1 if there is no such subject */
+    public int getSubjectMaxMarks(String name) {
+        int idx = findSubjectIndexByName(name);
+        return (idx == -1) ? -1 : subjects[idx].getMaxMarks();
+    }
+
     public void listSubjects() {
         if (subjectCount == 0) {
             System.out.println("No subjects configured yet.");
@@ -138,6 +231,12 @@ public class ResultProcessor {
         }
     }
 
+    // feed subscribers get every gradeChanged event of a subject change now, from this
+    // thread; without subscribers students keep migrating (and regrading) lazily
+    private void regradeForSubscribers() {
+        if (changeFeed.hasSubscribers()) regradeAll();
+    }
+
     private int findSubjectIndexByName(String name) {
         if (name == null) return -1;
         for (int i = 0; i < subjectCount; i++) {
@@ -154,7 +253,7 @@ public class ResultProcessor {
             System.out.println("Student capacity reached.");
             return false;
         }
-        if (findStudentIndexById(s.getId()) != -1) {
+        if (findStudentIndexById(s.getId()) != -1 || archive.contains(s.getId())) {
             System.out.println("A student with ID " + s.getId() + " already exists. Cannot add duplicate.");
             return false;
         }
@@ -164,11 +263,19 @@ public class ResultProcessor {
             for (int i = 0; i < subjectCount; i++) arr[i] = -1;
             s.setMarksArray(arr);
         }
+        s.attachSchema(schema);
+        // graded before it is published, so subscribers see its real grade and result
+        s.setGrade(calculateGrade(s, subjects));
+        s.setPassed(checkPass(s));
         students[studentCount++] = s;
+        statsAdd(s);
+        changeFeed.publish(ChangeEvent.studentAdded(s.getId(), s.getName(), s.getGrade(), s.isPassed()));
+        replicationLog.recordUpsert(s);
+        auditRecord(s, log -> log.recordAdded(s, subjects, subjectCount));
 
         // persist immediately
         try {
-            saveStudentsToFile();
+            persistStudent(s);
         } catch (IOException e) {
             System.out.println("Warning: Could not save students after add: " + e.getMessage());
         }
@@ -178,17 +285,33 @@ public class ResultProcessor {
     public boolean updateStudentName(int id, String newName) {
         int idx = findStudentIndexById(id);
         if (idx == -1) return false;
+        String oldName = students[idx].getName();
+        auditBaseline(students[idx]);
         students[idx].setName(newName);
-        try { saveStudentsToFile(); } catch (IOException e) {}
+        // setName trims and ignores blank names: record what was stored, if anything changed
+        String name = students[idx].getName();
+        if (name.equals(oldName)) return true;
+        sheetCache.invalidate(id);
+        changeFeed.publish(ChangeEvent.studentRenamed(id, oldName, name));
+        replicationLog.recordUpsert(students[idx]);
+        auditRecord(students[idx], log -> log.recordName(id, name));
+        invalidateToppers();
+        try { persistStudent(students[idx]); } catch (IOException e) {}
         return true;
     }
 
     public boolean deleteStudent(int id) {
         int idx = findStudentIndexById(id);
         if (idx == -1) return false;
+        auditBaseline(students[idx]);
+        statsRemove(students[idx]);
+        sheetCache.invalidate(id);
         for (int i = idx; i < studentCount - 1; i++) students[i] = students[i+1];
         students[--studentCount] = null;
-        try { saveStudentsToFile(); } catch (IOException e) {}
+        changeFeed.publish(ChangeEvent.studentDeleted(id));
+        replicationLog.recordDelete(id);
+        auditRecord(null, log -> log.recordDeleted(id));
+        try { persistDelete(id); } catch (IOException e) {}
         return true;
     }
 
@@ -199,9 +322,25 @@ public class ResultProcessor {
         return -1;
     }
 
+    /**
+     * getStudentById - live students first, then the graduate archive.
+     * Archived students come back as read-only copies (changing them has no effect).
+     */
     public Student getStudentById(int id) {
         int idx = findStudentIndexById(id);
-        return (idx == -1) ? null : students[idx];
+        if (idx != -1) return students[idx];
+        if (!archive.contains(id)) return null;
+        try {
+            Student s = archive.get(id, subjects, subjectCount);
+            if (s != null) {
+                s.setGrade(calculateGrade(s, subjects));
+                s.setPassed(checkPass(s));
+            }
+            return s;
+        } catch (IOException e) {
+            System.out.println("Warning: could not read archived student " + id + ": " + e.getMessage());
+            return null;
+        }
     }
 
     public void listAllStudentsBrief() {
@@ -209,31 +348,78 @@ public class ResultProcessor {
             System.out.println("No students available.");
             return;
         }
-        System.out.printf("%-6s %-20s %-6s\n", "ID", "Name", "Grade");
-        System.out.println("----------------------------------");
-        for (int i = 0; i < studentCount; i++) {
+        renderStudentRows(0, studentCount);
+    }
+
+    /**
+     * listStudentsPage - prints one page (0-based) of the brief student list,
+     * so huge rosters can be browsed without rendering every row.
+     * Returns the number of pages (0 if there are no students).
+     */
+    public int listStudentsPage(int page, int pageSize) {
+        if (studentCount == 0) {
+            System.out.println("No students available.");
+            return 0;
+        }
+        if (pageSize <= 0) pageSize = 20;
+        int pages = (studentCount + pageSize - 1) / pageSize;
+        if (page < 0) page = 0;
+        if (page >= pages) page = pages - 1;
+        int from = page * pageSize;
+        renderStudentRows(from, Math.min(studentCount, from + pageSize));
+        System.out.println("Page " + (page + 1) + " of " + pages + " (" + studentCount + " students)");
+        return pages;
+    }
+
+    // rows [from, to) of the brief list, same layout as "%-6d %-20s %-6s"
+    private void renderStudentRows(int from, int to) {
+        TableRenderer t = briefTable;
+        t.cell("ID").cell("Name").cell("Grade").endRow();
+        t.line("----------------------------------");
+        for (int i = from; i < to; i++) {
             Student s = students[i];
-            System.out.printf("%-6d %-20s %-6s\n", s.getId(), s.getName(), s.getGrade());
+            t.cell(s.getId()).cell(s.getName()).cell(s.getGrade()).endRow();
         }
+        t.flush();
     }
 
     /**
-     * displayStudentDetails(int id)
-     * - Prints student basic info
-     * - Prints per-subject marks (or N/A)
-     * - Prints TotalObtained / TotalMax and percentage
-     * - Prints Grade and PASS/FAIL (grade computed using calculateGrade)
-     * - If GraduatingStudent, prints transcript and graduation status
+     * displayStudentDetails(int id) - prints the result sheet built by renderStudentDetails.
      */
     public void displayStudentDetails(int id) {
+        String sheet = renderStudentDetails(id);
+        System.out.print(sheet == null ? "Student not found.\n" : sheet);
+    }
+
+    /**
+     * renderStudentDetails(int id) - result sheet as text, or null if no such student.
+     * - student basic info
+     * - per-subject marks (or N/A)
+     * - TotalObtained / TotalMax and percentage
+     * - Grade and PASS/FAIL (grade computed using calculateGrade)
+     * - If GraduatingStudent, transcript and graduation status
+     * Sheets are served from sheetCache until something on them changes.
+     */
+    public String renderStudentDetails(int id) {
+        String cached = sheetCache.get(id);
+        if (cached != null) return cached;
+
         Student s = getStudentById(id);
-        if (s == null) {
-            System.out.println("Student not found.");
-            return;
-        }
-        s.displayInfo();
-        // print subject-wise marks
-        System.out.println("Marks:");
+        if (s == null) return null;
+
+        String sheet = renderSheet(s);
+        sheetCache.put(id, sheet);
+        return sheet;
+    }
+
+    // result sheet text for s (sets its grade and pass flag, like the screen always has)
+    private String renderSheet(Student s) {
+        StringBuilder sb = new StringBuilder(512);
+        sb.append("ID   : ").append(s.getId()).append('\n');
+        sb.append("Name : ").append(s.getName()).append('\n');
+        sb.append("Age  : ").append(s.getAge()).append('\n');
+        // subject-wise marks
+        sb.append("Marks:\n");
         double totalObtained = 0.0;
         double totalMax = 0.0;
         for (int i = 0; i < subjectCount; i++) {
@@ -241,32 +427,33 @@ public class ResultProcessor {
             String markStr = (m == -1) ? "N/A" : String.valueOf((int)m);
             String subjName = (subjects[i] != null) ? subjects[i].getName() : "Sub" + (i+1);
             int subjMax = (subjects[i] != null) ? subjects[i].getMaxMarks() : 100;
-            System.out.printf("  %-15s : %6s / %d\n", subjName, markStr, subjMax);
+            sb.append(String.format("  %-15s : %6s / %d\n", subjName, markStr, subjMax));
 
             if (m != -1) totalObtained += m;
             totalMax += subjMax;
         }
 
         // totals and percentage
-        System.out.println("------------------------");
-        System.out.println("Total Marks : " + (int)totalObtained + " / " + (int)totalMax);
+        sb.append("------------------------\n");
+        sb.append("Total Marks : ").append((int)totalObtained).append(" / ").append((int)totalMax).append('\n');
         double percent = (totalMax == 0) ? 0.0 : (totalObtained * 100.0 / totalMax);
-        System.out.printf("Percentage  : %.2f%%\n", percent);
+        sb.append(String.format("Percentage  : %.2f%%\n", percent));
 
         // grade and pass/fail
         String grade = calculateGrade(s, subjects);
         s.setGrade(grade);
         s.setPassed(checkPass(s));
-        System.out.println("Grade       : " + s.getGrade());
-        System.out.println("Result      : " + (s.isPassed() ? "PASS" : "FAIL"));
+        sb.append("Grade       : ").append(s.getGrade()).append('\n');
+        sb.append("Result      : ").append(s.isPassed() ? "PASS" : "FAIL").append('\n');
 
         // If graduating student, show extra details
         if (s instanceof GraduatingStudent) {
             GraduatingStudent gs = (GraduatingStudent) s;
-            System.out.println("\n--- Graduation Details ---");
-            System.out.println("Graduation Status: " + (gs.isGraduationStatus() ? "Graduated" : "Pending"));
-            System.out.println(gs.generateTranscript());
+            sb.append("\n--- Graduation Details ---\n");
+            sb.append("Graduation Status: ").append(gs.isGraduationStatus() ? "Graduated" : "Pending").append('\n');
+            sb.append(gs.generateTranscript()).append('\n');
         }
+        return sb.toString();
     }
 
     // ------------------ MARKS & GRADE LOGIC ------------------
@@ -278,7 +465,8 @@ public class ResultProcessor {
         if (marksValue < 0) return false;
         int sidx = findStudentIndexById(studentId);
         if (sidx == -1) {
-            System.out.println("Student not found.");
+            System.out.println(archive.contains(studentId) ? "Student has graduated and is archived (read-only)."
+                                                           : "Student not found.");
             return false;
         }
         int subjIdx = findSubjectIndexByName(subjectName);
@@ -291,16 +479,109 @@ public class ResultProcessor {
             System.out.println("Marks must be between 0 and " + max);
             return false;
         }
-        students[sidx].setMarkAt(subjIdx, marksValue);
+        applyMark(students[sidx], subjIdx, marksValue);
 
         // update grade and persist
-        String grade = calculateGrade(students[sidx], subjects);
-        students[sidx].setGrade(grade);
-        students[sidx].setPassed(checkPass(students[sidx]));
-        try { saveStudentsToFile(); } catch (IOException e) {}
+        applyGrade(students[sidx], calculateGrade(students[sidx], subjects), checkPass(students[sidx]));
+        replicationLog.recordUpsert(students[sidx]);
+        try { persistMark(students[sidx], subjIdx); } catch (IOException e) {}
         return true;
     }
 
+    // one mark: stats, cache, feed and audit; grade and save are up to the caller
+    private void applyMark(Student s, int subjIdx, int marksValue) {
+        SubjectStats st = stats[subjIdx];
+        double oldMark = s.getMarkAt(subjIdx);
+        auditBaseline(s);
+        st.remove(oldMark);
+        s.setMarkAt(subjIdx, marksValue);
+        st.add(marksValue, s.getName());
+        sheetCache.invalidate(s.getId());
+        String subjName = subjects[subjIdx].getName();
+        changeFeed.publish(ChangeEvent.markChanged(s.getId(), subjName, oldMark, marksValue));
+        auditRecord(s, log -> log.recordMark(s.getId(), subjName, marksValue));
+    }
+
+    private void applyGrade(Student s, String grade, boolean passed) {
+        String oldGrade = s.getGrade();
+        boolean oldPassed = s.isPassed();
+        s.setGrade(grade);
+        s.setPassed(passed);
+        if (!grade.equals(oldGrade) || oldPassed != passed) {
+            changeFeed.publish(ChangeEvent.gradeChanged(s.getId(), oldGrade, grade, passed));
+        }
+    }
+
+    // ------------------ CONCURRENT MARK ENTRY ------------------
+
+    /**
+     * openMarkEntry - a session in which any number of threads can enter marks
+     * at once (see MarkEntrySession). Grades are recomputed in the background
+     * every coalesceMillis; nothing changes here until the session is committed.
+     */
+    public MarkEntrySession openMarkEntry(long coalesceMillis) {
+        return new MarkEntrySession(this, students, studentCount, subjects, subjectCount, coalesceMillis);
+    }
+
+    /**
+     * commitMarkEntry - apply a closed session: only cells changed during it,
+     * matched by student ID and subject name. Uses the session's grade for a
+     * student when the subject list is unchanged and the student's other marks
+     * are still the ones the session started from; otherwise grades again here
+     * (e.g. after updateMarkForStudent changed another subject meanwhile).
+     */
+    int commitMarkEntry(MarkEntrySession session) {
+        boolean sameSubjects = session.getSubjectCount() == subjectCount;
+        int[] subjIdx = new int[session.getSubjectCount()];
+        for (int j = 0; j < subjIdx.length; j++) {
+            subjIdx[j] = findSubjectIndexByName(session.getSubjectName(j));
+            if (subjIdx[j] != j || subjects[j].getMaxMarks() != session.getMaxMarks(j)) sameSubjects = false;
+        }
+        Map<Integer, Integer> index = new HashMap<>(studentCount * 2);
+        for (int i = 0; i < studentCount; i++) index.put(students[i].getId(), i);
+
+        int applied = 0;
+        int skipped = 0;
+        beginBatch();
+        try {
+            for (int k = 0; k < session.getStudentCount(); k++) {
+                int row = session.rowAt(k);
+                Integer idx = null;
+                Student s = null;
+                for (int j = 0; j < subjIdx.length; j++) {
+                    if (!session.isChanged(row, j)) continue;
+                    if (idx == null) idx = index.getOrDefault(session.getStudentId(k), -1);
+                    // student deleted or archived, or subject removed, since the session opened
+                    if (idx == -1 || subjIdx[j] == -1) { skipped++; continue; }
+                    s = students[idx];
+                    applyMark(s, subjIdx[j], session.markAt(row, j));
+                    persistMark(s, subjIdx[j]);
+                    applied++;
+                }
+                if (s == null) continue;
+                int r = session.resultAt(row);
+                if (sameSubjects && session.unchangedCellsMatch(row, s)) {
+                    applyGrade(s, MarkEntrySession.gradeLabel(r), MarkEntrySession.passedFlag(r));
+                } else {
+                    applyGrade(s, calculateGrade(s, subjects), checkPass(s));
+                }
+                replicationLog.recordUpsert(s);
+            }
+        } catch (IOException e) {
+            System.out.println("Warning: Could not save students after mark entry: " + e.getMessage());
+        } finally {
+            try {
+                endBatch();
+            } catch (IOException e) {
+                System.out.println("Warning: Could not save students after mark entry: " + e.getMessage());
+            }
+        }
+        if (skipped > 0) {
+            System.out.println("Note: " + skipped + " entered marks were not applied (student or subject removed).");
+        }
+        return applied;
+    }
+
     /**
      * updateGraduationInfo - update transcript and graduation status for a student (if GraduatingStudent)
      */
@@ -310,9 +591,14 @@ public class ResultProcessor {
         Student s = students[idx];
         if (!(s instanceof GraduatingStudent)) return false;
         GraduatingStudent gs = (GraduatingStudent) s;
+        auditBaseline(gs);
         gs.setTranscript(transcript);
         gs.setGraduationStatus(status);
-        try { saveStudentsToFile(); } catch (IOException e) {}
+        sheetCache.invalidate(studentId);
+        changeFeed.publish(ChangeEvent.graduationUpdated(studentId, transcript, status));
+        replicationLog.recordUpsert(gs);
+        auditRecord(gs, log -> log.recordGraduation(studentId, status, transcript));
+        try { persistStudent(gs); } catch (IOException e) {}
         return true;
     }
 
@@ -336,12 +622,8 @@ public class ResultProcessor {
         }
         double avg = (count == 0) ? 0.0 : (total / count);
 
-        if (avg >= 90) return "A+";
-        else if (avg >= 80) return "A";
-        else if (avg >= 70) return "B";
-        else if (avg >= 60) return "C";
-        else if (avg >= 50) return "D";
-        else return "F";
+        // A+ >= 90, A >= 80, B >= 70, C >= 60, D >= 50, else F
+        return GradingConfig.DEFAULT.gradeFor(avg);
     }
 
     /**
@@ -358,132 +640,481 @@ public class ResultProcessor {
         return true;
     }
 
-    // ------------------ FILE I/O: subjects.txt & students.txt (P2,P3) ------------------
+    // ------------------ WHAT-IF GRADING SIMULATION ------------------
 
     /**
-     * subjects.txt format: each line -> subjectName|maxMarks
+     * snapshotMarks - column-major copy of current marks (students are not modified).
      */
-    public void saveSubjectsToFile() throws IOException {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(SUBJECTS_FILE))) {
-            for (int i = 0; i < subjectCount; i++) {
-                Subject s = subjects[i];
-                bw.write(s.getName() + "|" + s.getMaxMarks());
-                bw.newLine();
+    public MarksMatrix snapshotMarks() {
+        return MarksMatrix.of(students, studentCount, subjects, subjectCount);
+    }
+
+    /**
+     * simulateGrading - how grades and pass/fail would change under each candidate
+     * configuration, compared with the current policy. Nothing is mutated.
+     */
+    public SimulationResult[] simulateGrading(GradingConfig... candidates) {
+        return GradingSimulator.simulate(snapshotMarks(), GradingConfig.DEFAULT, candidates);
+    }
+
+    /**
+     * regradeAll - recompute every student's grade and PASS/FAIL with
+     * calculateGrade/checkPass. Moves every student to the current subject list
+     * first, and publishes a gradeChanged event for each change. Run after a
+     * subject change while the change feed has subscribers. Returns how many changed.
+     *
+     * Plain per-student calls: building a MarksMatrix for MarksKernels costs more
+     * than the kernels save (see KernelBenchmark, "+ snapshot" rows).
+     */
+    public int regradeAll() {
+        int changed = 0;
+        cohortRegrade = true;
+        try {
+            for (int i = 0; i < studentCount; i++) {
+                Student s = students[i];
+                String oldGrade = s.getGrade(); // migrates a student still on an older subject list
+                boolean oldPassed = s.isPassed();
+                String grade = calculateGrade(s, subjects);
+                boolean passed = checkPass(s);
+                if (grade.equals(oldGrade) && passed == oldPassed) continue;
+                s.setGrade(grade);
+                s.setPassed(passed);
+                sheetCache.invalidate(s.getId());
+                changeFeed.publish(ChangeEvent.gradeChanged(s.getId(), oldGrade, grade, passed));
+                changed++;
             }
+        } finally {
+            cohortRegrade = false;
         }
+        return changed;
     }
 
-    public void loadSubjectsFromFile() throws IOException {
-        File f = new File(SUBJECTS_FILE);
-        if (!f.exists()) return;
-        try (BufferedReader br = new BufferedReader(new FileReader(f))) {
-            subjectCount = 0;
-            String line;
-            while ((line = br.readLine()) != null && subjectCount < MAX_SUBJECTS) {
-                String[] parts = line.split("\\|");
-                String name = parts[0].trim();
-                int max = 100;
-                if (parts.length >= 2) {
-                    try { max = Integer.parseInt(parts[1].trim()); } catch (NumberFormatException ex) { max = 100; }
-                }
-                subjects[subjectCount++] = new Subject(name, max);
+    // ------------------ GRADUATE ARCHIVE ------------------
+
+    /**
+     * archiveGraduated - move graduated students (graduation status true) out of
+     * the live arrays into a new archive segment. They stay readable through
+     * getStudentById but no longer take part in saves, lists or analysis.
+     * For replicas, feed subscribers and the audit trail each move is a delete,
+     * the same as deleteStudent. Returns how many were moved.
+     */
+    public int archiveGraduated() {
+        List<Student> graduated = new ArrayList<>();
+        for (int i = 0; i < studentCount; i++) {
+            if (students[i] instanceof GraduatingStudent && ((GraduatingStudent) students[i]).isGraduationStatus()) {
+                graduated.add(students[i]);
             }
         }
+        if (graduated.isEmpty()) return 0;
+        try {
+            archive.archive(graduated, subjects, subjectCount);
+        } catch (IOException e) {
+            System.out.println("Warning: could not archive graduated students: " + e.getMessage());
+            return 0;
+        }
+
+        // archive is on disk; now drop them from the live roster
+        int kept = 0;
+        for (int i = 0; i < studentCount; i++) {
+            Student s = students[i];
+            if (s instanceof GraduatingStudent && ((GraduatingStudent) s).isGraduationStatus()) {
+                int id = s.getId();
+                auditBaseline(s);
+                sheetCache.invalidate(id);
+                changeFeed.publish(ChangeEvent.studentDeleted(id));
+                replicationLog.recordDelete(id);
+                auditRecord(null, log -> log.recordDeleted(id));
+            } else {
+                students[kept++] = s;
+            }
+        }
+        for (int i = kept; i < studentCount; i++) students[i] = null;
+        studentCount = kept;
+        rebuildStats();
+        beginBatch();
+        try {
+            for (Student s : graduated) persistDelete(s.getId());
+        } catch (IOException e) {
+            System.out.println("Warning: could not save students after archiving: " + e.getMessage());
+        } finally {
+            try {
+                endBatch();
+            } catch (IOException e) {
+                System.out.println("Warning: could not save students after archiving: " + e.getMessage());
+            }
+        }
+        return graduated.size();
+    }
+
+    public int getArchivedCount() {
+        return archive.size();
+    }
+
+    public ArchiveStore getArchive() {
+        return archive;
+    }
+
+    // ------------------ AUDIT TRAIL ------------------
+
+    private interface AuditWrite {
+        void write(AuditLog log) throws IOException;
+    }
+
+    // full state before a student's first audited change, so history has a starting point
+    private void auditBaseline(Student s) {
+        if (audit == null || audit.hasHistory(s.getId())) return;
+        try {
+            audit.checkpoint(s, subjects, subjectCount);
+        } catch (IOException e) {
+            System.out.println("Warning: audit log write failed: " + e.getMessage());
+        }
+    }
+
+    // record a change; s (if not null) gets a periodic checkpoint so as-of lookups stay short
+    private void auditRecord(Student s, AuditWrite w) {
+        if (audit == null) return;
+        try {
+            w.write(audit);
+            if (s != null && audit.needsCheckpoint(s.getId())) audit.checkpoint(s, subjects, subjectCount);
+        } catch (IOException e) {
+            System.out.println("Warning: audit log write failed: " + e.getMessage());
+        }
+    }
+
+    private void flushAudit() throws IOException {
+        if (audit != null) audit.flush();
+    }
+
+    /** null when auditing is disabled */
+    public AuditLog getAuditLog() {
+        return audit;
+    }
+
+    /** name recorded with the following changes (e.g. the logged-in admin) */
+    public void setAuditActor(String actor) {
+        if (audit != null) audit.setActor(actor);
     }
 
     /**
-     * students.txt format per line (new):
-     * id|name|age|isGraduating|transcriptEscaped|graduationStatus|m1,m2,...
-     *
-     * For backward compatibility, if old format id|name|age|m1,m2,... is found,
-     * it will still be parsed as a non-graduating student.
+     * getAuditHistory - who changed what for one student, oldest first.
      */
-    public void saveStudentsToFile() throws IOException {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(STUDENTS_FILE))) {
-            for (int i = 0; i < studentCount; i++) {
-                Student s = students[i];
-                StringBuilder sb = new StringBuilder();
-                sb.append(s.getId()).append("|")
-                  .append(s.getName()).append("|")
-                  .append(s.getAge()).append("|");
-
-                if (s instanceof GraduatingStudent) {
-                    GraduatingStudent gs = (GraduatingStudent) s;
-                    String transcript = gs.getTranscript();
-                    String esc = (transcript == null) ? "" : transcript.replace("|", "&#124;");
-                    sb.append("true").append("|").append(esc).append("|").append(gs.isGraduationStatus()).append("|");
-                } else {
-                    // not graduating -> mark as false and empty fields to keep format consistent
-                    sb.append("false").append("|").append("").append("|").append("false").append("|");
-                }
+    public List<AuditEntry> getAuditHistory(int id) throws IOException {
+        return (audit == null) ? new ArrayList<>() : audit.history(id);
+    }
 
-                // marks list (comma separated) — if marks array shorter/longer, handle gracefully
-                double[] marks = s.getMarks();
-                if (marks != null && marks.length > 0) {
-                    for (int m = 0; m < marks.length; m++) {
-                        sb.append((int)marks[m]);
-                        if (m < marks.length - 1) sb.append(",");
-                    }
-                }
-                bw.write(sb.toString());
-                bw.newLine();
+    /**
+     * renderStudentDetailsAsOf - the result sheet as it would have been shown at
+     * the given time (epoch millis), using the current subject list. Graduates
+     * archived by then are shown from the archive.
+     * Returns null if the student did not exist then (or auditing is off).
+     */
+    public String renderStudentDetailsAsOf(int id, long timestamp) throws IOException {
+        if (audit == null) return null;
+        Student s;
+        if (audit.hasHistory(id)) {
+            s = audit.stateAsOf(id, timestamp, subjects, subjectCount);
+        } else {
+            // never changed since auditing began: the current record is the answer
+            Student current = getStudentById(id);
+            s = (current == null) ? null : StudentFileFormat.parse(StudentFileFormat.format(current), subjectCount);
+        }
+        if (s == null && archive.contains(id)) {
+            // archiving is logged as the student's last change, a delete; from then on
+            // the archived (read-only) record is the student
+            List<AuditEntry> history = audit.history(id);
+            AuditEntry last = history.isEmpty() ? null : history.get(history.size() - 1);
+            if (last != null && last.getKind() == AuditEntry.Kind.DELETED && last.getTimestamp() <= timestamp) {
+                s = getStudentById(id);
             }
         }
+        return (s == null) ? null : renderSheet(s);
+    }
+
+    // ------------------ PERSISTENCE: subjects & students (P2,P3) ------------------
+
+    /**
+     * beginBatch - defer file writes until the matching endBatch.
+     * Lets scripted jobs run many mutations with one save at the end.
+     * Calls may nest; only the outermost endBatch writes. With an incremental
+     * storage engine the row changes of the batch form one transaction.
+     */
+    public void beginBatch() {
+        if (batchDepth++ > 0) return;
+        try {
+            storage.beginBatch();
+        } catch (IOException e) {
+            System.out.println("Warning: storage batch not started, changes are saved one by one: " + e.getMessage());
+        }
+    }
+
+    /**
+     * endBatch - leave batch mode; writes whatever changed during the batch.
+     */
+    public void endBatch() throws IOException {
+        if (batchDepth == 0) return;
+        if (--batchDepth > 0) return;
+        try {
+            flushPending();
+        } finally {
+            storage.endBatch();
+        }
+    }
+
+    /** write dirty files now, even inside a batch */
+    public void flushPending() throws IOException {
+        if (subjectsDirty) {
+            saveSubjectsToFile();
+            subjectsDirty = false;
+        }
+        if (studentsDirty) {
+            saveStudentsToFile();
+            studentsDirty = false;
+        }
+    }
+
+    public boolean isInBatch() { return batchDepth > 0; }
+
+    // mutations call these instead of saving directly
+    private void persistStudents() throws IOException {
+        if (batchDepth > 0) { studentsDirty = true; return; }
+        saveStudentsToFile();
+    }
+
+    private void persistSubjects() throws IOException {
+        if (batchDepth > 0) { subjectsDirty = true; return; }
+        saveSubjectsToFile();
+    }
+
+    // one changed student: a row update when the engine has them, else the full save
+    private void persistStudent(Student s) throws IOException {
+        if (!storage.isIncremental()) { persistStudents(); return; }
+        flushAudit();
+        storage.upsertStudent(s, schema);
+    }
+
+    private void persistMark(Student s, int subjIdx) throws IOException {
+        if (!storage.isIncremental()) { persistStudents(); return; }
+        flushAudit();
+        storage.updateMark(s.getId(), subjects[subjIdx], s.getMarkAt(subjIdx));
+    }
+
+    private void persistDelete(int id) throws IOException {
+        if (!storage.isIncremental()) { persistStudents(); return; }
+        flushAudit();
+        storage.deleteStudent(id);
+    }
+
+    public StorageEngine getStorage() {
+        return storage;
     }
 
+    /** current subject list version (stable subject IDs) */
+    public SubjectSchema getSchema() {
+        return schema;
+    }
+
+    /**
+     * saveSubjectsToFile - store the subject list (subjects.txt for the text engine:
+     * each line -> subjectName|maxMarks).
+     */
+    public void saveSubjectsToFile() throws IOException {
+        storage.saveSchema(schema);
+    }
+
+    public void loadSubjectsFromFile() throws IOException {
+        SubjectSchema loaded = storage.loadSchema();
+        for (int j = 0; j < subjectCount; j++) subjects[j] = null;
+        subjectCount = 0;
+        for (int j = 0; j < loaded.size() && subjectCount < MAX_SUBJECTS; j++) subjects[subjectCount++] = loaded.subjectAt(j);
+        // students already in memory move over by subject ID
+        schema = schema.supersede(new SubjectSchema(loaded.getVersion(), loaded.getNextId(), subjects, subjectCount,
+                schema.getRegrader()));
+        rebuildStats();
+        sheetCache.clear();
+    }
+
+    /**
+     * saveStudentsToFile - store every student (students.txt for the text engine,
+     * format in StudentFileFormat:
+     * id|name|age|isGraduating|transcriptEscaped|graduationStatus|m1,m2,...).
+     */
+    public void saveStudentsToFile() throws IOException {
+        flushAudit(); // history reaches disk no later than the data it explains
+        storage.saveStudents(students, studentCount, schema);
+    }
+
+    /**
+     * loadStudentsFromFile - replace the roster with the stored students and
+     * compute grade/pass for each.
+     */
     public void loadStudentsFromFile() throws IOException {
-        File f = new File(STUDENTS_FILE);
-        if (!f.exists()) return;
-        try (BufferedReader br = new BufferedReader(new FileReader(f))) {
-            studentCount = 0;
-            String line;
-            while ((line = br.readLine()) != null && studentCount < MAX_STUDENTS) {
-                // try to parse new format first: id|name|age|isGrad|transcriptEsc|gradStatus|m1,m2,...
-                String[] parts = line.split("\\|", 7); // limit to 7 so marks remain as last part
-                if (parts.length < 4) continue; // malformed, skip
-
-                try {
-                    int id = Integer.parseInt(parts[0].trim());
-                    String name = parts[1].trim();
-                    int age = Integer.parseInt(parts[2].trim());
-
-                    boolean isGrad = false;
-                    String transcript = "";
-                    boolean gradStatus = false;
-                    String marksStr = "";
-
-                    if (parts.length >= 7) {
-                        // new format
-                        isGrad = parts[3].trim().equalsIgnoreCase("true");
-                        transcript = parts[4].replace("&#124;", "|");
-                        gradStatus = parts[5].trim().equalsIgnoreCase("true");
-                        marksStr = parts[6].trim();
-                    } else {
-                        // fallback to old format (id|name|age|m1,m2,...)
-                        isGrad = false;
-                        marksStr = parts[3].trim();
-                    }
-
-                    double[] arr = Student.parseMarksString(marksStr, subjectCount);
-                    Student s;
-                    if (isGrad) {
-                        GraduatingStudent gs = new GraduatingStudent(id, name, age, subjectCount, transcript, gradStatus);
-                        gs.setMarksArray(arr);
-                        s = gs;
-                    } else {
-                        s = new Student(id, name, age, subjectCount);
-                        s.setMarksArray(arr);
-                    }
-
-                    // compute grade/pass on load
-                    s.setGrade(calculateGrade(s, subjects));
-                    s.setPassed(checkPass(s));
-                    students[studentCount++] = s;
-                } catch (NumberFormatException ex) {
-                    // skip bad line
-                }
+        List<Student> loaded = storage.loadStudents(schema, MAX_STUDENTS);
+        for (int i = 0; i < studentCount; i++) students[i] = null;
+        studentCount = 0;
+        for (Student s : loaded) {
+            s.setGrade(calculateGrade(s, subjects));
+            s.setPassed(checkPass(s));
+            students[studentCount++] = s;
+        }
+        rebuildStats();
+        sheetCache.clear();
+    }
+
+    // ------------------ DATA FILE VALIDATION ------------------
+
+    /** report of the check done on load (null if validation was disabled or the engine has none) */
+    public ValidationReport getLastValidation() {
+        return storage.getLastValidation();
+    }
+
+    /**
+     * validateDataFiles - check the stored data now (pending batch writes are
+     * not included). Does not change anything. Null if the engine has no such check.
+     */
+    public ValidationReport validateDataFiles() throws IOException {
+        return storage.validate(schema);
+    }
+
+    // ------------------ REPLICATION (primary -> read replica) ------------------
+
+    /**
+     * exportDeltas - write the changes a replica at (replicaEpoch, sinceLsn) is missing.
+     * See ReplicationLog for the stream format. Returns the number of data lines.
+     */
+    public int exportDeltas(Writer out, long replicaEpoch, long sinceLsn) throws IOException {
+        return replicationLog.export(out, replicaEpoch, sinceLsn, subjects, subjectCount, students, studentCount);
+    }
+
+    /**
+     * applyDeltas - replica side: apply a stream produced by exportDeltas on the primary.
+     * Entries at or below the already-applied LSN are skipped, so applying the same
+     * stream twice is harmless. Files are written once, after the whole stream.
+     * Returns the number of entries applied.
+     */
+    public int applyDeltas(Reader in) throws IOException {
+        beginBatch();
+        try {
+            return new ReplicaApplier(this).apply(new BufferedReader(in));
+        } finally {
+            endBatch();
+        }
+    }
+
+    public ReplicationLog getReplicationLog() { return replicationLog; }
+
+    /** epoch of the primary this replica last synced from (0 = never) */
+    public long getReplicaEpoch() { return replicaEpoch; }
+
+    /** primary LSN this replica has applied up to (-1 = nothing yet) */
+    public long getReplicaLsn() { return replicaLsn; }
+
+    void setReplicaPosition(long epoch, long lsn) {
+        this.replicaEpoch = epoch;
+        this.replicaLsn = lsn;
+    }
+
+    // full snapshot: drop everything and take the primary's subject list
+    void replicaReset(Subject[] newSubjects) throws IOException {
+        for (int i = 0; i < studentCount; i++) {
+            // students with audited history get a delete; the snapshot re-adds those still present
+            if (audit != null && audit.hasHistory(students[i].getId())) {
+                int id = students[i].getId();
+                auditRecord(null, log -> log.recordDeleted(id));
             }
         }
+        for (int i = 0; i < studentCount; i++) students[i] = null;
+        studentCount = 0;
+        for (int j = 0; j < subjectCount; j++) subjects[j] = null;
+        subjectCount = 0;
+        for (Subject subj : newSubjects) {
+            if (subjectCount < MAX_SUBJECTS) subjects[subjectCount++] = subj;
+        }
+        schema = schema.withReplaced(subjects, subjectCount);
+        rebuildStats();
+        sheetCache.clear();
+        persistSubjects();
+        persistStudents();
+    }
+
+    // add or replace one student record as sent by the primary
+    void replicaUpsert(String studentLine, long version) throws IOException {
+        Student s = StudentFileFormat.parse(studentLine, schema);
+        if (s == null) throw new IOException("Malformed student in delta: " + studentLine);
+
+        int idx = findStudentIndexById(s.getId());
+        if (idx == -1) {
+            if (!addStudent(s)) throw new IOException("Replica could not add student " + s.getId());
+        } else {
+            s.setGrade(calculateGrade(s, subjects));
+            s.setPassed(checkPass(s));
+            auditBaseline(students[idx]);
+            statsRemove(students[idx]);
+            students[idx] = s;
+            statsAdd(s);
+            invalidateToppers();
+            sheetCache.invalidate(s.getId());
+            replicationLog.recordUpsert(s);
+            // the primary's log has the individual changes; here the new state is kept whole
+            auditRecord(null, log -> log.checkpoint(s, subjects, subjectCount));
+            persistStudent(s);
+        }
+        replicationLog.setVersion(s.getId(), version);
+    }
+
+    // ------------------ RUNNING SUBJECT STATISTICS ------------------
+
+    /**
+     * rebuildStats - recompute every subject's aggregates from the students array.
+     * Called after loading; normal mutations update the stats incrementally.
+     */
+    private void rebuildStats() {
+        for (int j = 0; j < subjectCount; j++) {
+            int max = (subjects[j] != null) ? subjects[j].getMaxMarks() : 100;
+            stats[j] = new SubjectStats(max);
+        }
+        for (int i = 0; i < studentCount; i++) statsAdd(students[i]);
+    }
+
+    private void statsAdd(Student s) {
+        if (s == null) return;
+        for (int j = 0; j < subjectCount; j++) stats[j].add(s.getMarkAt(j), s.getName());
+    }
+
+    private void statsRemove(Student s) {
+        if (s == null) return;
+        for (int j = 0; j < subjectCount; j++) stats[j].remove(s.getMarkAt(j));
+    }
+
+    // a rename may change a topper's display name
+    private void invalidateToppers() {
+        for (int j = 0; j < subjectCount; j++) stats[j].invalidateTopper();
+    }
+
+    /**
+     * topperFor - first student (roster order) holding the subject's highest mark.
+     * Only scans the roster when the tracked topper was invalidated.
+     */
+    private String topperFor(int j) {
+        SubjectStats st = stats[j];
+        if (st.getCount() == 0) return "N/A";
+        if (st.isTopperDirty() || st.getTopperName() == null) {
+            int highest = st.getHighest();
+            String name = "N/A";
+            for (int i = 0; i < studentCount; i++) {
+                double m = students[i].getMarkAt(j);
+                if (m >= 0 && st.bucketOf(m) == highest) { name = students[i].getName(); break; }
+            }
+            st.setTopperName(name);
+        }
+        return st.getTopperName();
+    }
+
+    /**
+     * getSubjectStats - running aggregates for subject at index j (null if out of range).
+     */
+    public SubjectStats getSubjectStats(int j) {
+        if (j < 0 || j >= subjectCount) return null;
+        return stats[j];
     }
 
     // ------------------ SUBJECT-WISE ANALYSIS ------------------
@@ -495,6 +1126,7 @@ public class ResultProcessor {
      *
      * Averages and highest/lowest are computed from entered marks only (marks != -1).
      * Pass/Fail counts are computed based on PASS_PERCENT of subject max.
+     * All figures come from the running SubjectStats, so cost is O(subjects x buckets).
      */
     public void displaySubjectAnalysis() {
         if (subjectCount == 0) {
@@ -506,10 +1138,23 @@ public class ResultProcessor {
             return;
         }
 
-        System.out.println("--------------------------------------------------------------");
-        System.out.printf("%-12s | %-9s | %-7s | %-6s | %-4s | %-4s | %-15s\n",
-                "Subject", "Avg Marks", "Highest", "Lowest", "Pass", "Fail", "Topper");
-        System.out.println("--------------------------------------------------------------");
+        String[] toppers = new String[subjectCount];
+        for (int j = 0; j < subjectCount; j++) toppers[j] = topperFor(j);
+        printSubjectAnalysisRows(subjects, stats, toppers, subjectCount, PASS_PERCENT);
+    }
+
+    /**
+     * printSubjectAnalysisRows - the subject analysis table plus best/toughest lines.
+     * Shared with the sharded view, which passes stats merged from every shard.
+     */
+    public static void printSubjectAnalysisRows(Subject[] subjects, SubjectStats[] stats, String[] toppers,
+                                                int subjectCount, int passPercent) {
+        // numeric columns are right aligned ("%9.2f", "%7s", "%4d"), text columns left
+        TableRenderer rows = new TableRenderer(" | ", new int[] {12, 9, 7, 6, 4, 4, 15},
+                new boolean[] {true, false, false, false, false, false, true});
+        rows.line("--------------------------------------------------------------");
+        rows.line(ANALYSIS_HEADER);
+        rows.line("--------------------------------------------------------------");
 
         double bestAvg = -1;
         int bestSubIdx = -1;
@@ -517,39 +1162,15 @@ public class ResultProcessor {
         int worstSubIdx = -1;
 
         for (int j = 0; j < subjectCount; j++) {
-            double sum = 0.0;
-            int countEntered = 0;
-            double highest = -1;
-            double lowest = Double.MAX_VALUE;
-            String topperName = "N/A";
-            int passCount = 0;
-            int failCount = 0;
+            SubjectStats st = stats[j];
+            long countEntered = st.getCount();
 
             int subjMax = (subjects[j] != null) ? subjects[j].getMaxMarks() : 100;
-            double passThreshold = subjMax * PASS_PERCENT / 100.0;
-
-            for (int i = 0; i < studentCount; i++) {
-                Student s = students[i];
-                if (s == null) continue;
-                double m = s.getMarkAt(j);
-                if (m == -1) continue; // skip not-entered
-
-                countEntered++;
-                sum += m;
-
-                if (m > highest) {
-                    highest = m;
-                    topperName = s.getName();
-                }
-                if (m < lowest) {
-                    lowest = m;
-                }
+            double passThreshold = subjMax * passPercent / 100.0;
+            long passCount = st.countAtLeast(passThreshold);
+            long failCount = countEntered - passCount;
 
-                if (m >= passThreshold) passCount++;
-                else failCount++;
-            }
-
-            double avg = (countEntered == 0) ? 0.0 : (sum / countEntered);
+            double avg = st.getMean();
 
             // update best/worst subject by avg (only consider subjects with at least one entered mark)
             if (countEntered > 0) {
@@ -557,18 +1178,12 @@ public class ResultProcessor {
                 if (avg < worstAvg) { worstAvg = avg; worstSubIdx = j; }
             }
 
-            String highestStr = (highest < 0) ? "N/A" : String.valueOf((int)highest);
-            String lowestStr = (lowest == Double.MAX_VALUE) ? "N/A" : String.valueOf((int)lowest);
-
-            System.out.printf("%-12s | %9.2f | %7s | %6s | %4d | %4d | %-15s\n",
-                    (subjects[j] != null ? subjects[j].getName() : "Sub"+(j+1)),
-                    avg,
-                    highestStr,
-                    lowestStr,
-                    passCount,
-                    failCount,
-                    topperName);
+            rows.cell(subjects[j] != null ? subjects[j].getName() : "Sub" + (j + 1)).cell(avg, 2);
+            if (st.getHighest() < 0) rows.cell("N/A"); else rows.cell(st.getHighest());
+            if (st.getLowest() < 0) rows.cell("N/A"); else rows.cell(st.getLowest());
+            rows.cell(passCount).cell(failCount).cell(toppers[j]).endRow();
         }
+        rows.flush();
 
         System.out.println("--------------------------------------------------------------");
 
@@ -585,9 +1200,85 @@ public class ResultProcessor {
         }
     }
 
+    /**
+     * displaySubjectDistribution
+     * Prints per subject: count, mean, std deviation, Q1 / median / Q3
+     * and a grade-band histogram (A+..F on percentage of subject max).
+     */
+    public void displaySubjectDistribution() {
+        if (subjectCount == 0) {
+            System.out.println("No subjects configured.");
+            return;
+        }
+        System.out.println("--------------------------------------------------------------------------");
+        System.out.printf("%-12s | %5s | %7s | %6s | %6s | %6s | %6s\n",
+                "Subject", "Count", "Mean", "StdDev", "Q1", "Median", "Q3");
+        System.out.println("--------------------------------------------------------------------------");
+        for (int j = 0; j < subjectCount; j++) {
+            SubjectStats st = stats[j];
+            if (st.getCount() == 0) {
+                System.out.printf("%-12s | %5d | %7s | %6s | %6s | %6s | %6s\n",
+                        subjects[j].getName(), 0, "N/A", "N/A", "N/A", "N/A", "N/A");
+                continue;
+            }
+            System.out.printf("%-12s | %5d | %7.2f | %6.2f | %6.1f | %6.1f | %6.1f\n",
+                    subjects[j].getName(), st.getCount(), st.getMean(), st.getStdDev(),
+                    st.getQuantile(0.25), st.getMedian(), st.getQuantile(0.75));
+        }
+        System.out.println("--------------------------------------------------------------------------");
+
+        System.out.println("\nGrade bands (% of subject max):");
+        StringBuilder header = new StringBuilder(String.format("%-12s", "Subject"));
+        for (String band : SubjectStats.GRADE_BANDS) header.append(String.format(" | %4s", band));
+        System.out.println(header);
+        for (int j = 0; j < subjectCount; j++) {
+            long[] bands = stats[j].getGradeBandHistogram();
+            StringBuilder row = new StringBuilder(String.format("%-12s", subjects[j].getName()));
+            for (long c : bands) row.append(String.format(" | %4d", c));
+            System.out.println(row);
+        }
+    }
+
+    /**
+     * subjectCorrelation - correlation and covariance of every pair of subjects,
+     * each over the students with both marks entered. Computed from a snapshot
+     * in one blocked pass, chunks of students in parallel (see CorrelationMatrix).
+     */
+    public CorrelationMatrix subjectCorrelation() {
+        String[] names = new String[subjectCount];
+        for (int j = 0; j < subjectCount; j++) names[j] = subjects[j].getName();
+        return CorrelationMatrix.compute(snapshotMarks(), names);
+    }
+
+    /**
+     * displaySubjectCorrelation
+     * Prints which subjects move together: correlation and covariance matrices
+     * and the most strongly correlated pairs.
+     */
+    public void displaySubjectCorrelation() {
+        if (subjectCount < 2) {
+            System.out.println("Need at least two subjects.");
+            return;
+        }
+        long start = System.nanoTime();
+        CorrelationMatrix m = subjectCorrelation();
+        long micros = (System.nanoTime() - start) / 1000;
+        System.out.print(m.format());
+        System.out.printf("(%d students, %.1f ms)%n", studentCount, micros / 1000.0);
+    }
+
     // ------------------ GETTERS FOR UI ------------------
     public Subject[] getSubjectsArray() { return subjects; }
     public Student[] getStudentsArray() { return students; }
     public int getSubjectCount() { return subjectCount; }
     public int getStudentCount() { return studentCount; }
+    public int getPassPercent() { return PASS_PERCENT; }
+    public ResultSheetCache getResultSheetCache() { return sheetCache; }
+    public ChangeFeed getChangeFeed() { return changeFeed; }
+
+    /** first student (roster order) with the highest mark in subject j, "N/A" if none */
+    public String getSubjectTopper(int j) {
+        if (j < 0 || j >= subjectCount) return "N/A";
+        return topperFor(j);
+    }
 }
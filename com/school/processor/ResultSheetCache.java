@@ -0,0 +1,82 @@
+package com.school.processor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * ResultSheetCache - bounded LRU cache of rendered result sheets, keyed by student ID.
+ *
+ * ResultProcessor invalidates an entry whenever something shown on that sheet
+ * changes (marks, name, graduation info, delete) and clears the whole cache
+ * when the subject schema changes or data is reloaded.
+ *
+ * Hit/miss counters are kept so the capacity can be sized from real traffic.
+ */
+public class ResultSheetCache {
+
+    private final int capacity;
+    private final LinkedHashMap<Integer, String> map;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public ResultSheetCache(int capacity) {
+        this.capacity = Math.max(0, capacity);
+        // access-order LinkedHashMap = LRU
+        this.map = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, String> eldest) {
+                if (size() > ResultSheetCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /** cached sheet or null; counts a hit or a miss */
+    public synchronized String get(int studentId) {
+        String sheet = map.get(studentId);
+        if (sheet == null) misses++;
+        else hits++;
+        return sheet;
+    }
+
+    public synchronized void put(int studentId, String sheet) {
+        if (capacity == 0 || sheet == null) return;
+        map.put(studentId, sheet);
+    }
+
+    public synchronized void invalidate(int studentId) {
+        map.remove(studentId);
+    }
+
+    public synchronized void clear() {
+        map.clear();
+    }
+
+    public int getCapacity() { return capacity; }
+    public synchronized int size() { return map.size(); }
+    public synchronized long getHits() { return hits; }
+    public synchronized long getMisses() { return misses; }
+    public synchronized long getEvictions() { return evictions; }
+
+    /** hits / (hits + misses), 0 when nothing was looked up yet */
+    public synchronized double getHitRatio() {
+        long total = hits + misses;
+        return (total == 0) ? 0.0 : (double) hits / total;
+    }
+
+    public synchronized void resetStats() {
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("Result sheet cache: %d/%d entries, hits %d, misses %d, evictions %d, hit ratio %.1f%%",
+                map.size(), capacity, hits, misses, evictions, getHitRatio() * 100);
+    }
+}
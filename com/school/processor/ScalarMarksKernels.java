@@ -0,0 +1,65 @@
+package com.school.processor;
+
+/**
+ * ScalarMarksKernels - plain loops, used when the vector module is missing.
+ * Loops run student-innermost over each column, the same access pattern as
+ * the vector version, so the comparison between the two is fair.
+ */
+final class ScalarMarksKernels implements MarksKernels {
+
+    static final ScalarMarksKernels INSTANCE = new ScalarMarksKernels();
+
+    private ScalarMarksKernels() {}
+
+    @Override
+    public String name() { return "scalar"; }
+
+    @Override
+    public void averages(MarksMatrix m, double[] out) {
+        int k = m.getSubjectCount();
+        enteredTotals(m, out);
+        if (k == 0) return;
+        int n = m.getStudentCount();
+        for (int i = 0; i < n; i++) out[i] /= k;
+    }
+
+    @Override
+    public void percentages(MarksMatrix m, double[] out) {
+        int n = m.getStudentCount();
+        double totalMax = 0;
+        for (int j = 0; j < m.getSubjectCount(); j++) totalMax += m.getMaxMarks(j);
+        enteredTotals(m, out);
+        for (int i = 0; i < n; i++) out[i] = (totalMax == 0) ? 0.0 : out[i] * 100.0 / totalMax;
+    }
+
+    @Override
+    public void passFlags(MarksMatrix m, int passPercent, boolean[] out) {
+        int n = m.getStudentCount();
+        for (int i = 0; i < n; i++) out[i] = true;
+        for (int j = 0; j < m.getSubjectCount(); j++) {
+            double[] col = m.column(j);
+            double threshold = m.getMaxMarks(j) * passPercent / 100.0;
+            for (int i = 0; i < n; i++) {
+                double v = col[i];
+                if (v == -1 || v < threshold) out[i] = false;
+            }
+        }
+    }
+
+    @Override
+    public void gradeIndexes(double[] values, int n, GradingConfig cfg, int[] out) {
+        for (int i = 0; i < n; i++) out[i] = cfg.gradeIndex(values[i]);
+    }
+
+    private static void enteredTotals(MarksMatrix m, double[] out) {
+        int n = m.getStudentCount();
+        for (int i = 0; i < n; i++) out[i] = 0;
+        for (int j = 0; j < m.getSubjectCount(); j++) {
+            double[] col = m.column(j);
+            for (int i = 0; i < n; i++) {
+                double v = col[i];
+                if (v >= 0) out[i] += v;
+            }
+        }
+    }
+}
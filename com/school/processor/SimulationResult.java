@@ -0,0 +1,77 @@
+package com.school.processor;
+
+/**
+ * SimulationResult - effect of one candidate GradingConfig compared with the baseline.
+ *
+ * transitions[b][c] = number of students whose grade is baseline label b today
+ * and would be candidate label c under the candidate configuration.
+ */
+public class SimulationResult {
+
+    private final GradingConfig baseline;
+    private final GradingConfig candidate;
+    private final long[][] transitions;
+    private final long students;
+    private final long passedBefore;
+    private final long passedAfter;
+    private final long passToFail;
+    private final long failToPass;
+
+    SimulationResult(GradingConfig baseline, GradingConfig candidate, long[][] transitions, long students,
+                     long passedBefore, long passedAfter, long passToFail, long failToPass) {
+        this.baseline = baseline;
+        this.candidate = candidate;
+        this.transitions = transitions;
+        this.students = students;
+        this.passedBefore = passedBefore;
+        this.passedAfter = passedAfter;
+        this.passToFail = passToFail;
+        this.failToPass = failToPass;
+    }
+
+    public GradingConfig getBaseline() { return baseline; }
+    public GradingConfig getCandidate() { return candidate; }
+    public long getStudents() { return students; }
+    public long getPassedBefore() { return passedBefore; }
+    public long getPassedAfter() { return passedAfter; }
+    public long getPassToFail() { return passToFail; }
+    public long getFailToPass() { return failToPass; }
+
+    public long getTransition(int baselineGrade, int candidateGrade) {
+        return transitions[baselineGrade][candidateGrade];
+    }
+
+    /** students whose letter grade would change */
+    public long getGradeChanges() {
+        long changed = 0;
+        for (int b = 0; b < transitions.length; b++) {
+            for (int c = 0; c < transitions[b].length; c++) {
+                boolean same = baseline.getLabel(b).equals(candidate.getLabel(c));
+                if (!same) changed += transitions[b][c];
+            }
+        }
+        return changed;
+    }
+
+    /** report text: summary lines plus the old -> new grade matrix */
+    public String format() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Candidate: ").append(candidate).append('\n');
+        sb.append("Students : ").append(students).append('\n');
+        sb.append("Pass     : ").append(passedBefore).append(" -> ").append(passedAfter)
+          .append(String.format(" (%+d)", passedAfter - passedBefore)).append('\n');
+        sb.append("           ").append(passToFail).append(" would newly fail, ")
+          .append(failToPass).append(" would newly pass").append('\n');
+        sb.append("Grade changes: ").append(getGradeChanges()).append('\n');
+
+        sb.append(String.format("%-8s", "old\\new"));
+        for (int c = 0; c < candidate.getGradeCount(); c++) sb.append(String.format(" %8s", candidate.getLabel(c)));
+        sb.append('\n');
+        for (int b = 0; b < baseline.getGradeCount(); b++) {
+            sb.append(String.format("%-8s", baseline.getLabel(b)));
+            for (int c = 0; c < candidate.getGradeCount(); c++) sb.append(String.format(" %8d", transitions[b][c]));
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,180 @@
+package com.school.processor;
+
+import com.school.models.GraduatingStudent;
+import com.school.models.Student;
+import com.school.models.SubjectSchema;
+
+/**
+ * StudentFileFormat - the single place that knows the students.txt line layout.
+ *
+ * new format : id|name|age|isGraduating|transcriptEscaped|graduationStatus|marks
+ * old format : id|name|age|m1,m2,...   (read only, parsed as non-graduating)
+ *
+ * marks is either
+ *   keyed      : subjectId:mark,...  entered marks only (students.txt)
+ *   positional : m1,m2,...           one per current subject, -1 = not entered
+ *                (older files; the replication and shard streams; archive segments)
+ * Keyed marks of subjects that are no longer listed are ignored on read.
+ *
+ * transcriptEscaped replaces '|' with "&#124;".
+ */
+public final class StudentFileFormat {
+
+    private StudentFileFormat() {}
+
+    public static String escapeTranscript(String transcript) {
+        return (transcript == null) ? "" : transcript.replace("|", "&#124;");
+    }
+
+    public static String unescapeTranscript(String esc) {
+        return (esc == null) ? "" : esc.replace("&#124;", "|");
+    }
+
+    /**
+     * format - one students.txt line (without line terminator).
+     */
+    public static String format(Student s) {
+        StringBuilder sb = new StringBuilder(64);
+        appendTo(sb, s);
+        return sb.toString();
+    }
+
+    public static void appendTo(StringBuilder sb, Student s) {
+        appendFields(sb, s);
+
+        // marks list (comma separated), stored as ints; -1 preserved
+        double[] marks = s.getMarks();
+        if (marks != null && marks.length > 0) {
+            for (int m = 0; m < marks.length; m++) {
+                sb.append((int) marks[m]);
+                if (m < marks.length - 1) sb.append(",");
+            }
+        }
+    }
+
+    /**
+     * appendKeyedTo - the line with marks keyed by subject ID, taken as they are
+     * stored (a student not yet migrated to the current subject list stays so;
+     * marks of removed subjects are written and ignored on the next read).
+     * Detached students are written positionally.
+     */
+    public static void appendKeyedTo(StringBuilder sb, Student s) {
+        SubjectSchema schema;
+        double[] marks;
+        synchronized (s) {
+            schema = s.getSchema();
+            marks = s.getStoredMarks();
+        }
+        if (schema == null) {
+            appendTo(sb, s);
+            return;
+        }
+        appendFields(sb, s);
+        boolean first = true;
+        for (int j = 0; marks != null && j < marks.length && j < schema.size(); j++) {
+            if (marks[j] == -1) continue;
+            if (!first) sb.append(',');
+            sb.append(schema.idAt(j)).append(':').append((int) marks[j]);
+            first = false;
+        }
+    }
+
+    public static String formatKeyed(Student s) {
+        StringBuilder sb = new StringBuilder(64);
+        appendKeyedTo(sb, s);
+        return sb.toString();
+    }
+
+    // everything up to and including the '|' before the marks
+    private static void appendFields(StringBuilder sb, Student s) {
+        sb.append(s.getId()).append("|")
+          .append(s.getName()).append("|")
+          .append(s.getAge()).append("|");
+
+        if (s instanceof GraduatingStudent) {
+            GraduatingStudent gs = (GraduatingStudent) s;
+            sb.append("true").append("|").append(escapeTranscript(gs.getTranscript()))
+              .append("|").append(gs.isGraduationStatus()).append("|");
+        } else {
+            // not graduating -> mark as false and empty fields to keep format consistent
+            sb.append("false").append("|").append("").append("|").append("false").append("|");
+        }
+    }
+
+    /**
+     * parse - build a Student (or GraduatingStudent) from one line.
+     * Returns null for malformed lines (too few fields, bad id/age).
+     * Grade and pass flags are left for the caller to compute.
+     */
+    public static Student parse(String line, int subjectCount) {
+        return parse(line, subjectCount, null);
+    }
+
+    /**
+     * parse - as above, for the subject list of schema: keyed marks are placed
+     * by subject ID, and the student comes back attached to schema.
+     */
+    public static Student parse(String line, SubjectSchema schema) {
+        Student s = parse(line, schema.size(), schema);
+        if (s != null) s.attachSchema(schema);
+        return s;
+    }
+
+    private static Student parse(String line, int subjectCount, SubjectSchema schema) {
+        if (line == null) return null;
+        String[] parts = line.split("\\|", 7); // limit to 7 so marks remain as last part
+        if (parts.length < 4) return null;
+
+        try {
+            int id = Integer.parseInt(parts[0].trim());
+            String name = parts[1].trim();
+            int age = Integer.parseInt(parts[2].trim());
+
+            boolean isGrad = false;
+            String transcript = "";
+            boolean gradStatus = false;
+            String marksStr;
+
+            if (parts.length >= 7) {
+                isGrad = parts[3].trim().equalsIgnoreCase("true");
+                transcript = unescapeTranscript(parts[4]);
+                gradStatus = parts[5].trim().equalsIgnoreCase("true");
+                marksStr = parts[6].trim();
+            } else {
+                marksStr = parts[3].trim();
+            }
+
+            double[] arr = (marksStr.indexOf(':') >= 0)
+                    ? parseKeyedMarks(marksStr, subjectCount, schema)
+                    : Student.parseMarksString(marksStr, subjectCount);
+            Student s;
+            if (isGrad) {
+                s = new GraduatingStudent(id, name, age, subjectCount, transcript, gradStatus);
+            } else {
+                s = new Student(id, name, age, subjectCount);
+            }
+            s.setMarksArray(arr);
+            return s;
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    // "id:mark,..." -> positions of schema; unknown IDs (removed subjects) and bad pairs are skipped
+    private static double[] parseKeyedMarks(String marksStr, int subjectCount, SubjectSchema schema) {
+        double[] arr = new double[subjectCount];
+        for (int i = 0; i < subjectCount; i++) arr[i] = -1;
+        if (schema == null) return arr;
+        for (String pair : marksStr.split(",")) {
+            int colon = pair.indexOf(':');
+            if (colon < 0) continue;
+            try {
+                int pos = schema.positionOf(Integer.parseInt(pair.substring(0, colon).trim()));
+                if (pos >= 0 && pos < subjectCount) arr[pos] = Double.parseDouble(pair.substring(colon + 1).trim());
+            } catch (NumberFormatException e) {
+                // stays -1, as for positional marks
+            }
+        }
+        return arr;
+    }
+}
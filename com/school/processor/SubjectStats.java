@@ -0,0 +1,262 @@
+package com.school.processor;
+
+/**
+ * SubjectStats keeps running aggregates for one subject so analysis screens
+ * do not have to walk every student.
+ *
+ *  - counts[m] holds how many students scored m (marks are bounded integers,
+ *    0..maxMarks, so an exact counting array is enough for quantiles)
+ *  - mean / m2 are maintained with Welford's method (add and remove)
+ *
+ * Marks are bucketed as (int) mark, the same truncation used when saving to file.
+ * Marks outside 0..maxMarks (only possible from a hand-edited file) are clamped
+ * into the end buckets but still counted with their real value in mean/variance.
+ */
+public class SubjectStats {
+
+    private final int maxMarks;
+    private final long[] counts;
+    private long n;
+    private double mean;
+    private double m2;
+    private int highest = -1;          // kept current so add() stays O(1)
+
+    // topper is tracked incrementally; it is only recomputed by a scan when the
+    // current top mark is removed or tied (rare compared to normal updates)
+    private String topperName;
+    private boolean topperDirty;
+
+    public SubjectStats(int maxMarks) {
+        this.maxMarks = (maxMarks > 0) ? maxMarks : 100;
+        this.counts = new long[this.maxMarks + 1];
+    }
+
+    public void add(double mark, String studentName) {
+        if (mark < 0) return; // -1 => not entered
+        int prevHighest = highest;
+        int b = bucket(mark);
+        counts[b]++;
+        if (b > highest) highest = b;
+        n++;
+        double delta = mark - mean;
+        mean += delta / n;
+        m2 += delta * (mark - mean);
+
+        if (b > prevHighest) {
+            topperName = studentName;
+            topperDirty = false;
+        } else if (b == prevHighest) {
+            topperDirty = true; // tie: roster order decides, rescan when asked
+        }
+    }
+
+    public void remove(double mark) {
+        if (mark < 0 || n == 0) return;
+        int b = bucket(mark);
+        if (counts[b] == 0) return;
+        int prevHighest = highest;
+        counts[b]--;
+        if (b == highest && counts[b] == 0) {
+            while (highest >= 0 && counts[highest] == 0) highest--;
+        }
+        if (n == 1) {
+            n = 0;
+            mean = 0;
+            m2 = 0;
+        } else {
+            double meanOld = (n * mean - mark) / (n - 1);
+            m2 -= (mark - mean) * (mark - meanOld);
+            if (m2 < 0) m2 = 0; // guard rounding drift
+            mean = meanOld;
+            n--;
+        }
+        if (b == prevHighest) topperDirty = true;
+    }
+
+    public void clear() {
+        for (int i = 0; i < counts.length; i++) counts[i] = 0;
+        n = 0;
+        mean = 0;
+        m2 = 0;
+        highest = -1;
+        topperName = null;
+        topperDirty = false;
+    }
+
+    /** bucket index a mark is counted under (truncated and clamped to 0..maxMarks) */
+    public int bucketOf(double mark) {
+        return bucket(mark);
+    }
+
+    private int bucket(double mark) {
+        int b = (int) mark;
+        if (b < 0) return 0;
+        if (b > maxMarks) return maxMarks;
+        return b;
+    }
+
+    // ------------------ QUERIES (O(buckets)) ------------------
+
+    public int getMaxMarks() { return maxMarks; }
+    public long getCount() { return n; }
+    public double getMean() { return (n == 0) ? 0.0 : mean; }
+
+    /** population variance of entered marks */
+    public double getVariance() { return (n == 0) ? 0.0 : m2 / n; }
+    public double getStdDev() { return Math.sqrt(getVariance()); }
+
+    public int getHighest() { return highest; }
+
+    public int getLowest() {
+        for (int i = 0; i <= maxMarks; i++) if (counts[i] > 0) return i;
+        return -1;
+    }
+
+    /** number of entered marks >= threshold */
+    public long countAtLeast(double threshold) {
+        int from = (int) Math.ceil(threshold);
+        if (from < 0) from = 0;
+        long c = 0;
+        for (int i = from; i <= maxMarks; i++) c += counts[i];
+        return c;
+    }
+
+    /**
+     * quantile q in [0,1] using linear interpolation between closest ranks.
+     * Returns -1 when no marks are entered.
+     */
+    public double getQuantile(double q) {
+        if (n == 0) return -1;
+        if (q < 0) q = 0;
+        if (q > 1) q = 1;
+        double pos = q * (n - 1);
+        long lo = (long) Math.floor(pos);
+        double frac = pos - lo;
+        int vLo = valueAtRank(lo);
+        if (frac == 0) return vLo;
+        int vHi = valueAtRank(lo + 1);
+        return vLo + frac * (vHi - vLo);
+    }
+
+    public double getMedian() { return getQuantile(0.5); }
+
+    // rank is 0-based
+    private int valueAtRank(long rank) {
+        long seen = 0;
+        for (int i = 0; i <= maxMarks; i++) {
+            seen += counts[i];
+            if (seen > rank) return i;
+        }
+        return maxMarks;
+    }
+
+    /**
+     * Grade-band histogram using the same cut-offs as calculateGrade,
+     * applied to the percentage of this subject's maxMarks.
+     * Order: A+, A, B, C, D, F
+     */
+    public long[] getGradeBandHistogram() {
+        long[] bands = new long[GRADE_BANDS.length];
+        for (int i = 0; i <= maxMarks; i++) {
+            if (counts[i] == 0) continue;
+            double pct = i * 100.0 / maxMarks;
+            bands[bandIndex(pct)] += counts[i];
+        }
+        return bands;
+    }
+
+    public static final String[] GRADE_BANDS = {"A+", "A", "B", "C", "D", "F"};
+
+    private static int bandIndex(double pct) {
+        if (pct >= 90) return 0;
+        else if (pct >= 80) return 1;
+        else if (pct >= 70) return 2;
+        else if (pct >= 60) return 3;
+        else if (pct >= 50) return 4;
+        else return 5;
+    }
+
+    // ------------------ MERGE / COPY (scatter-gather) ------------------
+
+    /**
+     * merge - fold another subject's partial aggregates into this one
+     * (counts are added, mean/m2 combined with Chan's parallel formula).
+     * Topper is not merged here; the caller picks it from the partials.
+     */
+    public void merge(SubjectStats o) {
+        if (o == null || o.n == 0) return;
+        int len = Math.min(counts.length, o.counts.length);
+        for (int i = 0; i < len; i++) counts[i] += o.counts[i];
+        for (int i = len; i < o.counts.length; i++) counts[maxMarks] += o.counts[i];
+
+        long total = n + o.n;
+        double delta = o.mean - mean;
+        mean = mean + delta * o.n / total;
+        m2 = m2 + o.m2 + delta * delta * ((double) n * o.n / total);
+        n = total;
+        highest = Math.max(highest, Math.min(o.highest, maxMarks));
+        topperDirty = true;
+    }
+
+    public SubjectStats copy() {
+        SubjectStats c = new SubjectStats(maxMarks);
+        System.arraycopy(counts, 0, c.counts, 0, counts.length);
+        c.n = n;
+        c.mean = mean;
+        c.m2 = m2;
+        c.highest = highest;
+        c.topperName = topperName;
+        c.topperDirty = topperDirty;
+        return c;
+    }
+
+    /**
+     * encode - compact text form: maxMarks;n;mean;m2;mark:count,mark:count...
+     * (only non-empty buckets). Used to ship partial aggregates between processes.
+     */
+    public String encode() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(maxMarks).append(';').append(n).append(';')
+          .append(Double.toString(mean)).append(';').append(Double.toString(m2)).append(';');
+        boolean first = true;
+        for (int i = 0; i <= maxMarks; i++) {
+            if (counts[i] == 0) continue;
+            if (!first) sb.append(',');
+            sb.append(i).append(':').append(counts[i]);
+            first = false;
+        }
+        return sb.toString();
+    }
+
+    public static SubjectStats decode(String text) {
+        String[] parts = text.split(";", -1);
+        if (parts.length < 5) throw new IllegalArgumentException("Bad stats: " + text);
+        SubjectStats st = new SubjectStats(Integer.parseInt(parts[0]));
+        st.n = Long.parseLong(parts[1]);
+        st.mean = Double.parseDouble(parts[2]);
+        st.m2 = Double.parseDouble(parts[3]);
+        if (!parts[4].isEmpty()) {
+            for (String pair : parts[4].split(",")) {
+                int c = pair.indexOf(':');
+                int mark = Integer.parseInt(pair.substring(0, c));
+                st.counts[mark] += Long.parseLong(pair.substring(c + 1));
+                if (mark > st.highest) st.highest = mark;
+            }
+        }
+        return st;
+    }
+
+    // ------------------ TOPPER ------------------
+
+    public boolean isTopperDirty() { return topperDirty; }
+    public String getTopperName() { return topperName; }
+
+    public void invalidateTopper() {
+        topperDirty = true;
+    }
+
+    public void setTopperName(String name) {
+        this.topperName = name;
+        this.topperDirty = false;
+    }
+}
@@ -0,0 +1,206 @@
+package com.school.processor;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * TableRenderer - fixed-width console tables without printf.
+ *
+ * Cells are formatted straight into one reusable char buffer (numbers are
+ * written digit by digit, nothing is boxed), and the buffer goes to the
+ * console in one write per screen instead of one autoflushed write per row.
+ *
+ * Column layout matches the printf patterns it replaces: "%-Ns" / "%Ns" /
+ * "%N.Df"; values wider than the column are not truncated, just like printf.
+ *
+ * Not thread-safe; each caller keeps its own instance.
+ */
+public class TableRenderer {
+
+    private static final int FLUSH_AT = 32 * 1024; // chars per physical write
+
+    private final String separator;
+    private final int[] widths;
+    private final boolean[] leftAlign;
+
+    private char[] buf = new char[FLUSH_AT + 1024];
+    private int len;
+    private int col;
+
+    private PrintStream target;
+    private Writer writer;
+
+    /**
+     * @param separator text between columns (e.g. " " or " | ")
+     * @param widths    column widths
+     * @param leftAlign per column: true = "%-Ns", false = right aligned
+     */
+    public TableRenderer(String separator, int[] widths, boolean[] leftAlign) {
+        this.separator = separator;
+        this.widths = widths.clone();
+        this.leftAlign = leftAlign.clone();
+    }
+
+    // ------------------ CELLS ------------------
+
+    public TableRenderer cell(String s) {
+        if (s == null) s = "null";
+        startCell();
+        int w = widths[col];
+        int pad = w - s.length();
+        if (!leftAlign[col]) spaces(pad);
+        ensure(s.length());
+        s.getChars(0, s.length(), buf, len);
+        len += s.length();
+        if (leftAlign[col]) spaces(pad);
+        col++;
+        return this;
+    }
+
+    public TableRenderer cell(long v) {
+        startCell();
+        int digits = digitCount(v);
+        int pad = widths[col] - digits;
+        if (!leftAlign[col]) spaces(pad);
+        appendLong(v, digits);
+        if (leftAlign[col]) spaces(pad);
+        col++;
+        return this;
+    }
+
+    /**
+     * fixed-point number, like "%N.Df": HALF_UP on the shortest decimal form of
+     * v (as printf does), so 0.575 prints 0.58 although the double is a bit below
+     */
+    public TableRenderer cell(double v, int decimals) {
+        long scale = 1;
+        for (int i = 0; i < decimals; i++) scale *= 10;
+        double x = Math.abs(v) * scale;
+        // NaN, infinities and values past exact long arithmetic: rare, left to the formatter
+        if (!(x < 1e15)) return cell(String.format("%." + decimals + "f", v));
+        startCell();
+        boolean neg = v < 0;
+        double frac0 = x - Math.floor(x);
+        // only values within rounding error of a half need the exact decimal
+        long scaled = (Math.abs(frac0 - 0.5) > 1e-9 * Math.max(1.0, x))
+                ? Math.round(x)
+                : BigDecimal.valueOf(Math.abs(v)).setScale(decimals, RoundingMode.HALF_UP).unscaledValue().longValue();
+        long whole = scaled / scale;
+        long frac = scaled % scale;
+
+        int width = digitCount(whole) + (neg ? 1 : 0) + (decimals > 0 ? decimals + 1 : 0);
+        int pad = widths[col] - width;
+        if (!leftAlign[col]) spaces(pad);
+        ensure(1);
+        if (neg) buf[len++] = '-';
+        appendLong(whole, digitCount(whole));
+        if (decimals > 0) {
+            ensure(decimals + 1);
+            buf[len++] = '.';
+            for (int i = decimals - 1; i >= 0; i--) {
+                buf[len + i] = (char) ('0' + frac % 10);
+                frac /= 10;
+            }
+            len += decimals;
+        }
+        if (leftAlign[col]) spaces(pad);
+        col++;
+        return this;
+    }
+
+    /** ends the current row; writes out the buffer once it holds a screenful */
+    public void endRow() {
+        ensure(1);
+        buf[len++] = '\n';
+        col = 0;
+        if (len >= FLUSH_AT) flush();
+    }
+
+    /** a line outside the column layout (headers, rules, notes) */
+    public void line(String s) {
+        ensure(s.length() + 1);
+        s.getChars(0, s.length(), buf, len);
+        len += s.length();
+        buf[len++] = '\n';
+        if (len >= FLUSH_AT) flush();
+    }
+
+    // ------------------ OUTPUT ------------------
+
+    /** sends everything buffered to System.out in one write */
+    public void flush() {
+        if (len == 0) return;
+        PrintStream ps = System.out; // looked up each time: batch mode may redirect it
+        if (ps != target) {
+            target = ps;
+            writer = new OutputStreamWriter(ps);
+        }
+        try {
+            writer.write(buf, 0, len);
+            writer.flush();
+        } catch (IOException e) {
+            // PrintStream never throws; nothing sensible to do for a console write
+        }
+        len = 0;
+    }
+
+    // ------------------ INTERNALS ------------------
+
+    private void startCell() {
+        if (col >= widths.length) throw new IllegalStateException("Too many cells in row");
+        if (col > 0) {
+            ensure(separator.length());
+            separator.getChars(0, separator.length(), buf, len);
+            len += separator.length();
+        }
+    }
+
+    private void spaces(int n) {
+        if (n <= 0) return;
+        ensure(n);
+        for (int i = 0; i < n; i++) buf[len++] = ' ';
+    }
+
+    private void appendLong(long v, int digits) {
+        ensure(digits);
+        if (v == Long.MIN_VALUE) {
+            String s = Long.toString(v);
+            s.getChars(0, s.length(), buf, len);
+            len += s.length();
+            return;
+        }
+        int end = len + digits;
+        if (v < 0) {
+            buf[len] = '-';
+            v = -v;
+        }
+        int p = end;
+        do {
+            buf[--p] = (char) ('0' + v % 10);
+            v /= 10;
+        } while (v != 0);
+        len = end;
+    }
+
+    private static int digitCount(long v) {
+        if (v == Long.MIN_VALUE) return 20;
+        int n = (v < 0) ? 2 : 1;
+        v = Math.abs(v);
+        while (v >= 10) {
+            v /= 10;
+            n++;
+        }
+        return n;
+    }
+
+    private void ensure(int extra) {
+        if (len + extra <= buf.length) return;
+        char[] bigger = new char[Math.max(buf.length * 2, len + extra)];
+        System.arraycopy(buf, 0, bigger, 0, len);
+        buf = bigger;
+    }
+}
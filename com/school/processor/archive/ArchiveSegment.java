@@ -0,0 +1,239 @@
+package com.school.processor.archive;
+
+import com.school.models.Student;
+import com.school.models.Subject;
+import com.school.processor.StudentFileFormat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * ArchiveSegment - one immutable, block-compressed file of archived students.
+ *
+ * Layout:
+ *   "SRPA" version
+ *   block*          deflate-compressed students.txt lines, sorted by ID, ~16 KB raw each
+ *   footer          subjects at archive time (name, max), block table
+ *                   (offset, compressed length, raw length, first ID),
+ *                   all IDs (sorted)
+ *   footerOffset "SRPA"
+ *
+ * Marks inside a segment are positional for the subject list in its footer;
+ * readers map them onto the current subjects by name.
+ */
+final class ArchiveSegment {
+
+    private static final int MAGIC = 0x53525041; // "SRPA"
+    private static final int VERSION = 1;
+    static final int BLOCK_RAW_SIZE = 16 * 1024;
+
+    final File file;
+    final String[] subjectNames;
+    final int[] subjectMax;
+    final long[] blockOffsets;
+    final int[] blockLengths;
+    final int[] blockRawLengths;
+    final int[] blockFirstIds;
+    final int[] ids;            // sorted
+    private RandomAccessFile raf;
+
+    private ArchiveSegment(File file, String[] subjectNames, int[] subjectMax, long[] blockOffsets,
+                           int[] blockLengths, int[] blockRawLengths, int[] blockFirstIds, int[] ids) {
+        this.file = file;
+        this.subjectNames = subjectNames;
+        this.subjectMax = subjectMax;
+        this.blockOffsets = blockOffsets;
+        this.blockLengths = blockLengths;
+        this.blockRawLengths = blockRawLengths;
+        this.blockFirstIds = blockFirstIds;
+        this.ids = ids;
+    }
+
+    int size() { return ids.length; }
+    int blockCount() { return blockOffsets.length; }
+
+    boolean contains(int id) {
+        return Arrays.binarySearch(ids, id) >= 0;
+    }
+
+    /** block that would hold id (by first IDs), or -1 */
+    int blockFor(int id) {
+        int lo = 0, hi = blockFirstIds.length - 1, found = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (blockFirstIds[mid] <= id) { found = mid; lo = mid + 1; }
+            else hi = mid - 1;
+        }
+        return found;
+    }
+
+    /** raw (decompressed) bytes of block b: students.txt lines separated by '\n' */
+    byte[] readBlock(int b) throws IOException {
+        byte[] compressed = new byte[blockLengths[b]];
+        synchronized (this) {
+            if (raf == null) raf = new RandomAccessFile(file, "r");
+            raf.seek(blockOffsets[b]);
+            raf.readFully(compressed);
+        }
+        Inflater inf = new Inflater();
+        try {
+            inf.setInput(compressed);
+            byte[] raw = new byte[blockRawLengths[b]];
+            int n = 0;
+            while (n < raw.length) {
+                int got = inf.inflate(raw, n, raw.length - n);
+                if (got == 0 && (inf.finished() || inf.needsInput())) break;
+                n += got;
+            }
+            if (n != raw.length) throw new IOException("Archive block " + b + " of " + file + " is damaged");
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IOException("Archive block " + b + " of " + file + " is damaged: " + e.getMessage());
+        } finally {
+            inf.end();
+        }
+    }
+
+    void close() throws IOException {
+        if (raf != null) raf.close();
+        raf = null;
+    }
+
+    // ------------------ WRITE ------------------
+
+    /**
+     * write - creates a segment from students (sorted by ID here), whose marks are
+     * positional for subjects[0..subjectCount-1]. Writes to a temp file first.
+     */
+    static ArchiveSegment write(File file, List<Student> students, Subject[] subjects, int subjectCount)
+            throws IOException {
+        List<Student> sorted = new ArrayList<>(students);
+        sorted.sort((a, b) -> Integer.compare(a.getId(), b.getId()));
+
+        String[] names = new String[subjectCount];
+        int[] max = new int[subjectCount];
+        for (int j = 0; j < subjectCount; j++) {
+            names[j] = subjects[j].getName();
+            max[j] = subjects[j].getMaxMarks();
+        }
+
+        List<long[]> blocks = new ArrayList<>(); // offset, compressed, raw, firstId
+        int[] ids = new int[sorted.size()];
+        File tmp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(tmp);
+             DataOutputStream out = new DataOutputStream(fos)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            long offset = 8;
+
+            Deflater def = new Deflater(Deflater.DEFAULT_COMPRESSION);
+            byte[] outBuf = new byte[BLOCK_RAW_SIZE + 1024];
+            ByteArrayOutputStream raw = new ByteArrayOutputStream(BLOCK_RAW_SIZE + 4096);
+            StringBuilder line = new StringBuilder(128);
+            int firstId = 0;
+            try {
+                for (int i = 0; i < sorted.size(); i++) {
+                    Student s = sorted.get(i);
+                    ids[i] = s.getId();
+                    if (raw.size() == 0) firstId = s.getId();
+                    line.setLength(0);
+                    StudentFileFormat.appendTo(line, s);
+                    line.append('\n');
+                    raw.write(line.toString().getBytes(StandardCharsets.UTF_8));
+                    if (raw.size() >= BLOCK_RAW_SIZE || i == sorted.size() - 1) {
+                        byte[] in = raw.toByteArray();
+                        def.reset();
+                        def.setInput(in);
+                        def.finish();
+                        int compressed = 0;
+                        while (!def.finished()) {
+                            int n = def.deflate(outBuf);
+                            out.write(outBuf, 0, n);
+                            compressed += n;
+                        }
+                        blocks.add(new long[] {offset, compressed, in.length, firstId});
+                        offset += compressed;
+                        raw.reset();
+                    }
+                }
+            } finally {
+                def.end();
+            }
+
+            long footer = offset;
+            out.writeInt(subjectCount);
+            for (int j = 0; j < subjectCount; j++) {
+                out.writeUTF(names[j]);
+                out.writeInt(max[j]);
+            }
+            out.writeInt(blocks.size());
+            for (long[] b : blocks) {
+                out.writeLong(b[0]);
+                out.writeInt((int) b[1]);
+                out.writeInt((int) b[2]);
+                out.writeInt((int) b[3]);
+            }
+            out.writeInt(ids.length);
+            for (int id : ids) out.writeInt(id);
+            out.writeLong(footer);
+            out.writeInt(MAGIC);
+            out.flush();
+            fos.getFD().sync();
+        }
+        if (file.exists() && !file.delete()) throw new IOException("Cannot replace " + file);
+        if (!tmp.renameTo(file)) throw new IOException("Cannot rename " + tmp + " to " + file);
+        return open(file);
+    }
+
+    // ------------------ OPEN ------------------
+
+    static ArchiveSegment open(File file) throws IOException {
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            long len = in.length();
+            if (len < 20) throw new IOException("Archive segment too short: " + file);
+            in.seek(0);
+            if (in.readInt() != MAGIC) throw new IOException("Not an archive segment: " + file);
+            int version = in.readInt();
+            if (version != VERSION) throw new IOException("Unsupported archive version " + version + ": " + file);
+            in.seek(len - 12);
+            long footer = in.readLong();
+            if (in.readInt() != MAGIC || footer < 8 || footer > len - 12) {
+                throw new IOException("Archive segment has no valid footer (incomplete write?): " + file);
+            }
+            in.seek(footer);
+            int subjectCount = in.readInt();
+            String[] names = new String[subjectCount];
+            int[] max = new int[subjectCount];
+            for (int j = 0; j < subjectCount; j++) {
+                names[j] = in.readUTF();
+                max[j] = in.readInt();
+            }
+            int blockCount = in.readInt();
+            long[] offsets = new long[blockCount];
+            int[] lengths = new int[blockCount];
+            int[] rawLengths = new int[blockCount];
+            int[] firstIds = new int[blockCount];
+            for (int b = 0; b < blockCount; b++) {
+                offsets[b] = in.readLong();
+                lengths[b] = in.readInt();
+                rawLengths[b] = in.readInt();
+                firstIds[b] = in.readInt();
+            }
+            int idCount = in.readInt();
+            int[] ids = new int[idCount];
+            for (int i = 0; i < idCount; i++) ids[i] = in.readInt();
+            return new ArchiveSegment(file, names, max, offsets, lengths, rawLengths, firstIds, ids);
+        }
+    }
+}
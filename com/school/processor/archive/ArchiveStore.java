@@ -0,0 +1,224 @@
+package com.school.processor.archive;
+
+import com.school.models.Student;
+import com.school.models.Subject;
+import com.school.processor.StudentFileFormat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * ArchiveStore - read-optimized tier for graduated students.
+ *
+ * Students are written once into immutable ArchiveSegment files
+ * (archive/segment-NNNNNN.dat) and never rewritten by normal saves. Each
+ * segment keeps its sorted ID list in memory (4 bytes per student), so
+ * "is this ID archived?" is a binary search; fetching a student decompresses
+ * one ~16 KB block (small blocks keep point lookups cheap), and the last few
+ * blocks are cached.
+ *
+ * When more than MAX_SEGMENTS segments pile up they are merged into one.
+ * Archived records are read-only. Not thread-safe.
+ */
+public class ArchiveStore {
+
+    static final int MAX_SEGMENTS = 8;
+    private static final int CACHED_BLOCKS = 8;
+    private static final String PREFIX = "segment-";
+    private static final String SUFFIX = ".dat";
+
+    private final File dir;
+    private final List<ArchiveSegment> segments = new ArrayList<>(); // oldest first
+    private int nextNumber = 1;
+
+    // decompressed blocks, key = segment index << 32 | block
+    private final LinkedHashMap<Long, byte[]> blockCache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest) {
+            return size() > CACHED_BLOCKS;
+        }
+    };
+
+    public ArchiveStore(File dir) {
+        this.dir = dir;
+        File[] files = dir.listFiles();
+        if (files == null) return;
+        Arrays.sort(files);
+        for (File f : files) {
+            String name = f.getName();
+            if (name.endsWith(SUFFIX + ".tmp")) {
+                f.delete(); // left over from an interrupted write
+                continue;
+            }
+            if (!name.startsWith(PREFIX) || !name.endsWith(SUFFIX)) continue;
+            try {
+                int number = Integer.parseInt(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+                segments.add(ArchiveSegment.open(f));
+                nextNumber = Math.max(nextNumber, number + 1);
+            } catch (NumberFormatException | IOException e) {
+                System.out.println("Note: archive segment skipped: " + e.getMessage());
+            }
+        }
+    }
+
+    /** number of archived students */
+    public int size() {
+        int n = 0;
+        for (ArchiveSegment s : segments) n += s.size();
+        return n;
+    }
+
+    public int segmentCount() { return segments.size(); }
+
+    public boolean contains(int id) {
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            if (segments.get(i).contains(id)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * get - the archived student with this ID, marks laid out for the given
+     * (current) subject list; subjects unknown when it was archived show -1.
+     * Returns null if the ID is not archived.
+     */
+    public Student get(int id, Subject[] subjects, int subjectCount) throws IOException {
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            ArchiveSegment seg = segments.get(i);
+            if (!seg.contains(id)) continue;
+            int b = seg.blockFor(id);
+            if (b < 0) continue;
+            String line = findLine(block(i, b), id);
+            if (line == null) continue;
+            return toCurrentLayout(StudentFileFormat.parse(line, seg.subjectNames.length), seg, subjects, subjectCount);
+        }
+        return null;
+    }
+
+    /** every archived student (newest copy of each ID), in the given subject layout */
+    public void forEach(Subject[] subjects, int subjectCount, Consumer<Student> action) throws IOException {
+        Map<Integer, Boolean> seen = new HashMap<>();
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            ArchiveSegment seg = segments.get(i);
+            for (int b = 0; b < seg.blockCount(); b++) {
+                byte[] raw = seg.readBlock(b);
+                int start = 0;
+                for (int p = 0; p < raw.length; p++) {
+                    if (raw[p] != '\n') continue;
+                    Student s = StudentFileFormat.parse(new String(raw, start, p - start, StandardCharsets.UTF_8),
+                            seg.subjectNames.length);
+                    start = p + 1;
+                    if (s == null || seen.putIfAbsent(s.getId(), Boolean.TRUE) != null) continue;
+                    action.accept(toCurrentLayout(s, seg, subjects, subjectCount));
+                }
+            }
+        }
+    }
+
+    /**
+     * archive - writes students (marks positional for subjects) as a new segment.
+     * Merges all segments into one when there are more than MAX_SEGMENTS.
+     */
+    public void archive(List<Student> students, Subject[] subjects, int subjectCount) throws IOException {
+        if (students.isEmpty()) return;
+        if (!dir.exists() && !dir.mkdirs()) throw new IOException("Cannot create " + dir);
+        segments.add(ArchiveSegment.write(nextFile(), students, subjects, subjectCount));
+        if (segments.size() > MAX_SEGMENTS) compact();
+    }
+
+    /**
+     * compact - merge every segment into one. Subjects are the union of all
+     * segments' subjects (in first-seen order) so no archived mark is lost.
+     * The merged segment is complete on disk before the old ones are deleted.
+     */
+    public void compact() throws IOException {
+        if (segments.size() < 2) return;
+        List<Subject> union = new ArrayList<>();
+        Map<String, Boolean> names = new HashMap<>();
+        for (ArchiveSegment seg : segments) {
+            for (int j = 0; j < seg.subjectNames.length; j++) {
+                if (names.putIfAbsent(seg.subjectNames[j], Boolean.TRUE) == null) {
+                    union.add(new Subject(seg.subjectNames[j], seg.subjectMax[j]));
+                }
+            }
+        }
+        Subject[] all = union.toArray(new Subject[0]);
+        List<Student> everyone = new ArrayList<>(size());
+        forEach(all, all.length, everyone::add);
+
+        List<ArchiveSegment> old = new ArrayList<>(segments);
+        ArchiveSegment merged = ArchiveSegment.write(nextFile(), everyone, all, all.length);
+        segments.clear();
+        segments.add(merged);
+        blockCache.clear();
+        for (ArchiveSegment seg : old) {
+            seg.close();
+            if (!seg.file.delete()) System.out.println("Note: could not delete old archive segment " + seg.file);
+        }
+    }
+
+    public void close() throws IOException {
+        for (ArchiveSegment seg : segments) seg.close();
+        blockCache.clear();
+    }
+
+    // ------------------ INTERNALS ------------------
+
+    private File nextFile() {
+        return new File(dir, String.format("%s%06d%s", PREFIX, nextNumber++, SUFFIX));
+    }
+
+    private byte[] block(int segment, int b) throws IOException {
+        long key = ((long) segment << 32) | b;
+        byte[] raw = blockCache.get(key);
+        if (raw == null) {
+            raw = segments.get(segment).readBlock(b);
+            blockCache.put(key, raw);
+        }
+        return raw;
+    }
+
+    // lines start with the decimal ID followed by '|'
+    private static String findLine(byte[] raw, int id) {
+        int start = 0;
+        while (start < raw.length) {
+            int p = start;
+            long v = 0;
+            boolean neg = false;
+            if (p < raw.length && raw[p] == '-') { neg = true; p++; }
+            while (p < raw.length && raw[p] >= '0' && raw[p] <= '9') v = v * 10 + (raw[p++] - '0');
+            int end = p;
+            while (end < raw.length && raw[end] != '\n') end++;
+            if (p < raw.length && raw[p] == '|' && (neg ? -v : v) == id) {
+                return new String(raw, start, end - start, StandardCharsets.UTF_8);
+            }
+            start = end + 1;
+        }
+        return null;
+    }
+
+    private static Student toCurrentLayout(Student s, ArchiveSegment seg, Subject[] subjects, int subjectCount) {
+        if (s == null) return null;
+        double[] old = s.getMarks();
+        double[] marks = new double[subjectCount];
+        for (int j = 0; j < subjectCount; j++) {
+            marks[j] = -1;
+            for (int k = 0; k < seg.subjectNames.length; k++) {
+                if (seg.subjectNames[k].equalsIgnoreCase(subjects[j].getName())) {
+                    if (old != null && k < old.length) marks[j] = old[k];
+                    break;
+                }
+            }
+        }
+        s.setMarksArray(marks);
+        return s;
+    }
+}
@@ -0,0 +1,63 @@
+package com.school.processor.audit;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * AuditEntry - one change from the audit log, in readable form.
+ *
+ *  ADDED       newValue = name
+ *  DELETED     (no values)
+ *  MARK        field = subject, oldValue/newValue = marks ("-1" = not entered)
+ *  NAME        oldValue/newValue = names
+ *  GRADUATION  newValue = "Graduated"/"Pending" + transcript
+ *
+ * oldValue is only filled in by AuditLog.history (which replays the student);
+ * AuditLog.changesBetween leaves it null.
+ */
+public class AuditEntry {
+
+    public enum Kind { ADDED, DELETED, MARK, NAME, GRADUATION }
+
+    private static final DateTimeFormatter TIME =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    private final long timestamp;
+    private final String actor;
+    private final int studentId;
+    private final Kind kind;
+    private final String field;
+    private final String oldValue;
+    private final String newValue;
+
+    public AuditEntry(long timestamp, String actor, int studentId, Kind kind, String field,
+                      String oldValue, String newValue) {
+        this.timestamp = timestamp;
+        this.actor = actor;
+        this.studentId = studentId;
+        this.kind = kind;
+        this.field = field;
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+    }
+
+    public long getTimestamp() { return timestamp; }
+    public String getActor() { return actor; }
+    public int getStudentId() { return studentId; }
+    public Kind getKind() { return kind; }
+    public String getField() { return field; }
+    public String getOldValue() { return oldValue; }
+    public String getNewValue() { return newValue; }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(TIME.format(Instant.ofEpochMilli(timestamp))).append("  ")
+          .append(String.format("%-10s", actor)).append(" #").append(studentId).append(' ').append(kind);
+        if (field != null) sb.append(' ').append(field);
+        if (oldValue != null) sb.append(": ").append(oldValue).append(" -> ").append(newValue);
+        else if (newValue != null) sb.append(": ").append(newValue);
+        return sb.toString();
+    }
+}
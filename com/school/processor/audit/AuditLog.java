@@ -0,0 +1,612 @@
+package com.school.processor.audit;
+
+import com.school.models.GraduatingStudent;
+import com.school.models.Student;
+import com.school.models.Subject;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * AuditLog - append-only history of every student change (marks, names,
+ * graduation info, adds and deletes) in a compact binary file.
+ *
+ * Record layout (all integers are varints, signed ones zig-zag encoded):
+ *   timeDelta  type  [idDelta  actor]  payload
+ * timeDelta is milliseconds since the previous record and idDelta the
+ * difference to the previous record's student id, so a typical mark change
+ * is 6-10 bytes. Actor and subject names are written once as dictionary
+ * records (ACTOR / SUBJECT) and referred to by number afterwards.
+ *
+ * Indexes (rebuilt by one scan when the log is opened):
+ *  - per student: offset, length and time of each of its records
+ *  - by time: every TIME_INDEX_EVERY-th record with the delta bases needed to
+ *    start decoding there
+ *
+ * Checkpoints: the first time a student is touched its current state is
+ * written as a CHECKPOINT (the baseline), and again after every
+ * CHECKPOINT_EVERY changes. Rebuilding a student as of a time reads the last
+ * checkpoint before it and at most CHECKPOINT_EVERY changes after it.
+ *
+ * Records are buffered and written by flush() (ResultProcessor flushes before
+ * each save of students.txt). A torn record at the end of the file, e.g. after
+ * a crash, is cut off when the log is reopened. Not thread-safe.
+ */
+public class AuditLog implements AutoCloseable {
+
+    static final byte T_ACTOR = 1;
+    static final byte T_SUBJECT = 2;
+    static final byte T_CHECKPOINT = 3;
+    static final byte T_ADD = 4;
+    static final byte T_MARK = 5;
+    static final byte T_NAME = 6;
+    static final byte T_GRADUATION = 7;
+    static final byte T_DELETE = 8;
+
+    static final int CHECKPOINT_EVERY = 32;
+    static final int TIME_INDEX_EVERY = 256;
+    private static final int FLUSH_AT = 64 * 1024;
+
+    // per-student record list. Offset, length and type share one long
+    // (40 + 20 + 4 bits) so an append touches two arrays, not four.
+    private static final class StudentIndex {
+        long[] refs = new long[4];
+        long[] times = new long[4];
+        int size;
+        int sinceCheckpoint;
+
+        void add(long offset, int length, long time, byte type) {
+            if (size == refs.length) {
+                refs = Arrays.copyOf(refs, size * 2);
+                times = Arrays.copyOf(times, size * 2);
+            }
+            refs[size] = (offset << 24) | ((long) length << 4) | type;
+            times[size] = time;
+            size++;
+            if (type == T_CHECKPOINT || type == T_ADD) sinceCheckpoint = 0;
+            else sinceCheckpoint++;
+        }
+
+        long offset(int i) { return refs[i] >>> 24; }
+        int length(int i) { return (int) (refs[i] >>> 4) & 0xFFFFF; }
+        byte type(int i) { return (byte) (refs[i] & 0xF); }
+
+        /** last position with time <= t, or -1 */
+        int lastAtOrBefore(long t) {
+            int lo = 0, hi = size - 1, found = -1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (times[mid] <= t) { found = mid; lo = mid + 1; }
+                else hi = mid - 1;
+            }
+            return found;
+        }
+    }
+
+    // a student's state while replaying
+    private static final class State {
+        String name;
+        int age;
+        boolean graduating;
+        boolean graduated;
+        String transcript;
+        final Map<Integer, Integer> marks = new LinkedHashMap<>(); // subject code -> mark
+    }
+
+    // one decoded record
+    private static final class Rec {
+        byte type;
+        long time;
+        int id;
+        int actor;
+        int subject;
+        int mark;
+        String text;
+        State state;
+    }
+
+    private final Path path;
+    private final FileChannel channel;
+    private long fileEnd;
+
+    private byte[] pending = new byte[FLUSH_AT + 4096];
+    private int pendingLen;
+
+    private final List<String> actors = new ArrayList<>();
+    private final Map<String, Integer> actorCodes = new HashMap<>();
+    private final List<String> subjectNames = new ArrayList<>();
+    private final Map<String, Integer> subjectCodes = new HashMap<>();
+    private String actor = System.getProperty("user.name", "unknown");
+
+    private long lastTime;
+    private int lastId;
+    private long recordCount;
+
+    private final Map<Integer, StudentIndex> byStudent = new HashMap<>();
+    private long[] timeOffsets = new long[16];
+    private long[] timeBases = new long[16];
+    private int[] idBases = new int[16];
+    private int timeIndexSize;
+
+    public AuditLog(Path path) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        scan();
+    }
+
+    public Path getPath() { return path; }
+    public long getRecordCount() { return recordCount; }
+    public long getSizeBytes() { return fileEnd + pendingLen; }
+
+    /** who the following changes are attributed to */
+    public void setActor(String actor) {
+        this.actor = (actor == null || actor.isEmpty()) ? "unknown" : actor;
+    }
+
+    public String getActor() { return actor; }
+
+    // ------------------ RECORDING ------------------
+
+    public boolean hasHistory(int id) {
+        return byStudent.containsKey(id);
+    }
+
+    /** true once enough changes have piled up since the student's last checkpoint */
+    public boolean needsCheckpoint(int id) {
+        StudentIndex idx = byStudent.get(id);
+        return idx != null && idx.sinceCheckpoint >= CHECKPOINT_EVERY;
+    }
+
+    /** full state of s (also used as the baseline before a student's first change) */
+    public void checkpoint(Student s, Subject[] subjects, int subjectCount) throws IOException {
+        writeState(T_CHECKPOINT, s, subjects, subjectCount);
+    }
+
+    public void recordAdded(Student s, Subject[] subjects, int subjectCount) throws IOException {
+        writeState(T_ADD, s, subjects, subjectCount);
+    }
+
+    public void recordMark(int id, String subject, int mark) throws IOException {
+        int code = subjectCode(subject);
+        int actorCode = actorCode();
+        byte[] b = buffer(32);
+        int p = header(b, 0, T_MARK, id, actorCode);
+        p = VarInts.putVarLong(b, p, code);
+        p = VarInts.putVarLong(b, p, VarInts.zigZag(mark));
+        append(T_MARK, id, b, p);
+    }
+
+    public void recordName(int id, String name) throws IOException {
+        int actorCode = actorCode();
+        byte[] utf = bytes(name);
+        byte[] b = buffer(32 + utf.length);
+        int p = header(b, 0, T_NAME, id, actorCode);
+        p = putBytes(b, p, utf);
+        append(T_NAME, id, b, p);
+    }
+
+    public void recordGraduation(int id, boolean graduated, String transcript) throws IOException {
+        int actorCode = actorCode();
+        byte[] utf = bytes(transcript);
+        byte[] b = buffer(32 + utf.length);
+        int p = header(b, 0, T_GRADUATION, id, actorCode);
+        b[p++] = (byte) (graduated ? 1 : 0);
+        p = putBytes(b, p, utf);
+        append(T_GRADUATION, id, b, p);
+    }
+
+    public void recordDeleted(int id) throws IOException {
+        int actorCode = actorCode();
+        byte[] b = buffer(32);
+        int p = header(b, 0, T_DELETE, id, actorCode);
+        append(T_DELETE, id, b, p);
+    }
+
+    /** writes buffered records to the file */
+    public void flush() throws IOException {
+        if (pendingLen == 0) return;
+        ByteBuffer buf = ByteBuffer.wrap(pending, 0, pendingLen);
+        long pos = fileEnd;
+        while (buf.hasRemaining()) pos += channel.write(buf, pos);
+        fileEnd = pos;
+        pendingLen = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+
+    private void writeState(byte type, Student s, Subject[] subjects, int subjectCount) throws IOException {
+        int actorCode = actorCode();
+        int[] codes = new int[subjectCount];
+        for (int j = 0; j < subjectCount; j++) codes[j] = subjectCode(subjects[j].getName());
+
+        byte[] name = bytes(s.getName());
+        byte[] transcript = (s instanceof GraduatingStudent)
+                ? bytes(((GraduatingStudent) s).getTranscript()) : new byte[0];
+        byte[] b = buffer(64 + name.length + transcript.length + subjectCount * 16);
+        int p = header(b, 0, type, s.getId(), actorCode);
+        p = putBytes(b, p, name);
+        p = VarInts.putVarLong(b, p, VarInts.zigZag(s.getAge()));
+        int flags = 0;
+        if (s instanceof GraduatingStudent) {
+            flags = 1;
+            if (((GraduatingStudent) s).isGraduationStatus()) flags |= 2;
+        }
+        b[p++] = (byte) flags;
+        if ((flags & 1) != 0) p = putBytes(b, p, transcript);
+        p = VarInts.putVarLong(b, p, subjectCount);
+        for (int j = 0; j < subjectCount; j++) {
+            p = VarInts.putVarLong(b, p, codes[j]);
+            p = VarInts.putVarLong(b, p, VarInts.zigZag((int) s.getMarkAt(j)));
+        }
+        append(type, s.getId(), b, p);
+    }
+
+    private int actorCode() throws IOException {
+        Integer code = actorCodes.get(actor);
+        if (code != null) return code;
+        byte[] utf = bytes(actor);
+        byte[] b = buffer(16 + utf.length);
+        int p = defHeader(b, T_ACTOR);
+        p = putBytes(b, p, utf);
+        appendDefinition(b, p);
+        actorCodes.put(actor, actors.size());
+        actors.add(actor);
+        return actors.size() - 1;
+    }
+
+    private int subjectCode(String subject) throws IOException {
+        Integer code = subjectCodes.get(subject);
+        if (code != null) return code;
+        byte[] utf = bytes(subject);
+        byte[] b = buffer(16 + utf.length);
+        int p = defHeader(b, T_SUBJECT);
+        p = putBytes(b, p, utf);
+        appendDefinition(b, p);
+        subjectCodes.put(subject, subjectNames.size());
+        subjectNames.add(subject);
+        return subjectNames.size() - 1;
+    }
+
+    // ------------------ ENCODING ------------------
+
+    private byte[] scratch = new byte[256];
+    private long recordTime; // time written by header(), indexed by append()
+
+    private byte[] buffer(int size) {
+        if (scratch.length < size) scratch = new byte[Math.max(size, scratch.length * 2)];
+        return scratch;
+    }
+
+    private long now() {
+        // never step backwards, so time deltas stay non-negative and the log stays sorted
+        return Math.max(System.currentTimeMillis(), lastTime);
+    }
+
+    private int header(byte[] b, int p, byte type, int id, int actorCode) {
+        recordTime = now();
+        p = VarInts.putVarLong(b, p, recordTime - lastTime);
+        b[p++] = type;
+        p = VarInts.putVarLong(b, p, VarInts.zigZag((long) id - lastId));
+        p = VarInts.putVarLong(b, p, actorCode);
+        return p;
+    }
+
+    private int defHeader(byte[] b, byte type) {
+        b[0] = 0; // definitions carry no time of their own
+        b[1] = type;
+        return 2;
+    }
+
+    private void appendDefinition(byte[] b, int len) throws IOException {
+        ensurePending(len);
+        System.arraycopy(b, 0, pending, pendingLen, len);
+        pendingLen += len;
+    }
+
+    private void append(byte type, int id, byte[] b, int len) throws IOException {
+        long t = recordTime;
+        ensurePending(len);
+        long offset = fileEnd + pendingLen;
+        if (recordCount % TIME_INDEX_EVERY == 0) addTimeIndex(offset, lastTime, lastId);
+        System.arraycopy(b, 0, pending, pendingLen, len);
+        pendingLen += len;
+        indexRecord(type, id, offset, len, t);
+        if (pendingLen >= FLUSH_AT) flush();
+    }
+
+    private void ensurePending(int len) throws IOException {
+        if (pendingLen + len > pending.length) flush();
+        if (len > pending.length) pending = Arrays.copyOf(pending, len);
+    }
+
+    private void indexRecord(byte type, int id, long offset, int length, long time) {
+        byStudent.computeIfAbsent(id, k -> new StudentIndex()).add(offset, length, time, type);
+        lastTime = time;
+        lastId = id;
+        recordCount++;
+    }
+
+    private void addTimeIndex(long offset, long timeBase, int idBase) {
+        if (timeIndexSize == timeOffsets.length) {
+            int n = timeIndexSize * 2;
+            timeOffsets = Arrays.copyOf(timeOffsets, n);
+            timeBases = Arrays.copyOf(timeBases, n);
+            idBases = Arrays.copyOf(idBases, n);
+        }
+        timeOffsets[timeIndexSize] = offset;
+        timeBases[timeIndexSize] = timeBase;
+        idBases[timeIndexSize] = idBase;
+        timeIndexSize++;
+    }
+
+    private static byte[] bytes(String s) {
+        return (s == null ? "" : s).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int putBytes(byte[] b, int p, byte[] utf) {
+        p = VarInts.putVarLong(b, p, utf.length);
+        System.arraycopy(utf, 0, b, p, utf.length);
+        return p + utf.length;
+    }
+
+    // ------------------ DECODING ------------------
+
+    /**
+     * decodes the record at in's position. timeBase/idBase are the previous
+     * record's values. Returns null for dictionary records (after applying them
+     * when define is true).
+     */
+    private Rec decode(ByteBuffer in, long timeBase, int idBase, boolean define) {
+        long delta = VarInts.getVarLong(in);
+        byte type = in.get();
+        if (type == T_ACTOR || type == T_SUBJECT) {
+            String name = VarInts.getString(in);
+            if (define) {
+                if (type == T_ACTOR) {
+                    actorCodes.put(name, actors.size());
+                    actors.add(name);
+                } else {
+                    subjectCodes.put(name, subjectNames.size());
+                    subjectNames.add(name);
+                }
+            }
+            return null;
+        }
+        Rec r = new Rec();
+        r.type = type;
+        r.time = timeBase + delta;
+        r.id = (int) (idBase + VarInts.unZigZag(VarInts.getVarLong(in)));
+        r.actor = VarInts.getVarInt(in);
+        switch (type) {
+            case T_CHECKPOINT, T_ADD -> {
+                State st = new State();
+                st.name = VarInts.getString(in);
+                st.age = VarInts.getSignedVarInt(in);
+                int flags = in.get();
+                st.graduating = (flags & 1) != 0;
+                st.graduated = (flags & 2) != 0;
+                st.transcript = st.graduating ? VarInts.getString(in) : "";
+                int n = VarInts.getVarInt(in);
+                for (int j = 0; j < n; j++) {
+                    int code = VarInts.getVarInt(in);
+                    st.marks.put(code, VarInts.getSignedVarInt(in));
+                }
+                r.state = st;
+            }
+            case T_MARK -> {
+                r.subject = VarInts.getVarInt(in);
+                r.mark = VarInts.getSignedVarInt(in);
+            }
+            case T_NAME -> r.text = VarInts.getString(in);
+            case T_GRADUATION -> {
+                r.mark = in.get();
+                r.text = VarInts.getString(in);
+            }
+            case T_DELETE -> { }
+            default -> throw new IllegalStateException("Unknown audit record type " + type);
+        }
+        return r;
+    }
+
+    /** rebuild dictionaries and indexes; cut off a torn tail */
+    private void scan() throws IOException {
+        long size = channel.size();
+        if (size == 0) return;
+        ByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        long good = 0;
+        try {
+            while (in.hasRemaining()) {
+                int start = in.position();
+                if (recordCount % TIME_INDEX_EVERY == 0) {
+                    // provisional; replaced below if this turns out to be a dictionary record
+                    addTimeIndex(start, lastTime, lastId);
+                }
+                Rec r = decode(in, lastTime, lastId, true);
+                if (r == null) {
+                    if (recordCount % TIME_INDEX_EVERY == 0) timeIndexSize--;
+                } else {
+                    indexRecord(r.type, r.id, start, in.position() - start, r.time);
+                }
+                good = in.position();
+            }
+        } catch (RuntimeException e) {
+            // BufferUnderflowException / malformed tail: keep everything before it
+            if (timeIndexSize > 0 && timeOffsets[timeIndexSize - 1] >= good) timeIndexSize--;
+        }
+        if (good < size) {
+            System.out.println("Note: audit log had " + (size - good) + " trailing bytes from an incomplete write; removed.");
+            channel.truncate(good);
+        }
+        fileEnd = good;
+    }
+
+    private ByteBuffer read(long offset, int length) throws IOException {
+        flush();
+        ByteBuffer buf = ByteBuffer.allocate(length);
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, offset + buf.position()) < 0) throw new IOException("Audit log truncated");
+        }
+        buf.flip();
+        return buf;
+    }
+
+    // ids and times of the record are known from the index, so bases are not needed
+    private Rec readRecord(StudentIndex idx, int pos, int id) throws IOException {
+        ByteBuffer in = read(idx.offset(pos), idx.length(pos));
+        Rec r = decode(in, 0, 0, false);
+        r.time = idx.times[pos];
+        r.id = id;
+        return r;
+    }
+
+    // ------------------ QUERIES ------------------
+
+    /**
+     * stateAsOf - the student as it was at time t, with marks laid out for the
+     * given (current) subject list; subjects it had no mark in show -1.
+     * Returns null if the student did not exist at t. Callers should check
+     * hasHistory first: a student without history is unchanged since logging began.
+     */
+    public Student stateAsOf(int id, long t, Subject[] subjects, int subjectCount) throws IOException {
+        StudentIndex idx = byStudent.get(id);
+        if (idx == null) return null;
+        int p = idx.lastAtOrBefore(t);
+        if (p < 0) {
+            // before the first record: the baseline describes that period; an ADD means "not yet there"
+            return (idx.type(0) == T_CHECKPOINT) ? toStudent(id, readRecord(idx, 0, id).state, subjects, subjectCount)
+                                                  : null;
+        }
+        int q = p;
+        while (q > 0 && idx.type(q) != T_CHECKPOINT && idx.type(q) != T_ADD) q--;
+
+        State st = null;
+        for (int i = q; i <= p; i++) {
+            st = apply(st, readRecord(idx, i, id));
+        }
+        return (st == null) ? null : toStudent(id, st, subjects, subjectCount);
+    }
+
+    /** every change to one student, oldest first, with old and new values */
+    public List<AuditEntry> history(int id) throws IOException {
+        List<AuditEntry> out = new ArrayList<>();
+        StudentIndex idx = byStudent.get(id);
+        if (idx == null) return out;
+        State st = null;
+        for (int i = 0; i < idx.size; i++) {
+            Rec r = readRecord(idx, i, id);
+            AuditEntry e = describe(r, st);
+            if (e != null) out.add(e);
+            st = apply(st, r);
+        }
+        return out;
+    }
+
+    /** changes with from <= time <= to, oldest first, at most limit entries (old values not filled) */
+    public List<AuditEntry> changesBetween(long from, long to, int limit) throws IOException {
+        List<AuditEntry> out = new ArrayList<>();
+        flush();
+        if (recordCount == 0) return out;
+        // last time-index entry whose base time is before 'from'
+        int lo = 0, hi = timeIndexSize - 1, start = 0;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (timeBases[mid] < from) { start = mid; lo = mid + 1; }
+            else hi = mid - 1;
+        }
+        long offset = timeOffsets[start];
+        ByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, offset, fileEnd - offset);
+        long t = timeBases[start];
+        int id = idBases[start];
+        while (in.hasRemaining() && out.size() < limit) {
+            Rec r = decode(in, t, id, false);
+            if (r == null) continue;
+            t = r.time;
+            id = r.id;
+            if (t > to) break;
+            if (t < from) continue;
+            AuditEntry e = describe(r, null);
+            if (e != null) out.add(e);
+        }
+        return out;
+    }
+
+    private AuditEntry describe(Rec r, State before) {
+        String who = (r.actor < actors.size()) ? actors.get(r.actor) : "?";
+        switch (r.type) {
+            case T_ADD:
+                return new AuditEntry(r.time, who, r.id, AuditEntry.Kind.ADDED, null, null, r.state.name);
+            case T_DELETE:
+                return new AuditEntry(r.time, who, r.id, AuditEntry.Kind.DELETED, null, null, null);
+            case T_MARK: {
+                String old = null;
+                if (before != null) {
+                    Integer m = before.marks.get(r.subject);
+                    old = String.valueOf(m == null ? -1 : m);
+                }
+                return new AuditEntry(r.time, who, r.id, AuditEntry.Kind.MARK, subjectNames.get(r.subject),
+                        old, String.valueOf(r.mark));
+            }
+            case T_NAME:
+                return new AuditEntry(r.time, who, r.id, AuditEntry.Kind.NAME, null,
+                        (before == null) ? null : before.name, r.text);
+            case T_GRADUATION:
+                return new AuditEntry(r.time, who, r.id, AuditEntry.Kind.GRADUATION, null,
+                        (before == null) ? null : graduationText(before.graduated, before.transcript),
+                        graduationText(r.mark != 0, r.text));
+            default:
+                return null; // checkpoints are not changes
+        }
+    }
+
+    private static String graduationText(boolean graduated, String transcript) {
+        return (graduated ? "Graduated" : "Pending") + " / " + transcript;
+    }
+
+    private static State apply(State st, Rec r) {
+        switch (r.type) {
+            case T_CHECKPOINT, T_ADD -> { return r.state; }
+            case T_DELETE -> { return null; }
+            default -> { }
+        }
+        if (st == null) return null; // change to a student we have no state for (should not happen)
+        switch (r.type) {
+            case T_MARK -> st.marks.put(r.subject, r.mark);
+            case T_NAME -> st.name = r.text;
+            case T_GRADUATION -> {
+                st.graduated = r.mark != 0;
+                st.transcript = r.text;
+            }
+            default -> { }
+        }
+        return st;
+    }
+
+    private Student toStudent(int id, State st, Subject[] subjects, int subjectCount) {
+        Student s = st.graduating
+                ? new GraduatingStudent(id, st.name, st.age, subjectCount, st.transcript, st.graduated)
+                : new Student(id, st.name, st.age, subjectCount);
+        double[] marks = new double[subjectCount];
+        for (int j = 0; j < subjectCount; j++) {
+            Integer code = subjectCodes.get(subjects[j].getName());
+            Integer m = (code == null) ? null : st.marks.get(code);
+            marks[j] = (m == null) ? -1 : m;
+        }
+        s.setMarksArray(marks);
+        return s;
+    }
+}
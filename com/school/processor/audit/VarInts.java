@@ -0,0 +1,55 @@
+package com.school.processor.audit;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * VarInts - LEB128-style variable-length integers (7 bits per byte, high bit =
+ * more bytes follow) plus zig-zag for signed values, so small deltas of either
+ * sign take one byte. Strings are a varint byte length followed by UTF-8.
+ */
+final class VarInts {
+
+    private VarInts() {}
+
+    static long zigZag(long v) { return (v << 1) ^ (v >> 63); }
+    static long unZigZag(long v) { return (v >>> 1) ^ -(v & 1); }
+
+    /** writes v (treated as unsigned) at buf[pos]; returns the new position */
+    static int putVarLong(byte[] buf, int pos, long v) {
+        while ((v & ~0x7FL) != 0) {
+            buf[pos++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        buf[pos++] = (byte) v;
+        return pos;
+    }
+
+    static long getVarLong(ByteBuffer in) {
+        long v = 0;
+        int shift = 0;
+        while (true) {
+            byte b = in.get();
+            v |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return v;
+            shift += 7;
+            if (shift > 63) throw new IllegalStateException("Malformed varint");
+        }
+    }
+
+    static int getVarInt(ByteBuffer in) {
+        return (int) getVarLong(in);
+    }
+
+    static int getSignedVarInt(ByteBuffer in) {
+        return (int) unZigZag(getVarLong(in));
+    }
+
+    static String getString(ByteBuffer in) {
+        int len = getVarInt(in);
+        if (len < 0 || len > in.remaining()) throw new IllegalStateException("Malformed string length " + len);
+        byte[] b = new byte[len];
+        in.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,76 @@
+package com.school.processor.compare;
+
+import com.school.processor.GradingConfig;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ComparisonEngine - compares two or more academic years, each kept as its own
+ * subjects.txt / students.txt directory.
+ *
+ * Every year is streamed once for its own aggregates (DatasetSummary), and each
+ * pair of consecutive years is joined on student ID (StudentHashJoin) for the
+ * same-student figures (YearComparison). Subjects are matched across years by
+ * name. Nothing is loaded into a ResultProcessor, and memory stays bounded by
+ * maxRowsInMemory join rows whatever the size of the years
+ * (-Dschool.compare.memoryRows, default 500000); larger joins spill partition
+ * files to spillDir (default: a temporary directory, removed afterwards).
+ */
+public class ComparisonEngine {
+
+    private final GradingConfig grading;
+    private final int maxRowsInMemory;
+    private final File spillDir;
+
+    public ComparisonEngine() {
+        this(GradingConfig.DEFAULT, Integer.getInteger("school.compare.memoryRows", 500_000), null);
+    }
+
+    public ComparisonEngine(GradingConfig grading, int maxRowsInMemory, File spillDir) {
+        this.grading = grading;
+        this.maxRowsInMemory = maxRowsInMemory;
+        this.spillDir = spillDir;
+    }
+
+    /** a year's dataset directory, graded with this engine's GradingConfig */
+    public YearDataset open(String label, File dir) throws IOException {
+        return new YearDataset(label, dir, grading);
+    }
+
+    /** years in order, oldest first; consecutive years are joined */
+    public ComparisonReport compare(List<YearDataset> years) throws IOException {
+        if (years.isEmpty()) throw new IllegalArgumentException("No datasets to compare");
+        long start = System.nanoTime();
+        List<DatasetSummary> summaries = new ArrayList<>();
+        for (YearDataset d : years) {
+            DatasetSummary s = new DatasetSummary(d);
+            d.scan(s);
+            s.setSkipped(d.getSkippedLines());
+            summaries.add(s);
+        }
+
+        List<YearComparison> comparisons = new ArrayList<>();
+        File dir = spillDir;
+        boolean ownDir = false;
+        if (dir == null) {
+            dir = Files.createTempDirectory("school-compare-").toFile();
+            ownDir = true;
+        }
+        StudentHashJoin join = new StudentHashJoin(maxRowsInMemory, dir);
+        try {
+            for (int i = 0; i + 1 < years.size(); i++) {
+                YearComparison c = new YearComparison(years.get(i), years.get(i + 1));
+                join.join(years.get(i), years.get(i + 1), c);
+                comparisons.add(c);
+            }
+        } finally {
+            if (ownDir) dir.delete();
+        }
+        return new ComparisonReport(grading, summaries, comparisons, join.getPeakTableRows(), join.getPartitions(),
+                join.getSpilledRows(), (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,118 @@
+package com.school.processor.compare;
+
+import com.school.processor.GradingConfig;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ComparisonReport - the result of ComparisonEngine.compare: one summary per
+ * year, one student-level comparison per pair of consecutive years, and how
+ * the joins used memory.
+ */
+public class ComparisonReport {
+
+    private final GradingConfig grading;
+    private final List<DatasetSummary> summaries;
+    private final List<YearComparison> comparisons;
+    private final int peakTableRows;
+    private final int partitions;
+    private final long spilledRows;
+    private final long millis;
+
+    ComparisonReport(GradingConfig grading, List<DatasetSummary> summaries, List<YearComparison> comparisons,
+                     int peakTableRows, int partitions, long spilledRows, long millis) {
+        this.grading = grading;
+        this.summaries = summaries;
+        this.comparisons = comparisons;
+        this.peakTableRows = peakTableRows;
+        this.partitions = partitions;
+        this.spilledRows = spilledRows;
+        this.millis = millis;
+    }
+
+    public List<DatasetSummary> getSummaries() { return summaries; }
+    public List<YearComparison> getComparisons() { return comparisons; }
+    public int getPeakTableRows() { return peakTableRows; }
+    public int getPartitions() { return partitions; }
+    public long getSpilledRows() { return spilledRows; }
+    public long getMillis() { return millis; }
+
+    /**
+     * subjectAverages - average mark (percent of max) per subject name and year,
+     * subjects in order of first appearance; -1 where a year lacks the subject.
+     */
+    public double[][] subjectAverages(List<String> namesOut) {
+        Map<String, Integer> rowOf = new HashMap<>();
+        List<double[]> rows = new ArrayList<>();
+        for (int y = 0; y < summaries.size(); y++) {
+            DatasetSummary s = summaries.get(y);
+            for (int j = 0; j < s.getSubjectCount(); j++) {
+                Integer r = rowOf.get(YearComparison.key(s.getSubjectName(j)));
+                if (r == null) {
+                    r = rows.size();
+                    rowOf.put(YearComparison.key(s.getSubjectName(j)), r);
+                    namesOut.add(s.getSubjectName(j));
+                    double[] row = new double[summaries.size()];
+                    Arrays.fill(row, -1);
+                    rows.add(row);
+                }
+                if (rows.get(r)[y] < 0) rows.get(r)[y] = s.getSubjectAveragePercent(j);
+            }
+        }
+        return rows.toArray(new double[0][]);
+    }
+
+    public String format() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-12s", "Year"));
+        for (DatasetSummary s : summaries) sb.append(String.format(" %10s", s.getLabel()));
+        sb.append('\n');
+        sb.append(String.format("%-12s", "Students"));
+        for (DatasetSummary s : summaries) sb.append(String.format(" %,10d", s.getStudents()));
+        sb.append('\n');
+        sb.append(String.format("%-12s", "Pass %"));
+        for (DatasetSummary s : summaries) sb.append(cell(s.getPassRate()));
+        sb.append('\n');
+
+        sb.append("\nSubject average (% of max)\n");
+        List<String> names = new ArrayList<>();
+        double[][] avg = subjectAverages(names);
+        for (int r = 0; r < avg.length; r++) {
+            sb.append(String.format("%-12s", names.get(r)));
+            for (double v : avg[r]) sb.append(cell(v));
+            sb.append('\n');
+        }
+
+        sb.append("\nGrade band: students, pass %\n");
+        sb.append(String.format("%-12s", "Band"));
+        for (DatasetSummary s : summaries) sb.append(String.format(" %17s", s.getLabel()));
+        sb.append('\n');
+        for (int b = 0; b < grading.getGradeCount(); b++) {
+            sb.append(String.format("%-12s", grading.getLabel(b)));
+            for (DatasetSummary s : summaries) {
+                sb.append(s.getBandCount(b) == 0 ? String.format(" %17s", "-")
+                        : String.format(" %,10d %5.1f%%", s.getBandCount(b), s.getBandPassRate(b)));
+            }
+            sb.append('\n');
+        }
+
+        for (DatasetSummary s : summaries) {
+            if (s.getSkipped() > 0) {
+                sb.append(String.format("Warning: %,d unreadable line(s) skipped in %s%n", s.getSkipped(), s.getLabel()));
+            }
+        }
+        for (YearComparison c : comparisons) sb.append('\n').append(c.format());
+
+        sb.append(String.format("%nCompared in %,d ms: largest hash table %,d rows, %d partition file(s) per side, %,d rows spilled%n",
+                millis, peakTableRows, partitions, spilledRows));
+        return sb.toString();
+    }
+
+    private static String cell(double v) {
+        return v < 0 ? String.format(" %10s", "-") : String.format(" %10.1f", v);
+    }
+}
@@ -0,0 +1,95 @@
+package com.school.processor.compare;
+
+import com.school.models.SubjectSchema;
+import com.school.processor.GradingConfig;
+
+/**
+ * DatasetSummary - one year's aggregates from a single streaming pass:
+ * students, pass rate, grade band distribution (with pass rate per band)
+ * and, per subject, average mark and pass rate over the marks entered.
+ */
+public class DatasetSummary implements JoinRow.Sink {
+
+    private final String label;
+    private final GradingConfig grading;
+    private final String[] subjectNames;
+    private final int[] maxMarks;
+    private final double[] thresholds;
+
+    private long students;
+    private long passed;
+    private long skipped;
+    private final long[] bandCounts;
+    private final long[] bandPassed;
+    private final long[] entered;
+    private final double[] sums;
+    private final long[] subjectPasses;
+
+    DatasetSummary(YearDataset d) {
+        this.label = d.getLabel();
+        this.grading = d.getGrading();
+        SubjectSchema schema = d.getSchema();
+        int n = schema.size();
+        subjectNames = new String[n];
+        maxMarks = new int[n];
+        thresholds = new double[n];
+        for (int j = 0; j < n; j++) {
+            subjectNames[j] = schema.subjectAt(j).getName();
+            maxMarks[j] = schema.subjectAt(j).getMaxMarks();
+            thresholds[j] = grading.passThreshold(maxMarks[j]);
+        }
+        bandCounts = new long[grading.getGradeCount()];
+        bandPassed = new long[grading.getGradeCount()];
+        entered = new long[n];
+        sums = new double[n];
+        subjectPasses = new long[n];
+    }
+
+    @Override
+    public void accept(JoinRow row) {
+        students++;
+        bandCounts[row.band]++;
+        if (row.passed) {
+            passed++;
+            bandPassed[row.band]++;
+        }
+        for (int j = 0; j < sums.length; j++) {
+            double m = row.marks[j];
+            if (m < 0) continue;
+            entered[j]++;
+            sums[j] += m;
+            if (m >= thresholds[j]) subjectPasses[j]++;
+        }
+    }
+
+    void setSkipped(long skipped) { this.skipped = skipped; }
+
+    public String getLabel() { return label; }
+    public long getStudents() { return students; }
+    public long getPassed() { return passed; }
+    public long getSkipped() { return skipped; }
+    public int getSubjectCount() { return subjectNames.length; }
+    public String getSubjectName(int j) { return subjectNames[j]; }
+    public int getMaxMarks(int j) { return maxMarks[j]; }
+    public long getEntered(int j) { return entered[j]; }
+    public long getBandCount(int band) { return bandCounts[band]; }
+
+    public double getPassRate() {
+        return students == 0 ? -1 : passed * 100.0 / students;
+    }
+
+    /** pass rate (percent) of students in a grade band, -1 if the band is empty */
+    public double getBandPassRate(int band) {
+        return bandCounts[band] == 0 ? -1 : bandPassed[band] * 100.0 / bandCounts[band];
+    }
+
+    /** average mark of subject j as percent of its max, -1 if no marks entered */
+    public double getSubjectAveragePercent(int j) {
+        return (entered[j] == 0 || maxMarks[j] <= 0) ? -1 : sums[j] * 100.0 / entered[j] / maxMarks[j];
+    }
+
+    /** share (percent) of entered marks of subject j at or above the pass mark, -1 if none */
+    public double getSubjectPassRate(int j) {
+        return entered[j] == 0 ? -1 : subjectPasses[j] * 100.0 / entered[j];
+    }
+}
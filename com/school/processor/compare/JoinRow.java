@@ -0,0 +1,72 @@
+package com.school.processor.compare;
+
+import com.school.processor.GradingConfig;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * JoinRow - what a join needs of one student: ID, marks (in the layout of
+ * the student's own year), average, grade band and pass flag.
+ *
+ * Rows are mutable and reused while streaming; a consumer that wants to keep
+ * one copies it (RowTable does). The binary form is used for spill files.
+ */
+public class JoinRow {
+
+    /** receives rows one at a time */
+    public interface Sink {
+        void accept(JoinRow row) throws IOException;
+    }
+
+    int id;
+    double average;
+    int band;
+    boolean passed;
+    final double[] marks;
+
+    JoinRow(int subjectCount) {
+        this.marks = new double[subjectCount];
+    }
+
+    public int getId() { return id; }
+    public double getAverage() { return average; }
+    public int getBand() { return band; }
+    public boolean isPassed() { return passed; }
+
+    /** mark of subject position j in this row's year, -1 if not entered */
+    public double getMarkAt(int j) { return marks[j]; }
+
+    // same arithmetic as ResultProcessor.calculateGrade / checkPass
+    void fill(int studentId, double[] studentMarks, double[] passThresholds, GradingConfig grading) {
+        id = studentId;
+        double total = 0;
+        boolean pass = true;
+        for (int j = 0; j < marks.length; j++) {
+            double m = (studentMarks != null && j < studentMarks.length) ? studentMarks[j] : -1;
+            marks[j] = m;
+            if (m >= 0) total += m;
+            if (m == -1 || m < passThresholds[j]) pass = false;
+        }
+        average = (marks.length == 0) ? 0.0 : total / marks.length;
+        band = grading.gradeIndex(average);
+        passed = pass;
+    }
+
+    void write(DataOutput out) throws IOException {
+        out.writeInt(id);
+        out.writeDouble(average);
+        out.writeByte(band);
+        out.writeBoolean(passed);
+        for (double m : marks) out.writeDouble(m);
+    }
+
+    void read(DataInput in) throws IOException {
+        id = in.readInt();
+        average = in.readDouble();
+        band = in.readByte();
+        passed = in.readBoolean();
+        for (int j = 0; j < marks.length; j++) marks[j] = in.readDouble();
+    }
+}
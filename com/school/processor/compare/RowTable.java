@@ -0,0 +1,103 @@
+package com.school.processor.compare;
+
+import java.util.Arrays;
+
+/**
+ * RowTable - the in-memory (build) side of a hash join: copies of JoinRows
+ * in parallel arrays, indexed by student ID with open addressing.
+ *
+ * No object per row, so a few hundred thousand rows cost about
+ * 20 + 8 x subjects bytes each. The first row of an ID wins; later copies
+ * are counted as duplicates.
+ */
+class RowTable {
+
+    private final int width;
+    private int[] ids;
+    private double[] averages;
+    private byte[] bands;
+    private boolean[] passed;
+    private boolean[] matched;
+    private double[] marks;   // row-major, width per row
+    private int size;
+    private int duplicates;
+
+    private int[] slots;      // row index + 1, 0 = empty
+    private int mask;
+
+    RowTable(int width, int expectedRows) {
+        this.width = width;
+        int cap = Math.max(16, expectedRows);
+        ids = new int[cap];
+        averages = new double[cap];
+        bands = new byte[cap];
+        passed = new boolean[cap];
+        matched = new boolean[cap];
+        marks = new double[cap * width];
+        int n = Integer.highestOneBit(Math.max(16, cap * 2 - 1)) << 1;
+        slots = new int[n];
+        mask = n - 1;
+    }
+
+    int size() { return size; }
+    int getDuplicates() { return duplicates; }
+
+    /** copies row in; false (and counted) if its ID is already there */
+    boolean add(JoinRow row) {
+        int slot = slotOf(row.id);
+        if (slots[slot] != 0) {
+            duplicates++;
+            return false;
+        }
+        if (size == ids.length) grow();
+        ids[size] = row.id;
+        averages[size] = row.average;
+        bands[size] = (byte) row.band;
+        passed[size] = row.passed;
+        System.arraycopy(row.marks, 0, marks, size * width, width);
+        slots[slot] = ++size;
+        if (size * 2 > slots.length) rehash();
+        return true;
+    }
+
+    /** row index of a student ID, -1 if absent */
+    int find(int id) {
+        return slots[slotOf(id)] - 1;
+    }
+
+    boolean isMatched(int i) { return matched[i]; }
+    void setMatched(int i) { matched[i] = true; }
+
+    /** copies row i into out */
+    void get(int i, JoinRow out) {
+        out.id = ids[i];
+        out.average = averages[i];
+        out.band = bands[i];
+        out.passed = passed[i];
+        System.arraycopy(marks, i * width, out.marks, 0, width);
+    }
+
+    // slot holding id, or the empty slot where it would go
+    private int slotOf(int id) {
+        int h = id * 0x9E3779B1;
+        int slot = (h ^ (h >>> 16)) & mask;
+        while (slots[slot] != 0 && ids[slots[slot] - 1] != id) slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    private void grow() {
+        int cap = ids.length * 2;
+        ids = Arrays.copyOf(ids, cap);
+        averages = Arrays.copyOf(averages, cap);
+        bands = Arrays.copyOf(bands, cap);
+        passed = Arrays.copyOf(passed, cap);
+        matched = Arrays.copyOf(matched, cap);
+        marks = Arrays.copyOf(marks, cap * width);
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        mask = slots.length - 1;
+        for (int i = 0; i < size; i++) slots[slotOf(ids[i])] = i + 1;
+    }
+}
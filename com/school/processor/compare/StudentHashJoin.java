@@ -0,0 +1,216 @@
+package com.school.processor.compare;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * StudentHashJoin - joins two years on student ID with a hash join whose
+ * memory is bounded by maxRowsInMemory.
+ *
+ * The year with the smaller students.txt is the build side. If it fits, it is
+ * loaded into a RowTable and the other year is streamed past it (one pass over
+ * each file). If not, both sides are split by a hash of the student ID into
+ * partition files under spillDir, sized so each build partition fits, and the
+ * partitions are joined one at a time (a Grace hash join). A partition that
+ * still turns out too large, because the estimate was off, is split again with
+ * another hash; after MAX_DEPTH levels it is loaded as it is, which only happens
+ * when one ID is repeated that often.
+ *
+ * Only one copy of an ID is joined: repeated IDs on either side are counted as
+ * duplicates, except repeats of an unmatched probe-side ID, which count once each.
+ */
+class StudentHashJoin {
+
+    private static final int MAX_DEPTH = 3;
+    private static final int MAX_FANOUT = 64;
+
+    private final int maxRowsInMemory;
+    private final File spillDir;
+
+    private int partitions;       // partition files written (per side), all levels
+    private long spilledRows;     // rows written to partition files, both sides
+    private int peakTableRows;
+
+    StudentHashJoin(int maxRowsInMemory, File spillDir) {
+        this.maxRowsInMemory = Math.max(1, maxRowsInMemory);
+        this.spillDir = spillDir;
+    }
+
+    int getPartitions() { return partitions; }
+    long getSpilledRows() { return spilledRows; }
+    int getPeakTableRows() { return peakTableRows; }
+
+    // rows from a year's students.txt or a partition file; can be scanned again
+    private interface RowSource {
+        void scan(JoinRow.Sink sink) throws IOException;
+    }
+
+    // thrown by the loading sink once the build side passes the memory bound
+    private static class TooLarge extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        TooLarge() {
+            super("build side over the memory bound");
+        }
+    }
+
+    // where matched and unmatched rows go, already oriented older/newer
+    private static final class Output {
+        final YearComparison out;
+        final boolean buildIsOlder;
+
+        Output(YearComparison out, boolean buildIsOlder) {
+            this.out = out;
+            this.buildIsOlder = buildIsOlder;
+        }
+
+        void pair(JoinRow build, JoinRow probe) {
+            if (buildIsOlder) out.pair(build, probe);
+            else out.pair(probe, build);
+        }
+
+        void buildOnly() {
+            if (buildIsOlder) out.olderOnly();
+            else out.newerOnly();
+        }
+
+        void probeOnly() {
+            if (buildIsOlder) out.newerOnly();
+            else out.olderOnly();
+        }
+    }
+
+    void join(YearDataset older, YearDataset newer, YearComparison out) throws IOException {
+        boolean buildIsOlder = older.getStudentsFileSize() <= newer.getStudentsFileSize();
+        YearDataset build = buildIsOlder ? older : newer;
+        YearDataset probe = buildIsOlder ? newer : older;
+        joinSources(build::scan, build.getSubjectCount(), probe::scan, probe.getSubjectCount(),
+                build.estimateRows(), 0, new Output(out, buildIsOlder));
+    }
+
+    private void joinSources(RowSource build, int buildWidth, RowSource probe, int probeWidth,
+                             long estimatedRows, int depth, Output output) throws IOException {
+        if (estimatedRows <= maxRowsInMemory || depth >= MAX_DEPTH) {
+            RowTable table = new RowTable(buildWidth, (int) Math.min(estimatedRows, maxRowsInMemory));
+            boolean bounded = depth < MAX_DEPTH;
+            try {
+                build.scan(row -> {
+                    table.add(row);
+                    if (bounded && table.size() > maxRowsInMemory) throw new TooLarge();
+                });
+            } catch (TooLarge e) {
+                // the estimate was low: at least twice the bound, split and try again
+                partitionedJoin(build, buildWidth, probe, probeWidth,
+                        Math.max(estimatedRows, 2L * maxRowsInMemory), depth, output);
+                return;
+            }
+            peakTableRows = Math.max(peakTableRows, table.size());
+            probeTable(table, buildWidth, probe, output);
+            return;
+        }
+        partitionedJoin(build, buildWidth, probe, probeWidth, estimatedRows, depth, output);
+    }
+
+    // the partitioned path: split both sides, join partition by partition
+    private void partitionedJoin(RowSource build, int buildWidth, RowSource probe, int probeWidth,
+                                 long estimatedRows, int depth, Output output) throws IOException {
+        int fanout = (int) Math.max(2, Math.min(MAX_FANOUT,
+                (estimatedRows + estimatedRows / 4 + maxRowsInMemory - 1) / maxRowsInMemory));
+        File[] buildParts = new File[fanout];
+        File[] probeParts = new File[fanout];
+        try {
+            long[] counts = split(build, fanout, depth, "build", buildParts);
+            split(probe, fanout, depth, "probe", probeParts);
+            for (int p = 0; p < fanout; p++) {
+                File bf = buildParts[p];
+                File pf = probeParts[p];
+                joinSources(sink -> readPartition(bf, buildWidth, sink), buildWidth,
+                        sink -> readPartition(pf, probeWidth, sink), probeWidth, counts[p], depth + 1, output);
+                bf.delete();
+                pf.delete();
+            }
+        } finally {
+            for (int p = 0; p < fanout; p++) {
+                if (buildParts[p] != null) buildParts[p].delete();
+                if (probeParts[p] != null) probeParts[p].delete();
+            }
+        }
+    }
+
+    private void probeTable(RowTable table, int buildWidth, RowSource probe, Output output) throws IOException {
+        JoinRow buildRow = new JoinRow(buildWidth);
+        long[] probeDuplicates = new long[1];
+        probe.scan(row -> {
+            int i = table.find(row.id);
+            if (i < 0) {
+                output.probeOnly();
+            } else if (table.isMatched(i)) {
+                probeDuplicates[0]++;
+            } else {
+                table.setMatched(i);
+                table.get(i, buildRow);
+                output.pair(buildRow, row);
+            }
+        });
+        for (int i = 0; i < table.size(); i++) {
+            if (!table.isMatched(i)) output.buildOnly();
+        }
+        output.out.duplicates(probeDuplicates[0] + table.getDuplicates());
+    }
+
+    // ------------------ PARTITION FILES ------------------
+
+    private long[] split(RowSource source, int fanout, int depth, String side, File[] files)
+            throws IOException {
+        DataOutputStream[] outs = new DataOutputStream[fanout];
+        long[] counts = new long[fanout];
+        try {
+            for (int p = 0; p < fanout; p++) {
+                files[p] = File.createTempFile(side + "-" + depth + "-" + p + "-", ".part", spillDir);
+                outs[p] = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(files[p]), 1 << 15));
+            }
+            partitions += fanout;
+            source.scan(row -> {
+                int p = partitionOf(row.id, depth, fanout);
+                row.write(outs[p]);
+                counts[p]++;
+            });
+        } finally {
+            for (DataOutputStream o : outs) {
+                if (o != null) o.close();
+            }
+        }
+        for (long c : counts) spilledRows += c;
+        return counts;
+    }
+
+    private static void readPartition(File f, int width, JoinRow.Sink sink) throws IOException {
+        JoinRow row = new JoinRow(width);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(f), 1 << 15))) {
+            while (true) {
+                try {
+                    row.read(in);
+                } catch (EOFException e) {
+                    return;
+                }
+                sink.accept(row);
+            }
+        }
+    }
+
+    // a different hash per level, so a partition split again really divides
+    static int partitionOf(int id, int depth, int fanout) {
+        int h = (id ^ (depth * 0x85EBCA6B)) * 0x9E3779B1;
+        h ^= h >>> 15;
+        h *= 0x2C1B3C6D;
+        h ^= h >>> 13;
+        return Math.floorMod(h, fanout);
+    }
+}
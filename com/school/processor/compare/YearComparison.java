@@ -0,0 +1,197 @@
+package com.school.processor.compare;
+
+import com.school.models.SubjectSchema;
+import com.school.processor.GradingConfig;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * YearComparison - the same students in two years (joined on student ID),
+ * as aggregates only: how many stayed, left or joined, how averages moved,
+ * grade band transitions, pass-rate shift per earlier grade band, and the
+ * mark change per subject the two years share (matched on subject name,
+ * compared as percent of the subject's max since max marks may differ).
+ */
+public class YearComparison {
+
+    private final String olderLabel;
+    private final String newerLabel;
+    private final GradingConfig grading;
+
+    // subjects in both years: name, position in each year, max marks in each year
+    private final String[] commonNames;
+    private final int[] olderPos;
+    private final int[] newerPos;
+    private final double[] olderMax;
+    private final double[] newerMax;
+
+    private long matched;
+    private long onlyOlder;
+    private long onlyNewer;
+    private long duplicates;
+    private double sumAvgChange;
+    private double sumSqAvgChange;
+    private final long[][] transitions;    // [older band][newer band]
+    private final long[] passedOlderByBand;
+    private final long[] passedNewerByBand;
+    private long passToFail;
+    private long failToPass;
+    private final long[] subjectPairs;     // students with a mark in both years, per common subject
+    private final double[] sumOlderPct;
+    private final double[] sumNewerPct;
+
+    public YearComparison(YearDataset older, YearDataset newer) {
+        this.olderLabel = older.getLabel();
+        this.newerLabel = newer.getLabel();
+        this.grading = older.getGrading();
+
+        // the subject lists are small: hash the older one by name, probe with the newer
+        SubjectSchema a = older.getSchema();
+        SubjectSchema b = newer.getSchema();
+        Map<String, Integer> byName = new HashMap<>();
+        for (int j = 0; j < a.size(); j++) byName.putIfAbsent(key(a.subjectAt(j).getName()), j);
+        List<int[]> pairs = new ArrayList<>();
+        for (int j = 0; j < b.size(); j++) {
+            Integer i = byName.remove(key(b.subjectAt(j).getName()));
+            if (i != null) pairs.add(new int[] {i, j});
+        }
+        int n = pairs.size();
+        commonNames = new String[n];
+        olderPos = new int[n];
+        newerPos = new int[n];
+        olderMax = new double[n];
+        newerMax = new double[n];
+        for (int k = 0; k < n; k++) {
+            olderPos[k] = pairs.get(k)[0];
+            newerPos[k] = pairs.get(k)[1];
+            commonNames[k] = b.subjectAt(newerPos[k]).getName();
+            olderMax[k] = a.subjectAt(olderPos[k]).getMaxMarks();
+            newerMax[k] = b.subjectAt(newerPos[k]).getMaxMarks();
+        }
+
+        int bands = grading.getGradeCount();
+        transitions = new long[bands][bands];
+        passedOlderByBand = new long[bands];
+        passedNewerByBand = new long[bands];
+        subjectPairs = new long[n];
+        sumOlderPct = new double[n];
+        sumNewerPct = new double[n];
+    }
+
+    static String key(String subjectName) {
+        return subjectName.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // ------------------ ACCUMULATION (called by the join) ------------------
+
+    void pair(JoinRow older, JoinRow newer) {
+        matched++;
+        double d = newer.average - older.average;
+        sumAvgChange += d;
+        sumSqAvgChange += d * d;
+        transitions[older.band][newer.band]++;
+        if (older.passed) passedOlderByBand[older.band]++;
+        if (newer.passed) passedNewerByBand[older.band]++;
+        if (older.passed && !newer.passed) passToFail++;
+        if (!older.passed && newer.passed) failToPass++;
+        for (int k = 0; k < commonNames.length; k++) {
+            double mo = older.marks[olderPos[k]];
+            double mn = newer.marks[newerPos[k]];
+            if (mo < 0 || mn < 0) continue;
+            subjectPairs[k]++;
+            sumOlderPct[k] += olderMax[k] > 0 ? mo * 100.0 / olderMax[k] : 0;
+            sumNewerPct[k] += newerMax[k] > 0 ? mn * 100.0 / newerMax[k] : 0;
+        }
+    }
+
+    void olderOnly() { onlyOlder++; }
+    void newerOnly() { onlyNewer++; }
+    void duplicates(long n) { duplicates += n; }
+
+    // ------------------ RESULTS ------------------
+
+    public String getOlderLabel() { return olderLabel; }
+    public String getNewerLabel() { return newerLabel; }
+    public long getMatched() { return matched; }
+    public long getOnlyOlder() { return onlyOlder; }
+    public long getOnlyNewer() { return onlyNewer; }
+    public long getDuplicates() { return duplicates; }
+    public long getPassToFail() { return passToFail; }
+    public long getFailToPass() { return failToPass; }
+    public long getTransitions(int olderBand, int newerBand) { return transitions[olderBand][newerBand]; }
+    public int getCommonSubjectCount() { return commonNames.length; }
+    public String getCommonSubject(int k) { return commonNames[k]; }
+
+    public double getMeanAverageChange() {
+        return matched == 0 ? 0 : sumAvgChange / matched;
+    }
+
+    public double getAverageChangeStdDev() {
+        if (matched < 2) return 0;
+        double mean = getMeanAverageChange();
+        return Math.sqrt(Math.max(0, (sumSqAvgChange - matched * mean * mean) / (matched - 1)));
+    }
+
+    /** students in olderBand (in the older year) */
+    public long getBandCount(int olderBand) {
+        long n = 0;
+        for (long c : transitions[olderBand]) n += c;
+        return n;
+    }
+
+    /** pass rate (percent) in the older / newer year of the students who were in olderBand, -1 if none */
+    public double getOlderPassRate(int olderBand) {
+        long n = getBandCount(olderBand);
+        return n == 0 ? -1 : passedOlderByBand[olderBand] * 100.0 / n;
+    }
+
+    public double getNewerPassRate(int olderBand) {
+        long n = getBandCount(olderBand);
+        return n == 0 ? -1 : passedNewerByBand[olderBand] * 100.0 / n;
+    }
+
+    /** mean mark change (percentage points of max) of common subject k, over students with both marks */
+    public double getSubjectChange(int k) {
+        return subjectPairs[k] == 0 ? 0 : (sumNewerPct[k] - sumOlderPct[k]) / subjectPairs[k];
+    }
+
+    public String format() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Students ").append(olderLabel).append(" -> ").append(newerLabel).append('\n');
+        sb.append(String.format("  in both: %,d   only %s: %,d   only %s: %,d%n",
+                matched, olderLabel, onlyOlder, newerLabel, onlyNewer));
+        if (duplicates > 0) sb.append(String.format("  repeated IDs ignored: %,d%n", duplicates));
+        sb.append(String.format("  average change: %+.2f (sd %.2f)%n", getMeanAverageChange(), getAverageChangeStdDev()));
+        sb.append(String.format("  %,d newly fail, %,d newly pass%n", passToFail, failToPass));
+
+        sb.append(String.format("  %-8s %9s %9s %9s %8s%n", "band", "students", "pass " + olderLabel,
+                "pass " + newerLabel, "shift"));
+        for (int b = 0; b < transitions.length; b++) {
+            long n = getBandCount(b);
+            if (n == 0) continue;
+            sb.append(String.format("  %-8s %,9d %8.1f%% %8.1f%% %+7.1f%n", grading.getLabel(b), n,
+                    getOlderPassRate(b), getNewerPassRate(b), getNewerPassRate(b) - getOlderPassRate(b)));
+        }
+
+        sb.append(String.format("  %-8s", "old\\new"));
+        for (int c = 0; c < transitions.length; c++) sb.append(String.format(" %8s", grading.getLabel(c)));
+        sb.append('\n');
+        for (int b = 0; b < transitions.length; b++) {
+            sb.append(String.format("  %-8s", grading.getLabel(b)));
+            for (int c = 0; c < transitions.length; c++) sb.append(String.format(" %,8d", transitions[b][c]));
+            sb.append('\n');
+        }
+
+        if (commonNames.length > 0) {
+            sb.append(String.format("  %-12s %9s %12s%n", "subject", "students", "mark change"));
+            for (int k = 0; k < commonNames.length; k++) {
+                sb.append(String.format("  %-12s %,9d %+11.2f%%%n", commonNames[k], subjectPairs[k], getSubjectChange(k)));
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,107 @@
+package com.school.processor.compare;
+
+import com.school.models.Student;
+import com.school.models.SubjectSchema;
+import com.school.processor.GradingConfig;
+import com.school.processor.StudentFileFormat;
+import com.school.processor.storage.TextFileStorageEngine;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+
+/**
+ * YearDataset - one academic year's subjects.txt / students.txt pair, read
+ * as a stream: students are parsed one line at a time and never kept, so a
+ * dataset of any size can be scanned with constant memory.
+ *
+ * Each student is handed on as a JoinRow (average, grade band and pass flag
+ * worked out the same way as ResultProcessor.calculateGrade / checkPass).
+ * Lines that do not parse are skipped and counted.
+ */
+public class YearDataset {
+
+    private final String label;
+    private final File dir;
+    private final SubjectSchema schema;
+    private final GradingConfig grading;
+    private long skippedLines;
+
+    /** reads the subject list now; students.txt is only read by scan() */
+    public YearDataset(String label, File dir, GradingConfig grading) throws IOException {
+        if (!new File(dir, "subjects.txt").exists()) throw new IOException("No subjects.txt in " + dir);
+        this.label = label;
+        this.dir = dir;
+        this.grading = grading;
+        this.schema = new TextFileStorageEngine(dir.getPath()).readSchema();
+    }
+
+    public String getLabel() { return label; }
+    public File getDir() { return dir; }
+    public SubjectSchema getSchema() { return schema; }
+    public GradingConfig getGrading() { return grading; }
+    public int getSubjectCount() { return schema.size(); }
+
+    /** lines of the last scan that could not be parsed */
+    public long getSkippedLines() { return skippedLines; }
+
+    /** size of students.txt in bytes (0 if missing), used to pick the build side of a join */
+    public long getStudentsFileSize() {
+        return new File(dir, "students.txt").length();
+    }
+
+    /**
+     * estimateRows - roughly how many students the file holds, from the
+     * average line length of its first 64 KB.
+     */
+    public long estimateRows() throws IOException {
+        File f = new File(dir, "students.txt");
+        if (!f.exists()) return 0;
+        byte[] head = new byte[1 << 16];
+        int n;
+        try (InputStream in = new FileInputStream(f)) {
+            n = in.readNBytes(head, 0, head.length);
+        }
+        int lines = 0;
+        for (int i = 0; i < n; i++) {
+            if (head[i] == '\n') lines++;
+        }
+        if (n < head.length) return lines + ((n > 0 && head[n - 1] != '\n') ? 1 : 0);
+        return (lines == 0) ? 1 : f.length() * lines / n;
+    }
+
+    /** scan - passes every student to sink, in file order (the row object is reused) */
+    public void scan(JoinRow.Sink sink) throws IOException {
+        skippedLines = 0;
+        File f = new File(dir, "students.txt");
+        if (!f.exists()) return;
+        JoinRow row = new JoinRow(schema.size());
+        double[] thresholds = new double[schema.size()];
+        for (int j = 0; j < thresholds.length; j++) {
+            thresholds[j] = grading.passThreshold(schema.subjectAt(j).getMaxMarks());
+        }
+        try (BufferedReader br = new BufferedReader(
+                new InputStreamReader(new FileInputStream(f), Charset.defaultCharset()), 1 << 16)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.isBlank()) continue;
+                Student s = StudentFileFormat.parse(line, schema);
+                if (s == null) {
+                    skippedLines++;
+                    continue;
+                }
+                row.fill(s.getId(), s.getMarks(), thresholds, grading);
+                sink.accept(row);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return label + " (" + dir + ")";
+    }
+}
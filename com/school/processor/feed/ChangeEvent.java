@@ -0,0 +1,90 @@
+package com.school.processor.feed;
+
+/**
+ * ChangeEvent - one mutation of ResultProcessor state.
+ *
+ * Which fields are set depends on the type:
+ *  STUDENT_ADDED          studentId, newValue=name, grade, passed
+ *  STUDENT_DELETED        studentId
+ *  STUDENT_RENAMED        studentId, oldValue, newValue
+ *  MARK_CHANGED           studentId, subject, oldValue, newValue ("-1" = not entered)
+ *  GRADE_CHANGED          studentId, oldValue=old grade, newValue=grade, grade, passed
+ *  GRADUATION_UPDATED     studentId, newValue=transcript, passed=graduation status
+ *  SUBJECT_SCHEMA_CHANGED subject, oldValue/newValue = "absent" or max marks
+ *
+ * sequence numbers are assigned by the ChangeFeed and increase by one per event.
+ */
+public class ChangeEvent {
+
+    private final ChangeType type;
+    private final long timestamp;
+    private final int studentId;
+    private final String subject;
+    private final String oldValue;
+    private final String newValue;
+    private final String grade;
+    private final boolean passed;
+    private long sequence;
+
+    public ChangeEvent(ChangeType type, int studentId, String subject, String oldValue, String newValue,
+                       String grade, boolean passed) {
+        this.type = type;
+        this.timestamp = System.currentTimeMillis();
+        this.studentId = studentId;
+        this.subject = subject;
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+        this.grade = grade;
+        this.passed = passed;
+    }
+
+    public static ChangeEvent studentAdded(int id, String name, String grade, boolean passed) {
+        return new ChangeEvent(ChangeType.STUDENT_ADDED, id, null, null, name, grade, passed);
+    }
+
+    public static ChangeEvent studentDeleted(int id) {
+        return new ChangeEvent(ChangeType.STUDENT_DELETED, id, null, null, null, null, false);
+    }
+
+    public static ChangeEvent studentRenamed(int id, String oldName, String newName) {
+        return new ChangeEvent(ChangeType.STUDENT_RENAMED, id, null, oldName, newName, null, false);
+    }
+
+    public static ChangeEvent markChanged(int id, String subject, double oldMark, double newMark) {
+        return new ChangeEvent(ChangeType.MARK_CHANGED, id, subject,
+                String.valueOf((int) oldMark), String.valueOf((int) newMark), null, false);
+    }
+
+    public static ChangeEvent gradeChanged(int id, String oldGrade, String grade, boolean passed) {
+        return new ChangeEvent(ChangeType.GRADE_CHANGED, id, null, oldGrade, grade, grade, passed);
+    }
+
+    public static ChangeEvent graduationUpdated(int id, String transcript, boolean status) {
+        return new ChangeEvent(ChangeType.GRADUATION_UPDATED, id, null, null, transcript, null, status);
+    }
+
+    public static ChangeEvent subjectChanged(String subject, String oldValue, String newValue) {
+        return new ChangeEvent(ChangeType.SUBJECT_SCHEMA_CHANGED, 0, subject, oldValue, newValue, null, false);
+    }
+
+    void setSequence(long sequence) { this.sequence = sequence; }
+
+    public long getSequence() { return sequence; }
+    public ChangeType getType() { return type; }
+    public long getTimestamp() { return timestamp; }
+    public int getStudentId() { return studentId; }
+    public String getSubject() { return subject; }
+    public String getOldValue() { return oldValue; }
+    public String getNewValue() { return newValue; }
+    public String getGrade() { return grade; }
+    public boolean isPassed() { return passed; }
+
+    @Override
+    public String toString() {
+        return "#" + sequence + " " + type + " id=" + studentId
+                + (subject != null ? " subject=" + subject : "")
+                + (oldValue != null ? " old=" + oldValue : "")
+                + (newValue != null ? " new=" + newValue : "")
+                + (grade != null ? " grade=" + grade + (passed ? " PASS" : " FAIL") : "");
+    }
+}
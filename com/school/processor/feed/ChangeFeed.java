@@ -0,0 +1,123 @@
+package com.school.processor.feed;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * ChangeFeed - publishes ResultProcessor mutations as batches of ChangeEvents
+ * through java.util.concurrent.Flow.
+ *
+ *  - batching  : events are grouped into lists of up to batchSize; a partial
+ *                batch is flushed after maxDelayMillis so quiet periods still deliver
+ *  - buffering : each subscriber has a bounded buffer of bufferCapacity batches
+ *  - backpressure: by default a full subscriber buffer blocks the publishing
+ *                thread (lossless). With offerTimeoutMillis >= 0 the publisher waits
+ *                at most that long and then drops the batch for that subscriber;
+ *                drops are counted and show up as gaps in event sequence numbers.
+ *
+ * When nobody is subscribed, publish() returns immediately and nothing is kept.
+ */
+public class ChangeFeed implements Flow.Publisher<List<ChangeEvent>>, AutoCloseable {
+
+    private final SubmissionPublisher<List<ChangeEvent>> publisher;
+    private final ExecutorService deliveryPool;
+    private final int batchSize;
+    private final long maxDelayMillis;
+    private final long offerTimeoutMillis;
+
+    private final Object flushLock = new Object(); // keeps batches in sequence order
+    private List<ChangeEvent> pending;
+    private long nextSequence = 1;
+    private volatile long dropped;
+    private ScheduledExecutorService flusher;
+
+    public ChangeFeed() {
+        this(64, 50, 256, -1);
+    }
+
+    public ChangeFeed(int batchSize, long maxDelayMillis, int bufferCapacity, long offerTimeoutMillis) {
+        this.batchSize = Math.max(1, batchSize);
+        this.maxDelayMillis = Math.max(1, maxDelayMillis);
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.pending = new ArrayList<>(this.batchSize);
+        this.deliveryPool = Executors.newCachedThreadPool(daemonThreads("change-feed-delivery"));
+        this.publisher = new SubmissionPublisher<>(deliveryPool, Math.max(1, bufferCapacity));
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super List<ChangeEvent>> subscriber) {
+        publisher.subscribe(subscriber);
+        startFlusher();
+    }
+
+    public boolean hasSubscribers() {
+        return publisher.hasSubscribers();
+    }
+
+    /**
+     * publish - queue one event; sends a batch once batchSize events are pending.
+     */
+    public void publish(ChangeEvent event) {
+        if (!publisher.hasSubscribers() || publisher.isClosed()) return;
+        boolean full;
+        synchronized (this) {
+            event.setSequence(nextSequence++);
+            pending.add(event);
+            full = pending.size() >= batchSize;
+        }
+        if (full) flush();
+    }
+
+    /** send whatever is pending now */
+    public void flush() {
+        synchronized (flushLock) {
+            List<ChangeEvent> batch;
+            synchronized (this) {
+                if (pending.isEmpty()) return;
+                batch = pending;
+                pending = new ArrayList<>(batchSize);
+            }
+            if (publisher.isClosed()) return;
+            List<ChangeEvent> items = List.copyOf(batch);
+            if (offerTimeoutMillis < 0) {
+                publisher.submit(items); // blocks while a subscriber buffer is full
+            } else {
+                publisher.offer(items, offerTimeoutMillis, TimeUnit.MILLISECONDS, (sub, lost) -> {
+                    dropped += lost.size();
+                    return false;
+                });
+            }
+        }
+    }
+
+    /** events dropped because a subscriber stayed full past offerTimeoutMillis */
+    public long getDroppedCount() { return dropped; }
+
+    /** estimated batches waiting in the slowest subscriber's buffer */
+    public int getMaxBufferLag() { return publisher.estimateMaximumLag(); }
+
+    private synchronized void startFlusher() {
+        if (flusher != null) return;
+        flusher = Executors.newSingleThreadScheduledExecutor(daemonThreads("change-feed-flusher"));
+        flusher.scheduleWithFixedDelay(this::flush, maxDelayMillis, maxDelayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /** flushes pending events, then completes all subscribers */
+    @Override
+    public void close() {
+        flush();
+        synchronized (this) {
+            if (flusher != null) flusher.shutdown();
+        }
+        publisher.close(); // delivery threads are daemons and exit once idle
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        return r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
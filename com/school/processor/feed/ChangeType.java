@@ -0,0 +1,14 @@
+package com.school.processor.feed;
+
+/**
+ * Kinds of mutation published on the ResultProcessor change feed.
+ */
+public enum ChangeType {
+    STUDENT_ADDED,
+    STUDENT_DELETED,
+    STUDENT_RENAMED,
+    MARK_CHANGED,
+    GRADE_CHANGED,
+    GRADUATION_UPDATED,
+    SUBJECT_SCHEMA_CHANGED
+}
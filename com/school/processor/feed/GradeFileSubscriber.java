@@ -0,0 +1,146 @@
+package com.school.processor.feed;
+
+import com.school.models.Student;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Flow;
+
+/**
+ * GradeFileSubscriber - example change-feed consumer that keeps a derived
+ * grades file (for the fee office / notifications) up to date in place.
+ *
+ * The file holds one fixed-width text line per student:
+ *   "      1234 A+  PASS" padded to RECORD_WIDTH-1 characters + '\n'
+ * A student's line never moves, so a grade change rewrites just that record
+ * instead of the whole file. Deleted students leave a blank line whose slot
+ * is reused by the next added student.
+ *
+ * Usage:
+ *   GradeFileSubscriber sub = new GradeFileSubscriber("grades.txt");
+ *   sub.seed(processor.getStudentsArray(), processor.getStudentCount());
+ *   processor.getChangeFeed().subscribe(sub);
+ */
+public class GradeFileSubscriber implements Flow.Subscriber<List<ChangeEvent>>, AutoCloseable {
+
+    static final int RECORD_WIDTH = 24;
+
+    private final RandomAccessFile file;
+    private final Map<Integer, Integer> slotById = new HashMap<>();
+    private final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+    private final byte[] record = new byte[RECORD_WIDTH];
+    private int slotCount;
+    private long lastSequence;
+    private long gaps;
+    private Flow.Subscription subscription;
+
+    public GradeFileSubscriber(String path) throws IOException {
+        this.file = new RandomAccessFile(path, "rw");
+    }
+
+    /** writes the full file once, from the current roster (call before subscribing) */
+    public synchronized void seed(Student[] students, int count) throws IOException {
+        file.setLength(0);
+        slotById.clear();
+        freeSlots.clear();
+        slotCount = 0;
+        for (int i = 0; i < count; i++) {
+            Student s = students[i];
+            writeRecord(slotFor(s.getId()), s.getId(), s.getGrade(), s.isPassed());
+        }
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(1);
+    }
+
+    @Override
+    public void onNext(List<ChangeEvent> batch) {
+        try {
+            apply(batch);
+        } catch (IOException e) {
+            subscription.cancel();
+            throw new UncheckedIOException(e);
+        }
+        subscription.request(1); // one batch at a time = natural backpressure
+    }
+
+    synchronized void apply(List<ChangeEvent> batch) throws IOException {
+        for (ChangeEvent e : batch) {
+            if (lastSequence != 0 && e.getSequence() != lastSequence + 1) gaps++;
+            lastSequence = e.getSequence();
+            switch (e.getType()) {
+                case STUDENT_ADDED, GRADE_CHANGED ->
+                        writeRecord(slotFor(e.getStudentId()), e.getStudentId(), e.getGrade(), e.isPassed());
+                case STUDENT_DELETED -> {
+                    Integer slot = slotById.remove(e.getStudentId());
+                    if (slot != null) {
+                        clearRecord(slot);
+                        freeSlots.push(slot);
+                    }
+                }
+                default -> { } // names, transcripts and raw marks are not part of this file
+            }
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        System.out.println("Grade file subscriber stopped: " + throwable.getMessage());
+    }
+
+    @Override
+    public void onComplete() {
+        try {
+            close();
+        } catch (IOException e) {
+            // nothing more to do at shutdown
+        }
+    }
+
+    /** number of sequence gaps seen (batches dropped by a lossy feed) */
+    public synchronized long getGapCount() { return gaps; }
+
+    private int slotFor(int id) {
+        Integer slot = slotById.get(id);
+        if (slot == null) {
+            slot = freeSlots.isEmpty() ? slotCount++ : freeSlots.pop();
+            slotById.put(id, slot);
+        }
+        return slot;
+    }
+
+    private void writeRecord(int slot, int id, String grade, boolean passed) throws IOException {
+        String text = String.format("%10d %-4s %-4s", id, (grade == null ? "N/A" : grade), passed ? "PASS" : "FAIL");
+        fill(text);
+        file.seek((long) slot * RECORD_WIDTH);
+        file.write(record);
+    }
+
+    private void clearRecord(int slot) throws IOException {
+        fill("");
+        file.seek((long) slot * RECORD_WIDTH);
+        file.write(record);
+    }
+
+    private void fill(String text) {
+        byte[] b = text.getBytes(StandardCharsets.US_ASCII);
+        int n = Math.min(b.length, RECORD_WIDTH - 1);
+        System.arraycopy(b, 0, record, 0, n);
+        for (int i = n; i < RECORD_WIDTH - 1; i++) record[i] = ' ';
+        record[RECORD_WIDTH - 1] = '\n';
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        file.close();
+    }
+}
@@ -0,0 +1,87 @@
+package com.school.processor.shard;
+
+import com.school.models.Student;
+import com.school.models.Subject;
+import com.school.processor.ResultProcessor;
+import com.school.processor.SubjectStats;
+
+/**
+ * LocalShard - a ResultProcessor with its own data directory, in this JVM.
+ * Calls are synchronized so the shard can be shared by a ShardServer's connections.
+ */
+public class LocalShard implements Shard {
+
+    private final ResultProcessor processor;
+
+    public LocalShard(int maxStudents, int maxSubjects, String dataDir) {
+        this(new ResultProcessor(maxStudents, maxSubjects, dataDir));
+    }
+
+    public LocalShard(ResultProcessor processor) {
+        this.processor = processor;
+    }
+
+    public ResultProcessor getProcessor() { return processor; }
+
+    @Override
+    public synchronized boolean addStudent(Student s) { return processor.addStudent(s); }
+
+    @Override
+    public synchronized boolean updateStudentName(int id, String newName) {
+        return processor.updateStudentName(id, newName);
+    }
+
+    @Override
+    public synchronized boolean deleteStudent(int id) { return processor.deleteStudent(id); }
+
+    @Override
+    public synchronized boolean updateMarkForStudent(int studentId, String subjectName, int marksValue) {
+        return processor.updateMarkForStudent(studentId, subjectName, marksValue);
+    }
+
+    @Override
+    public synchronized boolean updateGraduationInfo(int studentId, String transcript, boolean status) {
+        return processor.updateGraduationInfo(studentId, transcript, status);
+    }
+
+    @Override
+    public synchronized Student getStudentById(int id) { return processor.getStudentById(id); }
+
+    @Override
+    public synchronized String renderStudentDetails(int id) { return processor.renderStudentDetails(id); }
+
+    @Override
+    public synchronized boolean addSubject(Subject subj) { return processor.addSubject(subj); }
+
+    @Override
+    public synchronized boolean removeSubject(String name) { return processor.removeSubject(name); }
+
+    @Override
+    public synchronized boolean canAddSubject(String name) { return processor.canAddSubject(name); }
+
+    @Override
+    public synchronized int getSubjectMaxMarks(String name) { return processor.getSubjectMaxMarks(name); }
+
+    @Override
+    public int getPassPercent() { return processor.getPassPercent(); }
+
+    @Override
+    public synchronized ShardSnapshot analysisSnapshot() {
+        int n = processor.getSubjectCount();
+        Subject[] subjects = new Subject[n];
+        SubjectStats[] stats = new SubjectStats[n];
+        String[] toppers = new String[n];
+        Subject[] live = processor.getSubjectsArray();
+        for (int j = 0; j < n; j++) {
+            subjects[j] = new Subject(live[j].getName(), live[j].getMaxMarks());
+            stats[j] = processor.getSubjectStats(j).copy();
+            toppers[j] = processor.getSubjectTopper(j);
+        }
+        return new ShardSnapshot(subjects, stats, toppers, processor.getStudentCount());
+    }
+
+    @Override
+    public void close() {
+        // nothing to release; every mutation is already persisted by ResultProcessor
+    }
+}
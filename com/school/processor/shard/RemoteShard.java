@@ -0,0 +1,147 @@
+package com.school.processor.shard;
+
+import com.school.models.Student;
+import com.school.models.Subject;
+import com.school.processor.StudentFileFormat;
+import com.school.processor.SubjectStats;
+
+import java.io.*;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * RemoteShard - client side of a ShardServer connection.
+ * One request is in flight per connection; calls are synchronized.
+ */
+public class RemoteShard implements Shard {
+
+    private final Socket socket;
+    private final BufferedReader in;
+    private final BufferedWriter out;
+
+    public RemoteShard(String host, int port) throws IOException {
+        this.socket = new Socket(host, port);
+        this.socket.setTcpNoDelay(true);
+        this.in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        this.out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+    }
+
+    private synchronized List<String> call(String... fields) {
+        try {
+            out.write(ShardProtocol.join(fields));
+            out.newLine();
+            out.flush();
+            String line = in.readLine();
+            if (line == null) throw new UncheckedIOException(new EOFException("Shard closed the connection"));
+            List<String> resp = ShardProtocol.split(line);
+            if (!resp.get(0).equals(ShardProtocol.OK)) {
+                throw new IllegalStateException("Shard error: " + (resp.size() > 1 ? resp.get(1) : line));
+            }
+            return resp;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private boolean callBool(String... fields) {
+        return Boolean.parseBoolean(call(fields).get(1));
+    }
+
+    @Override
+    public boolean addStudent(Student s) {
+        return callBool(ShardProtocol.ADD_STUDENT, StudentFileFormat.format(s));
+    }
+
+    @Override
+    public boolean updateStudentName(int id, String newName) {
+        return callBool(ShardProtocol.UPDATE_NAME, String.valueOf(id), newName);
+    }
+
+    @Override
+    public boolean deleteStudent(int id) {
+        return callBool(ShardProtocol.DELETE_STUDENT, String.valueOf(id));
+    }
+
+    @Override
+    public boolean updateMarkForStudent(int studentId, String subjectName, int marksValue) {
+        return callBool(ShardProtocol.UPDATE_MARK, String.valueOf(studentId), subjectName, String.valueOf(marksValue));
+    }
+
+    @Override
+    public boolean updateGraduationInfo(int studentId, String transcript, boolean status) {
+        return callBool(ShardProtocol.UPDATE_GRAD, String.valueOf(studentId), transcript, String.valueOf(status));
+    }
+
+    /** returns a detached copy; changes must go through the update methods */
+    @Override
+    public Student getStudentById(int id) {
+        List<String> resp = call(ShardProtocol.GET_STUDENT, String.valueOf(id));
+        if (resp.size() < 5) return null;
+        Student s = StudentFileFormat.parse(resp.get(2), Integer.parseInt(resp.get(1)));
+        if (s != null) {
+            s.setGrade(resp.get(3));
+            s.setPassed(Boolean.parseBoolean(resp.get(4)));
+        }
+        return s;
+    }
+
+    @Override
+    public String renderStudentDetails(int id) {
+        List<String> resp = call(ShardProtocol.RENDER, String.valueOf(id));
+        return (resp.size() < 2) ? null : resp.get(1);
+    }
+
+    @Override
+    public boolean addSubject(Subject subj) {
+        return callBool(ShardProtocol.ADD_SUBJECT, subj.getName(), String.valueOf(subj.getMaxMarks()));
+    }
+
+    @Override
+    public boolean removeSubject(String name) {
+        return callBool(ShardProtocol.REMOVE_SUBJECT, name);
+    }
+
+    @Override
+    public boolean canAddSubject(String name) {
+        return callBool(ShardProtocol.CAN_ADD_SUBJECT, name);
+    }
+
+    @Override
+    public int getSubjectMaxMarks(String name) {
+        return Integer.parseInt(call(ShardProtocol.SUBJECT_MAX, name).get(1));
+    }
+
+    @Override
+    public int getPassPercent() {
+        return Integer.parseInt(call(ShardProtocol.PASS_PERCENT).get(1));
+    }
+
+    @Override
+    public ShardSnapshot analysisSnapshot() {
+        List<String> resp = call(ShardProtocol.SNAPSHOT);
+        int studentCount = Integer.parseInt(resp.get(1));
+        int n = (resp.size() - 2) / 4;
+        Subject[] subjects = new Subject[n];
+        SubjectStats[] stats = new SubjectStats[n];
+        String[] toppers = new String[n];
+        for (int j = 0; j < n; j++) {
+            subjects[j] = new Subject(resp.get(2 + j * 4), Integer.parseInt(resp.get(3 + j * 4)));
+            stats[j] = SubjectStats.decode(resp.get(4 + j * 4));
+            toppers[j] = resp.get(5 + j * 4);
+        }
+        return new ShardSnapshot(subjects, stats, toppers, studentCount);
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            out.write(ShardProtocol.QUIT);
+            out.newLine();
+            out.flush();
+        } catch (IOException e) {
+            // already closed on the other side
+        }
+        try { socket.close(); } catch (IOException e) {}
+    }
+}
@@ -0,0 +1,45 @@
+package com.school.processor.shard;
+
+import com.school.models.Student;
+import com.school.models.Subject;
+
+/**
+ * Shard - one partition of the student population.
+ * Either an in-process ResultProcessor (LocalShard) or a ShardServer
+ * reached over a socket (RemoteShard). All shards share the same subject schema.
+ */
+public interface Shard extends AutoCloseable {
+
+    boolean addStudent(Student s);
+
+    boolean updateStudentName(int id, String newName);
+
+    boolean deleteStudent(int id);
+
+    boolean updateMarkForStudent(int studentId, String subjectName, int marksValue);
+
+    boolean updateGraduationInfo(int studentId, String transcript, boolean status);
+
+    Student getStudentById(int id);
+
+    /** rendered result sheet, null if the student is not on this shard */
+    String renderStudentDetails(int id);
+
+    boolean addSubject(Subject subj);
+
+    boolean removeSubject(String name);
+
+    /** true if addSubject would accept a subject of this name; changes nothing */
+    boolean canAddSubject(String name);
+
+    /** max marks of the named subject, -1 if the shard has no such subject */
+    int getSubjectMaxMarks(String name);
+
+    int getPassPercent();
+
+    /** partial aggregates used for scatter-gather analysis */
+    ShardSnapshot analysisSnapshot();
+
+    @Override
+    void close();
+}
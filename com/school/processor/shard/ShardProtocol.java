@@ -0,0 +1,45 @@
+package com.school.processor.shard;
+
+import com.school.processor.LineEscaper;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * ShardProtocol - line-based request/response format between RemoteShard and ShardServer.
+ *
+ * request  : COMMAND\targ1\targ2...
+ * response : OK\tvalue...   or   ERR\tmessage
+ *
+ * Fields are escaped with LineEscaper so they never contain a raw tab or newline.
+ */
+final class ShardProtocol {
+
+    static final String ADD_STUDENT = "ADD_STUDENT";         // studentLine
+    static final String UPDATE_NAME = "UPDATE_NAME";         // id, name
+    static final String DELETE_STUDENT = "DELETE_STUDENT";   // id
+    static final String UPDATE_MARK = "UPDATE_MARK";         // id, subject, marks
+    static final String UPDATE_GRAD = "UPDATE_GRAD";         // id, transcript, status
+    static final String GET_STUDENT = "GET_STUDENT";         // id -> subjectCount, studentLine, grade, passed
+    static final String RENDER = "RENDER";                   // id -> sheet
+    static final String ADD_SUBJECT = "ADD_SUBJECT";         // name, max
+    static final String REMOVE_SUBJECT = "REMOVE_SUBJECT";   // name
+    static final String CAN_ADD_SUBJECT = "CAN_ADD_SUBJECT"; // name -> true/false
+    static final String SUBJECT_MAX = "SUBJECT_MAX";         // name -> max marks, -1 if absent
+    static final String PASS_PERCENT = "PASS_PERCENT";       // -> pass percent
+    static final String SNAPSHOT = "SNAPSHOT";               // -> studentCount, then name, max, stats, topper per subject
+    static final String QUIT = "QUIT";
+
+    static final String OK = "OK";
+    static final String ERR = "ERR";
+
+    private ShardProtocol() {}
+
+    static String join(String... fields) {
+        return LineEscaper.join(fields);
+    }
+
+    static List<String> split(String line) {
+        return Arrays.asList(LineEscaper.split(line));
+    }
+}
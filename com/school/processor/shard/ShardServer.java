@@ -0,0 +1,165 @@
+package com.school.processor.shard;
+
+import com.school.models.Student;
+import com.school.models.Subject;
+import com.school.processor.StudentFileFormat;
+
+import java.io.*;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * ShardServer - serves one LocalShard over a TCP socket (see ShardProtocol).
+ * Each connection gets its own thread; the shard itself serializes calls.
+ *
+ * Usage: java com.school.processor.shard.ShardServer <port> <dataDir> [maxStudents] [maxSubjects]
+ */
+public class ShardServer implements Closeable {
+
+    private final LocalShard shard;
+    private final ServerSocket serverSocket;
+    private volatile boolean running = true;
+
+    public ShardServer(LocalShard shard, int port) throws IOException {
+        this.shard = shard;
+        this.serverSocket = new ServerSocket(port);
+    }
+
+    public int getPort() { return serverSocket.getLocalPort(); }
+
+    /** accepts connections until close() is called */
+    public void serve() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                Thread t = new Thread(() -> handle(socket), "shard-conn-" + socket.getPort());
+                t.setDaemon(true);
+                t.start();
+            } catch (IOException e) {
+                if (running) System.out.println("Shard server accept failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /** serve() on a daemon background thread */
+    public Thread start() {
+        Thread t = new Thread(this::serve, "shard-server-" + getPort());
+        t.setDaemon(true);
+        t.start();
+        return t;
+    }
+
+    private void handle(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                List<String> req = ShardProtocol.split(line);
+                if (req.get(0).equals(ShardProtocol.QUIT)) break;
+                String resp;
+                try {
+                    resp = dispatch(req);
+                } catch (RuntimeException e) {
+                    resp = ShardProtocol.join(ShardProtocol.ERR, String.valueOf(e.getMessage()));
+                }
+                out.write(resp);
+                out.newLine();
+                out.flush();
+            }
+        } catch (IOException e) {
+            // client went away; nothing else to clean up
+        }
+    }
+
+    private String dispatch(List<String> req) {
+        String cmd = req.get(0);
+        switch (cmd) {
+            case ShardProtocol.ADD_STUDENT: {
+                int cols = shard.getProcessor().getSubjectCount();
+                Student s = StudentFileFormat.parse(req.get(1), cols);
+                if (s == null) return ShardProtocol.join(ShardProtocol.ERR, "Malformed student line");
+                return ok(shard.addStudent(s));
+            }
+            case ShardProtocol.UPDATE_NAME:
+                return ok(shard.updateStudentName(Integer.parseInt(req.get(1)), req.get(2)));
+            case ShardProtocol.DELETE_STUDENT:
+                return ok(shard.deleteStudent(Integer.parseInt(req.get(1))));
+            case ShardProtocol.UPDATE_MARK:
+                return ok(shard.updateMarkForStudent(Integer.parseInt(req.get(1)), req.get(2),
+                        Integer.parseInt(req.get(3))));
+            case ShardProtocol.UPDATE_GRAD:
+                return ok(shard.updateGraduationInfo(Integer.parseInt(req.get(1)), req.get(2),
+                        Boolean.parseBoolean(req.get(3))));
+            case ShardProtocol.GET_STUDENT: {
+                String[] fields;
+                synchronized (shard) {
+                    Student s = shard.getStudentById(Integer.parseInt(req.get(1)));
+                    if (s == null) return ShardProtocol.join(ShardProtocol.OK);
+                    fields = new String[] {ShardProtocol.OK,
+                            String.valueOf(shard.getProcessor().getSubjectCount()),
+                            StudentFileFormat.format(s), s.getGrade(), String.valueOf(s.isPassed())};
+                }
+                return ShardProtocol.join(fields);
+            }
+            case ShardProtocol.RENDER: {
+                String sheet = shard.renderStudentDetails(Integer.parseInt(req.get(1)));
+                return (sheet == null) ? ShardProtocol.join(ShardProtocol.OK) : ShardProtocol.join(ShardProtocol.OK, sheet);
+            }
+            case ShardProtocol.ADD_SUBJECT:
+                return ok(shard.addSubject(new Subject(req.get(1), Integer.parseInt(req.get(2)))));
+            case ShardProtocol.REMOVE_SUBJECT:
+                return ok(shard.removeSubject(req.get(1)));
+            case ShardProtocol.CAN_ADD_SUBJECT:
+                return ok(shard.canAddSubject(req.get(1)));
+            case ShardProtocol.SUBJECT_MAX:
+                return ShardProtocol.join(ShardProtocol.OK, String.valueOf(shard.getSubjectMaxMarks(req.get(1))));
+            case ShardProtocol.PASS_PERCENT:
+                return ShardProtocol.join(ShardProtocol.OK, String.valueOf(shard.getPassPercent()));
+            case ShardProtocol.SNAPSHOT: {
+                ShardSnapshot snap = shard.analysisSnapshot();
+                int n = snap.getSubjectCount();
+                String[] fields = new String[2 + n * 4];
+                fields[0] = ShardProtocol.OK;
+                fields[1] = String.valueOf(snap.getStudentCount());
+                for (int j = 0; j < n; j++) {
+                    fields[2 + j * 4] = snap.getSubjects()[j].getName();
+                    fields[3 + j * 4] = String.valueOf(snap.getSubjects()[j].getMaxMarks());
+                    fields[4 + j * 4] = snap.getStats()[j].encode();
+                    fields[5 + j * 4] = snap.getToppers()[j];
+                }
+                return ShardProtocol.join(fields);
+            }
+            default:
+                return ShardProtocol.join(ShardProtocol.ERR, "Unknown command: " + cmd);
+        }
+    }
+
+    private static String ok(boolean result) {
+        return ShardProtocol.join(ShardProtocol.OK, String.valueOf(result));
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        serverSocket.close();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: java com.school.processor.shard.ShardServer <port> <dataDir> [maxStudents] [maxSubjects]");
+            return;
+        }
+        int port = Integer.parseInt(args[0]);
+        String dataDir = args[1];
+        int maxStudents = (args.length >= 3) ? Integer.parseInt(args[2]) : 200;
+        int maxSubjects = (args.length >= 4) ? Integer.parseInt(args[3]) : 5;
+        new File(dataDir).mkdirs();
+
+        ShardServer server = new ShardServer(new LocalShard(maxStudents, maxSubjects, dataDir), port);
+        System.out.println("Shard serving " + dataDir + " on port " + server.getPort());
+        server.serve();
+    }
+}
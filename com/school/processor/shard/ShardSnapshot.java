@@ -0,0 +1,28 @@
+package com.school.processor.shard;
+
+import com.school.models.Subject;
+import com.school.processor.SubjectStats;
+
+/**
+ * ShardSnapshot - one shard's partial analysis result: its subject schema,
+ * per-subject stats (copies, safe to merge) and per-subject topper names.
+ */
+public class ShardSnapshot {
+    private final Subject[] subjects;
+    private final SubjectStats[] stats;
+    private final String[] toppers;
+    private final int studentCount;
+
+    public ShardSnapshot(Subject[] subjects, SubjectStats[] stats, String[] toppers, int studentCount) {
+        this.subjects = subjects;
+        this.stats = stats;
+        this.toppers = toppers;
+        this.studentCount = studentCount;
+    }
+
+    public Subject[] getSubjects() { return subjects; }
+    public SubjectStats[] getStats() { return stats; }
+    public String[] getToppers() { return toppers; }
+    public int getStudentCount() { return studentCount; }
+    public int getSubjectCount() { return subjects.length; }
+}
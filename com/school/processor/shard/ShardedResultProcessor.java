@@ -0,0 +1,284 @@
+package com.school.processor.shard;
+
+import com.school.models.Student;
+import com.school.models.Subject;
+import com.school.processor.ResultProcessor;
+import com.school.processor.SubjectStats;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * ShardedResultProcessor - spreads students over N independent shards.
+ *
+ *  - single-student operations are routed to the owning shard
+ *  - subject schema changes are broadcast to every shard
+ *  - cohort analysis is scatter-gather: each shard returns partial SubjectStats,
+ *    which are merged here (counts added, mean/variance combined)
+ *
+ * Partitioning is by hash of the student ID (default) or by ID range.
+ * Topper ties across shards go to the lowest shard index.
+ */
+public class ShardedResultProcessor implements AutoCloseable {
+
+    private final Shard[] shards;
+    private final int[] rangeUpperBounds; // null => hash partitioning
+    private final int passPercent;
+
+    /**
+     * @param rangeUpperBounds inclusive upper ID bound of each shard except the last
+     *                         (length shards-1, ascending), or null for hash partitioning
+     */
+    public ShardedResultProcessor(List<? extends Shard> shards, int[] rangeUpperBounds, int passPercent) {
+        if (shards.isEmpty()) throw new IllegalArgumentException("At least one shard is required");
+        if (rangeUpperBounds != null && rangeUpperBounds.length != shards.size() - 1) {
+            throw new IllegalArgumentException("Need " + (shards.size() - 1) + " range bounds");
+        }
+        if (rangeUpperBounds != null) {
+            // shardIndexFor binary-searches the bounds, so out-of-order bounds would misroute students
+            for (int i = 1; i < rangeUpperBounds.length; i++) {
+                if (rangeUpperBounds[i] <= rangeUpperBounds[i - 1]) {
+                    throw new IllegalArgumentException("Range bounds must be strictly ascending: "
+                            + Arrays.toString(rangeUpperBounds));
+                }
+            }
+        }
+        this.shards = shards.toArray(new Shard[0]);
+        this.rangeUpperBounds = (rangeUpperBounds == null) ? null : rangeUpperBounds.clone();
+        this.passPercent = passPercent;
+    }
+
+    /**
+     * local - N in-process shards, each with its own data directory baseDir/shard-i.
+     */
+    public static ShardedResultProcessor local(int shardCount, String baseDir, int maxStudentsPerShard,
+                                               int maxSubjects, int[] rangeUpperBounds) {
+        List<LocalShard> list = new ArrayList<>();
+        int passPercent = 40;
+        for (int i = 0; i < shardCount; i++) {
+            File dir = new File(baseDir, "shard-" + i);
+            dir.mkdirs();
+            LocalShard shard = new LocalShard(maxStudentsPerShard, maxSubjects, dir.getPath());
+            passPercent = shard.getProcessor().getPassPercent();
+            list.add(shard);
+        }
+        return new ShardedResultProcessor(list, rangeUpperBounds, passPercent);
+    }
+
+    /**
+     * connect - one RemoteShard per "host:port" address, in shard order.
+     * The pass percent is taken from the first shard.
+     */
+    public static ShardedResultProcessor connect(List<String> addresses, int[] rangeUpperBounds) throws IOException {
+        List<RemoteShard> list = new ArrayList<>();
+        int passPercent;
+        try {
+            for (String addr : addresses) {
+                int c = addr.lastIndexOf(':');
+                list.add(new RemoteShard(addr.substring(0, c), Integer.parseInt(addr.substring(c + 1))));
+            }
+            if (list.isEmpty()) throw new IllegalArgumentException("At least one shard is required");
+            passPercent = list.get(0).getPassPercent();
+        } catch (IOException | RuntimeException e) {
+            for (RemoteShard s : list) s.close();
+            throw e;
+        }
+        return new ShardedResultProcessor(list, rangeUpperBounds, passPercent);
+    }
+
+    public int getShardCount() { return shards.length; }
+
+    public int shardIndexFor(int studentId) {
+        if (rangeUpperBounds != null) {
+            int pos = Arrays.binarySearch(rangeUpperBounds, studentId);
+            return (pos >= 0) ? pos : -pos - 1;
+        }
+        // spread sequential IDs evenly (Fibonacci hashing)
+        int h = studentId * 0x9E3779B9;
+        return Math.floorMod(h ^ (h >>> 16), shards.length);
+    }
+
+    private Shard shardFor(int studentId) {
+        return shards[shardIndexFor(studentId)];
+    }
+
+    // ------------------ ROUTED STUDENT OPERATIONS ------------------
+
+    public boolean addStudent(Student s) {
+        if (s == null) return false;
+        return shardFor(s.getId()).addStudent(s);
+    }
+
+    public boolean updateStudentName(int id, String newName) {
+        return shardFor(id).updateStudentName(id, newName);
+    }
+
+    public boolean deleteStudent(int id) {
+        return shardFor(id).deleteStudent(id);
+    }
+
+    public boolean updateMarkForStudent(int studentId, String subjectName, int marksValue) {
+        return shardFor(studentId).updateMarkForStudent(studentId, subjectName, marksValue);
+    }
+
+    public boolean updateGraduationInfo(int studentId, String transcript, boolean status) {
+        return shardFor(studentId).updateGraduationInfo(studentId, transcript, status);
+    }
+
+    public Student getStudentById(int id) {
+        return shardFor(id).getStudentById(id);
+    }
+
+    public void displayStudentDetails(int id) {
+        String sheet = shardFor(id).renderStudentDetails(id);
+        System.out.print(sheet == null ? "Student not found.\n" : sheet);
+    }
+
+    // ------------------ BROADCAST SCHEMA CHANGES ------------------
+
+    /*
+     * Schema changes are all-or-nothing: every shard is checked first and
+     * nothing is changed unless all of them would accept. If a shard still
+     * fails while the change is applied (a remote shard going away), the shards
+     * that already applied it are rolled back, so the shards never end up with
+     * different subject lists.
+     */
+
+    /** true only if every shard accepted the subject; otherwise no shard has it */
+    public boolean addSubject(Subject subj) {
+        if (subj == null) return false;
+        for (Shard s : shards) {
+            if (!s.canAddSubject(subj.getName())) return false;
+        }
+        int applied = 0;
+        try {
+            while (applied < shards.length && shards[applied].addSubject(new Subject(subj.getName(), subj.getMaxMarks()))) {
+                applied++;
+            }
+        } finally {
+            if (applied < shards.length) {
+                for (int i = 0; i < applied; i++) {
+                    final int shard = i;
+                    undo(i, () -> shards[shard].removeSubject(subj.getName()));
+                }
+            }
+        }
+        return applied == shards.length;
+    }
+
+    /**
+     * true only if every shard removed the subject; otherwise every shard still
+     * has it. A shard that is rolled back gets the subject back empty: its
+     * marks in that subject are lost (a Warning names the shard).
+     */
+    public boolean removeSubject(String name) {
+        int max = -1;
+        for (Shard s : shards) {
+            max = s.getSubjectMaxMarks(name);
+            if (max < 0) return false;
+        }
+        final int maxMarks = max;
+        int applied = 0;
+        try {
+            while (applied < shards.length && shards[applied].removeSubject(name)) applied++;
+        } finally {
+            if (applied < shards.length) {
+                for (int i = 0; i < applied; i++) {
+                    final int shard = i;
+                    if (undo(i, () -> shards[shard].addSubject(new Subject(name, maxMarks)))) {
+                        System.out.println("Warning: subject " + name + " restored on shard " + i
+                                + " without its marks.");
+                    }
+                }
+            }
+        }
+        return applied == shards.length;
+    }
+
+    // rolls back one shard; a shard that cannot be rolled back is reported, not thrown
+    private static boolean undo(int shard, BooleanSupplier action) {
+        try {
+            if (action.getAsBoolean()) return true;
+            System.out.println("Warning: could not roll back the subject change on shard " + shard + ".");
+        } catch (RuntimeException e) {
+            System.out.println("Warning: could not roll back the subject change on shard " + shard + ": " + e.getMessage());
+        }
+        return false;
+    }
+
+    // ------------------ SCATTER-GATHER ANALYSIS ------------------
+
+    /** partial snapshots from all shards (taken in parallel) */
+    private ShardSnapshot[] gather() {
+        ShardSnapshot[] snaps = new ShardSnapshot[shards.length];
+        Arrays.parallelSetAll(snaps, i -> shards[i].analysisSnapshot());
+        return snaps;
+    }
+
+    /**
+     * mergedSnapshot - cohort-wide subject stats and toppers.
+     * Shards must agree on the subject schema (same names in the same order).
+     */
+    public ShardSnapshot mergedSnapshot() {
+        ShardSnapshot[] snaps = gather();
+        ShardSnapshot first = snaps[0];
+        int n = first.getSubjectCount();
+        Subject[] subjects = first.getSubjects();
+        SubjectStats[] merged = new SubjectStats[n];
+        String[] toppers = new String[n];
+        int[] topMark = new int[n];
+        int students = 0;
+        for (int j = 0; j < n; j++) {
+            merged[j] = new SubjectStats(subjects[j].getMaxMarks());
+            toppers[j] = "N/A";
+            topMark[j] = -1;
+        }
+        for (ShardSnapshot snap : snaps) {
+            if (snap.getSubjectCount() != n) throw new IllegalStateException("Shards disagree on subject schema");
+            students += snap.getStudentCount();
+            for (int j = 0; j < n; j++) {
+                if (!snap.getSubjects()[j].getName().equalsIgnoreCase(subjects[j].getName())) {
+                    throw new IllegalStateException("Shards disagree on subject " + (j + 1));
+                }
+                SubjectStats part = snap.getStats()[j];
+                merged[j].merge(part);
+                if (part.getCount() > 0 && part.getHighest() > topMark[j]) {
+                    topMark[j] = part.getHighest();
+                    toppers[j] = snap.getToppers()[j];
+                }
+            }
+        }
+        for (int j = 0; j < n; j++) merged[j].setTopperName(toppers[j]);
+        return new ShardSnapshot(subjects, merged, toppers, students);
+    }
+
+    /** same table as ResultProcessor.displaySubjectAnalysis, over all shards */
+    public void displaySubjectAnalysis() {
+        ShardSnapshot snap = mergedSnapshot();
+        if (snap.getSubjectCount() == 0) {
+            System.out.println("No subjects configured.");
+            return;
+        }
+        if (snap.getStudentCount() == 0) {
+            System.out.println("No students available for analysis.");
+            return;
+        }
+        ResultProcessor.printSubjectAnalysisRows(snap.getSubjects(), snap.getStats(), snap.getToppers(),
+                snap.getSubjectCount(), passPercent);
+    }
+
+    public int getStudentCount() {
+        int total = 0;
+        for (ShardSnapshot s : gather()) total += s.getStudentCount();
+        return total;
+    }
+
+    @Override
+    public void close() {
+        for (Shard s : shards) s.close();
+    }
+}
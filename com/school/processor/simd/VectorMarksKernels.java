@@ -0,0 +1,133 @@
+package com.school.processor.simd;
+
+import com.school.processor.GradingConfig;
+import com.school.processor.MarksKernels;
+import com.school.processor.MarksMatrix;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * VectorMarksKernels - MarksKernels on jdk.incubator.vector.
+ *
+ * Each step takes one lane-width of students; the subject columns are walked
+ * with the accumulators held in registers. Missing marks (-1) are handled with
+ * masks instead of branches: totals add only lanes whose mark is >= 0, and a
+ * "failed" mask collects lanes that are -1 or below the pass mark. Full steps
+ * use plain loads; only the last partial step uses an indexInRange mask.
+ *
+ * Compiled and run with --add-modules jdk.incubator.vector; loaded through
+ * reflection (MarksKernels.vector()) so the rest of the code never links
+ * against the incubator module.
+ */
+public final class VectorMarksKernels implements MarksKernels {
+
+    private static final VectorSpecies<Double> D = DoubleVector.SPECIES_PREFERRED;
+    // same lane count as D, for the grade index counters
+    private static final VectorSpecies<Integer> I =
+            VectorSpecies.of(int.class, VectorShape.forBitSize(D.length() * Integer.SIZE));
+
+    @Override
+    public String name() { return "vector(" + D.length() + " x double)"; }
+
+    @Override
+    public void averages(MarksMatrix m, double[] out) {
+        enteredTotals(m, out, 1.0, m.getSubjectCount());
+    }
+
+    @Override
+    public void percentages(MarksMatrix m, double[] out) {
+        double totalMax = 0;
+        for (int j = 0; j < m.getSubjectCount(); j++) totalMax += m.getMaxMarks(j);
+        enteredTotals(m, out, 100.0, totalMax);
+    }
+
+    /** out[i] = (sum of entered marks) * factor / divisor, in the scalar code's operation order */
+    private static void enteredTotals(MarksMatrix m, double[] out, double factor, double divisor) {
+        int n = m.getStudentCount();
+        int k = m.getSubjectCount();
+        double[][] cols = new double[k][];
+        for (int j = 0; j < k; j++) cols[j] = m.column(j);
+
+        int bound = D.loopBound(n);
+        int i = 0;
+        for (; i < bound; i += D.length()) {
+            DoubleVector acc = DoubleVector.zero(D);
+            for (int j = 0; j < k; j++) {
+                DoubleVector v = DoubleVector.fromArray(D, cols[j], i);
+                acc = acc.add(v, v.compare(VectorOperators.GE, 0.0));
+            }
+            scale(acc, factor, divisor).intoArray(out, i);
+        }
+        if (i < n) {
+            VectorMask<Double> inRange = D.indexInRange(i, n);
+            DoubleVector acc = DoubleVector.zero(D);
+            for (int j = 0; j < k; j++) {
+                DoubleVector v = DoubleVector.fromArray(D, cols[j], i, inRange);
+                acc = acc.add(v, v.compare(VectorOperators.GE, 0.0));
+            }
+            scale(acc, factor, divisor).intoArray(out, i, inRange);
+        }
+    }
+
+    private static DoubleVector scale(DoubleVector total, double factor, double divisor) {
+        return (divisor == 0) ? DoubleVector.zero(D) : total.mul(factor).div(divisor);
+    }
+
+    @Override
+    public void passFlags(MarksMatrix m, int passPercent, boolean[] out) {
+        int n = m.getStudentCount();
+        int k = m.getSubjectCount();
+        double[][] cols = new double[k][];
+        double[] thresholds = new double[k];
+        for (int j = 0; j < k; j++) {
+            cols[j] = m.column(j);
+            thresholds[j] = m.getMaxMarks(j) * passPercent / 100.0;
+        }
+
+        int bound = D.loopBound(n);
+        int i = 0;
+        for (; i < bound; i += D.length()) {
+            VectorMask<Double> failed = D.maskAll(false);
+            for (int j = 0; j < k; j++) {
+                DoubleVector v = DoubleVector.fromArray(D, cols[j], i);
+                failed = failed.or(v.compare(VectorOperators.EQ, -1.0))
+                               .or(v.compare(VectorOperators.LT, thresholds[j]));
+            }
+            failed.not().intoArray(out, i);
+        }
+        if (i < n) {
+            VectorMask<Double> inRange = D.indexInRange(i, n);
+            VectorMask<Double> failed = D.maskAll(false);
+            for (int j = 0; j < k; j++) {
+                DoubleVector v = DoubleVector.fromArray(D, cols[j], i, inRange);
+                failed = failed.or(v.compare(VectorOperators.EQ, -1.0))
+                               .or(v.compare(VectorOperators.LT, thresholds[j]));
+            }
+            for (int l = 0; i + l < n; l++) out[i + l] = !failed.laneIsSet(l);
+        }
+    }
+
+    @Override
+    public void gradeIndexes(double[] values, int n, GradingConfig cfg, int[] out) {
+        double[] cutoffs = cfg.getCutoffs();
+        DoubleVector last = DoubleVector.broadcast(D, cutoffs.length);
+        int bound = D.loopBound(n);
+        int i = 0;
+        for (; i < bound; i += D.length()) {
+            DoubleVector v = DoubleVector.fromArray(D, values, i);
+            // descending cut-offs: the band index is the number of cut-offs NOT reached.
+            // Counted in double lanes (no mask conversion), converted to int once.
+            DoubleVector reached = DoubleVector.zero(D);
+            for (double c : cutoffs) {
+                reached = reached.add(1.0, v.compare(VectorOperators.GE, c));
+            }
+            ((IntVector) last.sub(reached).convertShape(VectorOperators.D2I, I, 0)).intoArray(out, i);
+        }
+        for (; i < n; i++) out[i] = cfg.gradeIndex(values[i]);
+    }
+}
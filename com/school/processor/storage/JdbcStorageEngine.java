@@ -0,0 +1,397 @@
+package com.school.processor.storage;
+
+import com.school.models.GraduatingStudent;
+import com.school.models.Student;
+import com.school.models.Subject;
+import com.school.models.SubjectSchema;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JdbcStorageEngine - students and subjects in an embedded SQL database
+ * (H2 or SQLite file databases; plain SQL, no vendor extensions).
+ *
+ * Schema:
+ *   schema_info (version, next_id)                                        one row
+ *   subjects (id PK, name, position, max_marks)
+ *   students (id PK, seq, name, age, graduating, transcript, graduated)   index on seq
+ *   marks    (student_id, subject_id) PK, mark                            index on subject_id
+ *
+ * Only entered marks have a row, keyed by stable subject ID (see SubjectSchema),
+ * so adding or removing a subject touches no student: marks of a removed
+ * subject are ignored on load and go when the student is next rewritten.
+ * seq keeps the roster order. Incremental: a mark change is one
+ * UPDATE/INSERT/DELETE on marks, a student change rewrites that student's rows
+ * only. Outside a batch every call commits on its own; beginBatch/endBatch
+ * make one transaction, which endBatch rolls back instead of committing if
+ * any write inside it failed.
+ */
+public class JdbcStorageEngine implements StorageEngine {
+
+    private static final int BATCH_ROWS = 1000;
+
+    private final String url;
+    private final Connection conn;
+    private long nextSeq;
+    private boolean inBatch;
+    private boolean batchFailed; // a write in the open batch failed: endBatch rolls back
+
+    private PreparedStatement updateStudent;
+    private PreparedStatement insertStudent;
+    private PreparedStatement deleteStudentRow;
+    private PreparedStatement updateMarkRow;
+    private PreparedStatement insertMarkRow;
+    private PreparedStatement deleteMarkRow;
+    private PreparedStatement deleteMarksOf;
+
+    public JdbcStorageEngine(String url) throws IOException {
+        this.url = url;
+        try {
+            this.conn = DriverManager.getConnection(url);
+        } catch (SQLException e) {
+            throw new IOException("Cannot open " + url + " (is the JDBC driver on the classpath?): " + e.getMessage(), e);
+        }
+        try {
+            createSchema();
+            prepare();
+            try (Statement st = conn.createStatement();
+                 ResultSet rs = st.executeQuery("SELECT MAX(seq) FROM students")) {
+                nextSeq = rs.next() ? rs.getLong(1) + 1 : 0;
+            }
+        } catch (SQLException e) {
+            close();
+            throw new IOException("Cannot prepare " + url + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String name() { return "jdbc"; }
+
+    public String getUrl() { return url; }
+
+    private void createSchema() throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.executeUpdate("CREATE TABLE IF NOT EXISTS schema_info (version INT NOT NULL, next_id INT NOT NULL)");
+            st.executeUpdate("CREATE TABLE IF NOT EXISTS subjects ("
+                    + "id INT NOT NULL PRIMARY KEY, name VARCHAR(200) NOT NULL, position INT NOT NULL, max_marks INT NOT NULL)");
+            st.executeUpdate("CREATE TABLE IF NOT EXISTS students ("
+                    + "id INT NOT NULL PRIMARY KEY, seq BIGINT NOT NULL, name VARCHAR(200) NOT NULL, age INT NOT NULL, "
+                    + "graduating BOOLEAN NOT NULL, transcript VARCHAR(100000), graduated BOOLEAN NOT NULL)");
+            st.executeUpdate("CREATE TABLE IF NOT EXISTS marks ("
+                    + "student_id INT NOT NULL, subject_id INT NOT NULL, mark DOUBLE NOT NULL, "
+                    + "PRIMARY KEY (student_id, subject_id))");
+            st.executeUpdate("CREATE INDEX IF NOT EXISTS students_by_seq ON students (seq)");
+            st.executeUpdate("CREATE INDEX IF NOT EXISTS marks_by_subject ON marks (subject_id)");
+        }
+    }
+
+    private void prepare() throws SQLException {
+        updateStudent = conn.prepareStatement(
+                "UPDATE students SET name = ?, age = ?, graduating = ?, transcript = ?, graduated = ? WHERE id = ?");
+        insertStudent = conn.prepareStatement(
+                "INSERT INTO students (id, seq, name, age, graduating, transcript, graduated) VALUES (?, ?, ?, ?, ?, ?, ?)");
+        deleteStudentRow = conn.prepareStatement("DELETE FROM students WHERE id = ?");
+        updateMarkRow = conn.prepareStatement("UPDATE marks SET mark = ? WHERE student_id = ? AND subject_id = ?");
+        insertMarkRow = conn.prepareStatement("INSERT INTO marks (student_id, subject_id, mark) VALUES (?, ?, ?)");
+        deleteMarkRow = conn.prepareStatement("DELETE FROM marks WHERE student_id = ? AND subject_id = ?");
+        deleteMarksOf = conn.prepareStatement("DELETE FROM marks WHERE student_id = ?");
+    }
+
+    // ------------------ SUBJECTS ------------------
+
+    @Override
+    public SubjectSchema loadSchema() throws IOException {
+        List<Subject> list = new ArrayList<>();
+        int version = 0;
+        int nextId = 1;
+        try (Statement st = conn.createStatement()) {
+            try (ResultSet rs = st.executeQuery("SELECT version, next_id FROM schema_info")) {
+                if (rs.next()) {
+                    version = rs.getInt(1);
+                    nextId = rs.getInt(2);
+                }
+            }
+            try (ResultSet rs = st.executeQuery("SELECT id, name, max_marks FROM subjects ORDER BY position")) {
+                while (rs.next()) list.add(new Subject(rs.getInt(1), rs.getString(2), rs.getInt(3)));
+            }
+        } catch (SQLException e) {
+            throw failure("load subjects", e);
+        }
+        return new SubjectSchema(version, nextId, list.toArray(new Subject[0]), list.size(), null);
+    }
+
+    /** replaces the subject list; marks are keyed by subject ID and stay as they are */
+    @Override
+    public void saveSchema(SubjectSchema schema) throws IOException {
+        inTransaction("save subjects", () -> {
+            try (Statement st = conn.createStatement()) {
+                st.executeUpdate("DELETE FROM subjects");
+                st.executeUpdate("DELETE FROM schema_info");
+            }
+            try (PreparedStatement ins = conn.prepareStatement(
+                    "INSERT INTO subjects (id, name, position, max_marks) VALUES (?, ?, ?, ?)")) {
+                for (int j = 0; j < schema.size(); j++) {
+                    Subject subj = schema.subjectAt(j);
+                    ins.setInt(1, subj.getId());
+                    ins.setString(2, subj.getName());
+                    ins.setInt(3, j);
+                    ins.setInt(4, subj.getMaxMarks());
+                    ins.addBatch();
+                }
+                ins.executeBatch();
+            }
+            try (PreparedStatement ins = conn.prepareStatement(
+                    "INSERT INTO schema_info (version, next_id) VALUES (?, ?)")) {
+                ins.setInt(1, schema.getVersion());
+                ins.setInt(2, schema.getNextId());
+                ins.executeUpdate();
+            }
+        });
+    }
+
+    // ------------------ STUDENTS ------------------
+
+    @Override
+    public List<Student> loadStudents(SubjectSchema schema, int maxStudents) throws IOException {
+        List<Student> list = new ArrayList<>();
+        Map<Integer, Student> byId = new HashMap<>();
+        int subjectCount = schema.size();
+        try (Statement st = conn.createStatement()) {
+            try (ResultSet rs = st.executeQuery(
+                    "SELECT id, name, age, graduating, transcript, graduated FROM students ORDER BY seq")) {
+                while (rs.next() && list.size() < maxStudents) {
+                    int id = rs.getInt(1);
+                    Student s = rs.getBoolean(4)
+                            ? new GraduatingStudent(id, rs.getString(2), rs.getInt(3), subjectCount,
+                                                    nullToEmpty(rs.getString(5)), rs.getBoolean(6))
+                            : new Student(id, rs.getString(2), rs.getInt(3), subjectCount);
+                    s.attachSchema(schema);
+                    list.add(s);
+                    byId.put(id, s);
+                }
+            }
+            try (ResultSet rs = st.executeQuery("SELECT student_id, subject_id, mark FROM marks")) {
+                while (rs.next()) {
+                    Student s = byId.get(rs.getInt(1));
+                    int j = schema.positionOf(rs.getInt(2)); // -1: removed subject
+                    if (s != null && j >= 0) s.setMarkAt(j, rs.getDouble(3));
+                }
+            }
+        } catch (SQLException e) {
+            throw failure("load students", e);
+        }
+        return list;
+    }
+
+    /** replaces every student (one transaction, batched inserts) */
+    @Override
+    public void saveStudents(Student[] students, int studentCount, SubjectSchema schema) throws IOException {
+        inTransaction("save students", () -> {
+            try (Statement st = conn.createStatement()) {
+                st.executeUpdate("DELETE FROM marks");
+                st.executeUpdate("DELETE FROM students");
+            }
+            int pending = 0;
+            for (int i = 0; i < studentCount; i++) {
+                bindStudent(insertStudent, students[i], i);
+                insertStudent.addBatch();
+                pending += addMarkRows(students[i]);
+                if (++pending >= BATCH_ROWS) {
+                    insertStudent.executeBatch();
+                    insertMarkRow.executeBatch();
+                    pending = 0;
+                }
+            }
+            insertStudent.executeBatch();
+            insertMarkRow.executeBatch();
+            nextSeq = studentCount;
+        });
+    }
+
+    // ------------------ ROW UPDATES ------------------
+
+    @Override
+    public boolean isIncremental() { return true; }
+
+    @Override
+    public void upsertStudent(Student s, SubjectSchema schema) throws IOException {
+        inTransaction("save student " + s.getId(), () -> {
+            updateStudent.setString(1, s.getName());
+            updateStudent.setInt(2, s.getAge());
+            bindGraduation(updateStudent, 3, s);
+            updateStudent.setInt(6, s.getId());
+            if (updateStudent.executeUpdate() == 0) {
+                bindStudent(insertStudent, s, nextSeq++);
+                insertStudent.executeUpdate();
+            }
+            deleteMarksOf.setInt(1, s.getId());
+            deleteMarksOf.executeUpdate();
+            if (addMarkRows(s) > 0) insertMarkRow.executeBatch();
+        });
+    }
+
+    @Override
+    public void updateMark(int studentId, Subject subject, double mark) throws IOException {
+        inTransaction("save mark of " + studentId, () -> {
+            if (mark == -1) {
+                deleteMarkRow.setInt(1, studentId);
+                deleteMarkRow.setInt(2, subject.getId());
+                deleteMarkRow.executeUpdate();
+                return;
+            }
+            updateMarkRow.setDouble(1, mark);
+            updateMarkRow.setInt(2, studentId);
+            updateMarkRow.setInt(3, subject.getId());
+            if (updateMarkRow.executeUpdate() == 0) {
+                insertMarkRow.setInt(1, studentId);
+                insertMarkRow.setInt(2, subject.getId());
+                insertMarkRow.setDouble(3, mark);
+                insertMarkRow.executeUpdate();
+            }
+        });
+    }
+
+    @Override
+    public void deleteStudent(int studentId) throws IOException {
+        inTransaction("delete student " + studentId, () -> {
+            deleteMarksOf.setInt(1, studentId);
+            deleteMarksOf.executeUpdate();
+            deleteStudentRow.setInt(1, studentId);
+            deleteStudentRow.executeUpdate();
+        });
+    }
+
+    @Override
+    public void beginBatch() throws IOException {
+        try {
+            conn.setAutoCommit(false);
+            inBatch = true;
+            batchFailed = false;
+        } catch (SQLException e) {
+            throw failure("begin batch", e);
+        }
+    }
+
+    @Override
+    public void endBatch() throws IOException {
+        if (!inBatch) return;
+        inBatch = false;
+        try {
+            if (batchFailed) {
+                batchFailed = false;
+                conn.rollback();
+                throw new IOException("Batch rolled back: a write inside it failed");
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            rollbackQuietly();
+            throw failure("commit batch", e);
+        } finally {
+            try { conn.setAutoCommit(true); } catch (SQLException ignored) {}
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (inBatch) endBatch();
+        } finally {
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                throw failure("close", e);
+            }
+        }
+    }
+
+    // ------------------ INTERNALS ------------------
+
+    private interface SqlWork {
+        void run() throws SQLException;
+    }
+
+    // runs work in its own transaction, or inside the open batch
+    private void inTransaction(String what, SqlWork work) throws IOException {
+        if (inBatch) {
+            if (batchFailed) throw new IOException(what + ": skipped, the batch already failed");
+            try {
+                work.run();
+            } catch (SQLException e) {
+                batchFailed = true;
+                throw failure(what, e);
+            }
+            return;
+        }
+        try {
+            conn.setAutoCommit(false);
+            work.run();
+            conn.commit();
+        } catch (SQLException e) {
+            rollbackQuietly();
+            throw failure(what, e);
+        } finally {
+            try { conn.setAutoCommit(true); } catch (SQLException ignored) {}
+        }
+    }
+
+    private void bindStudent(PreparedStatement ps, Student s, long seq) throws SQLException {
+        ps.setInt(1, s.getId());
+        ps.setLong(2, seq);
+        ps.setString(3, s.getName());
+        ps.setInt(4, s.getAge());
+        bindGraduation(ps, 5, s);
+    }
+
+    // graduating, transcript, graduated at positions from..from+2
+    private static void bindGraduation(PreparedStatement ps, int from, Student s) throws SQLException {
+        boolean grad = s instanceof GraduatingStudent;
+        ps.setBoolean(from, grad);
+        ps.setString(from + 1, grad ? nullToEmpty(((GraduatingStudent) s).getTranscript()) : "");
+        ps.setBoolean(from + 2, grad && ((GraduatingStudent) s).isGraduationStatus());
+    }
+
+    // queues one insertMarkRow batch entry per entered mark, keyed as stored
+    // (no migration needed); returns how many
+    private int addMarkRows(Student s) throws SQLException {
+        SubjectSchema schema;
+        double[] marks;
+        synchronized (s) {
+            schema = s.getSchema();
+            marks = s.getStoredMarks();
+        }
+        if (schema == null || marks == null) return 0;
+        int n = 0;
+        for (int j = 0; j < marks.length && j < schema.size(); j++) {
+            double m = marks[j];
+            if (m == -1) continue;
+            insertMarkRow.setInt(1, s.getId());
+            insertMarkRow.setInt(2, schema.idAt(j));
+            insertMarkRow.setDouble(3, m);
+            insertMarkRow.addBatch();
+            n++;
+        }
+        return n;
+    }
+
+    private void rollbackQuietly() {
+        try { conn.rollback(); } catch (SQLException ignored) {}
+    }
+
+    private static String nullToEmpty(String s) {
+        return (s == null) ? "" : s;
+    }
+
+    private IOException failure(String what, SQLException e) {
+        return new IOException("Database error (" + what + "): " + e.getMessage(), e);
+    }
+}
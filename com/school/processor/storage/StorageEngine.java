@@ -0,0 +1,103 @@
+package com.school.processor.storage;
+
+import com.school.models.Student;
+import com.school.models.Subject;
+import com.school.models.SubjectSchema;
+import com.school.processor.validate.ValidationReport;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * StorageEngine - where ResultProcessor keeps subjects and students.
+ *
+ * Every engine supports whole loads and saves. Engines that return true from
+ * isIncremental() also persist single changes through the row methods
+ * (one student, one mark, one delete) without rewriting anything else;
+ * ResultProcessor then calls those instead of a full save. Marks are
+ * stored keyed by stable subject ID, so a change to the subject list only
+ * rewrites the subject list (see SubjectSchema); -1 = not entered.
+ *
+ * open() picks the engine from system properties:
+ *   -Dschool.storage=text   students.txt / subjects.txt (default)
+ *   -Dschool.storage=jdbc   embedded SQL database; -Dschool.jdbcUrl=... overrides the
+ *                           default jdbc:h2:file:<dataDir>/school (the driver jar must be
+ *                           on the classpath, e.g. H2 or sqlite-jdbc)
+ */
+public interface StorageEngine extends AutoCloseable {
+
+    String name();
+
+    /** the stored subject list with its IDs and version (SubjectSchema.empty() if none) */
+    SubjectSchema loadSchema() throws IOException;
+
+    void saveSchema(SubjectSchema schema) throws IOException;
+
+    /**
+     * loadStudents - at most maxStudents records in roster order, marks laid out
+     * for schema and attached to it. Grade and pass flags are left for the caller.
+     */
+    List<Student> loadStudents(SubjectSchema schema, int maxStudents) throws IOException;
+
+    /** replace every stored student with the given roster */
+    void saveStudents(Student[] students, int studentCount, SubjectSchema schema) throws IOException;
+
+    // ------------------ ROW UPDATES (incremental engines) ------------------
+
+    /** true when the row methods persist changes by themselves */
+    default boolean isIncremental() { return false; }
+
+    /** add or replace one student, marks included */
+    default void upsertStudent(Student s, SubjectSchema schema) throws IOException {
+        throw new UnsupportedOperationException(name() + " storage has no row updates");
+    }
+
+    /** one mark of one student (-1 removes it); subject carries its ID */
+    default void updateMark(int studentId, Subject subject, double mark) throws IOException {
+        throw new UnsupportedOperationException(name() + " storage has no row updates");
+    }
+
+    default void deleteStudent(int studentId) throws IOException {
+        throw new UnsupportedOperationException(name() + " storage has no row updates");
+    }
+
+    /** group the following row updates into one unit (transaction); calls do not nest */
+    default void beginBatch() throws IOException {}
+
+    default void endBatch() throws IOException {}
+
+    // ------------------ VALIDATION ------------------
+
+    /** report of the check done by the last loadStudents, or null if the engine has none */
+    default ValidationReport getLastValidation() { return null; }
+
+    /** check what is stored now, or null if the engine has no such check */
+    default ValidationReport validate(SubjectSchema schema) throws IOException { return null; }
+
+    @Override
+    default void close() throws IOException {}
+
+    // ------------------ SELECTION ------------------
+
+    /**
+     * open - the engine chosen by -Dschool.storage for a data directory
+     * (null = working directory). Falls back to text files if the database
+     * cannot be opened.
+     */
+    static StorageEngine open(String dataDir) {
+        String kind = System.getProperty("school.storage", "text");
+        if (kind.equalsIgnoreCase("jdbc")) {
+            String url = System.getProperty("school.jdbcUrl",
+                    "jdbc:h2:file:" + new File(dataDir == null ? "." : dataDir, "school").getAbsolutePath());
+            try {
+                return new JdbcStorageEngine(url);
+            } catch (IOException e) {
+                System.out.println("Warning: database storage not available, using text files: " + e.getMessage());
+            }
+        } else if (!kind.equalsIgnoreCase("text")) {
+            System.out.println("Warning: unknown storage engine '" + kind + "', using text files.");
+        }
+        return new TextFileStorageEngine(dataDir);
+    }
+}
@@ -0,0 +1,310 @@
+package com.school.processor.storage;
+
+import com.school.models.Student;
+import com.school.models.Subject;
+import com.school.models.SubjectSchema;
+import com.school.processor.ParallelStudentLoader;
+import com.school.processor.StudentFileFormat;
+import com.school.processor.validate.Anomaly;
+import com.school.processor.validate.DataValidator;
+import com.school.processor.validate.StudentChecksums;
+import com.school.processor.validate.ValidationReport;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.zip.CRC32C;
+
+/**
+ * TextFileStorageEngine - the original pipe-delimited files.
+ *
+ * subjects.txt : #schema|version|nextId, then subjectName|maxMarks|subjectId per line
+ * students.txt : see StudentFileFormat, marks keyed by subject ID; rewritten whole
+ *                on every save, with the students.txt.crc checksum sidecar (see StudentChecksums)
+ *
+ * Not incremental: any student change rewrites students.txt, but a subject
+ * change only rewrites subjects.txt. loadSchema() starts reading students.txt
+ * in the background so the two loads overlap, and loadStudents() validates the
+ * bytes (DataValidator) before parsing them, unless -Dschool.validate=false.
+ *
+ * Files from before subject IDs (no #schema line, positional marks) load as
+ * schema version 1 with IDs 1..n and are converted once, on the first save
+ * (students.txt.bak keeps the original), so loading alone never writes them.
+ */
+public class TextFileStorageEngine implements StorageEngine {
+
+    private final String subjectsFile;
+    private final String studentsFile;
+    private static final String SCHEMA_HEADER = "#schema";
+
+    private CompletableFuture<byte[]> prefetched;
+    private ValidationReport lastValidation;
+    private SubjectSchema legacySchema; // subjects.txt has no #schema line yet: the positional layout, else null
+
+    public TextFileStorageEngine(String dataDir) {
+        this.subjectsFile = (dataDir == null) ? "subjects.txt" : new File(dataDir, "subjects.txt").getPath();
+        this.studentsFile = (dataDir == null) ? "students.txt" : new File(dataDir, "students.txt").getPath();
+    }
+
+    @Override
+    public String name() { return "text"; }
+
+    // ------------------ SUBJECTS ------------------
+
+    @Override
+    public SubjectSchema loadSchema() throws IOException {
+        // students.txt is read from disk while subjects.txt is being parsed
+        prefetched = CompletableFuture.supplyAsync(() -> {
+            try {
+                return readStudentsFileBytes();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return readSchema();
+    }
+
+    /**
+     * readSchema - the subject list alone, without reading students.txt ahead
+     * (for callers that stream students.txt themselves, e.g. year comparisons).
+     */
+    public SubjectSchema readSchema() throws IOException {
+        legacySchema = null;
+        File f = new File(subjectsFile);
+        if (!f.exists()) return SubjectSchema.empty();
+        List<Subject> list = new ArrayList<>();
+        int version = 1;
+        int nextId = 1;
+        boolean header = false;
+        try (BufferedReader br = new BufferedReader(new FileReader(f))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                String[] parts = line.split("\\|");
+                if (parts[0].trim().equals(SCHEMA_HEADER)) {
+                    header = true;
+                    try {
+                        version = Integer.parseInt(parts[1].trim());
+                        nextId = Integer.parseInt(parts[2].trim());
+                    } catch (NumberFormatException | ArrayIndexOutOfBoundsException ex) {
+                        // IDs still come from the subject lines; nextId is raised past them below
+                    }
+                    continue;
+                }
+                String name = parts[0].trim();
+                int max = 100;
+                if (parts.length >= 2) {
+                    try { max = Integer.parseInt(parts[1].trim()); } catch (NumberFormatException ex) { max = 100; }
+                }
+                int id = 0;
+                if (parts.length >= 3) {
+                    try { id = Integer.parseInt(parts[2].trim()); } catch (NumberFormatException ex) { id = 0; }
+                }
+                list.add(new Subject(id, name, max));
+            }
+        }
+        Subject[] subjects = list.toArray(new Subject[0]);
+        if (!header) {
+            legacySchema = SubjectSchema.legacy(subjects, subjects.length);
+            return legacySchema;
+        }
+        // subjects without a usable ID (or repeating one) get a fresh one
+        Set<Integer> seen = new HashSet<>();
+        for (Subject subj : subjects) nextId = Math.max(nextId, subj.getId() + 1);
+        for (Subject subj : subjects) {
+            if (subj.getId() <= 0 || !seen.add(subj.getId())) {
+                subj.setId(nextId++);
+                seen.add(subj.getId());
+            }
+        }
+        return new SubjectSchema(version, nextId, subjects, subjects.length, null);
+    }
+
+    @Override
+    public void saveSchema(SubjectSchema schema) throws IOException {
+        if (legacySchema != null) convertLegacyStudents();
+        try (BufferedWriter bw = new BufferedWriter(new FileWriter(subjectsFile))) {
+            bw.write(SCHEMA_HEADER + "|" + schema.getVersion() + "|" + schema.getNextId());
+            bw.newLine();
+            for (int i = 0; i < schema.size(); i++) {
+                Subject s = schema.subjectAt(i);
+                bw.write(s.getName() + "|" + s.getMaxMarks() + "|" + s.getId());
+                bw.newLine();
+            }
+        }
+    }
+
+    // positional marks in students.txt only line up with the pre-ID subject list,
+    // so they are keyed by subject ID before a changed list is saved
+    private void convertLegacyStudents() throws IOException {
+        SubjectSchema legacy = legacySchema;
+        byte[] data = readStudentsFileBytes();
+        if (data == null) {
+            legacySchema = null;
+            return;
+        }
+        List<Student> list = ParallelStudentLoader.parse(data, Charset.defaultCharset(),
+                line -> StudentFileFormat.parse(line, legacy), Integer.MAX_VALUE);
+        saveStudents(list.toArray(new Student[0]), list.size(), legacy);
+    }
+
+    // ------------------ STUDENTS ------------------
+
+    /**
+     * loadStudents - parses students.txt (in parallel for large files, see
+     * ParallelStudentLoader); malformed lines are skipped, the first copy of an ID wins.
+     */
+    @Override
+    public List<Student> loadStudents(SubjectSchema schema, int maxStudents) throws IOException {
+        byte[] data;
+        try {
+            data = (prefetched != null) ? prefetched.join() : readStudentsFileBytes();
+        } catch (CompletionException e) {
+            throw (e.getCause() instanceof UncheckedIOException)
+                    ? ((UncheckedIOException) e.getCause()).getCause() : new IOException(e.getCause());
+        } finally {
+            prefetched = null;
+        }
+        if (data == null) return new ArrayList<>();
+        if (Boolean.parseBoolean(System.getProperty("school.validate", "true"))) {
+            data = validateOnLoad(data, schema.getSubjects(), schema.size());
+        }
+        return ParallelStudentLoader.parse(data, Charset.defaultCharset(),
+                line -> StudentFileFormat.parse(line, schema), maxStudents);
+    }
+
+    /**
+     * saveStudents - the first save after loading pre-ID files converts them:
+     * the original students.txt is kept as students.txt.bak, and subjects.txt
+     * gets its #schema line once the keyed students are written.
+     */
+    @Override
+    public void saveStudents(Student[] students, int studentCount, SubjectSchema schema) throws IOException {
+        SubjectSchema legacy = legacySchema;
+        if (legacy != null) {
+            legacySchema = null;
+            File f = new File(studentsFile);
+            if (f.exists()) {
+                Files.copy(f.toPath(), new File(studentsFile + ".bak").toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        // per-line CRCs for the students.txt.crc sidecar are taken while writing
+        Charset cs = Charset.defaultCharset();
+        byte[] newLine = System.lineSeparator().getBytes(cs);
+        int[] ids = new int[studentCount];
+        int[] crcs = new int[studentCount];
+        CRC32C fileCrc = new CRC32C();
+        CRC32C lineCrc = new CRC32C();
+        long length = 0;
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(studentsFile), 1 << 16)) {
+            StringBuilder sb = new StringBuilder(128);
+            for (int i = 0; i < studentCount; i++) {
+                sb.setLength(0);
+                StudentFileFormat.appendKeyedTo(sb, students[i]);
+                byte[] line = sb.toString().getBytes(cs);
+                out.write(line);
+                out.write(newLine);
+                lineCrc.reset();
+                lineCrc.update(line, 0, line.length);
+                ids[i] = students[i].getId();
+                crcs[i] = (int) lineCrc.getValue();
+                fileCrc.update(line, 0, line.length);
+                fileCrc.update(newLine, 0, newLine.length);
+                length += line.length + newLine.length;
+            }
+        }
+        try {
+            new StudentChecksums(length, (int) fileCrc.getValue(),
+                    StudentChecksums.subjectsFingerprint(schema.getSubjects(), schema.size()),
+                    ids, crcs).write(StudentChecksums.fileFor(studentsFile));
+        } catch (IOException e) {
+            System.out.println("Note: checksum file not written, next start will run a full check: " + e.getMessage());
+        }
+        if (legacy != null) {
+            saveSchema(schema);
+            System.out.println("Note: data files converted to subject IDs (schema v" + schema.getVersion()
+                    + "); the original is in students.txt.bak.");
+        }
+    }
+
+    // null when the file does not exist yet
+    private byte[] readStudentsFileBytes() throws IOException {
+        File f = new File(studentsFile);
+        if (!f.exists()) return null;
+        return Files.readAllBytes(f.toPath());
+    }
+
+    // ------------------ VALIDATION ------------------
+
+    /**
+     * validateOnLoad - check students.txt (and subjects.txt) before parsing.
+     * A file that still matches its checksum sidecar costs one CRC pass.
+     * Problems are listed (first 10); with -Dschool.repair=true they are
+     * repaired and the repaired content is loaded instead.
+     */
+    private byte[] validateOnLoad(byte[] data, Subject[] subjects, int subjectCount) {
+        File subjectsPath = new File(subjectsFile);
+        ValidationReport report = DataValidator.validate(data, subjectsPath, subjects, subjectCount,
+                StudentChecksums.read(StudentChecksums.fileFor(studentsFile)));
+        lastValidation = report;
+        if (report.isClean()) {
+            // first clean check of a file without a (matching) sidecar: remember it as good
+            if (!report.isVerifiedByChecksum() && report.getChecksums() != null) {
+                try {
+                    report.getChecksums().write(StudentChecksums.fileFor(studentsFile));
+                } catch (IOException e) {
+                    System.out.println("Note: checksum file not written: " + e.getMessage());
+                }
+            }
+            return data;
+        }
+
+        System.out.println("Warning: data files have problems: " + report.summary());
+        List<Anomaly> list = report.getAnomalies();
+        for (int i = 0; i < Math.min(10, list.size()); i++) System.out.println("  " + list.get(i));
+        if (report.getAnomalyCount() > 10) System.out.println("  ... " + (report.getAnomalyCount() - 10) + " more");
+
+        if (!Boolean.getBoolean("school.repair")) {
+            System.out.println("Note: start with -Dschool.repair=true (or run com.school.tools.DataCheck --repair) to fix them.");
+            return data;
+        }
+        try {
+            ValidationReport repaired = DataValidator.repair(new File(studentsFile), data, subjectsPath,
+                    subjects, subjectCount);
+            lastValidation = repaired;
+            System.out.println("Note: students.txt repaired: " + repaired.getFixedCount() + " records fixed, "
+                    + repaired.getDroppedCount() + " lines dropped (see students.txt.rejected; original in students.txt.bak).");
+            return repaired.getRepairedData();
+        } catch (IOException e) {
+            System.out.println("Warning: repair failed, loading the file as it is: " + e.getMessage());
+            return data;
+        }
+    }
+
+    @Override
+    public ValidationReport getLastValidation() {
+        return lastValidation;
+    }
+
+    /** checks the files on disk now; does not change anything */
+    @Override
+    public ValidationReport validate(SubjectSchema schema) throws IOException {
+        return DataValidator.validate(readStudentsFileBytes(), new File(subjectsFile), schema.getSubjects(), schema.size(),
+                StudentChecksums.read(StudentChecksums.fileFor(studentsFile)));
+    }
+}
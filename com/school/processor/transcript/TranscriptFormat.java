@@ -0,0 +1,17 @@
+package com.school.processor.transcript;
+
+/**
+ * TranscriptFormat - output formats of the bulk transcript job.
+ */
+public enum TranscriptFormat {
+    TEXT(".txt"),
+    JSON(".json");
+
+    private final String extension;
+
+    TranscriptFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() { return extension; }
+}
@@ -0,0 +1,401 @@
+package com.school.processor.transcript;
+
+import com.school.models.GraduatingStudent;
+import com.school.models.Student;
+import com.school.models.Subject;
+import com.school.processor.ResultProcessor;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * TranscriptJob - renders transcripts for every graduating student (live and
+ * archived) in one run.
+ *
+ * Pipeline:  selector thread -> bounded queue -> N render workers -> bounded
+ * queue -> writer (calling thread). Both queues hold QUEUE_CAPACITY students,
+ * so memory stays bounded no matter how many students there are; archived
+ * students are streamed from the archive one block at a time.
+ *
+ * Output (in outDir):
+ *  - files mode: <id>.txt / <id>.json per student (written to a temp name, then renamed)
+ *  - zip mode:   transcripts-part-NNNN.zip, a new part every PART_SIZE students
+ *
+ * Resume: progress.log records finished work, one line per commit
+ * ("F id" per student in files mode, "P part id,id,..." per closed zip part).
+ * A rerun skips what is recorded there; a zip part that was never closed is
+ * deleted and its students are rendered again. Incomplete last lines are ignored.
+ *
+ * The processor must not be modified while the job runs.
+ */
+public class TranscriptJob {
+
+    static final int QUEUE_CAPACITY = 256;
+    static final int PART_SIZE = 2000;
+    static final String MANIFEST = "progress.log";
+    private static final String PART_PREFIX = "transcripts-part-";
+
+    private final ResultProcessor processor;
+    private final File outDir;
+    private final TranscriptFormat[] formats;
+    private final boolean zip;
+    private final int threads;
+
+    /** throughput numbers of one run */
+    public static class Result {
+        public final int selected;
+        public final int skipped;
+        public final int written;
+        public final long bytes;
+        public final long millis;
+
+        Result(int selected, int skipped, int written, long bytes, long millis) {
+            this.selected = selected;
+            this.skipped = skipped;
+            this.written = written;
+            this.bytes = bytes;
+            this.millis = millis;
+        }
+
+        @Override
+        public String toString() {
+            double secs = Math.max(millis, 1) / 1000.0;
+            return String.format("Transcripts: %d written, %d already done (of %d graduating) in %d ms"
+                            + " - %.0f students/s, %.1f MB/s",
+                    written, skipped, selected, millis, written / secs, bytes / secs / (1024 * 1024));
+        }
+    }
+
+    // one student's rendered output, one entry per format
+    private static final class Rendered {
+        final int id;
+        final byte[][] data;
+
+        Rendered(int id, byte[][] data) {
+            this.id = id;
+            this.data = data;
+        }
+    }
+
+    private static final Student END_OF_INPUT = new Student();
+    private static final Rendered END_OF_OUTPUT = new Rendered(-1, null);
+
+    public TranscriptJob(ResultProcessor processor, File outDir, TranscriptFormat[] formats, boolean zip, int threads) {
+        if (formats.length == 0) throw new IllegalArgumentException("At least one format is needed");
+        this.processor = processor;
+        this.outDir = outDir;
+        this.formats = formats.clone();
+        this.zip = zip;
+        this.threads = Math.max(1, threads);
+    }
+
+    public Result run() throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        if (!outDir.exists() && !outDir.mkdirs()) throw new IOException("Cannot create " + outDir);
+        Set<Integer> done = readManifest();
+
+        Subject[] subjects = processor.getSubjectsArray();
+        int subjectCount = processor.getSubjectCount();
+        TranscriptRenderer renderer = new TranscriptRenderer(subjects, subjectCount);
+
+        BlockingQueue<Student> input = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        BlockingQueue<Rendered> output = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        int[] counts = new int[2]; // selected, skipped (written by the selector thread only)
+
+        Thread selector = new Thread(() -> {
+            try {
+                select(input, done, subjects, subjectCount, counts);
+            } catch (Throwable t) {
+                failure.compareAndSet(null, t);
+            } finally {
+                for (int i = 0; i < threads; i++) putQuietly(input, END_OF_INPUT);
+            }
+        }, "transcript-select");
+
+        List<Thread> workers = new ArrayList<>(threads);
+        for (int w = 0; w < threads; w++) {
+            workers.add(new Thread(() -> {
+                try {
+                    for (Student s = input.take(); s != END_OF_INPUT; s = input.take()) {
+                        output.put(render(renderer, s));
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                } finally {
+                    putQuietly(output, END_OF_OUTPUT);
+                }
+            }, "transcript-render-" + w));
+        }
+
+        selector.setDaemon(true);
+        selector.start();
+        for (Thread t : workers) {
+            t.setDaemon(true);
+            t.start();
+        }
+
+        int written = 0;
+        long bytes = 0;
+        try (Writer manifest = openManifest(); Sink sink = zip ? new ZipSink(manifest) : new FileSink(manifest)) {
+            int finishedWorkers = 0;
+            while (finishedWorkers < threads) {
+                if (failure.get() != null) break;
+                Rendered r = output.take();
+                if (r == END_OF_OUTPUT) {
+                    finishedWorkers++;
+                    continue;
+                }
+                bytes += sink.write(r);
+                written++;
+            }
+        } finally {
+            selector.interrupt();
+            for (Thread t : workers) t.interrupt();
+        }
+        Throwable t = failure.get();
+        if (t instanceof IOException) throw (IOException) t;
+        if (t != null) throw new IOException("Transcript job failed: " + t, t);
+
+        selector.join();
+        return new Result(counts[0], counts[1], written, bytes, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // ------------------ STAGES ------------------
+
+    private void select(BlockingQueue<Student> input, Set<Integer> done, Subject[] subjects, int subjectCount,
+                        int[] counts) throws IOException, InterruptedException {
+        Student[] live = processor.getStudentsArray();
+        int liveCount = processor.getStudentCount();
+        for (int i = 0; i < liveCount; i++) {
+            if (live[i] instanceof GraduatingStudent) offer(input, live[i], done, counts);
+        }
+        try {
+            processor.getArchive().forEach(subjects, subjectCount, s -> {
+                if (!(s instanceof GraduatingStudent)) return;
+                try {
+                    offer(input, s, done, counts);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        } catch (IllegalStateException e) {
+            if (e.getCause() instanceof InterruptedException) throw (InterruptedException) e.getCause();
+            throw e;
+        }
+    }
+
+    private static void offer(BlockingQueue<Student> input, Student s, Set<Integer> done, int[] counts)
+            throws InterruptedException {
+        counts[0]++;
+        if (done.contains(s.getId())) {
+            counts[1]++;
+            return;
+        }
+        input.put(s);
+    }
+
+    private Rendered render(TranscriptRenderer renderer, Student s) {
+        String grade = processor.calculateGrade(s, processor.getSubjectsArray());
+        boolean passed = processor.checkPass(s);
+        byte[][] data = new byte[formats.length][];
+        for (int f = 0; f < formats.length; f++) {
+            data[f] = renderer.render(s, grade, passed, formats[f]).getBytes(StandardCharsets.UTF_8);
+        }
+        return new Rendered(s.getId(), data);
+    }
+
+    // end markers; if the thread was interrupted the job is being torn down and nobody waits for them
+    private static <T> void putQuietly(BlockingQueue<T> q, T item) {
+        try {
+            q.put(item);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ------------------ MANIFEST ------------------
+
+    private String header() {
+        return "# transcripts v1 formats=" + Arrays.toString(formats) + " output=" + (zip ? "zip" : "files");
+    }
+
+    private Set<Integer> readManifest() throws IOException {
+        Set<Integer> done = new HashSet<>();
+        File f = new File(outDir, MANIFEST);
+        Set<String> closedParts = new HashSet<>();
+        if (f.exists()) {
+            String text = new String(Files.readAllBytes(f.toPath()), StandardCharsets.UTF_8);
+            String[] lines = text.split("\n", -1);
+            // the last element is either "" (file ends with '\n') or a torn line
+            for (int i = 0; i < lines.length - 1; i++) {
+                String line = lines[i];
+                if (line.startsWith("#")) {
+                    if (!line.equals(header())) {
+                        throw new IOException("Output directory holds a transcript job with other settings: " + line);
+                    }
+                } else if (line.startsWith("F ")) {
+                    done.add(Integer.parseInt(line.substring(2).trim()));
+                } else if (line.startsWith("P ")) {
+                    String[] parts = line.split(" ", 3);
+                    closedParts.add(parts[1]);
+                    if (parts.length == 3 && !parts[2].isEmpty()) {
+                        for (String id : parts[2].split(",")) done.add(Integer.parseInt(id));
+                    }
+                }
+            }
+        }
+        // zip parts that were never closed: their students are redone
+        File[] files = outDir.listFiles();
+        if (files != null) {
+            for (File p : files) {
+                String name = p.getName();
+                boolean part = name.startsWith(PART_PREFIX) && name.endsWith(".zip");
+                if ((part && !closedParts.contains(name)) || name.endsWith(".tmp")) p.delete();
+            }
+        }
+        return done;
+    }
+
+    private Writer openManifest() throws IOException {
+        File f = new File(outDir, MANIFEST);
+        boolean fresh = !f.exists() || f.length() == 0;
+        if (!fresh) {
+            // drop a torn last line so new records start on a line of their own
+            byte[] all = Files.readAllBytes(f.toPath());
+            int end = all.length;
+            while (end > 0 && all[end - 1] != '\n') end--;
+            if (end != all.length) {
+                try (FileOutputStream trunc = new FileOutputStream(f, true)) {
+                    trunc.getChannel().truncate(end);
+                }
+            }
+        }
+        Writer w = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(f, true), StandardCharsets.UTF_8));
+        if (fresh) {
+            w.write(header());
+            w.write('\n');
+            w.flush();
+        }
+        return w;
+    }
+
+    // ------------------ SINKS ------------------
+
+    private interface Sink extends AutoCloseable {
+        /** writes one student's output; returns bytes written */
+        long write(Rendered r) throws IOException;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    private final class FileSink implements Sink {
+        private final Writer manifest;
+
+        FileSink(Writer manifest) {
+            this.manifest = manifest;
+        }
+
+        @Override
+        public long write(Rendered r) throws IOException {
+            long n = 0;
+            for (int f = 0; f < formats.length; f++) {
+                File target = new File(outDir, r.id + formats[f].getExtension());
+                File tmp = new File(outDir, target.getName() + ".tmp");
+                Files.write(tmp.toPath(), r.data[f]);
+                if (target.exists() && !target.delete()) throw new IOException("Cannot replace " + target);
+                if (!tmp.renameTo(target)) throw new IOException("Cannot rename " + tmp);
+                n += r.data[f].length;
+            }
+            manifest.write("F " + r.id + "\n");
+            manifest.flush();
+            return n;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private final class ZipSink implements Sink {
+        private final Writer manifest;
+        private ZipOutputStream zos;
+        private String partName;
+        private final StringBuilder partIds = new StringBuilder();
+        private int inPart;
+        private int nextPart;
+
+        ZipSink(Writer manifest) {
+            this.manifest = manifest;
+            int max = 0;
+            File[] files = outDir.listFiles();
+            if (files != null) {
+                for (File f : files) {
+                    String name = f.getName();
+                    if (name.startsWith(PART_PREFIX) && name.endsWith(".zip")) {
+                        try {
+                            max = Math.max(max, Integer.parseInt(
+                                    name.substring(PART_PREFIX.length(), name.length() - 4)));
+                        } catch (NumberFormatException ignored) {
+                            // not one of ours
+                        }
+                    }
+                }
+            }
+            nextPart = max + 1;
+        }
+
+        @Override
+        public long write(Rendered r) throws IOException {
+            if (zos == null) {
+                partName = String.format("%s%04d.zip", PART_PREFIX, nextPart++);
+                zos = new ZipOutputStream(new FileOutputStream(new File(outDir, partName)));
+            }
+            long n = 0;
+            for (int f = 0; f < formats.length; f++) {
+                zos.putNextEntry(new ZipEntry(r.id + formats[f].getExtension()));
+                zos.write(r.data[f]);
+                zos.closeEntry();
+                n += r.data[f].length;
+            }
+            if (inPart++ > 0) partIds.append(',');
+            partIds.append(r.id);
+            if (inPart >= PART_SIZE) closePart();
+            return n;
+        }
+
+        private void closePart() throws IOException {
+            if (zos == null) return;
+            zos.close();
+            manifest.write("P " + partName + " " + partIds + "\n");
+            manifest.flush();
+            zos = null;
+            partIds.setLength(0);
+            inPart = 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            closePart();
+        }
+    }
+}
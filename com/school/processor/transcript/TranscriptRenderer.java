@@ -0,0 +1,125 @@
+package com.school.processor.transcript;
+
+import com.school.models.GraduatingStudent;
+import com.school.models.Student;
+import com.school.models.Subject;
+
+/**
+ * TranscriptRenderer - one student's full transcript (marks, totals, grade,
+ * result and transcript notes) as text or JSON.
+ *
+ * Stateless apart from the subject list, so one instance is shared by all
+ * workers of a TranscriptJob. Grade and pass/fail are passed in, computed by
+ * the caller with ResultProcessor's rules.
+ */
+public class TranscriptRenderer {
+
+    private final Subject[] subjects;
+    private final int subjectCount;
+    private final double totalMax;
+
+    public TranscriptRenderer(Subject[] subjects, int subjectCount) {
+        this.subjects = subjects.clone();
+        this.subjectCount = subjectCount;
+        double max = 0;
+        for (int j = 0; j < subjectCount; j++) max += subjects[j].getMaxMarks();
+        this.totalMax = max;
+    }
+
+    public String render(Student s, String grade, boolean passed, TranscriptFormat format) {
+        return (format == TranscriptFormat.JSON) ? renderJson(s, grade, passed) : renderText(s, grade, passed);
+    }
+
+    public String renderText(Student s, String grade, boolean passed) {
+        StringBuilder sb = new StringBuilder(512);
+        sb.append("OFFICIAL TRANSCRIPT\n");
+        sb.append("========================================\n");
+        sb.append("Student ID : ").append(s.getId()).append('\n');
+        sb.append("Name       : ").append(s.getName()).append('\n');
+        sb.append("Age        : ").append(s.getAge()).append('\n');
+        sb.append("Status     : ").append(graduated(s) ? "Graduated" : "Pending").append('\n');
+        sb.append("----------------------------------------\n");
+        sb.append(String.format("%-20s %8s %8s\n", "Subject", "Marks", "Max"));
+        double total = 0;
+        for (int j = 0; j < subjectCount; j++) {
+            double m = s.getMarkAt(j);
+            if (m != -1) total += m;
+            sb.append(String.format("%-20s %8s %8d\n", subjects[j].getName(),
+                    (m == -1) ? "N/A" : String.valueOf((int) m), subjects[j].getMaxMarks()));
+        }
+        sb.append("----------------------------------------\n");
+        sb.append("Total      : ").append((int) total).append(" / ").append((int) totalMax).append('\n');
+        sb.append(String.format("Percentage : %.2f%%\n", percent(total)));
+        sb.append("Grade      : ").append(grade).append('\n');
+        sb.append("Result     : ").append(passed ? "PASS" : "FAIL").append('\n');
+        sb.append("Notes      : ").append(notes(s)).append('\n');
+        return sb.toString();
+    }
+
+    public String renderJson(Student s, String grade, boolean passed) {
+        StringBuilder sb = new StringBuilder(512);
+        sb.append("{\"id\":").append(s.getId());
+        sb.append(",\"name\":");
+        json(sb, s.getName());
+        sb.append(",\"age\":").append(s.getAge());
+        sb.append(",\"graduated\":").append(graduated(s));
+        sb.append(",\"marks\":[");
+        double total = 0;
+        for (int j = 0; j < subjectCount; j++) {
+            double m = s.getMarkAt(j);
+            if (m != -1) total += m;
+            if (j > 0) sb.append(',');
+            sb.append("{\"subject\":");
+            json(sb, subjects[j].getName());
+            sb.append(",\"mark\":").append(m == -1 ? "null" : String.valueOf((int) m));
+            sb.append(",\"max\":").append(subjects[j].getMaxMarks()).append('}');
+        }
+        sb.append("],\"total\":").append((int) total);
+        sb.append(",\"maxTotal\":").append((int) totalMax);
+        sb.append(",\"percentage\":").append(Math.round(percent(total) * 100) / 100.0);
+        sb.append(",\"grade\":");
+        json(sb, grade);
+        sb.append(",\"result\":\"").append(passed ? "PASS" : "FAIL").append('"');
+        sb.append(",\"notes\":");
+        json(sb, notes(s));
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    private double percent(double total) {
+        return (totalMax == 0) ? 0.0 : total * 100.0 / totalMax;
+    }
+
+    private static boolean graduated(Student s) {
+        return (s instanceof GraduatingStudent) && ((GraduatingStudent) s).isGraduationStatus();
+    }
+
+    private static String notes(Student s) {
+        if (!(s instanceof GraduatingStudent)) return "";
+        String t = ((GraduatingStudent) s).getTranscript();
+        return (t == null) ? "" : t;
+    }
+
+    private static void json(StringBuilder sb, String v) {
+        if (v == null) {
+            sb.append("null");
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < v.length(); i++) {
+            char c = v.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+                }
+            }
+        }
+        sb.append('"');
+    }
+}
@@ -0,0 +1,45 @@
+package com.school.processor.validate;
+
+/**
+ * Anomaly - one problem found in a data file, with its 1-based line number.
+ *
+ *  MALFORMED          too few / too many fields, bad id or age, bad true/false flag
+ *  DUPLICATE_ID       ID already used on an earlier line (the earlier line wins on load)
+ *  DUPLICATE_SUBJECT  subject name listed twice in subjects.txt
+ *  BAD_MARK           mark is not a number (loads as -1)
+ *  MARK_OUT_OF_RANGE  mark below -1 or above the subject's maxMarks
+ *  COLUMN_COUNT       number of marks differs from the number of subjects
+ *  BAD_ESCAPING       unescaped '|' in a transcript (fields shifted)
+ *  CHECKSUM           line is well-formed but differs from what the application last
+ *                     saved for that ID (edited by hand or corrupted on disk)
+ */
+public class Anomaly {
+
+    public enum Kind { MALFORMED, DUPLICATE_ID, DUPLICATE_SUBJECT, BAD_MARK, MARK_OUT_OF_RANGE,
+                       COLUMN_COUNT, BAD_ESCAPING, CHECKSUM }
+
+    private final String file;
+    private final int line;
+    private final Kind kind;
+    private final int studentId;   // 0 when unknown
+    private final String message;
+
+    public Anomaly(String file, int line, Kind kind, int studentId, String message) {
+        this.file = file;
+        this.line = line;
+        this.kind = kind;
+        this.studentId = studentId;
+        this.message = message;
+    }
+
+    public String getFile() { return file; }
+    public int getLine() { return line; }
+    public Kind getKind() { return kind; }
+    public int getStudentId() { return studentId; }
+    public String getMessage() { return message; }
+
+    @Override
+    public String toString() {
+        return file + ":" + line + "  " + kind + (studentId != 0 ? "  id " + studentId : "") + "  " + message;
+    }
+}
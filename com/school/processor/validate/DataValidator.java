@@ -0,0 +1,562 @@
+package com.school.processor.validate;
+
+import com.school.models.GraduatingStudent;
+import com.school.models.Student;
+import com.school.models.Subject;
+import com.school.models.SubjectSchema;
+import com.school.processor.StudentFileFormat;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * DataValidator - checks subjects.txt and students.txt the way the loader reads
+ * them, and reports everything the loader would silently skip or mangle.
+ *
+ * students.txt is scanned as raw bytes in one pass (no Strings, no split), so
+ * the full check costs about as much as reading the file. When the file still
+ * matches its StudentChecksums sidecar even that is skipped: one CRC32C over the
+ * bytes proves it is what the application saved.
+ *
+ * repair rewrites students.txt (the original is kept as students.txt.bak):
+ *  - lines the loader skips (bad id/age, too few fields), lines with 5 or 6
+ *    fields and duplicate IDs (later copies) go to students.txt.rejected
+ *  - unescaped '|' in transcripts is escaped again; flags other than true/false become false
+ *  - bad or out-of-range marks become -1 (not entered)
+ *  - positional marks are padded with -1 or truncated to the number of subjects
+ *  - rewritten lines get marks keyed by subject ID
+ * Keyed marks of subject IDs that are no longer listed are not problems: they
+ * belong to removed subjects and are dropped when the record is next saved.
+ * Lines without problems are copied unchanged; the original text of every dropped
+ * or rewritten line is appended to students.txt.rejected. subjects.txt is only reported on.
+ */
+public final class DataValidator {
+
+    private static final long BAD = Long.MIN_VALUE;
+
+    private DataValidator() {}
+
+    /**
+     * validate - check both files. students may be null (no students.txt yet);
+     * saved is the sidecar (null if there is none).
+     */
+    public static ValidationReport validate(byte[] students, File subjectsFile, Subject[] subjects,
+                                            int subjectCount, StudentChecksums saved) {
+        long start = System.nanoTime();
+        ValidationReport report = new ValidationReport();
+        checkSubjects(subjectsFile, report);
+        if (students != null) checkStudents(students, subjects, subjectCount, saved, report);
+        report.setNanos(System.nanoTime() - start);
+        return report;
+    }
+
+    // ------------------ subjects.txt ------------------
+
+    private static void checkSubjects(File f, ValidationReport report) {
+        if (f == null || !f.exists()) return;
+        String file = f.getName();
+        Map<String, Integer> seen = new HashMap<>();
+        try (BufferedReader br = new BufferedReader(new FileReader(f))) {
+            String line;
+            int lineNo = 0;
+            Map<Integer, Integer> seenIds = new HashMap<>();
+            while ((line = br.readLine()) != null) {
+                lineNo++;
+                String[] parts = line.split("\\|");
+                String name = parts[0].trim();
+                if (name.equals("#schema")) {
+                    if (parts.length < 3 || parseIntText(parts[1]) == BAD || parseIntText(parts[2]) == BAD) {
+                        report.add(new Anomaly(file, lineNo, Anomaly.Kind.MALFORMED, 0,
+                                "schema line should be #schema|version|nextId"));
+                    }
+                    continue;
+                }
+                if (name.isEmpty()) {
+                    report.add(new Anomaly(file, lineNo, Anomaly.Kind.MALFORMED, 0, "subject has no name"));
+                    continue;
+                }
+                if (parts.length < 2) {
+                    report.add(new Anomaly(file, lineNo, Anomaly.Kind.MALFORMED, 0,
+                            "'" + name + "' has no max marks (100 assumed)"));
+                } else {
+                    try {
+                        int max = Integer.parseInt(parts[1].trim());
+                        if (max <= 0) {
+                            report.add(new Anomaly(file, lineNo, Anomaly.Kind.MALFORMED, 0,
+                                    "'" + name + "' has max marks " + max));
+                        }
+                    } catch (NumberFormatException e) {
+                        report.add(new Anomaly(file, lineNo, Anomaly.Kind.MALFORMED, 0,
+                                "'" + name + "' max marks '" + parts[1].trim() + "' is not a number (100 assumed)"));
+                    }
+                }
+                Integer first = seen.putIfAbsent(name.toLowerCase(), lineNo);
+                if (first != null) {
+                    report.add(new Anomaly(file, lineNo, Anomaly.Kind.DUPLICATE_SUBJECT, 0,
+                            "'" + name + "' already listed on line " + first));
+                }
+                if (parts.length >= 3) {
+                    long id = parseIntText(parts[2]);
+                    if (id == BAD || id <= 0) {
+                        report.add(new Anomaly(file, lineNo, Anomaly.Kind.MALFORMED, 0,
+                                "'" + name + "' subject ID '" + parts[2].trim() + "' is not a positive number (new ID given)"));
+                    } else {
+                        Integer firstId = seenIds.putIfAbsent((int) id, lineNo);
+                        if (firstId != null) {
+                            report.add(new Anomaly(file, lineNo, Anomaly.Kind.DUPLICATE_SUBJECT, 0,
+                                    "'" + name + "' subject ID " + id + " already used on line " + firstId + " (new ID given)"));
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            report.add(new Anomaly(file, 0, Anomaly.Kind.MALFORMED, 0, "cannot be read: " + e.getMessage()));
+        }
+    }
+
+    // ------------------ students.txt ------------------
+
+    private static void checkStudents(byte[] data, Subject[] subjects, int subjectCount,
+                                      StudentChecksums saved, ValidationReport report) {
+        final String file = "students.txt";
+        int fingerprint = StudentChecksums.subjectsFingerprint(subjects, subjectCount);
+        if (saved != null && saved.matches(data, fingerprint)) {
+            report.setRecords(saved.size());
+            report.setVerifiedByChecksum(true);
+            return;
+        }
+
+        int[] max = new int[subjectCount];
+        for (int j = 0; j < subjectCount; j++) max[j] = subjects[j].getMaxMarks();
+        int[] maxById = maxById(subjects, subjectCount);
+
+        int listedBefore = report.getAnomalies().size();
+        int[] ids = new int[Math.max(16, data.length / 48)];
+        int[] crcs = new int[ids.length];
+        int[] lines = new int[ids.length];
+        CRC32C crc = new CRC32C();
+        int[] pipes = new int[6];
+        int records = 0;
+        int lineNo = 0;
+        int p = 0;
+
+        while (p < data.length) {
+            // one pass over the line finds both its end and its field separators
+            int start = p;
+            int end = start;
+            int np = 0;
+            byte b;
+            while (end < data.length && (b = data[end]) != '\n') {
+                if (b == '|') {
+                    if (np < pipes.length) pipes[np] = end;
+                    np++;
+                }
+                end++;
+            }
+            p = end + 1;
+            lineNo++;
+            if (end > start && data[end - 1] == '\r') end--;
+            if (end == start) continue; // blank lines are skipped by the loader too
+            if (np < 3) {
+                report.add(new Anomaly(file, lineNo, Anomaly.Kind.MALFORMED, 0,
+                        (np + 1) + " field(s), expected 7 (line skipped on load)"));
+                continue;
+            }
+            long id = parseInt(data, start, pipes[0]);
+            if (id == BAD) {
+                report.add(new Anomaly(file, lineNo, Anomaly.Kind.MALFORMED, 0,
+                        "id '" + text(data, start, pipes[0]) + "' is not a number (line skipped on load)"));
+                continue;
+            }
+            int sid = (int) id;
+            if (parseInt(data, pipes[1] + 1, pipes[2]) == BAD) {
+                report.add(new Anomaly(file, lineNo, Anomaly.Kind.MALFORMED, sid,
+                        "age '" + text(data, pipes[1] + 1, pipes[2]) + "' is not a number (line skipped on load)"));
+                continue;
+            }
+            int before = report.getAnomalyCount();
+            int marksFrom;
+            if (np == 3) {
+                marksFrom = pipes[2] + 1; // old format: id|name|age|marks
+            } else if (np < 6) {
+                report.add(new Anomaly(file, lineNo, Anomaly.Kind.MALFORMED, sid,
+                        (np + 1) + " fields, expected 7 (marks are lost on load)"));
+                marksFrom = -1;
+            } else if (np > 6) {
+                report.add(new Anomaly(file, lineNo, Anomaly.Kind.BAD_ESCAPING, sid,
+                        "transcript contains " + (np - 6) + " unescaped '|' (fields shifted on load)"));
+                marksFrom = -1;
+            } else {
+                if (!isFlag(data, pipes[2] + 1, pipes[3]) || !isFlag(data, pipes[4] + 1, pipes[5])) {
+                    report.add(new Anomaly(file, lineNo, Anomaly.Kind.MALFORMED, sid,
+                            "graduating/graduation flags must be true or false"));
+                }
+                marksFrom = pipes[5] + 1;
+            }
+            if (marksFrom >= 0) {
+                if (isKeyed(data, marksFrom, end)) checkKeyedMarks(data, marksFrom, end, maxById, file, lineNo, sid, report);
+                else checkMarks(data, marksFrom, end, max, file, lineNo, sid, report);
+            }
+
+            crc.reset();
+            crc.update(data, start, end - start);
+            int lineCrc = (int) crc.getValue();
+            if (saved != null && report.getAnomalyCount() == before) {
+                long expected = saved.savedCrc(records, sid);
+                if (expected >= 0 && expected != (lineCrc & 0xFFFFFFFFL)) {
+                    report.add(new Anomaly(file, lineNo, Anomaly.Kind.CHECKSUM, sid,
+                            "record differs from the last save (edited outside the application or corrupted)"));
+                }
+            }
+            if (records == ids.length) {
+                ids = Arrays.copyOf(ids, records * 2);
+                crcs = Arrays.copyOf(crcs, records * 2);
+                lines = Arrays.copyOf(lines, records * 2);
+            }
+            ids[records] = sid;
+            crcs[records] = lineCrc;
+            lines[records] = lineNo;
+            records++;
+        }
+        if (findDuplicates(ids, lines, records, file, report) > 0) report.sortListedFrom(listedBefore);
+        report.setRecords(records);
+
+        if (report.isClean()) {
+            crc.reset();
+            crc.update(data, 0, data.length);
+            report.checksums = new StudentChecksums(data.length, (int) crc.getValue(), fingerprint,
+                    Arrays.copyOf(ids, records), Arrays.copyOf(crcs, records));
+        }
+    }
+
+    /**
+     * findDuplicates - IDs used more than once. Saved files are in roster order,
+     * usually ascending, which needs one sequential pass; otherwise (id, line)
+     * pairs are sorted. Returns the number of duplicates reported.
+     */
+    private static int findDuplicates(int[] ids, int[] lines, int n, String file, ValidationReport report) {
+        boolean ascending = true;
+        for (int i = 1; i < n && ascending; i++) ascending = ids[i] > ids[i - 1];
+        if (ascending) return 0;
+        long[] keyed = new long[n]; // id << 32 | line, so equal IDs sort by line
+        for (int i = 0; i < n; i++) keyed[i] = ((long) ids[i] << 32) | lines[i];
+        Arrays.sort(keyed);
+        int found = 0;
+        for (int i = 1; i < n; i++) {
+            int id = (int) (keyed[i] >> 32);
+            if (id != (int) (keyed[i - 1] >> 32)) continue;
+            int first = i - 1;
+            while (first > 0 && (int) (keyed[first - 1] >> 32) == id) first--;
+            report.add(new Anomaly(file, (int) keyed[i], Anomaly.Kind.DUPLICATE_ID, id,
+                    "already used on line " + (int) keyed[first] + " (this line is skipped on load)"));
+            found++;
+        }
+        return found;
+    }
+
+    private static void checkMarks(byte[] data, int from, int to, int[] max, String file, int lineNo, int sid,
+                                   ValidationReport report) {
+        int col = 0;
+        if (from < to) {
+            int f = from;
+            while (true) {
+                int e = f;
+                while (e < to && data[e] != ',') e++;
+                if (col < max.length) {
+                    double v = parseMark(data, f, e);
+                    if (Double.isNaN(v)) {
+                        report.add(new Anomaly(file, lineNo, Anomaly.Kind.BAD_MARK, sid,
+                                "mark " + (col + 1) + " '" + text(data, f, e) + "' is not a number (loads as -1)"));
+                    } else if (v != -1 && (v < 0 || v > max[col])) {
+                        report.add(new Anomaly(file, lineNo, Anomaly.Kind.MARK_OUT_OF_RANGE, sid,
+                                "mark " + (col + 1) + " is " + text(data, f, e) + ", allowed 0.." + max[col]));
+                    }
+                }
+                col++;
+                if (e >= to) break;
+                f = e + 1;
+            }
+        }
+        if (col != max.length) {
+            report.add(new Anomaly(file, lineNo, Anomaly.Kind.COLUMN_COUNT, sid,
+                    col + " marks but " + max.length + " subjects"
+                            + (col < max.length ? " (missing ones load as -1)" : " (extra ones are dropped)")));
+        }
+    }
+
+    // subject ID -> max marks, -1 for IDs not in the list
+    private static int[] maxById(Subject[] subjects, int subjectCount) {
+        int top = 0;
+        for (int j = 0; j < subjectCount; j++) top = Math.max(top, subjects[j].getId());
+        int[] maxById = new int[top + 1];
+        Arrays.fill(maxById, -1);
+        for (int j = 0; j < subjectCount; j++) {
+            if (subjects[j].getId() > 0) maxById[subjects[j].getId()] = subjects[j].getMaxMarks();
+        }
+        return maxById;
+    }
+
+    private static boolean isKeyed(byte[] data, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (data[i] == ':') return true;
+        }
+        return false;
+    }
+
+    // subjectId:mark pairs; IDs that are not listed belong to removed subjects and are fine
+    private static void checkKeyedMarks(byte[] data, int from, int to, int[] maxById, String file, int lineNo,
+                                        int sid, ValidationReport report) {
+        int f = from;
+        while (f < to) {
+            int e = f;
+            int colon = -1;
+            while (e < to && data[e] != ',') {
+                if (data[e] == ':' && colon < 0) colon = e;
+                e++;
+            }
+            long subjectId = (colon < 0) ? BAD : parseInt(data, f, colon);
+            double v = (colon < 0) ? Double.NaN : parseMark(data, colon + 1, e);
+            if (subjectId == BAD || Double.isNaN(v)) {
+                report.add(new Anomaly(file, lineNo, Anomaly.Kind.BAD_MARK, sid,
+                        "'" + text(data, f, e) + "' is not subjectId:mark (ignored on load)"));
+            } else if (subjectId > 0 && subjectId < maxById.length && maxById[(int) subjectId] >= 0) {
+                int max = maxById[(int) subjectId];
+                if (v != -1 && (v < 0 || v > max)) {
+                    report.add(new Anomaly(file, lineNo, Anomaly.Kind.MARK_OUT_OF_RANGE, sid,
+                            "mark for subject " + subjectId + " is " + text(data, colon + 1, e) + ", allowed 0.." + max));
+                }
+            }
+            f = e + 1;
+        }
+    }
+
+    private static long parseIntText(String s) {
+        try {
+            return Integer.parseInt(s.trim());
+        } catch (NumberFormatException e) {
+            return BAD;
+        }
+    }
+
+    // Integer.parseInt(trim()) semantics without allocating; BAD if it would throw
+    private static long parseInt(byte[] d, int from, int to) {
+        while (from < to && (d[from] & 0xFF) <= ' ') from++;
+        while (to > from && (d[to - 1] & 0xFF) <= ' ') to--;
+        if (from == to) return BAD;
+        boolean neg = false;
+        if (d[from] == '-' || d[from] == '+') {
+            neg = d[from] == '-';
+            if (++from == to) return BAD;
+        }
+        if (to - from > 10) return BAD;
+        long v = 0;
+        for (int i = from; i < to; i++) {
+            int c = d[i] - '0';
+            if (c < 0 || c > 9) return BAD;
+            v = v * 10 + c;
+        }
+        v = neg ? -v : v;
+        return (v < Integer.MIN_VALUE || v > Integer.MAX_VALUE) ? BAD : v;
+    }
+
+    // Double.parseDouble(trim()) semantics; NaN if it would throw. Plain integers take the fast path.
+    private static double parseMark(byte[] d, int from, int to) {
+        long v = parseInt(d, from, to);
+        if (v != BAD) return v;
+        try {
+            double x = Double.parseDouble(text(d, from, to).trim());
+            return Double.isNaN(x) ? Double.POSITIVE_INFINITY : x; // "NaN" parses; treat as out of range
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static boolean isFlag(byte[] d, int from, int to) {
+        while (from < to && (d[from] & 0xFF) <= ' ') from++;
+        while (to > from && (d[to - 1] & 0xFF) <= ' ') to--;
+        return equalsIgnoreCase(d, from, to, "true") || equalsIgnoreCase(d, from, to, "false");
+    }
+
+    private static boolean equalsIgnoreCase(byte[] d, int from, int to, String s) {
+        if (to - from != s.length()) return false;
+        for (int i = 0; i < s.length(); i++) {
+            if (Character.toLowerCase((char) d[from + i]) != s.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private static String text(byte[] d, int from, int to) {
+        String s = new String(d, from, Math.min(to - from, 40), Charset.defaultCharset());
+        return (to - from > 40) ? s + "..." : s;
+    }
+
+    // ------------------ REPAIR ------------------
+
+    /**
+     * repair - validates data, writes a repaired students.txt (original kept as
+     * students.txt.bak, dropped lines in students.txt.rejected) and its sidecar.
+     * Returns the report of the original file; getRepairedData() is the new content.
+     */
+    public static ValidationReport repair(File studentsFile, byte[] data, File subjectsFile, Subject[] subjects,
+                                          int subjectCount) throws IOException {
+        long start = System.nanoTime();
+        ValidationReport report = validate(data, subjectsFile, subjects, subjectCount,
+                StudentChecksums.read(StudentChecksums.fileFor(studentsFile.getPath())));
+        if (data == null) return report;
+
+        Charset cs = Charset.defaultCharset();
+        byte[] nl = System.lineSeparator().getBytes(cs);
+        // repaired lines are written with keyed marks when every subject has an ID
+        SubjectSchema schema = null;
+        try {
+            schema = new SubjectSchema(1, 1, subjects, subjectCount, null);
+        } catch (IllegalArgumentException e) {
+            // subjects without IDs: positional marks as before
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length + 1024);
+        StringBuilder rejected = new StringBuilder();
+        Map<Integer, Integer> firstLine = new HashMap<>();
+        int[] ids = new int[16];
+        int[] crcs = new int[16];
+        int records = 0;
+        CRC32C lineCrc = new CRC32C();
+
+        String[] lines = new String(data, cs).split("\n", -1);
+        for (int n = 0; n < lines.length; n++) {
+            String line = lines[n];
+            if (line.endsWith("\r")) line = line.substring(0, line.length() - 1);
+            if (line.isEmpty()) continue;
+            String[] parts = line.split("\\|", -1);
+            String reason = null;
+            int id = 0;
+            if (parts.length < 4) {
+                reason = "too few fields";
+            } else {
+                try {
+                    id = Integer.parseInt(parts[0].trim());
+                    Integer.parseInt(parts[2].trim());
+                } catch (NumberFormatException e) {
+                    reason = "bad id or age";
+                }
+            }
+            if (reason == null && parts.length > 4 && parts.length < 7) reason = parts.length + " fields";
+            String isGrad = "false";
+            String status = "false";
+            String transcript = "";
+            String marks = (parts.length == 4) ? parts[3] : parts[parts.length - 1];
+            if (reason == null && parts.length >= 7) {
+                isGrad = parts[3].trim();
+                status = parts[parts.length - 2].trim();
+                transcript = StudentFileFormat.unescapeTranscript(
+                        String.join("|", Arrays.copyOfRange(parts, 4, parts.length - 2)));
+            }
+            if (reason == null) {
+                Integer first = firstLine.putIfAbsent(id, n + 1);
+                if (first != null) reason = "duplicate of id on line " + first;
+            }
+            if (reason != null) {
+                rejected.append("line ").append(n + 1).append(": ").append(reason).append(": ").append(line).append('\n');
+                report.dropped++;
+                continue;
+            }
+
+            double[] arr = new double[subjectCount];
+            Arrays.fill(arr, -1);
+            String[] m = marks.trim().isEmpty() ? new String[0] : marks.split(",", -1);
+            // anything but "true" reads as false, as in the loader
+            boolean changed = parts.length > 7 || !isFlagText(isGrad) || !isFlagText(status);
+            if (marks.indexOf(':') >= 0) {
+                for (String pair : m) {
+                    int colon = pair.indexOf(':');
+                    try {
+                        int j = (schema == null) ? -1 : schema.positionOf(Integer.parseInt(pair.substring(0, colon).trim()));
+                        double v = Double.parseDouble(pair.substring(colon + 1).trim());
+                        if (j < 0) continue; // removed subject
+                        if (v == -1 || (v >= 0 && v <= subjects[j].getMaxMarks())) arr[j] = v;
+                        else changed = true;
+                    } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
+                        changed = true;
+                    }
+                }
+            } else {
+                if (m.length != subjectCount) changed = true;
+                for (int j = 0; j < subjectCount && j < m.length; j++) {
+                    try {
+                        double v = Double.parseDouble(m[j].trim());
+                        if (v == -1 || (v >= 0 && v <= subjects[j].getMaxMarks())) arr[j] = v;
+                        else changed = true;
+                    } catch (NumberFormatException e) {
+                        changed = true;
+                    }
+                }
+            }
+
+            String outLine = line;
+            if (changed) {
+                String name = parts[1].trim();
+                int age = Integer.parseInt(parts[2].trim());
+                Student s = isGrad.equalsIgnoreCase("true")
+                        ? new GraduatingStudent(id, name, age, subjectCount, transcript, status.equalsIgnoreCase("true"))
+                        : new Student(id, name, age, subjectCount);
+                s.setMarksArray(arr);
+                s.attachSchema(schema);
+                outLine = StudentFileFormat.formatKeyed(s);
+                rejected.append("line ").append(n + 1).append(": repaired, original: ").append(line).append('\n');
+                report.fixed++;
+            }
+            byte[] b = outLine.getBytes(cs);
+            out.write(b);
+            out.write(nl);
+            lineCrc.reset();
+            lineCrc.update(b);
+            if (records == ids.length) {
+                ids = Arrays.copyOf(ids, records * 2);
+                crcs = Arrays.copyOf(crcs, records * 2);
+            }
+            ids[records] = id;
+            crcs[records] = (int) lineCrc.getValue();
+            records++;
+        }
+
+        byte[] repaired = out.toByteArray();
+        Files.copy(studentsFile.toPath(), new File(studentsFile.getPath() + ".bak").toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+        File tmp = new File(studentsFile.getPath() + ".tmp");
+        try (OutputStream os = new FileOutputStream(tmp)) {
+            os.write(repaired);
+        }
+        Files.move(tmp.toPath(), studentsFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        if (rejected.length() > 0) {
+            try (PrintWriter pw = new PrintWriter(new FileOutputStream(studentsFile.getPath() + ".rejected", true))) {
+                pw.print(rejected);
+            }
+        }
+        CRC32C fileCrc = new CRC32C();
+        fileCrc.update(repaired, 0, repaired.length);
+        new StudentChecksums(repaired.length, (int) fileCrc.getValue(),
+                StudentChecksums.subjectsFingerprint(subjects, subjectCount),
+                Arrays.copyOf(ids, records), Arrays.copyOf(crcs, records))
+                .write(StudentChecksums.fileFor(studentsFile.getPath()));
+
+        report.repairedData = repaired;
+        report.setNanos(System.nanoTime() - start);
+        return report;
+    }
+
+    private static boolean isFlagText(String s) {
+        return s.equalsIgnoreCase("true") || s.equalsIgnoreCase("false");
+    }
+}
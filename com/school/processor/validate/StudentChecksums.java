@@ -0,0 +1,147 @@
+package com.school.processor.validate;
+
+import com.school.models.Subject;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+/**
+ * StudentChecksums - sidecar of students.txt (students.txt.crc) written on every save.
+ *
+ * Layout:
+ *   "SRPC" version
+ *   fileLength fileCrc subjectsFingerprint count
+ *   (id, lineCrc) * count       in file order
+ *
+ * lineCrc is the CRC32C of the line's bytes without the line terminator.
+ * If the file's length and CRC and the subject list all match, the file is
+ * exactly what the application saved and needs no further validation.
+ * Otherwise the per-line CRCs show which records changed outside the application.
+ */
+public class StudentChecksums {
+
+    private static final int MAGIC = 0x53525043; // "SRPC"
+    private static final int VERSION = 1;
+
+    private final long fileLength;
+    private final int fileCrc;
+    private final int subjectsFingerprint;
+    private final int[] ids;     // file order
+    private final int[] crcs;
+    private int[] sortedIds;     // built on first out-of-order lookup
+    private int[] sortedCrcs;
+
+    public StudentChecksums(long fileLength, int fileCrc, int subjectsFingerprint, int[] ids, int[] crcs) {
+        this.fileLength = fileLength;
+        this.fileCrc = fileCrc;
+        this.subjectsFingerprint = subjectsFingerprint;
+        this.ids = ids;
+        this.crcs = crcs;
+    }
+
+    public long getFileLength() { return fileLength; }
+    public int getFileCrc() { return fileCrc; }
+    public int getSubjectsFingerprint() { return subjectsFingerprint; }
+    public int size() { return ids.length; }
+
+    /** the sidecar file that belongs to a students file */
+    public static File fileFor(String studentsFile) {
+        return new File(studentsFile + ".crc");
+    }
+
+    /** CRC32C over subject names and max marks, so a changed subjects.txt forces a full check */
+    public static int subjectsFingerprint(Subject[] subjects, int subjectCount) {
+        CRC32C crc = new CRC32C();
+        for (int j = 0; j < subjectCount; j++) {
+            crc.update(subjects[j].getName().getBytes(StandardCharsets.UTF_8));
+            crc.update('|');
+            crc.update(Integer.toString(subjects[j].getMaxMarks()).getBytes(StandardCharsets.UTF_8));
+            crc.update('\n');
+        }
+        return (int) crc.getValue();
+    }
+
+    /** true when data is byte-for-byte what was saved, under the same subjects */
+    public boolean matches(byte[] data, int subjectsFingerprint) {
+        if (data.length != fileLength || subjectsFingerprint != this.subjectsFingerprint) return false;
+        CRC32C crc = new CRC32C();
+        crc.update(data, 0, data.length);
+        return (int) crc.getValue() == fileCrc;
+    }
+
+    /**
+     * savedCrc - CRC the application saved for this ID, or -1L if it saved no
+     * such ID. lineIndex (0-based record position) is tried first, since lines
+     * rarely move.
+     */
+    public long savedCrc(int lineIndex, int id) {
+        if (lineIndex >= 0 && lineIndex < ids.length && ids[lineIndex] == id) return crcs[lineIndex] & 0xFFFFFFFFL;
+        if (sortedIds == null) sortIndex();
+        int k = Arrays.binarySearch(sortedIds, id);
+        return (k < 0) ? -1L : sortedCrcs[k] & 0xFFFFFFFFL;
+    }
+
+    private void sortIndex() {
+        long[] keyed = new long[ids.length]; // id << 32 | position
+        for (int i = 0; i < ids.length; i++) keyed[i] = ((long) ids[i] << 32) | i;
+        Arrays.sort(keyed);
+        sortedIds = new int[ids.length];
+        sortedCrcs = new int[ids.length];
+        for (int k = 0; k < keyed.length; k++) {
+            sortedIds[k] = (int) (keyed[k] >> 32);
+            sortedCrcs[k] = crcs[(int) keyed[k]];
+        }
+    }
+
+    // ------------------ FILE ------------------
+
+    /** null when the sidecar is missing or unreadable (validation then runs without it) */
+    public static StudentChecksums read(File f) {
+        if (!f.exists()) return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(f), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return null;
+            long length = in.readLong();
+            int crc = in.readInt();
+            int fingerprint = in.readInt();
+            int count = in.readInt();
+            if (count < 0 || (long) count * 8 > f.length()) return null;
+            int[] ids = new int[count];
+            int[] crcs = new int[count];
+            for (int i = 0; i < count; i++) {
+                ids[i] = in.readInt();
+                crcs[i] = in.readInt();
+            }
+            return new StudentChecksums(length, crc, fingerprint, ids, crcs);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /** writes to a temp file and renames it over f */
+    public void write(File f) throws IOException {
+        File tmp = new File(f.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(fileLength);
+            out.writeInt(fileCrc);
+            out.writeInt(subjectsFingerprint);
+            out.writeInt(ids.length);
+            for (int i = 0; i < ids.length; i++) {
+                out.writeInt(ids[i]);
+                out.writeInt(crcs[i]);
+            }
+        }
+        if (f.exists() && !f.delete()) throw new IOException("Cannot replace " + f);
+        if (!tmp.renameTo(f)) throw new IOException("Cannot rename " + tmp + " to " + f);
+    }
+}
@@ -0,0 +1,92 @@
+package com.school.processor.validate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * ValidationReport - outcome of checking (and optionally repairing) the data files.
+ *
+ * Every anomaly is counted by kind; the first MAX_LISTED are kept with their
+ * line numbers. verifiedByChecksum means students.txt matched its sidecar exactly,
+ * so no line had to be examined.
+ */
+public class ValidationReport {
+
+    public static final int MAX_LISTED = 1000;
+
+    private final List<Anomaly> anomalies = new ArrayList<>();
+    private final int[] counts = new int[Anomaly.Kind.values().length];
+    private int total;
+    private int records;
+    private boolean verifiedByChecksum;
+    private long nanos;
+
+    // set by DataValidator
+    StudentChecksums checksums;   // checksums of the file as checked (only when clean)
+    byte[] repairedData;          // students.txt content after repair
+    int fixed;
+    int dropped;
+
+    void add(Anomaly a) {
+        counts[a.getKind().ordinal()]++;
+        total++;
+        if (anomalies.size() < MAX_LISTED) anomalies.add(a);
+    }
+
+    /** listed anomalies from index from on, ordered by line (they were found out of order) */
+    void sortListedFrom(int from) {
+        anomalies.subList(from, anomalies.size()).sort(Comparator.comparingInt(Anomaly::getLine));
+    }
+
+    void setRecords(int records) { this.records = records; }
+    void setVerifiedByChecksum(boolean v) { this.verifiedByChecksum = v; }
+    void setNanos(long nanos) { this.nanos = nanos; }
+
+    public boolean isClean() { return total == 0; }
+    public int getAnomalyCount() { return total; }
+    public int getCount(Anomaly.Kind kind) { return counts[kind.ordinal()]; }
+    /** the first MAX_LISTED anomalies, in file order */
+    public List<Anomaly> getAnomalies() { return Collections.unmodifiableList(anomalies); }
+    public int getRecordCount() { return records; }
+    public boolean isVerifiedByChecksum() { return verifiedByChecksum; }
+    public long getMillis() { return nanos / 1_000_000; }
+    public boolean isRepaired() { return repairedData != null; }
+    /** records rewritten by repair */
+    public int getFixedCount() { return fixed; }
+    /** lines repair could not keep (moved to students.txt.rejected) */
+    public int getDroppedCount() { return dropped; }
+    public StudentChecksums getChecksums() { return checksums; }
+    public byte[] getRepairedData() { return repairedData; }
+
+    /** one line, e.g. "200000 records, 3 problems (DUPLICATE_ID 1, BAD_MARK 2), checked in 41 ms" */
+    public String summary() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(records).append(" records, ");
+        if (total == 0) {
+            sb.append("no problems");
+        } else {
+            sb.append(total).append(total == 1 ? " problem (" : " problems (");
+            boolean first = true;
+            for (Anomaly.Kind k : Anomaly.Kind.values()) {
+                if (counts[k.ordinal()] == 0) continue;
+                if (!first) sb.append(", ");
+                sb.append(k).append(' ').append(counts[k.ordinal()]);
+                first = false;
+            }
+            sb.append(')');
+        }
+        sb.append(verifiedByChecksum ? ", verified by checksum in " : ", checked in ").append(getMillis()).append(" ms");
+        if (isRepaired()) sb.append("; repaired ").append(fixed).append(", dropped ").append(dropped);
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(summary()).append('\n');
+        for (Anomaly a : anomalies) sb.append("  ").append(a).append('\n');
+        if (total > anomalies.size()) sb.append("  ... ").append(total - anomalies.size()).append(" more\n");
+        return sb.toString();
+    }
+}
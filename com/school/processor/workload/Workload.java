@@ -0,0 +1,187 @@
+package com.school.processor.workload;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Workload - a fixed sequence of operations against a ResultProcessor,
+ * either generated from a WorkloadSpec or read from a trace file.
+ *
+ * Kept as parallel arrays (one entry per operation) so a few million
+ * operations cost a few bytes each and the runner's threads just claim indexes.
+ *
+ * Trace format (text, one operation per line, '#' starts a comment):
+ *   VIEW <id>                        result sheet of one student (Student Access)
+ *   MARK <id> <subjectIndex> <mark>  enter one mark
+ *   ADD <id>                         enrol a student (no marks yet)
+ *   DELETE <id>                      remove a student
+ *   ANALYSIS                         subject analysis over the whole cohort
+ */
+public class Workload {
+
+    public static final byte VIEW = 0;
+    public static final byte MARK = 1;
+    public static final byte ADD = 2;
+    public static final byte DELETE = 3;
+    public static final byte ANALYSIS = 4;
+    public static final String[] KIND_NAMES = {"VIEW", "MARK", "ADD", "DELETE", "ANALYSIS"};
+
+    private final String name;
+    private byte[] kinds;
+    private int[] ids;
+    private int[] subjects;
+    private int[] marks;
+    private int size;
+
+    public Workload(String name, int capacity) {
+        this.name = name;
+        int cap = Math.max(16, capacity);
+        kinds = new byte[cap];
+        ids = new int[cap];
+        subjects = new int[cap];
+        marks = new int[cap];
+    }
+
+    public void add(byte kind, int id, int subject, int mark) {
+        if (size == kinds.length) {
+            int cap = size * 2;
+            kinds = Arrays.copyOf(kinds, cap);
+            ids = Arrays.copyOf(ids, cap);
+            subjects = Arrays.copyOf(subjects, cap);
+            marks = Arrays.copyOf(marks, cap);
+        }
+        kinds[size] = kind;
+        ids[size] = id;
+        subjects[size] = subject;
+        marks[size] = mark;
+        size++;
+    }
+
+    public String getName() { return name; }
+    public int size() { return size; }
+    public byte kindAt(int i) { return kinds[i]; }
+    public int idAt(int i) { return ids[i]; }
+    public int subjectAt(int i) { return subjects[i]; }
+    public int markAt(int i) { return marks[i]; }
+
+    /** operations of each kind, indexed like KIND_NAMES */
+    public int[] countByKind() {
+        int[] c = new int[KIND_NAMES.length];
+        for (int i = 0; i < size; i++) c[kinds[i]]++;
+        return c;
+    }
+
+    // ------------------ GENERATION ------------------
+
+    /**
+     * generate - count operations shaped by spec over the given cohort.
+     *
+     * Popularity ranks are mapped to students through a seeded shuffle, so the
+     * popular students are spread over the roster instead of sitting at the front.
+     * Adds take fresh IDs from firstNewId up; deletes remove the oldest student
+     * added by this workload (an add is generated instead while there is none),
+     * so the original cohort stays in place. Same inputs and seed, same workload.
+     */
+    public static Workload generate(WorkloadSpec spec, int[] cohortIds, int[] maxMarks, int firstNewId,
+                                    int count, long seed) {
+        if (cohortIds.length == 0) throw new IllegalArgumentException("Cohort is empty");
+        Random rnd = new Random(seed);
+        ZipfianGenerator zipf = new ZipfianGenerator(cohortIds.length, spec.getTheta());
+        int[] byRank = cohortIds.clone();
+        for (int i = byRank.length - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            int t = byRank[i];
+            byRank[i] = byRank[j];
+            byRank[j] = t;
+        }
+
+        Workload w = new Workload(spec.getName(), count);
+        ArrayDeque<Integer> added = new ArrayDeque<>();
+        int nextId = firstNewId;
+        boolean reading = true;
+        int runLeft = 0;
+        for (int k = 0; k < count; k++) {
+            if (--runLeft <= 0) {
+                reading = rnd.nextDouble() < spec.getReadRatio();
+                runLeft = runLength(spec.getBurst(), rnd);
+            }
+            if (reading) {
+                if (rnd.nextDouble() < spec.getAnalysisShare()) {
+                    w.add(ANALYSIS, 0, 0, 0);
+                } else {
+                    w.add(VIEW, byRank[zipf.next(rnd)], 0, 0);
+                }
+            } else if (maxMarks.length > 0 && rnd.nextDouble() < spec.getMarkShare()) {
+                int subj = rnd.nextInt(maxMarks.length);
+                w.add(MARK, byRank[zipf.next(rnd)], subj, rnd.nextInt(maxMarks[subj] + 1));
+            } else if (rnd.nextBoolean() && !added.isEmpty()) {
+                w.add(DELETE, added.pollFirst(), 0, 0);
+            } else {
+                added.addLast(nextId);
+                w.add(ADD, nextId++, 0, 0);
+            }
+        }
+        return w;
+    }
+
+    // geometric run length with the given mean
+    private static int runLength(double mean, Random rnd) {
+        if (mean <= 1) return 1;
+        double u = 1.0 - rnd.nextDouble(); // (0, 1]
+        return 1 + (int) (Math.log(u) / Math.log(1.0 - 1.0 / mean));
+    }
+
+    // ------------------ TRACE FILES ------------------
+
+    public void write(Path file) throws IOException {
+        try (BufferedWriter bw = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            bw.write("# school workload trace v1: " + name + ", " + size + " operations");
+            bw.newLine();
+            StringBuilder sb = new StringBuilder(32);
+            for (int i = 0; i < size; i++) {
+                sb.setLength(0);
+                sb.append(KIND_NAMES[kinds[i]]);
+                if (kinds[i] != ANALYSIS) sb.append(' ').append(ids[i]);
+                if (kinds[i] == MARK) sb.append(' ').append(subjects[i]).append(' ').append(marks[i]);
+                bw.write(sb.toString());
+                bw.newLine();
+            }
+        }
+    }
+
+    /** reads a trace; a line that is not one of the forms above is an error */
+    public static Workload read(Path file) throws IOException {
+        String fileName = file.getFileName().toString();
+        Workload w = new Workload(fileName, 1024);
+        try (BufferedReader br = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNo = 0;
+            while ((line = br.readLine()) != null) {
+                lineNo++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] p = line.split("\\s+");
+                try {
+                    switch (p[0].toUpperCase()) {
+                        case "VIEW" -> w.add(VIEW, Integer.parseInt(p[1]), 0, 0);
+                        case "MARK" -> w.add(MARK, Integer.parseInt(p[1]), Integer.parseInt(p[2]), Integer.parseInt(p[3]));
+                        case "ADD" -> w.add(ADD, Integer.parseInt(p[1]), 0, 0);
+                        case "DELETE" -> w.add(DELETE, Integer.parseInt(p[1]), 0, 0);
+                        case "ANALYSIS" -> w.add(ANALYSIS, 0, 0, 0);
+                        default -> throw new IOException(fileName + ":" + lineNo + ": unknown operation " + p[0]);
+                    }
+                } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                    throw new IOException(fileName + ":" + lineNo + ": malformed operation: " + line);
+                }
+            }
+        }
+        return w;
+    }
+}
@@ -0,0 +1,276 @@
+package com.school.processor.workload;
+
+import com.school.models.Student;
+import com.school.processor.ResultProcessor;
+import com.school.processor.StudentFileFormat;
+import com.school.processor.SubjectStats;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * WorkloadRunner - drives a ResultProcessor with a Workload from many threads.
+ *
+ * ResultProcessor is single-writer, so the runner does what a multi-user front
+ * end would have to: views and analysis runs share a read lock and run in
+ * parallel, every write takes the write lock (and saves through the processor's
+ * storage engine as usual). Threads claim operations in trace order from a
+ * shared cursor, so one student's operations normally run in order. Latency is
+ * measured per operation, lock wait included, since that is what a user waits for.
+ *
+ * Write amplification = bytes the process wrote (write calls, from /proc/self/io)
+ * divided by the size of the student records the writes changed, i.e. what
+ * would have to reach disk with ideal record-level storage.
+ */
+public class WorkloadRunner {
+
+    private final ResultProcessor processor;
+    private final int threads;
+    private final long maxMillis;
+
+    /** maxMillis caps the run time (0 = until the workload is done) */
+    public WorkloadRunner(ResultProcessor processor, int threads, long maxMillis) {
+        this.processor = processor;
+        this.threads = Math.max(1, threads);
+        this.maxMillis = maxMillis;
+    }
+
+    /** numbers of one run */
+    public static class Result {
+        private final String name;
+        private final long wallNanos;
+        private final long[][] latencies; // per kind, sorted nanos
+        private final int[] misses;       // per kind: target student (or subject) not there
+        private final long bytesWritten;  // -1 when the OS does not report it
+        private final long recordBytes;
+
+        Result(String name, long wallNanos, long[][] latencies, int[] misses, long bytesWritten, long recordBytes) {
+            this.name = name;
+            this.wallNanos = wallNanos;
+            this.latencies = latencies;
+            this.misses = misses;
+            this.bytesWritten = bytesWritten;
+            this.recordBytes = recordBytes;
+        }
+
+        public String getName() { return name; }
+        public double getSeconds() { return wallNanos / 1e9; }
+        public int getCount(int kind) { return latencies[kind].length; }
+        public int getMisses(int kind) { return misses[kind]; }
+        public long getBytesWritten() { return bytesWritten; }
+        public long getRecordBytes() { return recordBytes; }
+
+        public int getTotalCount() {
+            int n = 0;
+            for (long[] l : latencies) n += l.length;
+            return n;
+        }
+
+        public double getThroughput() {
+            return getTotalCount() / Math.max(1e-9, getSeconds());
+        }
+
+        /** latency in microseconds at quantile q (0..1), -1 if no such operation ran */
+        public double percentileMicros(int kind, double q) {
+            long[] l = latencies[kind];
+            if (l.length == 0) return -1;
+            int idx = (int) Math.min(l.length - 1, Math.ceil(q * l.length) - 1);
+            return l[Math.max(0, idx)] / 1e3;
+        }
+
+        /** -1 when unknown or nothing was written */
+        public double getWriteAmplification() {
+            return (bytesWritten < 0 || recordBytes == 0) ? -1 : (double) bytesWritten / recordBytes;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("%s: %,d ops in %.2f s = %,.0f ops/s%n", name, getTotalCount(), getSeconds(),
+                    getThroughput()));
+            sb.append(String.format("  %-9s %9s %7s %10s %10s %10s %10s %10s%n",
+                    "op", "count", "miss", "p50 us", "p95 us", "p99 us", "p99.9 us", "max us"));
+            for (int k = 0; k < latencies.length; k++) {
+                if (latencies[k].length == 0) continue;
+                sb.append(String.format("  %-9s %,9d %7d %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                        Workload.KIND_NAMES[k], latencies[k].length, misses[k], percentileMicros(k, 0.50),
+                        percentileMicros(k, 0.95), percentileMicros(k, 0.99), percentileMicros(k, 0.999),
+                        percentileMicros(k, 1.0)));
+            }
+            if (bytesWritten < 0) {
+                sb.append("  write amplification: n/a (no /proc/self/io)\n");
+            } else if (recordBytes == 0) {
+                sb.append(String.format("  written %.1f MB, no records changed%n", bytesWritten / 1e6));
+            } else {
+                sb.append(String.format("  written %.1f MB for %.1f KB of changed records: write amplification %,.0fx%n",
+                        bytesWritten / 1e6, recordBytes / 1e3, getWriteAmplification()));
+            }
+            return sb.toString();
+        }
+    }
+
+    // per-thread recording, merged at the end
+    private static class Recorder {
+        final long[][] lat = new long[Workload.KIND_NAMES.length][256];
+        final int[] count = new int[Workload.KIND_NAMES.length];
+        final int[] misses = new int[Workload.KIND_NAMES.length];
+        long recordBytes;
+
+        void record(int kind, long nanos) {
+            if (count[kind] == lat[kind].length) lat[kind] = Arrays.copyOf(lat[kind], count[kind] * 2);
+            lat[kind][count[kind]++] = nanos;
+        }
+    }
+
+    public Result run(Workload w) throws InterruptedException {
+        ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        AtomicInteger cursor = new AtomicInteger();
+        Recorder[] recorders = new Recorder[threads];
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        long deadline = (maxMillis > 0) ? System.nanoTime() + maxMillis * 1_000_000L : Long.MAX_VALUE;
+        for (int t = 0; t < threads; t++) {
+            Recorder r = recorders[t] = new Recorder();
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                int i;
+                while ((i = cursor.getAndIncrement()) < w.size() && System.nanoTime() < deadline) {
+                    long t0 = System.nanoTime();
+                    boolean hit = execute(w, i, lock, r);
+                    r.record(w.kindAt(i), System.nanoTime() - t0);
+                    if (!hit) r.misses[w.kindAt(i)]++;
+                }
+            }, "workload-" + t);
+            workers[t].start();
+        }
+
+        long written = processBytesWritten();
+        long t0 = System.nanoTime();
+        start.countDown();
+        for (Thread th : workers) th.join();
+        long wall = System.nanoTime() - t0;
+        long after = processBytesWritten();
+
+        long[][] lat = new long[Workload.KIND_NAMES.length][];
+        int[] misses = new int[Workload.KIND_NAMES.length];
+        long recordBytes = 0;
+        for (int k = 0; k < lat.length; k++) {
+            int n = 0;
+            for (Recorder r : recorders) n += r.count[k];
+            lat[k] = new long[n];
+            int pos = 0;
+            for (Recorder r : recorders) {
+                System.arraycopy(r.lat[k], 0, lat[k], pos, r.count[k]);
+                pos += r.count[k];
+                misses[k] += r.misses[k];
+            }
+            Arrays.sort(lat[k]);
+        }
+        for (Recorder r : recorders) recordBytes += r.recordBytes;
+        return new Result(w.getName(), wall, lat, misses, (written < 0 || after < 0) ? -1 : after - written, recordBytes);
+    }
+
+    // one operation; false when its student (or subject) does not exist
+    private boolean execute(Workload w, int i, ReentrantReadWriteLock lock, Recorder r) {
+        int id = w.idAt(i);
+        switch (w.kindAt(i)) {
+            case Workload.VIEW -> {
+                lock.readLock().lock();
+                try {
+                    return processor.renderStudentDetails(id) != null;
+                } finally {
+                    lock.readLock().unlock();
+                }
+            }
+            case Workload.ANALYSIS -> {
+                lock.readLock().lock();
+                try {
+                    // the figures behind the Subject-wise Analysis screen, without printing
+                    int passPercent = processor.getPassPercent();
+                    for (int j = 0; j < processor.getSubjectCount(); j++) {
+                        SubjectStats st = processor.getSubjectStats(j);
+                        st.getMean();
+                        st.getMedian();
+                        st.countAtLeast(st.getMaxMarks() * passPercent / 100.0);
+                        processor.getSubjectTopper(j);
+                    }
+                    return processor.getStudentCount() > 0;
+                } finally {
+                    lock.readLock().unlock();
+                }
+            }
+            default -> {
+                lock.writeLock().lock();
+                try {
+                    return write(w, i, id, r);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        }
+    }
+
+    // under the write lock; checks first so the processor prints nothing for a miss
+    private boolean write(Workload w, int i, int id, Recorder r) {
+        Student s = processor.getStudentById(id);
+        switch (w.kindAt(i)) {
+            case Workload.MARK -> {
+                int j = w.subjectAt(i);
+                if (s == null || j >= processor.getSubjectCount()
+                        || w.markAt(i) > processor.getSubjectsArray()[j].getMaxMarks()) return false;
+                if (!processor.updateMarkForStudent(id, processor.getSubjectsArray()[j].getName(), w.markAt(i))) {
+                    return false;
+                }
+                r.recordBytes += recordSize(s);
+                return true;
+            }
+            case Workload.ADD -> {
+                if (s != null) return false;
+                Student added = new Student(id, "Load " + id, 16, processor.getSubjectCount());
+                if (!processor.addStudent(added)) return false;
+                r.recordBytes += recordSize(added);
+                return true;
+            }
+            case Workload.DELETE -> {
+                if (s == null) return false;
+                long size = recordSize(s);
+                if (!processor.deleteStudent(id)) return false; // archived students cannot be deleted
+                r.recordBytes += size;
+                return true;
+            }
+            default -> {
+                return false;
+            }
+        }
+    }
+
+    private static long recordSize(Student s) {
+        return StudentFileFormat.format(s).getBytes(Charset.defaultCharset()).length + 1;
+    }
+
+    /** bytes this process has passed to write calls so far (Linux), or -1 */
+    public static long processBytesWritten() {
+        Path io = Path.of("/proc/self/io");
+        if (!Files.isReadable(io)) return -1;
+        try {
+            List<String> lines = Files.readAllLines(io);
+            for (String line : lines) {
+                if (line.startsWith("wchar:")) return Long.parseLong(line.substring(6).trim());
+            }
+        } catch (IOException | NumberFormatException e) {
+            return -1;
+        }
+        return -1;
+    }
+}
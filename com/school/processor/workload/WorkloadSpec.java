@@ -0,0 +1,76 @@
+package com.school.processor.workload;
+
+/**
+ * WorkloadSpec - the shape of one synthetic scenario.
+ *
+ * readRatio      share of operations that only read (result sheet views and analysis runs)
+ * analysisShare  share of the reads that are whole-cohort analysis runs instead of one view
+ * markShare      share of the writes that enter a mark; the rest are adds and deletes
+ *                in equal numbers, so the cohort size stays about the same
+ * theta          Zipfian skew of which student is touched (0 = uniform, 0.99 = heavy)
+ * burst          mean length of a run of reads or writes (1 = independent draws);
+ *                runs model a class viewing results, then an examiner entering a sheet
+ */
+public class WorkloadSpec {
+
+    private final String name;
+    private final double readRatio;
+    private final double analysisShare;
+    private final double markShare;
+    private final double theta;
+    private final double burst;
+
+    public WorkloadSpec(String name, double readRatio, double analysisShare, double markShare,
+                        double theta, double burst) {
+        if (readRatio < 0 || readRatio > 1 || analysisShare < 0 || analysisShare > 1
+                || markShare < 0 || markShare > 1) {
+            throw new IllegalArgumentException("Ratios must be between 0 and 1");
+        }
+        if (burst < 1) throw new IllegalArgumentException("burst must be at least 1");
+        this.name = name;
+        this.readRatio = readRatio;
+        this.analysisShare = analysisShare;
+        this.markShare = markShare;
+        this.theta = theta;
+        this.burst = burst;
+    }
+
+    /** the built-in scenarios, in the order the load test runs them */
+    public static final WorkloadSpec[] PRESETS = {
+        new WorkloadSpec("browse",     0.98, 0.01, 0.90, 0.99, 1),
+        new WorkloadSpec("exam-week",  0.70, 0.02, 0.95, 0.99, 20),
+        new WorkloadSpec("enrolment",  0.60, 0.01, 0.20, 0.80, 5),
+        new WorkloadSpec("uniform",    0.90, 0.01, 0.90, 0.0,  1),
+    };
+
+    /** preset by name (case-insensitive), or null */
+    public static WorkloadSpec preset(String name) {
+        for (WorkloadSpec s : PRESETS) {
+            if (s.name.equalsIgnoreCase(name)) return s;
+        }
+        return null;
+    }
+
+    /** same scenario with a different read ratio */
+    public WorkloadSpec withReadRatio(double ratio) {
+        return new WorkloadSpec(name + "@" + Math.round(ratio * 100) + "r", ratio, analysisShare, markShare, theta, burst);
+    }
+
+    /** same scenario with a different skew */
+    public WorkloadSpec withTheta(double t) {
+        return new WorkloadSpec(name + "@z" + t, readRatio, analysisShare, markShare, t, burst);
+    }
+
+    public String getName() { return name; }
+    public double getReadRatio() { return readRatio; }
+    public double getAnalysisShare() { return analysisShare; }
+    public double getMarkShare() { return markShare; }
+    public double getTheta() { return theta; }
+    public double getBurst() { return burst; }
+
+    @Override
+    public String toString() {
+        return String.format("%s (reads %.0f%%, analysis %.0f%% of reads, marks %.0f%% of writes, theta %.2f, burst %.0f)",
+                name, readRatio * 100, analysisShare * 100, markShare * 100, theta, burst);
+    }
+}
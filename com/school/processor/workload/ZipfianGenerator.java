@@ -0,0 +1,53 @@
+package com.school.processor.workload;
+
+import java.util.Random;
+
+/**
+ * ZipfianGenerator - ranks 0..n-1 where rank k is drawn with probability
+ * proportional to 1 / (k+1)^theta (Gray et al., "Quickly generating
+ * billion-record synthetic databases"; the same method YCSB uses).
+ *
+ * theta = 0 is uniform; 0.99 is the usual "few very popular items" shape.
+ * Setup is one O(n) pass for the zeta constant, each draw is O(1).
+ * Not thread-safe: give every thread its own Random, or draw from one thread.
+ */
+public class ZipfianGenerator {
+
+    private final int n;
+    private final double theta;
+    private final double alpha;
+    private final double zetaN;
+    private final double eta;
+    private final double halfPowTheta;
+
+    public ZipfianGenerator(int n, double theta) {
+        if (n < 1) throw new IllegalArgumentException("Need at least one item");
+        if (theta < 0 || theta >= 1) throw new IllegalArgumentException("theta must be in [0, 1)");
+        this.n = n;
+        this.theta = theta;
+        this.alpha = 1.0 / (1.0 - theta);
+        this.zetaN = zeta(n, theta);
+        this.halfPowTheta = Math.pow(0.5, theta);
+        double zeta2 = zeta(Math.min(n, 2), theta);
+        this.eta = (n <= 2) ? 1.0 : (1 - Math.pow(2.0 / n, 1 - theta)) / (1 - zeta2 / zetaN);
+    }
+
+    private static double zeta(int n, double theta) {
+        double sum = 0;
+        for (int i = 1; i <= n; i++) sum += 1.0 / Math.pow(i, theta);
+        return sum;
+    }
+
+    /** next rank, 0 = most popular */
+    public int next(Random rnd) {
+        double u = rnd.nextDouble();
+        double uz = u * zetaN;
+        if (uz < 1.0) return 0;
+        if (n > 1 && uz < 1.0 + halfPowTheta) return 1;
+        int k = (int) (n * Math.pow(eta * u - eta + 1, alpha));
+        return Math.min(Math.max(k, 0), n - 1);
+    }
+
+    public int getItemCount() { return n; }
+    public double getTheta() { return theta; }
+}
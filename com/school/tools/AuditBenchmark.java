@@ -0,0 +1,85 @@
+package com.school.tools;
+
+import com.school.models.Subject;
+import com.school.processor.ResultProcessor;
+import com.school.processor.audit.AuditLog;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * AuditBenchmark - cost of the audit trail on the mark-update path, log size,
+ * and the speed of point-in-time result sheets and of reopening the log.
+ *
+ * Updates run inside a batch so that rewriting students.txt (which the
+ * unbatched path does after every change) does not hide the difference.
+ *
+ * Usage: java -cp <classes> com.school.tools.AuditBenchmark [students] [updates]
+ */
+public class AuditBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int students = (args.length > 0) ? Integer.parseInt(args[0]) : 10_000;
+        int updates = (args.length > 1) ? Integer.parseInt(args[1]) : 500_000;
+
+        run(students, updates / 5, false, null); // warm-up, both paths
+        run(students, updates / 5, true, null);
+        long off = run(students, updates, false, null);
+        Path dir = DatasetGenerator.tempDir("audit-bench-");
+        long on = run(students, updates, true, dir);
+
+        System.out.printf("%-28s %10.1f ns/update%n", "mark update, audit off:", (double) off / updates);
+        System.out.printf("%-28s %10.1f ns/update  (+%.1f ns)%n", "mark update, audit on:",
+                (double) on / updates, (double) (on - off) / updates);
+
+        // reopen: scan + index rebuild
+        System.setProperty("school.audit", "true");
+        long t0 = System.nanoTime();
+        ResultProcessor rp = new ResultProcessor(students, 10, dir.toString());
+        long openMs = (System.nanoTime() - t0) / 1_000_000;
+        AuditLog log = rp.getAuditLog();
+        System.out.printf("%-28s %10d records, %.1f bytes/record%n", "log:",
+                log.getRecordCount(), (double) log.getSizeBytes() / log.getRecordCount());
+        System.out.printf("%-28s %10d ms (processor + log scan)%n", "reopen:", openMs);
+
+        // as-of sheets at random past times
+        long from = Files.getLastModifiedTime(dir.resolve("students.txt")).toMillis() - 60_000;
+        long to = System.currentTimeMillis();
+        Random rnd = new Random(7);
+        int queries = 20_000;
+        long[] ns = new long[queries];
+        for (int q = 0; q < queries; q++) {
+            int id = rp.getStudentsArray()[rnd.nextInt(rp.getStudentCount())].getId();
+            long when = from + (long) (rnd.nextDouble() * (to - from));
+            long s = System.nanoTime();
+            rp.renderStudentDetailsAsOf(id, when);
+            ns[q] = System.nanoTime() - s;
+        }
+        Arrays.sort(ns);
+        System.out.printf("%-28s p50 %.1f us, p99 %.1f us%n", "sheet as of time:",
+                ns[queries / 2] / 1e3, ns[queries * 99 / 100] / 1e3);
+    }
+
+    // nanoseconds for `updates` random mark changes on a fresh dataset
+    private static long run(int students, int updates, boolean audit, Path dir) throws Exception {
+        if (dir == null) dir = DatasetGenerator.tempDir("audit-bench-");
+        DatasetGenerator.writeDataset(dir, students, 42L);
+        System.setProperty("school.audit", String.valueOf(audit));
+        ResultProcessor rp = new ResultProcessor(students, 10, dir.toString());
+        Subject[] subjects = rp.getSubjectsArray();
+        int subjectCount = rp.getSubjectCount();
+        Random rnd = new Random(11);
+
+        rp.beginBatch();
+        long start = System.nanoTime();
+        for (int i = 0; i < updates; i++) {
+            int id = rp.getStudentsArray()[rnd.nextInt(rp.getStudentCount())].getId();
+            rp.updateMarkForStudent(id, subjects[rnd.nextInt(subjectCount)].getName(), rnd.nextInt(101));
+        }
+        long elapsed = System.nanoTime() - start;
+        rp.endBatch();
+        return elapsed;
+    }
+}
@@ -0,0 +1,50 @@
+package com.school.tools;
+
+import com.school.processor.compare.ComparisonEngine;
+import com.school.processor.compare.YearDataset;
+import com.school.processor.GradingConfig;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CompareYears - year-over-year comparison of several dataset directories
+ * (one subjects.txt / students.txt pair per academic year).
+ *
+ * Usage:
+ *   java com.school.tools.CompareYears [--memory-rows N] [--spill dir] [label=]dir [label=]dir ...
+ *
+ * Give the years oldest first; the label defaults to the directory name.
+ * --memory-rows  join rows kept in memory before spilling to partition files
+ * --spill        where partition files go (default: a temporary directory)
+ */
+public class CompareYears {
+
+    public static void main(String[] args) throws Exception {
+        int memoryRows = Integer.getInteger("school.compare.memoryRows", 500_000);
+        File spill = null;
+        List<String> specs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--memory-rows" -> memoryRows = Integer.parseInt(args[++i]);
+                case "--spill" -> spill = new File(args[++i]);
+                default -> specs.add(args[i]);
+            }
+        }
+        if (specs.isEmpty()) {
+            System.out.println("Usage: java com.school.tools.CompareYears [--memory-rows N] [--spill dir] [label=]dir ...");
+            return;
+        }
+
+        ComparisonEngine engine = new ComparisonEngine(GradingConfig.DEFAULT, memoryRows, spill);
+        List<YearDataset> years = new ArrayList<>();
+        for (String spec : specs) {
+            int eq = spec.indexOf('=');
+            File dir = new File(eq < 0 ? spec : spec.substring(eq + 1));
+            String label = eq < 0 ? dir.getName() : spec.substring(0, eq);
+            years.add(engine.open(label, dir));
+        }
+        System.out.print(engine.compare(years).format());
+    }
+}
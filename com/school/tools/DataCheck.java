@@ -0,0 +1,40 @@
+package com.school.tools;
+
+import com.school.processor.ResultProcessor;
+import com.school.processor.validate.ValidationReport;
+
+/**
+ * DataCheck - validates subjects.txt / students.txt and lists every problem
+ * with its line number; --repair fixes what can be fixed (see DataValidator).
+ * Archiving and auditing are switched off so the check changes nothing else.
+ *
+ * Usage:
+ *   java com.school.tools.DataCheck [--data dir] [--repair]
+ */
+public class DataCheck {
+
+    public static void main(String[] args) {
+        String dataDir = null;
+        boolean repair = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--data" -> dataDir = args[++i];
+                case "--repair" -> repair = true;
+                default -> {
+                    System.out.println("Unknown option: " + args[i]);
+                    return;
+                }
+            }
+        }
+        System.setProperty("school.storage", "text"); // the check is about the text files
+        System.setProperty("school.validate", "true");
+        System.setProperty("school.repair", String.valueOf(repair));
+        System.setProperty("school.archive", "false");
+        System.setProperty("school.audit", "false");
+
+        ResultProcessor rp = new ResultProcessor(Integer.getInteger("school.maxStudents", 1_000_000), 10, dataDir);
+        ValidationReport report = rp.getLastValidation();
+        System.out.println();
+        System.out.print(report == null ? "students.txt not found.\n" : report.toString());
+    }
+}
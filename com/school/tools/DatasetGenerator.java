@@ -0,0 +1,101 @@
+package com.school.tools;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * DatasetGenerator - writes synthetic subjects.txt / students.txt pairs
+ * for benchmarks and load tests. Uses the same line formats as ResultProcessor.
+ *
+ * Usage: java com.school.tools.DatasetGenerator <dir> <studentCount> [seed]
+ */
+public class DatasetGenerator {
+
+    public static final String[] SUBJECT_NAMES = {"Java", "Python", "Maths", "DBMS", "DECA"};
+    private static final String[] FIRST_NAMES = {
+        "Aarav", "Diya", "Kabir", "Ananya", "Vihaan", "Isha", "Arjun", "Meera", "Rohan", "Sara",
+        "Kunal", "Nisha", "Aditya", "Priya", "Dev", "Tara", "Yash", "Riya", "Neel", "Kavya"
+    };
+
+    public static void writeDataset(Path dir, int studentCount, long seed) throws IOException {
+        Files.createDirectories(dir);
+        try (BufferedWriter bw = Files.newBufferedWriter(dir.resolve("subjects.txt"))) {
+            for (String name : SUBJECT_NAMES) {
+                bw.write(name + "|100");
+                bw.newLine();
+            }
+        }
+
+        Random rnd = new Random(seed);
+        try (BufferedWriter bw = Files.newBufferedWriter(dir.resolve("students.txt"))) {
+            StringBuilder sb = new StringBuilder(96);
+            for (int i = 1; i <= studentCount; i++) {
+                sb.setLength(0);
+                String name = FIRST_NAMES[rnd.nextInt(FIRST_NAMES.length)] + i;
+                int age = 17 + rnd.nextInt(6);
+                boolean grad = rnd.nextInt(4) == 0;
+                sb.append(i).append('|').append(name).append('|').append(age).append('|');
+                if (grad) {
+                    sb.append("true|").append("batch ").append(2020 + rnd.nextInt(6)).append('|')
+                      .append(rnd.nextBoolean()).append('|');
+                } else {
+                    sb.append("false||false|");
+                }
+                for (int j = 0; j < SUBJECT_NAMES.length; j++) {
+                    sb.append(randomMark(rnd));
+                    if (j < SUBJECT_NAMES.length - 1) sb.append(',');
+                }
+                bw.append(sb);
+                bw.newLine();
+            }
+        }
+    }
+
+    /**
+     * tempDir - a new temporary directory for a benchmark or demo dataset. It is
+     * deleted with everything in it when the JVM exits, unless the run was started
+     * with -Dschool.keepTemp=true.
+     */
+    public static Path tempDir(String prefix) throws IOException {
+        Path dir = Files.createTempDirectory(prefix);
+        if (Boolean.getBoolean("school.keepTemp")) {
+            System.out.println("Note: keeping " + dir);
+        } else {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> deleteTree(dir)));
+        }
+        return dir;
+    }
+
+    /** deleteTree - removes dir and everything under it, as far as possible */
+    public static void deleteTree(Path dir) {
+        if (!Files.exists(dir)) return;
+        try (Stream<Path> walk = Files.walk(dir)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println("Warning: could not remove " + dir + ": " + e.getMessage());
+        }
+    }
+
+    /** roughly bell-shaped marks around 65, with ~3% not entered (-1) */
+    public static int randomMark(Random rnd) {
+        if (rnd.nextInt(100) < 3) return -1;
+        int m = (int) Math.round(65 + rnd.nextGaussian() * 15);
+        return Math.max(0, Math.min(100, m));
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: java com.school.tools.DatasetGenerator <dir> <studentCount> [seed]");
+            return;
+        }
+        long seed = (args.length >= 3) ? Long.parseLong(args[2]) : 42L;
+        writeDataset(Path.of(args[0]), Integer.parseInt(args[1]), seed);
+        System.out.println("Wrote " + args[1] + " students to " + args[0]);
+    }
+}
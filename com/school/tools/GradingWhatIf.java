@@ -0,0 +1,87 @@
+package com.school.tools;
+
+import com.school.processor.GradingConfig;
+import com.school.processor.GradingSimulator;
+import com.school.processor.MarksMatrix;
+import com.school.processor.ResultProcessor;
+import com.school.processor.SimulationResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * GradingWhatIf - command-line front end for the grading simulation.
+ *
+ * Usage:
+ *   java com.school.tools.GradingWhatIf [--data dir] [--synthetic N] candidate...
+ * candidate = name:passPercent:c1,c2,c3,c4,c5   (cut-offs for A+,A,B,C,D; below the last is F)
+ *   e.g.  strict:45:92,82,72,62,52   lenient:35:90,80,70,60,50
+ *
+ * --data       dataset directory (default: working directory)
+ * --synthetic  skip the files and simulate N generated students (for timing)
+ */
+public class GradingWhatIf {
+
+    public static void main(String[] args) {
+        String dataDir = null;
+        int synthetic = 0;
+        List<GradingConfig> candidates = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--data")) dataDir = args[++i];
+            else if (args[i].equals("--synthetic")) synthetic = Integer.parseInt(args[++i]);
+            else candidates.add(parse(args[i]));
+        }
+        if (candidates.isEmpty()) {
+            System.out.println("Usage: java com.school.tools.GradingWhatIf [--data dir] [--synthetic N] name:pass:c1,c2,c3,c4,c5 ...");
+            return;
+        }
+
+        MarksMatrix matrix;
+        if (synthetic > 0) {
+            matrix = syntheticMatrix(synthetic, DatasetGenerator.SUBJECT_NAMES.length, 42L);
+        } else {
+            ResultProcessor rp = new ResultProcessor(Integer.getInteger("school.maxStudents", 1_000_000), 10, dataDir);
+            matrix = rp.snapshotMarks();
+        }
+
+        long start = System.nanoTime();
+        SimulationResult[] results = GradingSimulator.simulate(matrix, GradingConfig.DEFAULT,
+                candidates.toArray(new GradingConfig[0]));
+        long micros = (System.nanoTime() - start) / 1000;
+
+        for (SimulationResult r : results) {
+            System.out.println(r.format());
+        }
+        System.out.printf("Simulated %d candidate(s) over %d students in %.1f ms%n",
+                results.length, matrix.getStudentCount(), micros / 1000.0);
+    }
+
+    static GradingConfig parse(String spec) {
+        String[] parts = spec.split(":");
+        if (parts.length != 3) throw new IllegalArgumentException("Expected name:pass:c1,c2,...  got " + spec);
+        String[] cs = parts[2].split(",");
+        double[] cutoffs = new double[cs.length];
+        for (int i = 0; i < cs.length; i++) cutoffs[i] = Double.parseDouble(cs[i].trim());
+        if (cutoffs.length == GradingConfig.DEFAULT.getGradeCount() - 1) {
+            return GradingConfig.withDefaults(parts[0], Integer.parseInt(parts[1]), cutoffs);
+        }
+        // custom number of bands: label them G1..Gn
+        String[] labels = new String[cutoffs.length + 1];
+        for (int i = 0; i < labels.length; i++) labels[i] = "G" + (i + 1);
+        return new GradingConfig(parts[0], Integer.parseInt(parts[1]), cutoffs, labels);
+    }
+
+    static MarksMatrix syntheticMatrix(int students, int subjects, long seed) {
+        Random rnd = new Random(seed);
+        double[][] cols = new double[subjects][students];
+        int[] max = new int[subjects];
+        int[] ids = new int[students];
+        for (int j = 0; j < subjects; j++) max[j] = 100;
+        for (int i = 0; i < students; i++) {
+            ids[i] = i + 1;
+            for (int j = 0; j < subjects; j++) cols[j][i] = DatasetGenerator.randomMark(rnd);
+        }
+        return new MarksMatrix(cols, max, ids);
+    }
+}
@@ -0,0 +1,120 @@
+package com.school.tools;
+
+import com.school.models.Student;
+import com.school.models.Subject;
+import com.school.processor.GradingConfig;
+import com.school.processor.MarksKernels;
+import com.school.processor.MarksMatrix;
+import com.school.processor.ResultProcessor;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * KernelBenchmark - cohort-wide grade and PASS/FAIL computation: the
+ * per-student methods (calculateGrade + checkPass) vs the scalar and vector
+ * MarksKernels (averages + gradeIndexes + passFlags), the same work in every
+ * row. The "+ snapshot" row also builds the MarksMatrix, as regradeAll does.
+ * Also checks that all of them agree, percentages included (untimed).
+ *
+ * Usage:
+ *   java --add-modules jdk.incubator.vector -cp <classes> com.school.tools.KernelBenchmark [students] [rounds]
+ * Without --add-modules only the per-student and scalar rows are printed.
+ */
+public class KernelBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int n = (args.length > 0) ? Integer.parseInt(args[0]) : 200_000;
+        int rounds = (args.length > 1) ? Integer.parseInt(args[1]) : 15;
+
+        Path dir = DatasetGenerator.tempDir("kernel-bench-");
+        DatasetGenerator.writeDataset(dir, n, 42L);
+        ResultProcessor rp = new ResultProcessor(n, 10, dir.toString());
+        Student[] students = rp.getStudentsArray();
+        Subject[] subjects = rp.getSubjectsArray();
+        int count = rp.getStudentCount();
+        MarksMatrix m = rp.snapshotMarks();
+        System.out.println("Students: " + count + ", subjects: " + m.getSubjectCount());
+
+        // reference results from the per-student methods
+        int[] refBand = new int[count];
+        boolean[] refPass = new boolean[count];
+        long perStudent = medianNanos(rounds, () -> {
+            for (int i = 0; i < count; i++) {
+                String g = rp.calculateGrade(students[i], subjects);
+                refBand[i] = g.length(); // keep the work observable; real check below
+                refPass[i] = rp.checkPass(students[i]);
+            }
+        });
+        double[] refPct = new double[count];
+        for (int i = 0; i < count; i++) {
+            refBand[i] = indexOf(rp.calculateGrade(students[i], subjects));
+            refPct[i] = sheetPercentage(students[i], subjects, m.getSubjectCount());
+        }
+
+        System.out.printf("%-30s | %10s | %8s | %s\n", "Implementation", "Median ms", "Speedup", "Matches");
+        System.out.println("-------------------------------------------------------------------");
+        System.out.printf("%-30s | %10.2f | %8s | %s\n", "per-student methods", perStudent / 1e6, "1.00x", "-");
+
+        run(MarksKernels.scalar().name(), MarksKernels.scalar(), () -> m, count, rounds, perStudent, refBand, refPass, refPct);
+        run(MarksKernels.scalar().name() + " + snapshot", MarksKernels.scalar(), rp::snapshotMarks, count, rounds,
+                perStudent, refBand, refPass, refPct);
+        MarksKernels vector = MarksKernels.vector();
+        if (vector != null) {
+            run(vector.name(), vector, () -> m, count, rounds, perStudent, refBand, refPass, refPct);
+            run(vector.name() + " + snapshot", vector, rp::snapshotMarks, count, rounds,
+                    perStudent, refBand, refPass, refPct);
+        } else {
+            System.out.println("(vector kernels unavailable: run with --add-modules jdk.incubator.vector)");
+        }
+    }
+
+    private static void run(String label, MarksKernels k, Supplier<MarksMatrix> source, int count, int rounds,
+                            long baseline, int[] refBand, boolean[] refPass, double[] refPct) {
+        double[] avg = new double[count];
+        double[] pct = new double[count];
+        int[] band = new int[count];
+        boolean[] pass = new boolean[count];
+        long t = medianNanos(rounds, () -> {
+            MarksMatrix m = source.get();
+            k.averages(m, avg);
+            k.gradeIndexes(avg, count, GradingConfig.DEFAULT, band);
+            k.passFlags(m, GradingConfig.DEFAULT.getPassPercent(), pass);
+        });
+        k.percentages(source.get(), pct);
+        boolean ok = Arrays.equals(band, refBand) && Arrays.equals(pass, refPass) && Arrays.equals(pct, refPct);
+        System.out.printf("%-30s | %10.2f | %7.2fx | %s\n", label, t / 1e6, (double) baseline / t, ok ? "yes" : "NO");
+    }
+
+    private static long medianNanos(int rounds, Runnable r) {
+        for (int i = 0; i < 5; i++) r.run(); // warm-up / JIT
+        long[] times = new long[rounds];
+        for (int i = 0; i < rounds; i++) {
+            long start = System.nanoTime();
+            r.run();
+            times[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(times);
+        return times[rounds / 2];
+    }
+
+    /** percentage exactly as renderStudentDetails computes it */
+    private static double sheetPercentage(Student s, Subject[] subjects, int subjectCount) {
+        double totalObtained = 0.0;
+        double totalMax = 0.0;
+        for (int i = 0; i < subjectCount; i++) {
+            double m = s.getMarkAt(i);
+            if (m != -1) totalObtained += m;
+            totalMax += subjects[i].getMaxMarks();
+        }
+        return (totalMax == 0) ? 0.0 : (totalObtained * 100.0 / totalMax);
+    }
+
+    private static int indexOf(String grade) {
+        for (int i = 0; i < GradingConfig.DEFAULT.getGradeCount(); i++) {
+            if (GradingConfig.DEFAULT.getLabel(i).equals(grade)) return i;
+        }
+        return -1;
+    }
+}
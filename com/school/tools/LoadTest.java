@@ -0,0 +1,159 @@
+package com.school.tools;
+
+import com.school.models.Student;
+import com.school.processor.ResultProcessor;
+import com.school.processor.storage.StorageEngine;
+import com.school.processor.storage.TextFileStorageEngine;
+import com.school.processor.workload.Workload;
+import com.school.processor.workload.WorkloadRunner;
+import com.school.processor.workload.WorkloadSpec;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * LoadTest - end-to-end load test of ResultProcessor with synthetic or recorded traffic.
+ *
+ * Every scenario starts from a fresh copy of the same cohort, stored with the
+ * engine chosen by -Dschool.storage, and reports throughput, latency
+ * percentiles per operation and write amplification (see WorkloadRunner).
+ *
+ * Usage:
+ *   java com.school.tools.LoadTest [--students N] [--data dir] [--scenario browse,exam-week,...]
+ *        [--read-ratio R] [--theta T] [--ops N] [--threads N] [--seconds S]
+ *        [--record dir] [--replay trace] [--seed N]
+ *
+ *   --data      take the cohort from dir (it is copied, never changed) instead of generating N students
+ *   --scenario  presets: browse, exam-week, enrolment, uniform (default: all)
+ *   --record    also write each generated workload to dir/<scenario>.trace
+ *   --replay    run a trace file (format in Workload) instead of generated scenarios
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        int students = 20_000;
+        String dataDir = null;
+        String scenarios = null;
+        double readRatio = -1;
+        double theta = -1;
+        int ops = 50_000;
+        int threads = 8;
+        int seconds = 10;
+        String recordDir = null;
+        String replay = null;
+        long seed = 42L;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--students" -> students = Integer.parseInt(args[++i]);
+                case "--data" -> dataDir = args[++i];
+                case "--scenario" -> scenarios = args[++i];
+                case "--read-ratio" -> readRatio = Double.parseDouble(args[++i]);
+                case "--theta" -> theta = Double.parseDouble(args[++i]);
+                case "--ops" -> ops = Integer.parseInt(args[++i]);
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--seconds" -> seconds = Integer.parseInt(args[++i]);
+                case "--record" -> recordDir = args[++i];
+                case "--replay" -> replay = args[++i];
+                case "--seed" -> seed = Long.parseLong(args[++i]);
+                default -> {
+                    System.out.println("Unknown option: " + args[i]);
+                    return;
+                }
+            }
+        }
+        System.setProperty("school.archive", "false");
+        System.setProperty("school.audit", System.getProperty("school.audit", "false"));
+
+        // the cohort every scenario starts from
+        Path source;
+        if (dataDir != null) {
+            source = Path.of(dataDir);
+        } else {
+            source = DatasetGenerator.tempDir("loadtest-cohort-");
+            DatasetGenerator.writeDataset(source, students, seed);
+        }
+        ResultProcessor cohort = new ResultProcessor(Integer.getInteger("school.maxStudents", 1_000_000), 10,
+                source.toString(), new TextFileStorageEngine(source.toString()));
+        if (cohort.getStudentCount() == 0) {
+            System.out.println("No students in " + source);
+            return;
+        }
+        int[] ids = new int[cohort.getStudentCount()];
+        int maxId = 0;
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = cohort.getStudentsArray()[i].getId();
+            maxId = Math.max(maxId, ids[i]);
+        }
+        int[] maxMarks = new int[cohort.getSubjectCount()];
+        for (int j = 0; j < maxMarks.length; j++) maxMarks[j] = cohort.getSubjectsArray()[j].getMaxMarks();
+        System.out.printf("Cohort: %,d students, %d subjects; storage %s; %d threads, at most %d s per scenario, CPUs: %d%n",
+                ids.length, maxMarks.length, System.getProperty("school.storage", "text"), threads, seconds,
+                Runtime.getRuntime().availableProcessors());
+
+        List<Workload> workloads = new ArrayList<>();
+        if (replay != null) {
+            workloads.add(Workload.read(Path.of(replay)));
+        } else {
+            for (WorkloadSpec spec : selectSpecs(scenarios, readRatio, theta)) {
+                System.out.println("Scenario " + spec);
+                Workload w = Workload.generate(spec, ids, maxMarks, maxId + 1, ops, seed);
+                if (recordDir != null) {
+                    Path dir = Files.createDirectories(Path.of(recordDir));
+                    w.write(dir.resolve(spec.getName() + ".trace"));
+                }
+                workloads.add(w);
+            }
+        }
+
+        List<WorkloadRunner.Result> results = new ArrayList<>();
+        for (Workload w : workloads) {
+            int[] byKind = w.countByKind();
+            int added = byKind[Workload.ADD];
+            ResultProcessor rp = freshCopy(cohort, ids.length + added);
+            WorkloadRunner.Result r = new WorkloadRunner(rp, threads, seconds * 1000L).run(w);
+            rp.getStorage().close();
+            System.out.println();
+            System.out.print(r);
+            results.add(r);
+        }
+
+        System.out.println();
+        System.out.printf("%-20s %12s %12s %12s %12s%n", "scenario", "ops/s", "view p99 us", "mark p99 us", "write amp.");
+        for (WorkloadRunner.Result r : results) {
+            System.out.printf("%-20s %,12.0f %12.1f %12.1f %12s%n", r.getName(), r.getThroughput(),
+                    r.percentileMicros(Workload.VIEW, 0.99), r.percentileMicros(Workload.MARK, 0.99),
+                    r.getWriteAmplification() < 0 ? "n/a" : String.format("%,.0fx", r.getWriteAmplification()));
+        }
+    }
+
+    private static List<WorkloadSpec> selectSpecs(String names, double readRatio, double theta) {
+        List<WorkloadSpec> specs = new ArrayList<>();
+        if (names == null) {
+            specs.addAll(List.of(WorkloadSpec.PRESETS));
+        } else {
+            for (String name : names.split(",")) {
+                WorkloadSpec s = WorkloadSpec.preset(name.trim());
+                if (s == null) throw new IllegalArgumentException("Unknown scenario: " + name);
+                specs.add(s);
+            }
+        }
+        for (int i = 0; i < specs.size(); i++) {
+            if (readRatio >= 0) specs.set(i, specs.get(i).withReadRatio(readRatio));
+            if (theta >= 0) specs.set(i, specs.get(i).withTheta(theta));
+        }
+        return specs;
+    }
+
+    // a new data directory holding the cohort in the configured storage engine
+    private static ResultProcessor freshCopy(ResultProcessor cohort, int capacity) throws Exception {
+        Path dir = DatasetGenerator.tempDir("loadtest-run-");
+        try (StorageEngine engine = StorageEngine.open(dir.toString())) {
+            engine.saveSchema(cohort.getSchema());
+            Student[] roster = cohort.getStudentsArray();
+            engine.saveStudents(roster, cohort.getStudentCount(), cohort.getSchema());
+        }
+        return new ResultProcessor(capacity, 10, dir.toString());
+    }
+}
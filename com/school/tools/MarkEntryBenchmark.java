@@ -0,0 +1,126 @@
+package com.school.tools;
+
+import com.school.models.Student;
+import com.school.models.Subject;
+import com.school.processor.MarkEntrySession;
+import com.school.processor.ResultProcessor;
+
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * MarkEntryBenchmark - throughput of concurrent mark entry.
+ *
+ * Writers are spread over the subjects (writer w enters subject w % subjects
+ * for random students). Compares:
+ *   - one lock, grade recomputed inline on every mark (what updateMarkForStudent
+ *     would need to be thread-safe, without the file save)
+ *   - MarkEntrySession: atomic cells, background coalesced regrade
+ * then commits the session and checks every grade against calculateGrade/checkPass.
+ *
+ * Usage:
+ *   java -cp <classes> com.school.tools.MarkEntryBenchmark [students] [writers] [seconds]
+ */
+public class MarkEntryBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int n = (args.length > 0) ? Integer.parseInt(args[0]) : 200_000;
+        int writers = (args.length > 1) ? Integer.parseInt(args[1]) : 32;
+        int seconds = (args.length > 2) ? Integer.parseInt(args[2]) : 5;
+
+        Path dir = DatasetGenerator.tempDir("mark-entry-bench-");
+        DatasetGenerator.writeDataset(dir, n, 42L);
+        ResultProcessor rp = new ResultProcessor(n, 10, dir.toString());
+        Student[] students = rp.getStudentsArray();
+        Subject[] subjects = rp.getSubjectsArray();
+        int count = rp.getStudentCount();
+        int subjectCount = rp.getSubjectCount();
+        System.out.println("Students: " + count + ", subjects: " + subjectCount + ", writers: " + writers
+                + ", CPUs: " + Runtime.getRuntime().availableProcessors());
+
+        // 1. one lock around mark + inline regrade
+        Object lock = new Object();
+        long locked = run(writers, seconds, (w, rnd) -> {
+            int j = w % subjectCount;
+            Student s = students[rnd.nextInt(count)];
+            synchronized (lock) {
+                s.setMarkAt(j, rnd.nextInt(subjects[j].getMaxMarks() + 1));
+                s.setGrade(rp.calculateGrade(s, subjects));
+                s.setPassed(rp.checkPass(s));
+            }
+        });
+        report("single lock, inline regrade", locked, seconds);
+
+        // 2. lock-free session
+        MarkEntrySession session = rp.openMarkEntry(5);
+        long lockFree = run(writers, seconds, (w, rnd) -> {
+            int j = w % subjectCount;
+            int id = session.getStudentId(rnd.nextInt(count));
+            session.enter(id, j, rnd.nextInt(session.getMaxMarks(j) + 1));
+        });
+        report("MarkEntrySession", lockFree, seconds);
+        System.out.printf("Speedup: %.2fx\n", (double) lockFree / Math.max(1, locked));
+
+        long start = System.nanoTime();
+        session.flush();
+        System.out.printf("Regrade: %,d students in %,d passes (%.1f marks per regrade), final flush %.2f ms\n",
+                session.getRegradedCount(), session.getRegradePasses(),
+                (double) lockFree / Math.max(1, session.getRegradedCount()), (System.nanoTime() - start) / 1e6);
+
+        start = System.nanoTime();
+        int applied = session.commit();
+        System.out.printf("Commit: %,d marks applied in %.0f ms\n", applied, (System.nanoTime() - start) / 1e6);
+
+        int wrong = 0;
+        for (int i = 0; i < rp.getStudentCount(); i++) {
+            Student s = rp.getStudentsArray()[i];
+            if (!rp.calculateGrade(s, subjects).equals(s.getGrade()) || rp.checkPass(s) != s.isPassed()) wrong++;
+        }
+        System.out.println("Grades consistent after commit: " + (wrong == 0 ? "yes" : "NO (" + wrong + " differ)"));
+    }
+
+    private static volatile boolean running;
+
+    private interface Op {
+        void apply(int writer, ThreadLocalRandom rnd);
+    }
+
+    /** total operations done by all writers in the given time */
+    private static long run(int writers, int seconds, Op op) throws InterruptedException {
+        long[] done = new long[writers * 16]; // padded: one slot per cache line
+        CountDownLatch ready = new CountDownLatch(writers);
+        CountDownLatch go = new CountDownLatch(1);
+        Thread[] threads = new Thread[writers];
+        running = true;
+        for (int w = 0; w < writers; w++) {
+            int writer = w;
+            threads[w] = new Thread(() -> {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                ready.countDown();
+                try { go.await(); } catch (InterruptedException e) { return; }
+                long ops = 0;
+                while (running) {
+                    for (int i = 0; i < 256; i++) op.apply(writer, rnd);
+                    ops += 256;
+                }
+                done[writer * 16] = ops;
+            }, "examiner-" + w);
+            threads[w].start();
+        }
+        ready.await();
+        go.countDown();
+        Thread.sleep(seconds * 1000L);
+        running = false;
+        long total = 0;
+        for (int w = 0; w < writers; w++) {
+            threads[w].join();
+            total += done[w * 16];
+        }
+        return total;
+    }
+
+    private static void report(String label, long ops, int seconds) {
+        System.out.printf("%-30s %,14d marks  %,12.0f marks/s\n", label, ops, (double) ops / seconds);
+    }
+}
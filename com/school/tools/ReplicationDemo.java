@@ -0,0 +1,119 @@
+package com.school.tools;
+
+import com.school.models.GraduatingStudent;
+import com.school.models.Student;
+import com.school.models.Subject;
+import com.school.processor.ResultProcessor;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * ReplicationDemo - two ResultProcessor instances on one machine, synced through
+ * delta files: full snapshot first, then several rounds of random changes on the
+ * primary, each shipped as "deltas since the replica's LSN". After every round the
+ * replica's result sheets and students.txt are compared with the primary's.
+ *
+ * Usage: java com.school.tools.ReplicationDemo [students] [rounds] [changesPerRound]
+ * The primary, replica and delta files are removed at exit (-Dschool.keepTemp=true keeps them).
+ */
+public class ReplicationDemo {
+
+    public static void main(String[] args) throws IOException {
+        int students = (args.length >= 1) ? Integer.parseInt(args[0]) : 2000;
+        int rounds = (args.length >= 2) ? Integer.parseInt(args[1]) : 5;
+        int changes = (args.length >= 3) ? Integer.parseInt(args[2]) : 50;
+
+        Path base = DatasetGenerator.tempDir("replication-demo-");
+        Path primaryDir = base.resolve("primary");
+        Path replicaDir = base.resolve("replica");
+        Files.createDirectories(replicaDir);
+        DatasetGenerator.writeDataset(primaryDir, students, 7L);
+
+        ResultProcessor primary = new ResultProcessor(students * 2, 6, primaryDir.toString());
+        ResultProcessor replica = new ResultProcessor(students * 2, 6, replicaDir.toString());
+
+        boolean allOk = ship(primary, replica, base.resolve("delta-0.txt"), "initial sync");
+        Random rnd = new Random(11);
+        int nextId = students + 1;
+        for (int r = 1; r <= rounds; r++) {
+            for (int c = 0; c < changes; c++) nextId = randomChange(primary, rnd, nextId);
+            if (r == 2) primary.addSubject(new Subject("Ethics", 50));
+            if (r == 4) primary.removeSubject("Python");
+            allOk &= ship(primary, replica, base.resolve("delta-" + r + ".txt"), "round " + r);
+        }
+
+        // applying an old stream again must change nothing
+        try (Reader in = Files.newBufferedReader(base.resolve("delta-" + rounds + ".txt"))) {
+            replica.applyDeltas(in);
+        }
+        allOk &= compare(primary, replica, "re-apply");
+
+        System.out.println(allOk ? "Replica matches primary." : "MISMATCH between primary and replica.");
+        if (!allOk) System.exit(1);
+    }
+
+    private static boolean ship(ResultProcessor primary, ResultProcessor replica, Path file, String label)
+            throws IOException {
+        int lines;
+        try (Writer out = Files.newBufferedWriter(file)) {
+            lines = primary.exportDeltas(out, replica.getReplicaEpoch(), replica.getReplicaLsn());
+        }
+        try (Reader in = Files.newBufferedReader(file)) {
+            replica.applyDeltas(in);
+        }
+        System.out.printf("%-14s: %6d delta lines, %9d bytes, replica at LSN %d%n",
+                label, lines, Files.size(file), replica.getReplicaLsn());
+        return compare(primary, replica, label);
+    }
+
+    private static int randomChange(ResultProcessor p, Random rnd, int nextId) {
+        int count = p.getStudentCount();
+        int id = p.getStudentsArray()[rnd.nextInt(count)].getId();
+        switch (rnd.nextInt(6)) {
+            case 0 -> p.updateStudentName(id, "Renamed" + rnd.nextInt(1000));
+            case 1 -> p.deleteStudent(id);
+            case 2 -> {
+                Student s = rnd.nextBoolean()
+                        ? new Student(nextId, "New" + nextId, 19, p.getSubjectCount())
+                        : new GraduatingStudent(nextId, "Grad" + nextId, 21, p.getSubjectCount(), "notes\twith tab", false);
+                p.addStudent(s);
+                nextId++;
+            }
+            case 3 -> {
+                Student s = p.getStudentById(id);
+                if (s instanceof GraduatingStudent) p.updateGraduationInfo(id, "final | transcript", true);
+            }
+            default -> {
+                Subject subj = p.getSubjectsArray()[rnd.nextInt(p.getSubjectCount())];
+                p.updateMarkForStudent(id, subj.getName(), rnd.nextInt(subj.getMaxMarks() + 1));
+            }
+        }
+        return nextId;
+    }
+
+    private static boolean compare(ResultProcessor a, ResultProcessor b, String label) {
+        if (a.getStudentCount() != b.getStudentCount() || a.getSubjectCount() != b.getSubjectCount()) {
+            System.out.println(label + ": counts differ");
+            return false;
+        }
+        for (int i = 0; i < a.getStudentCount(); i++) {
+            int id = a.getStudentsArray()[i].getId();
+            String sa = a.renderStudentDetails(id);
+            String sb = b.renderStudentDetails(id);
+            if (!sa.equals(sb)) {
+                System.out.println(label + ": student " + id + " differs");
+                return false;
+            }
+            if (a.getReplicationLog().getVersion(id) != b.getReplicationLog().getVersion(id)) {
+                System.out.println(label + ": version of " + id + " differs");
+                return false;
+            }
+        }
+        return true;
+    }
+}
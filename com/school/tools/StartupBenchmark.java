@@ -0,0 +1,121 @@
+package com.school.tools;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * StartupBenchmark - measures time-to-first-menu of MainUI for several dataset sizes.
+ *
+ * Each run starts a fresh JVM in its own copy of a generated dataset, waits
+ * until the first "Choice:" prompt appears on stdout, then answers "0" to exit.
+ * The reported time therefore includes JVM startup, class loading and data load,
+ * and no run sees files written by an earlier one.
+ *
+ * Usage: java -cp <classes> com.school.tools.StartupBenchmark [--runs N] [--cds] [size ...]
+ *   --cds  also create an AppCDS archive with a training run and measure with it
+ */
+public class StartupBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int runs = 5;
+        boolean cds = false;
+        List<Integer> sizes = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--runs")) runs = Integer.parseInt(args[++i]);
+            else if (args[i].equals("--cds")) cds = true;
+            else sizes.add(Integer.parseInt(args[i]));
+        }
+        if (sizes.isEmpty()) sizes = List.of(1_000, 10_000, 100_000, 500_000);
+
+        String javaBin = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        String cp = System.getProperty("java.class.path");
+
+        System.out.printf("%-10s | %-8s | %10s | %10s | %10s\n", "Students", "Mode", "Min ms", "Median ms", "Max ms");
+        System.out.println("----------------------------------------------------------");
+        for (int size : sizes) {
+            Path dataset = DatasetGenerator.tempDir("startup-bench-");
+            DatasetGenerator.writeDataset(dataset, size, 42L);
+
+            List<String> base = List.of(javaBin, "-Dschool.maxStudents=" + size, "-cp", cp);
+            report(size, "default", measure(base, dataset, runs));
+
+            if (cds) {
+                Path jsa = DatasetGenerator.tempDir("startup-cds-").resolve("app.jsa");
+                List<String> train = new ArrayList<>(base);
+                train.add(1, "-XX:ArchiveClassesAtExit=" + jsa);
+                timedRun(train, dataset); // training run writes the archive on exit
+
+                List<String> withCds = new ArrayList<>(base);
+                withCds.add(1, "-XX:SharedArchiveFile=" + jsa);
+                report(size, "appcds", measure(withCds, dataset, runs));
+            }
+            DatasetGenerator.deleteTree(dataset);
+        }
+    }
+
+    private static long[] measure(List<String> cmd, Path dataset, int runs) throws IOException, InterruptedException {
+        timedRun(cmd, dataset); // warm the OS file cache
+        long[] t = new long[runs];
+        for (int r = 0; r < runs; r++) t[r] = timedRun(cmd, dataset);
+        Arrays.sort(t);
+        return t;
+    }
+
+    // one run in a new copy of the dataset (copying is not timed), removed afterwards
+    private static long timedRun(List<String> cmd, Path dataset) throws IOException, InterruptedException {
+        Path dir = Files.createTempDirectory("startup-run-");
+        try {
+            try (Stream<Path> files = Files.list(dataset)) {
+                for (Path f : (Iterable<Path>) files::iterator) {
+                    if (Files.isRegularFile(f)) Files.copy(f, dir.resolve(f.getFileName()));
+                }
+            }
+            return timeToFirstMenu(cmd, dir);
+        } finally {
+            DatasetGenerator.deleteTree(dir);
+        }
+    }
+
+    private static void report(int size, String mode, long[] sortedNanos) {
+        System.out.printf("%-10d | %-8s | %10.1f | %10.1f | %10.1f\n", size, mode,
+                sortedNanos[0] / 1e6, sortedNanos[sortedNanos.length / 2] / 1e6,
+                sortedNanos[sortedNanos.length - 1] / 1e6);
+    }
+
+    // nanoseconds from process launch until the first menu prompt
+    static long timeToFirstMenu(List<String> command, Path dir) throws IOException, InterruptedException {
+        List<String> cmd = new ArrayList<>(command);
+        cmd.add("com.school.ui.MainUI");
+        ProcessBuilder pb = new ProcessBuilder(cmd).directory(dir.toFile()).redirectErrorStream(true);
+
+        long start = System.nanoTime();
+        Process p = pb.start();
+        long elapsed = -1;
+        byte[] marker = "Choice:".getBytes();
+        int matched = 0;
+        try (InputStream in = p.getInputStream(); OutputStream out = p.getOutputStream()) {
+            int b;
+            while ((b = in.read()) != -1) {
+                matched = (b == marker[matched]) ? matched + 1 : (b == marker[0] ? 1 : 0);
+                if (matched == marker.length) {
+                    elapsed = System.nanoTime() - start;
+                    break;
+                }
+            }
+            out.write("0\n".getBytes());
+            out.flush();
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        p.waitFor();
+        if (elapsed < 0) throw new IOException("MainUI exited before showing the menu (exit " + p.exitValue() + ")");
+        return elapsed;
+    }
+}
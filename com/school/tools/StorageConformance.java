@@ -0,0 +1,228 @@
+package com.school.tools;
+
+import com.school.models.GraduatingStudent;
+import com.school.models.Student;
+import com.school.models.Subject;
+import com.school.processor.MarkEntrySession;
+import com.school.processor.ResultProcessor;
+import com.school.processor.StudentFileFormat;
+import com.school.processor.storage.JdbcStorageEngine;
+import com.school.processor.storage.StorageEngine;
+import com.school.processor.storage.TextFileStorageEngine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * StorageConformance - runs the same checks and measurements against every
+ * storage engine, so they can be swapped without changing behaviour.
+ *
+ * Checks (each through ResultProcessor, then reopened from storage):
+ *   empty store, round trip (graduating students, '|' in transcripts, missing marks),
+ *   row updates (mark, name, graduation, delete), subject removal, batch and
+ *   mark-entry commit.
+ * Benchmark: full save, full load, median single-mark update, bytes on disk.
+ *
+ * The text engine always runs. The JDBC engine runs when an H2 or SQLite driver
+ * is on the classpath, e.g.
+ *   java -cp <classes>:h2.jar com.school.tools.StorageConformance [students]
+ */
+public class StorageConformance {
+
+    private interface EngineFactory {
+        StorageEngine open(Path dir) throws IOException;
+    }
+
+    private static int failures;
+
+    public static void main(String[] args) throws Exception {
+        int n = (args.length > 0) ? Integer.parseInt(args[0]) : 100_000;
+        System.setProperty("school.archive", "false");
+        System.setProperty("school.audit", "false");
+
+        List<String> names = new ArrayList<>();
+        List<EngineFactory> engines = new ArrayList<>();
+        names.add("text");
+        engines.add(dir -> new TextFileStorageEngine(dir.toString()));
+        String jdbcPrefix = jdbcUrlPrefix();
+        if (jdbcPrefix != null) {
+            names.add("jdbc");
+            engines.add(dir -> new JdbcStorageEngine(jdbcPrefix + dir.resolve("school").toAbsolutePath()));
+        } else {
+            System.out.println("jdbc: skipped (no H2 or SQLite driver on the classpath)");
+        }
+
+        for (int e = 0; e < engines.size(); e++) {
+            System.out.println("\n== " + names.get(e) + " ==");
+            int before = failures;
+            conformance(engines.get(e));
+            System.out.println(failures == before ? "conformance: all checks passed"
+                                                  : "conformance: " + (failures - before) + " checks FAILED");
+        }
+
+        Path source = DatasetGenerator.tempDir("storage-bench-src-");
+        DatasetGenerator.writeDataset(source, n, 42L);
+        ResultProcessor rp = new ResultProcessor(n, 10, source.toString(), new TextFileStorageEngine(source.toString()));
+        System.out.printf("\nBenchmark: %,d students, %d subjects%n", rp.getStudentCount(), rp.getSubjectCount());
+        System.out.printf("%-6s %10s %10s %14s %12s%n", "engine", "save ms", "load ms", "mark upd. ms", "disk MB");
+        for (int e = 0; e < engines.size(); e++) benchmark(names.get(e), engines.get(e), rp, n);
+
+        if (failures > 0) System.exit(1);
+    }
+
+    // "jdbc:h2:file:" or "jdbc:sqlite:" when that driver can be loaded
+    private static String jdbcUrlPrefix() {
+        String[][] drivers = {{"org.h2.Driver", "jdbc:h2:file:"}, {"org.sqlite.JDBC", "jdbc:sqlite:"}};
+        for (String[] d : drivers) {
+            try {
+                Class.forName(d[0]);
+                return d[1];
+            } catch (ClassNotFoundException ignored) {
+                // try the next one
+            }
+        }
+        return null;
+    }
+
+    // ------------------ CONFORMANCE ------------------
+
+    private static void conformance(EngineFactory f) throws IOException {
+        Path dir = DatasetGenerator.tempDir("storage-check-");
+        ResultProcessor rp = open(f, dir);
+        check(rp.getSubjectCount() == 0 && rp.getStudentCount() == 0, "empty store loads as empty");
+
+        rp.addSubject(new Subject("Maths", 100));
+        rp.addSubject(new Subject("Art", 50));
+        rp.addSubject(new Subject("Music", 80));
+        rp.addStudent(new Student(1, "Asha", 16, 3));
+        rp.addStudent(new GraduatingStudent(2, "Ben", 18, 3, "line one|line two", false));
+        rp.addStudent(new GraduatingStudent(3, "Chen", 18, 3, "", true));
+        rp.addStudent(new Student(4, "Dara", 17, 3));
+        rp.updateMarkForStudent(1, "Maths", 91);
+        rp.updateMarkForStudent(1, "Art", 40);
+        rp.updateMarkForStudent(2, "Music", 12);
+        rp.updateMarkForStudent(3, "Maths", 55);
+        String expected = snapshot(rp);
+        rp = reopen(f, dir, rp);
+        check(snapshot(rp).equals(expected), "round trip keeps subjects, students, transcripts and missing marks");
+        check("Ben".equals(rp.getStudentById(2).getName()) && rp.getStudentById(2) instanceof GraduatingStudent
+                && "line one|line two".equals(((GraduatingStudent) rp.getStudentById(2)).getTranscript()),
+                "graduating student and transcript with '|' restored");
+        check(rp.getStudentById(4).getMarkAt(0) == -1, "missing mark stays missing");
+
+        rp.updateMarkForStudent(4, "Art", 33);
+        rp.updateMarkForStudent(1, "Maths", 12);
+        rp.updateStudentName(1, "Asha K");
+        rp.updateGraduationInfo(2, "rewritten", true);
+        rp.deleteStudent(3);
+        expected = snapshot(rp);
+        rp = reopen(f, dir, rp);
+        check(snapshot(rp).equals(expected), "row updates (mark, name, graduation, delete) persist");
+        check(rp.getStudentById(3) == null && rp.getStudentCount() == 3, "deleted student stays deleted");
+
+        rp.removeSubject("Art");
+        expected = snapshot(rp);
+        rp = reopen(f, dir, rp);
+        check(snapshot(rp).equals(expected) && rp.getSubjectCount() == 2, "subject removal drops its column");
+        rp.addSubject(new Subject("Art", 50));
+        rp = reopen(f, dir, rp);
+        check(rp.getStudentById(4).getMarkAt(2) == -1, "re-added subject starts without marks");
+        check(rp.getSubjectsArray()[0].getId() == 1 && rp.getSubjectsArray()[1].getId() == 3
+                && rp.getSubjectsArray()[2].getId() == 4, "subject IDs are kept and never reused");
+
+        rp.beginBatch();
+        for (int id = 10; id < 60; id++) {
+            rp.addStudent(new Student(id, "Batch " + id, 15, rp.getSubjectCount()));
+            rp.updateMarkForStudent(id, "Maths", id);
+        }
+        rp.deleteStudent(10);
+        rp.endBatch();
+        expected = snapshot(rp);
+        rp = reopen(f, dir, rp);
+        check(snapshot(rp).equals(expected) && rp.getStudentCount() == 52, "batch of 101 changes persists");
+
+        try (MarkEntrySession session = rp.openMarkEntry(1)) {
+            for (int id = 11; id < 60; id++) session.enter(id, 1, id % 80);
+            session.commit();
+        }
+        expected = snapshot(rp);
+        rp = reopen(f, dir, rp);
+        check(snapshot(rp).equals(expected) && rp.getStudentById(42).getMarkAt(1) == 42,
+                "mark-entry session commit persists");
+        check(rp.calculateGrade(rp.getStudentById(42), rp.getSubjectsArray()).equals(rp.getStudentById(42).getGrade()),
+                "grades recomputed on load");
+        rp.getStorage().close();
+    }
+
+    private static ResultProcessor open(EngineFactory f, Path dir) throws IOException {
+        return new ResultProcessor(1000, 10, dir.toString(), f.open(dir));
+    }
+
+    private static ResultProcessor reopen(EngineFactory f, Path dir, ResultProcessor old) throws IOException {
+        old.getStorage().close();
+        return open(f, dir);
+    }
+
+    // subjects and students as stored (grades are derived, see the last check)
+    private static String snapshot(ResultProcessor rp) {
+        StringBuilder sb = new StringBuilder();
+        for (int j = 0; j < rp.getSubjectCount(); j++) {
+            Subject s = rp.getSubjectsArray()[j];
+            sb.append(s.getName()).append('|').append(s.getMaxMarks()).append('\n');
+        }
+        for (int i = 0; i < rp.getStudentCount(); i++) {
+            Student s = rp.getStudentsArray()[i];
+            sb.append(StudentFileFormat.format(s)).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static void check(boolean ok, String what) {
+        System.out.println((ok ? "  ok    " : "  FAIL  ") + what);
+        if (!ok) failures++;
+    }
+
+    // ------------------ BENCHMARK ------------------
+
+    private static void benchmark(String name, EngineFactory f, ResultProcessor source, int n) throws IOException {
+        Path dir = DatasetGenerator.tempDir("storage-bench-");
+        StorageEngine engine = f.open(dir);
+        long start = System.nanoTime();
+        engine.saveSchema(source.getSchema());
+        engine.saveStudents(source.getStudentsArray(), source.getStudentCount(), source.getSchema());
+        double saveMs = (System.nanoTime() - start) / 1e6;
+        engine.close();
+
+        start = System.nanoTime();
+        ResultProcessor rp = new ResultProcessor(n, 10, dir.toString(), f.open(dir));
+        double loadMs = (System.nanoTime() - start) / 1e6;
+        if (rp.getStudentCount() != source.getStudentCount()) {
+            System.out.println(name + ": loaded " + rp.getStudentCount() + " of " + source.getStudentCount());
+            failures++;
+        }
+
+        Random rnd = new Random(7);
+        int updates = 50;
+        double[] ms = new double[updates];
+        for (int k = 0; k < updates; k++) {
+            Student s = rp.getStudentsArray()[rnd.nextInt(rp.getStudentCount())];
+            long t = System.nanoTime();
+            rp.updateMarkForStudent(s.getId(), rp.getSubjectsArray()[0].getName(), rnd.nextInt(101));
+            ms[k] = (System.nanoTime() - t) / 1e6;
+        }
+        Arrays.sort(ms);
+        rp.getStorage().close();
+
+        long bytes;
+        try (Stream<Path> files = Files.walk(dir)) {
+            bytes = files.filter(Files::isRegularFile).mapToLong(p -> p.toFile().length()).sum();
+        }
+        System.out.printf("%-6s %10.0f %10.0f %14.3f %12.1f%n", name, saveMs, loadMs, ms[updates / 2], bytes / 1e6);
+    }
+}
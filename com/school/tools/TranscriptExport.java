@@ -0,0 +1,47 @@
+package com.school.tools;
+
+import com.school.processor.ResultProcessor;
+import com.school.processor.transcript.TranscriptFormat;
+import com.school.processor.transcript.TranscriptJob;
+
+import java.io.File;
+
+/**
+ * TranscriptExport - runs the bulk transcript job from the command line.
+ *
+ * Usage:
+ *   java com.school.tools.TranscriptExport [--data dir] [--out dir] [--zip]
+ *        [--formats text,json] [--threads N]
+ *
+ * Rerunning with the same --out continues an interrupted run.
+ */
+public class TranscriptExport {
+
+    public static void main(String[] args) throws Exception {
+        String dataDir = null;
+        String out = "transcripts";
+        boolean zip = false;
+        String formats = "text,json";
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--data" -> dataDir = args[++i];
+                case "--out" -> out = args[++i];
+                case "--zip" -> zip = true;
+                case "--formats" -> formats = args[++i];
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                default -> {
+                    System.out.println("Unknown option: " + args[i]);
+                    return;
+                }
+            }
+        }
+        String[] names = formats.split(",");
+        TranscriptFormat[] fmts = new TranscriptFormat[names.length];
+        for (int i = 0; i < names.length; i++) fmts[i] = TranscriptFormat.valueOf(names[i].trim().toUpperCase());
+
+        ResultProcessor rp = new ResultProcessor(Integer.getInteger("school.maxStudents", 1_000_000), 10, dataDir);
+        TranscriptJob job = new TranscriptJob(rp, new File(out), fmts, zip, threads);
+        System.out.println(job.run());
+    }
+}
@@ -4,8 +4,18 @@ import com.school.models.Student;
 import com.school.models.Subject;
 import com.school.models.GraduatingStudent;
 import com.school.processor.ResultProcessor;
-
+import com.school.processor.audit.AuditEntry;
+import com.school.processor.transcript.TranscriptFormat;
+import com.school.processor.transcript.TranscriptJob;
+import com.school.processor.validate.ValidationReport;
+
+import java.io.*;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.InputMismatchException;
+import java.util.List;
 import java.util.Scanner;
 
 /**
@@ -18,11 +28,15 @@ public class MainUI {
     private static final String ADMIN_USERNAME = "admin";
     private static final String ADMIN_PASSWORD = "1234";
 
+    // student capacity can be raised for large datasets: java -Dschool.maxStudents=100000 ...
+    private static final int MAX_STUDENTS = Integer.getInteger("school.maxStudents", 200);
+    private static final int STUDENTS_PAGE_SIZE = 25;
+
     private Scanner sc = new Scanner(System.in);
     private ResultProcessor processor;
 
     public MainUI() {
-        processor = new ResultProcessor(200, 5); // max 200 students, up to 5 subjects
+        processor = new ResultProcessor(MAX_STUDENTS, 5); // max 200 students by default, up to 5 subjects
     }
 
     public void start() {
@@ -64,6 +78,7 @@ public class MainUI {
         String p = sc.next();
         if (ADMIN_USERNAME.equals(u) && ADMIN_PASSWORD.equals(p)) {
             System.out.println("Admin login successful.");
+            processor.setAuditActor(u);
             return true;
         } else {
             System.out.println("Invalid credentials.");
@@ -87,6 +102,14 @@ public class MainUI {
             System.out.println("7. View Student Result");
             System.out.println("8. Subject-wise Analysis");
             System.out.println("9. Update Graduation Details");
+            System.out.println("10. Subject Distribution Report");
+            System.out.println("11. Result Sheet Cache Stats");
+            System.out.println("12. Audit Trail of a Student");
+            System.out.println("13. View Student Result As Of Date");
+            System.out.println("14. Archive Graduated Students");
+            System.out.println("15. Export All Transcripts");
+            System.out.println("16. Validate Data Files");
+            System.out.println("17. Subject Correlation Report");
             System.out.println("0. Logout");
             System.out.print("Choice: ");
             int ch = readIntSafe();
@@ -96,11 +119,20 @@ public class MainUI {
                 case 2 -> updateStudentFlow();
                 case 3 -> deleteStudentFlow();
                 case 4 -> enterMarksFlow();
-                case 5 -> processor.listAllStudentsBrief();
+                case 5 -> viewStudentsFlow();
                 case 6 -> manageSubjectsMenu();
                 case 7 -> viewStudentResultAdmin();
                 case 8 -> processor.displaySubjectAnalysis();
                 case 9 -> updateGraduationFlow();
+                case 10 -> processor.displaySubjectDistribution();
+                case 11 -> System.out.println(processor.getResultSheetCache());
+                case 12 -> auditTrailFlow();
+                case 13 -> resultAsOfFlow();
+                case 14 -> System.out.println("Archived " + processor.archiveGraduated() + " graduated students ("
+                        + processor.getArchivedCount() + " in archive).");
+                case 15 -> exportTranscriptsFlow();
+                case 16 -> validateDataFlow();
+                case 17 -> processor.displaySubjectCorrelation();
                 case 0 -> back = true;
                 default -> System.out.println("Invalid choice.");
             }
@@ -117,6 +149,76 @@ public class MainUI {
         processor.displayStudentDetails(id);
     }
 
+    private void validateDataFlow() {
+        System.out.println("\n-- Validate Data Files --");
+        try {
+            ValidationReport report = processor.validateDataFiles();
+            if (report == null) {
+                System.out.println("The " + processor.getStorage().name() + " storage engine has no file check.");
+                return;
+            }
+            System.out.print(report);
+        } catch (IOException e) {
+            System.out.println("Could not read data files: " + e.getMessage());
+        }
+        System.out.println("(Repair with: java com.school.tools.DataCheck --repair, while the application is not running.)");
+    }
+
+    private void exportTranscriptsFlow() {
+        System.out.println("\n-- Export All Transcripts --");
+        System.out.print("Output directory (same directory resumes an interrupted export): ");
+        String dir = readLineTrim();
+        if (dir.isEmpty()) dir = "transcripts";
+        System.out.print("1. One file per student  2. Zip archive : ");
+        boolean zip = readIntSafe() == 2;
+        TranscriptJob job = new TranscriptJob(processor, new File(dir),
+                new TranscriptFormat[] {TranscriptFormat.TEXT, TranscriptFormat.JSON}, zip,
+                Runtime.getRuntime().availableProcessors());
+        try {
+            System.out.println(job.run());
+        } catch (IOException e) {
+            System.out.println("Export failed: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.out.println("Export interrupted; run it again to continue.");
+        }
+    }
+
+    private void auditTrailFlow() {
+        System.out.println("\n-- Audit Trail --");
+        System.out.print("Enter Student ID: ");
+        int id = readIntSafe();
+        try {
+            List<AuditEntry> history = processor.getAuditHistory(id);
+            if (history.isEmpty()) {
+                System.out.println("No recorded changes for this student.");
+                return;
+            }
+            for (AuditEntry e : history) System.out.println(e);
+        } catch (IOException e) {
+            System.out.println("Could not read audit log: " + e.getMessage());
+        }
+    }
+
+    private void resultAsOfFlow() {
+        System.out.println("\n-- Result As Of --");
+        System.out.print("Enter Student ID: ");
+        int id = readIntSafe();
+        System.out.print("Enter date and time (yyyy-MM-dd HH:mm): ");
+        String when = readLineTrim();
+        try {
+            LocalDateTime t = LocalDateTime.parse(when, DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"));
+            long millis = t.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() + 59_999; // whole minute
+            String sheet = processor.renderStudentDetailsAsOf(id, millis);
+            if (sheet == null) System.out.println("Student did not exist at that time (or auditing is off).");
+            else System.out.print("As of " + when + "\n" + sheet);
+        } catch (DateTimeParseException e) {
+            System.out.println("Invalid date/time.");
+        } catch (IOException e) {
+            System.out.println("Could not read audit log: " + e.getMessage());
+        }
+    }
+
     // -----------------------------------
     // STUDENT FUNCTIONS
     // -----------------------------------
@@ -210,6 +312,27 @@ public class MainUI {
         System.out.println(ok ? "Marks updated." : "Failed to update marks.");
     }
 
+    // paged so a large roster does not scroll past in one go
+    private void viewStudentsFlow() {
+        int page = 0;
+        while (true) {
+            int pages = processor.listStudentsPage(page, STUDENTS_PAGE_SIZE);
+            if (pages <= 1) return;
+            System.out.print("n = next, p = previous, number = go to page, q = back: ");
+            String in = readLineTrim();
+            if (in.equalsIgnoreCase("n")) page = Math.min(page + 1, pages - 1);
+            else if (in.equalsIgnoreCase("p")) page = Math.max(page - 1, 0);
+            else if (in.equalsIgnoreCase("q") || in.isEmpty()) return;
+            else {
+                try {
+                    page = Math.max(0, Math.min(Integer.parseInt(in) - 1, pages - 1));
+                } catch (NumberFormatException e) {
+                    System.out.println("Invalid choice.");
+                }
+            }
+        }
+    }
+
     // -----------------------------------
     // SUBJECT MANAGEMENT
     // -----------------------------------
@@ -332,7 +455,34 @@ public class MainUI {
     // MAIN
     // -----------------------------------
     public static void main(String[] args) {
+        if (args.length >= 1 && args[0].equals("--script")) {
+            System.exit(runScript(args.length >= 2 ? args[1] : "-"));
+        }
         MainUI ui = new MainUI();
         ui.start();
     }
+
+    /**
+     * runScript - batch mode: java com.school.ui.MainUI --script ops.txt   (or "-" for stdin)
+     * Results go to stdout as JSON lines; processor notes are sent to stderr.
+     * Exit code is 1 if any command failed.
+     */
+    private static int runScript(String path) {
+        PrintStream results = System.out;
+        System.setOut(System.err); // keep stdout machine-readable
+        ResultProcessor processor = new ResultProcessor(MAX_STUDENTS, 5);
+        processor.setAuditActor("script");
+        // closing out flushes whatever is still buffered, even when the run fails
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(results), 1 << 16);
+             Reader in = path.equals("-") ? new InputStreamReader(System.in) : new FileReader(path)) {
+            int failed = new ScriptRunner(processor, out).run(in);
+            return (failed == 0) ? 0 : 1;
+        } catch (IOException e) {
+            System.err.println("Script error: " + e.getMessage());
+            return 2;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 2;
+        }
+    }
 }
@@ -0,0 +1,137 @@
+package com.school.ui;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ScriptCommand - one parsed line of a command script (see ScriptRunner).
+ * Parsing happens up front so bad lines are reported with their line number
+ * before anything runs against the processor.
+ */
+public class ScriptCommand {
+
+    public enum Op {
+        ADD_STUDENT,      // ADD_STUDENT <id> <name> <age>
+        ADD_GRADUATING,   // ADD_GRADUATING <id> <name> <age> <graduated> [transcript]
+        UPDATE_NAME,      // UPDATE_NAME <id> <name>
+        DELETE,           // DELETE <id>
+        MARK,             // MARK <id> <subject> <marks>
+        GRADUATION,       // GRADUATION <id> <graduated> [transcript]
+        ADD_SUBJECT,      // ADD_SUBJECT <name> <maxMarks>
+        REMOVE_SUBJECT,   // REMOVE_SUBJECT <name>
+        SHOW,             // SHOW <id>
+        LIST,             // LIST
+        ANALYSIS,         // ANALYSIS
+        SAVE              // SAVE  (write pending changes now)
+    }
+
+    private final int lineNo;
+    private final Op op;
+    private final String[] args;
+    private final String error; // non-null when the line could not be parsed
+
+    private ScriptCommand(int lineNo, Op op, String[] args, String error) {
+        this.lineNo = lineNo;
+        this.op = op;
+        this.args = args;
+        this.error = error;
+    }
+
+    public int getLineNo() { return lineNo; }
+    public Op getOp() { return op; }
+    public String getError() { return error; }
+    public boolean isValid() { return error == null; }
+
+    public String arg(int i) { return (i < args.length) ? args[i] : null; }
+    public int intArg(int i) { return Integer.parseInt(args[i]); }
+    public int argCount() { return args.length; }
+
+    /**
+     * parse - returns null for blank lines and # comments.
+     * Arguments are separated by whitespace; use double quotes for values with spaces.
+     */
+    public static ScriptCommand parse(int lineNo, String line) {
+        String trimmed = line.trim();
+        if (trimmed.isEmpty() || trimmed.startsWith("#")) return null;
+
+        List<String> tokens;
+        try {
+            tokens = tokenize(trimmed);
+        } catch (IllegalArgumentException e) {
+            return new ScriptCommand(lineNo, null, new String[0], e.getMessage());
+        }
+        Op op;
+        try {
+            op = Op.valueOf(tokens.get(0).toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return new ScriptCommand(lineNo, null, new String[0], "Unknown command: " + tokens.get(0));
+        }
+        String[] args = tokens.subList(1, tokens.size()).toArray(new String[0]);
+        String error = validate(op, args);
+        return new ScriptCommand(lineNo, op, args, error);
+    }
+
+    private static String validate(Op op, String[] a) {
+        try {
+            switch (op) {
+                case ADD_STUDENT -> { need(a, 3, 3); Integer.parseInt(a[0]); Integer.parseInt(a[2]); }
+                case ADD_GRADUATING -> { need(a, 4, 5); Integer.parseInt(a[0]); Integer.parseInt(a[2]); bool(a[3]); }
+                case UPDATE_NAME -> { need(a, 2, 2); Integer.parseInt(a[0]); }
+                case DELETE, SHOW -> { need(a, 1, 1); Integer.parseInt(a[0]); }
+                case MARK -> { need(a, 3, 3); Integer.parseInt(a[0]); Integer.parseInt(a[2]); }
+                case GRADUATION -> { need(a, 2, 3); Integer.parseInt(a[0]); bool(a[1]); }
+                case ADD_SUBJECT -> { need(a, 2, 2); Integer.parseInt(a[1]); }
+                case REMOVE_SUBJECT -> need(a, 1, 1);
+                case LIST, ANALYSIS, SAVE -> need(a, 0, 0);
+            }
+            return null;
+        } catch (NumberFormatException e) {
+            return op + ": expected a number, got " + e.getMessage().replace("For input string: ", "");
+        } catch (IllegalArgumentException e) {
+            return op + ": " + e.getMessage();
+        }
+    }
+
+    private static void need(String[] a, int min, int max) {
+        if (a.length < min || a.length > max) {
+            throw new IllegalArgumentException("expected " + (min == max ? String.valueOf(min) : min + "-" + max)
+                    + " arguments, got " + a.length);
+        }
+    }
+
+    private static void bool(String v) {
+        if (!v.equalsIgnoreCase("true") && !v.equalsIgnoreCase("false")) {
+            throw new IllegalArgumentException("expected true/false, got " + v);
+        }
+    }
+
+    static List<String> tokenize(String line) {
+        List<String> out = new ArrayList<>();
+        StringBuilder cur = new StringBuilder();
+        boolean inQuotes = false;
+        boolean hasToken = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (inQuotes) {
+                if (c == '\\' && i + 1 < line.length()) cur.append(line.charAt(++i));
+                else if (c == '"') inQuotes = false;
+                else cur.append(c);
+            } else if (c == '"') {
+                inQuotes = true;
+                hasToken = true;
+            } else if (Character.isWhitespace(c)) {
+                if (hasToken) {
+                    out.add(cur.toString());
+                    cur.setLength(0);
+                    hasToken = false;
+                }
+            } else {
+                cur.append(c);
+                hasToken = true;
+            }
+        }
+        if (inQuotes) throw new IllegalArgumentException("Unterminated quote");
+        if (hasToken) out.add(cur.toString());
+        return out;
+    }
+}
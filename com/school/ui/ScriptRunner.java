@@ -0,0 +1,256 @@
+package com.school.ui;
+
+import com.school.models.GraduatingStudent;
+import com.school.models.Student;
+import com.school.models.Subject;
+import com.school.processor.ResultProcessor;
+import com.school.processor.SubjectStats;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * ScriptRunner - non-interactive command mode (MainUI --script file | -).
+ *
+ * Pipeline:
+ *  reader thread : reads and parses lines into ScriptCommands -> bounded queue
+ *  caller thread : executes commands against ResultProcessor, writes one JSON
+ *                  object per command to the output
+ *
+ * The whole script runs inside processor.beginBatch()/endBatch(), so the data
+ * files are written once at the end (or at an explicit SAVE), not per mutation.
+ * A final {"summary":...} line reports counts and elapsed time.
+ */
+public class ScriptRunner {
+
+    private static final ScriptCommand END = ScriptCommand.parse(0, "SAVE"); // queue sentinel
+
+    private final ResultProcessor processor;
+    private final Writer out;
+    private final StringBuilder sb = new StringBuilder(256);
+
+    public ScriptRunner(ResultProcessor processor, Writer out) {
+        this.processor = processor;
+        this.out = out;
+    }
+
+    /**
+     * run - executes the script; returns the number of commands that failed.
+     */
+    public int run(Reader script) throws IOException, InterruptedException {
+        BlockingQueue<ScriptCommand> queue = new ArrayBlockingQueue<>(4096);
+        final IOException[] readError = new IOException[1];
+
+        Thread reader = new Thread(() -> {
+            try (BufferedReader br = new BufferedReader(script, 1 << 16)) {
+                String line;
+                int lineNo = 0;
+                while ((line = br.readLine()) != null) {
+                    lineNo++;
+                    ScriptCommand cmd = ScriptCommand.parse(lineNo, line);
+                    if (cmd != null) queue.put(cmd);
+                }
+            } catch (IOException e) {
+                readError[0] = e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                try { queue.put(END); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+            }
+        }, "script-reader");
+        reader.setDaemon(true);
+        reader.start();
+
+        long start = System.nanoTime();
+        int executed = 0;
+        int failed = 0;
+        processor.beginBatch();
+        try {
+            while (true) {
+                ScriptCommand cmd = queue.take();
+                if (cmd == END) break;
+                executed++;
+                if (!execute(cmd)) failed++;
+            }
+        } finally {
+            processor.endBatch();
+        }
+        reader.join();
+        if (readError[0] != null) throw readError[0];
+
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        sb.setLength(0);
+        sb.append("{\"summary\":true,\"commands\":").append(executed)
+          .append(",\"failed\":").append(failed)
+          .append(",\"millis\":").append(millis).append("}\n");
+        out.append(sb);
+        out.flush();
+        return failed;
+    }
+
+    private boolean execute(ScriptCommand cmd) throws IOException {
+        sb.setLength(0);
+        sb.append("{\"line\":").append(cmd.getLineNo());
+        if (!cmd.isValid()) {
+            sb.append(",\"ok\":false,\"error\":");
+            json(cmd.getError());
+            sb.append("}\n");
+            out.append(sb);
+            return false;
+        }
+        sb.append(",\"cmd\":\"").append(cmd.getOp()).append('"');
+
+        boolean ok;
+        switch (cmd.getOp()) {
+            case ADD_STUDENT -> ok = processor.addStudent(
+                    new Student(cmd.intArg(0), cmd.arg(1), cmd.intArg(2), processor.getSubjectCount()));
+            case ADD_GRADUATING -> ok = processor.addStudent(
+                    new GraduatingStudent(cmd.intArg(0), cmd.arg(1), cmd.intArg(2), processor.getSubjectCount(),
+                            cmd.argCount() > 4 ? cmd.arg(4) : "", Boolean.parseBoolean(cmd.arg(3))));
+            case UPDATE_NAME -> ok = processor.updateStudentName(cmd.intArg(0), cmd.arg(1));
+            case DELETE -> ok = processor.deleteStudent(cmd.intArg(0));
+            case MARK -> ok = processor.updateMarkForStudent(cmd.intArg(0), cmd.arg(1), cmd.intArg(2));
+            case GRADUATION -> ok = updateGraduation(cmd);
+            case ADD_SUBJECT -> ok = processor.addSubject(new Subject(cmd.arg(0), cmd.intArg(1)));
+            case REMOVE_SUBJECT -> ok = processor.removeSubject(cmd.arg(0));
+            case SHOW -> ok = show(cmd.intArg(0));
+            case LIST -> ok = list();
+            case ANALYSIS -> ok = analysis();
+            case SAVE -> {
+                processor.flushPending();
+                ok = true;
+            }
+            default -> ok = false;
+        }
+        sb.append(",\"ok\":").append(ok).append("}\n");
+        out.append(sb);
+        return ok;
+    }
+
+    // keep the existing transcript when none is given
+    private boolean updateGraduation(ScriptCommand cmd) {
+        Student s = processor.getStudentById(cmd.intArg(0));
+        if (!(s instanceof GraduatingStudent)) return false;
+        String transcript = (cmd.argCount() > 2) ? cmd.arg(2) : ((GraduatingStudent) s).getTranscript();
+        return processor.updateGraduationInfo(cmd.intArg(0), transcript, Boolean.parseBoolean(cmd.arg(1)));
+    }
+
+    private boolean show(int id) {
+        Student s = processor.getStudentById(id);
+        if (s == null) return false;
+        sb.append(",\"student\":");
+        appendStudent(s, true);
+        return true;
+    }
+
+    private boolean list() {
+        sb.append(",\"students\":[");
+        Student[] arr = processor.getStudentsArray();
+        for (int i = 0; i < processor.getStudentCount(); i++) {
+            if (i > 0) sb.append(',');
+            appendStudent(arr[i], false);
+            if (sb.length() > 1 << 16) flushPartial();
+        }
+        sb.append(']');
+        return true;
+    }
+
+    private boolean analysis() {
+        sb.append(",\"subjects\":[");
+        Subject[] subjects = processor.getSubjectsArray();
+        for (int j = 0; j < processor.getSubjectCount(); j++) {
+            SubjectStats st = processor.getSubjectStats(j);
+            double threshold = subjects[j].getMaxMarks() * processor.getPassPercent() / 100.0;
+            long pass = st.countAtLeast(threshold);
+            if (j > 0) sb.append(',');
+            sb.append("{\"name\":");
+            json(subjects[j].getName());
+            sb.append(",\"max\":").append(subjects[j].getMaxMarks())
+              .append(",\"count\":").append(st.getCount())
+              .append(",\"mean\":").append(round2(st.getMean()))
+              .append(",\"stddev\":").append(round2(st.getStdDev()))
+              .append(",\"median\":").append(st.getMedian())
+              .append(",\"highest\":").append(st.getHighest())
+              .append(",\"lowest\":").append(st.getLowest())
+              .append(",\"pass\":").append(pass)
+              .append(",\"fail\":").append(st.getCount() - pass)
+              .append(",\"topper\":");
+            json(processor.getSubjectTopper(j));
+            sb.append('}');
+        }
+        sb.append(']');
+        return true;
+    }
+
+    private void appendStudent(Student s, boolean withMarks) {
+        Subject[] subjects = processor.getSubjectsArray();
+        sb.append("{\"id\":").append(s.getId()).append(",\"name\":");
+        json(s.getName());
+        sb.append(",\"age\":").append(s.getAge())
+          .append(",\"grade\":\"").append(processor.calculateGrade(s, subjects)).append('"')
+          .append(",\"passed\":").append(processor.checkPass(s));
+        if (s instanceof GraduatingStudent) {
+            GraduatingStudent gs = (GraduatingStudent) s;
+            sb.append(",\"graduated\":").append(gs.isGraduationStatus());
+            if (withMarks) {
+                sb.append(",\"transcript\":");
+                json(gs.getTranscript());
+            }
+        }
+        if (withMarks) {
+            sb.append(",\"marks\":{");
+            for (int j = 0; j < processor.getSubjectCount(); j++) {
+                if (j > 0) sb.append(',');
+                json(subjects[j].getName());
+                double m = s.getMarkAt(j);
+                sb.append(':');
+                if (m == -1) sb.append("null");
+                else sb.append((int) m);
+            }
+            sb.append('}');
+        }
+        sb.append('}');
+    }
+
+    // large LIST output is streamed instead of growing one huge buffer
+    private void flushPartial() {
+        try {
+            out.append(sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        sb.setLength(0);
+    }
+
+    private static double round2(double v) {
+        return Math.round(v * 100.0) / 100.0;
+    }
+
+    private void json(String s) {
+        if (s == null) {
+            sb.append("null");
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+                }
+            }
+        }
+        sb.append('"');
+    }
+}